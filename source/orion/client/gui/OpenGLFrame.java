@@ -2,6 +2,7 @@ package orion.client.gui;
 
 import java.awt.Dimension;
 import java.awt.Point;
+import java.io.File;
 import java.util.List;
 
 import javax.swing.JFrame;
@@ -18,8 +19,11 @@ import com.jogamp.opengl.util.FPSAnimator;
 import orion.sdk.Version;
 import orion.sdk.graphics.buffers.VertexBuffer;
 import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.shading.glsl.ProgramBinaryCache;
+import orion.sdk.graphics.shading.glsl.ShaderManager;
 import orion.sdk.graphics.util.OpenGLContext;
 import orion.sdk.graphics.util.OpenGLManager;
+import orion.sdk.graphics.util.OpenGLState;
 import orion.sdk.input.InputManager;
 import orion.sdk.monitoring.incidents.Incident;
 import orion.sdk.monitoring.incidents.IncidentManager;
@@ -35,6 +39,7 @@ public class OpenGLFrame extends JFrame implements GLEventListener
 	protected long lastDisplay = System.currentTimeMillis();
 	protected float dt = 0;
 	protected TpsCounter fpsCounter = new TpsCounter(0.1f, 10);
+	protected OpenGLState state = null;
 	
 	public OpenGLFrame()
 	{		
@@ -75,17 +80,42 @@ public class OpenGLFrame extends JFrame implements GLEventListener
 	public void init(GLAutoDrawable drawable)
 	{
 		GL2 gl = drawable.getGL().getGL2();
+		
+		/*
+		 * Programs and state of a previous context are gone
+		 */
+		state = null;
+		ShaderManager.invalidateVariants();
+		
+		/*
+		 * Keep linked programs between starts in a cache of the user
+		 */
+		if (ShaderManager.binaryCache == null)
+		{
+			ShaderManager.binaryCache = new ProgramBinaryCache(getShaderCacheDirectory());
+		}
+		
 		String glslVersion = OpenGLManager.getInstance().getGlslVersion(gl);
 		String glVersion = OpenGLManager.getInstance().getGlVersion(gl);
 		IncidentManager.notifyIncident(Incident.newInformation("GLSL version: '" + glslVersion + "'"));
 		IncidentManager.notifyIncident(Incident.newInformation("GL version: '" + glVersion + "'"));
 	}
 
+	/**
+	 * Returns the directory program binaries are cached in, below the home directory of the user.
+	 */
+	public static File getShaderCacheDirectory()
+	{
+		return new File(System.getProperty("user.home"),
+			"." + Version.TITLE.toLowerCase() + File.separator + "cache" + File.separator + "shaders");
+	}
+
 	@Override
 	public void dispose(GLAutoDrawable drawable)
 	{
 		Client game = Client.getInstance();
 		game.dispose(getOpenGLContext(drawable));
+		ShaderManager.invalidateVariants();
 	}
 	
 	protected OpenGLContext getOpenGLContext(GLAutoDrawable drawable)
@@ -95,11 +125,20 @@ public class OpenGLFrame extends JFrame implements GLEventListener
 
 		gl = OpenGLManager.getInstance().attachDebugger(gl);
 		
+		/*
+		 * Keep the shadowed state across frames, unless the OpenGL handle changed
+		 */
+		if (state == null || state.getGL() != gl)
+		{
+			state = new OpenGLState(gl);
+		}
+		
 		OpenGLContext c = new OpenGLContext(
 			gl, 
 			glu, 
 			dt, 
-			new float[] {0, 0, glCanvas.getWidth(), glCanvas.getHeight()});
+			new float[] {0, 0, glCanvas.getWidth(), glCanvas.getHeight()},
+			state);
 		
 		return c;
 	}
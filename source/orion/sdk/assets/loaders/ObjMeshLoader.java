@@ -156,6 +156,7 @@ public class ObjMeshLoader extends AAssetLoader
 					mesh.setFace(i, new int[] {start + 0, start + 1, start + 2, start + 3});
 				}
 			}
+			mesh.buildBVH();
 			return mesh;
 		} 
 		finally
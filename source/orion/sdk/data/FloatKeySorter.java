@@ -0,0 +1,166 @@
+package orion.sdk.data;
+
+import java.util.Arrays;
+
+/**
+ * Sorts a permutation by primitive float keys in ascending order. Orders which changed only a little since
+ * the last sort, such as distances to a slowly moving camera, are finished by an insertion sort in about
+ * linear time. If the insertion sort exceeds a budget of {@link #INSERTION_BUDGET} moves per element, the
+ * permutation is sorted by a least significant digit radix sort on the bits of the keys instead. Both
+ * sorts are stable. NaN keys are sorted last.
+ *
+ * The sorter keeps its buffers between calls and is not thread safe.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class FloatKeySorter
+{
+	/**
+	 * The number of moves per element the insertion sort may take before falling back to the radix sort.
+	 */
+	public static int INSERTION_BUDGET = 4;
+
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	private int[] sortableKeys = new int[0];
+	private int[] keyBuffer = new int[0];
+	private int[] permutationBuffer = new int[0];
+	private final int[] histogram = new int[RADIX];
+	private boolean radixUsed = false;
+
+	/**
+	 * Sorts the first {@code count} entries of {@code permutation} so that {@code keys[permutation[i]]}
+	 * ascends.
+	 */
+	public void sort(float[] keys, int[] permutation, int count)
+	{
+		radixUsed = !insertionSort(keys, permutation, count, (long) INSERTION_BUDGET * count);
+		if (radixUsed)
+		{
+			radixSort(keys, permutation, count);
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the last sort had to fall back to the radix sort.
+	 */
+	public boolean wasRadixUsed()
+	{
+		return radixUsed;
+	}
+
+	/**
+	 * Writes the identity permutation of {@code count} entries into {@code dest}.
+	 */
+	public static int[] identity(int[] dest, int count)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			dest[i] = i;
+		}
+		return dest;
+	}
+
+	/**
+	 * Sorts by insertion until {@code budget} moves are spent. Returns {@code false} if the permutation
+	 * is not sorted yet, it is still a permutation of the original entries.
+	 */
+	private static boolean insertionSort(float[] keys, int[] permutation, int count, long budget)
+	{
+		for (int i = 1; i < count; i++)
+		{
+			int index = permutation[i];
+			float key = keys[index];
+			int j = i - 1;
+			while (j >= 0 && greater(keys[permutation[j]], key))
+			{
+				permutation[j + 1] = permutation[j];
+				j--;
+				if (--budget < 0)
+				{
+					permutation[j + 1] = index;
+					return false;
+				}
+			}
+			permutation[j + 1] = index;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if {@code a} is sorted after {@code b}, with NaN after every other key.
+	 */
+	private static boolean greater(float a, float b)
+	{
+		return a > b || (a != a && b == b);
+	}
+
+	private void radixSort(float[] keys, int[] permutation, int count)
+	{
+		if (sortableKeys.length < count)
+		{
+			int capacity = Math.max(count, sortableKeys.length * 2);
+			sortableKeys = new int[capacity];
+			keyBuffer = new int[capacity];
+			permutationBuffer = new int[capacity];
+		}
+
+		/*
+		 * Flipping the sign bit of positive floats and all bits of negative floats orders their bits like
+		 * unsigned integers
+		 */
+		int[] sourceKeys = sortableKeys, destKeys = keyBuffer;
+		int[] source = permutation, dest = permutationBuffer;
+		for (int i = 0; i < count; i++)
+		{
+			int bits = Float.floatToIntBits(keys[permutation[i]]);
+			sourceKeys[i] = bits ^ ((bits >> 31) | 0x80000000);
+		}
+
+		for (int shift = 0; shift < 32; shift += RADIX_BITS)
+		{
+			Arrays.fill(histogram, 0);
+			for (int i = 0; i < count; i++)
+			{
+				histogram[digit(sourceKeys[i], shift)]++;
+			}
+
+			/*
+			 * Skip digits which are the same for all keys
+			 */
+			if (histogram[digit(sourceKeys[0], shift)] == count)
+			{
+				continue;
+			}
+
+			int sum = 0;
+			for (int d = 0; d < RADIX; d++)
+			{
+				int c = histogram[d];
+				histogram[d] = sum;
+				sum += c;
+			}
+			for (int i = 0; i < count; i++)
+			{
+				int position = histogram[digit(sourceKeys[i], shift)]++;
+				destKeys[position] = sourceKeys[i];
+				dest[position] = source[i];
+			}
+
+			int[] swap = sourceKeys; sourceKeys = destKeys; destKeys = swap;
+			swap = source; source = dest; dest = swap;
+		}
+
+		if (source != permutation)
+		{
+			System.arraycopy(source, 0, permutation, 0, count);
+		}
+	}
+
+	private static int digit(int key, int shift)
+	{
+		return (key >>> shift) & (RADIX - 1);
+	}
+}
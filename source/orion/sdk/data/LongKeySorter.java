@@ -0,0 +1,106 @@
+package orion.sdk.data;
+
+import java.util.Arrays;
+
+/**
+ * Sorts a permutation by unsigned 64 bit keys in ascending order, using a least significant digit radix
+ * sort with eight bit digits. Digits which are the same for all keys are skipped, so keys which only use
+ * some of their bits take fewer passes. The sort is stable.
+ *
+ * The sorter keeps its buffers between calls and is not thread safe.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class LongKeySorter
+{
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	private long[] keyBuffer = new long[0];
+	private long[] sortedKeys = new long[0];
+	private int[] permutationBuffer = new int[0];
+	private final int[] histogram = new int[RADIX];
+	private int passCount = 0;
+
+	/**
+	 * Sorts the first {@code count} entries of {@code permutation} so that {@code keys[permutation[i]]}
+	 * ascends as unsigned numbers.
+	 */
+	public void sort(long[] keys, int[] permutation, int count)
+	{
+		passCount = 0;
+		if (count < 2)
+		{
+			return;
+		}
+
+		if (keyBuffer.length < count)
+		{
+			int capacity = Math.max(count, keyBuffer.length * 2);
+			keyBuffer = new long[capacity];
+			sortedKeys = new long[capacity];
+			permutationBuffer = new int[capacity];
+		}
+
+		long[] sourceKeys = sortedKeys, destKeys = keyBuffer;
+		int[] source = permutation, dest = permutationBuffer;
+		for (int i = 0; i < count; i++)
+		{
+			sourceKeys[i] = keys[permutation[i]];
+		}
+
+		for (int shift = 0; shift < 64; shift += RADIX_BITS)
+		{
+			Arrays.fill(histogram, 0);
+			for (int i = 0; i < count; i++)
+			{
+				histogram[digit(sourceKeys[i], shift)]++;
+			}
+
+			/*
+			 * Skip digits which are the same for all keys
+			 */
+			if (histogram[digit(sourceKeys[0], shift)] == count)
+			{
+				continue;
+			}
+
+			int sum = 0;
+			for (int d = 0; d < RADIX; d++)
+			{
+				int c = histogram[d];
+				histogram[d] = sum;
+				sum += c;
+			}
+			for (int i = 0; i < count; i++)
+			{
+				int position = histogram[digit(sourceKeys[i], shift)]++;
+				destKeys[position] = sourceKeys[i];
+				dest[position] = source[i];
+			}
+
+			long[] swapKeys = sourceKeys; sourceKeys = destKeys; destKeys = swapKeys;
+			int[] swap = source; source = dest; dest = swap;
+			passCount++;
+		}
+
+		if (source != permutation)
+		{
+			System.arraycopy(source, 0, permutation, 0, count);
+		}
+	}
+
+	/**
+	 * Returns the number of passes the last sort took.
+	 */
+	public int getPassCount()
+	{
+		return passCount;
+	}
+
+	private static int digit(long key, int shift)
+	{
+		return (int) (key >>> shift) & (RADIX - 1);
+	}
+}
@@ -62,7 +62,7 @@ public class VertexBuffer implements IUploadable
 	public void release(OpenGLContext c)
 	{
 		OpenGLManager.getInstance().pushDebug("Releasing", this);
-		c.gl().glDeleteBuffers(1, vertexBufferIndexes, index);
+		c.state().deleteBuffers(1, vertexBufferIndexes, index);
 		vertexBufferUsed[index] = false;
 		
 		OpenGLManager.getInstance().checkError(c, this);
@@ -83,12 +83,12 @@ public class VertexBuffer implements IUploadable
 		
 		int vertexStride = vertexFormat.getBytesPerVertex();
 		c.gl().glGenBuffers(1, vertexBufferIndexes, index);
-		c.gl().glBindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferIndexes[index]);
+		c.state().bindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferIndexes[index]);
 		c.gl().glBufferData(GL.GL_ARRAY_BUFFER, vertexCount * vertexStride, null,	GL2.GL_DYNAMIC_DRAW);			
 
 		OpenGLManager.getInstance().checkError(c, this);
 		
-		c.gl().glBindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferIndexes[index]);
+		c.state().bindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferIndexes[index]);
 		ByteBuffer bytebuffer = c.gl().glMapBuffer(GL.GL_ARRAY_BUFFER, GL2.GL_WRITE_ONLY);		
 		vertexFormat.formatVertices(bytebuffer);
 		OpenGLManager.getInstance().checkError(c, this);
@@ -98,7 +98,7 @@ public class VertexBuffer implements IUploadable
 		c.gl().glUnmapBuffer(GL.GL_ARRAY_BUFFER);		
 		OpenGLManager.getInstance().checkError(c, this);
 		
-		c.gl().glBindBuffer(GL.GL_ARRAY_BUFFER, 0);		
+		c.state().bindBuffer(GL.GL_ARRAY_BUFFER, 0);		
 		OpenGLManager.getInstance().checkError(c, this);
 		
 		ready = true;
@@ -110,7 +110,7 @@ public class VertexBuffer implements IUploadable
 		/*
 		 * Bind to this vertex buffer
 		 */
-      c.gl().glBindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferIndexes[index]);
+      c.state().bindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferIndexes[index]);
 
 
       /*
@@ -126,11 +126,25 @@ public class VertexBuffer implements IUploadable
       /*
        * Rebind to the default vertex buffer
        */
-      c.gl().glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+      c.state().bindBuffer(GL.GL_ARRAY_BUFFER, 0);
       
       OpenGLManager.getInstance().checkError(c, this);
 	}
 	
+	/**
+	 * Draws the vertex buffer {@code instanceCount} times in one call. The per instance attributes must
+	 * be set up by the caller.
+	 */
+	public void drawInstanced(OpenGLContext c, int drawMode, int instanceCount)
+	{
+		c.state().bindBuffer(GL.GL_ARRAY_BUFFER, vertexBufferIndexes[index]);
+		vertexFormat.uploadFormat(c);
+		c.gl().glDrawArraysInstanced(drawMode, 0, vertexCount, instanceCount);
+		c.state().bindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		
+		OpenGLManager.getInstance().checkError(c, this);
+	}
+	
 	@Override
 	public boolean isReady()
 	{
@@ -11,16 +11,29 @@ import orion.sdk.graphics.shading.glsl.GenericShader;
 import orion.sdk.graphics.util.INamed;
 import orion.sdk.graphics.util.OpenGLContext;
 import orion.sdk.graphics.util.OpenGLManager;
-import orion.sdk.math.IFloatMatrix;
 
+/**
+ * Interleaves the vertex attributes of a mesh into a vertex buffer. The attributes are read from one
+ * {@code float} array each, with as many floats per vertex as the attribute has, except for textures,
+ * which always take three floats of which the first {@link #getTextureSize()} are used.
+ */
 public class VertexFormatter implements IVertexFormatter, INamed
 {
+	/**
+	 * The number of vertices gathered before they are copied into the buffer at once.
+	 */
+	public static int stagingVertices = 4096;
+
+	public static final int TEXTURE_STRIDE = 3;
+
 	public int[] indexes = null;
-	private IFloatMatrix[] positions = null;
-	private IFloatMatrix[] normals = null;
-	private IFloatMatrix[] textures = null;
-	private IFloatMatrix[] colors = null;
-	private IFloatMatrix[] centers = null;
+	private float[] positions = null;
+	private float[] normals = null;
+	private float[] textures = null;
+	private float[] colors = null;
+	private float[] centers = null;
+	private int textureSize = 2;
+	private float[] staging = null;
 	private GenericShader shader = null;
 
 	public VertexFormatter(String name)
@@ -101,9 +114,9 @@ public class VertexFormatter implements IVertexFormatter, INamed
 		{
 			floatsPerVertex = floatsPerVertex + getTextureSize();
 		}
-		if (hasCenter())
+		if (hasColor())
 		{
-			floatsPerVertex = floatsPerVertex + getCenterSize();
+			floatsPerVertex = floatsPerVertex + getColorSize();
 		}
 		return floatsPerVertex * 4;
 	}
@@ -112,49 +125,54 @@ public class VertexFormatter implements IVertexFormatter, INamed
 	public void formatVertices(ByteBuffer bytebuffer) throws GLException
 	{
 		FloatBuffer floatbuffer = bytebuffer.order(ByteOrder.nativeOrder()).asFloatBuffer();
+		boolean hasNormal = hasNormal(), hasTexture = hasTexture(), hasColor = hasColor(), hasCenter = hasCenter();
+		int positionSize = getPositionSize(), normalSize = getNormalSize(), textureSize = getTextureSize(),
+			colorSize = getColorSize(), centerSize = getCenterSize();
+
+		/*
+		 * The vertices are interleaved into an array first, since single puts into a direct buffer are
+		 * checked and written one by one
+		 */
+		int stagingSize = Math.max(Math.min(indexes.length, stagingVertices), 1) * getFloatsPerVertex();
+		if (staging == null || staging.length < stagingSize)
+		{
+			staging = new float[stagingSize];
+		}
+
+		int p = 0;
 		for (int i = 0; i < indexes.length; i++)
 		{
 			int j = indexes[i];
-			int p = i * getFloatsPerVertex();
-			IFloatMatrix position = getPositions()[j];
-			floatbuffer.put(p++, position != null ? position.getX() : 0);
-			floatbuffer.put(p++, position != null ? position.getY() : 0);
-			floatbuffer.put(p++, position != null ? position.getZ() : 0);
-			floatbuffer.put(p++, position != null ? position.getU() : 0);
-			if (hasNormal())
+			System.arraycopy(positions, j * positionSize, staging, p, positionSize);
+			p += positionSize;
+			if (hasNormal)
 			{
-				IFloatMatrix normal = getNormals()[j]; 
-				floatbuffer.put(p++, normal != null ? normal.getX() : 0);
-				floatbuffer.put(p++, normal != null ? normal.getY() : 0);
-				floatbuffer.put(p++, normal != null ? normal.getZ() : 0);
+				System.arraycopy(normals, j * normalSize, staging, p, normalSize);
+				p += normalSize;
 			}
-			if (hasTexture())
+			if (hasTexture)
 			{
-				IFloatMatrix texture = getTextures()[j];
-				floatbuffer.put(p++, texture != null ? texture.getX() : 0);
-				floatbuffer.put(p++, texture != null ? texture.getY() : 0);
-				if (texture != null && texture.getLength() >= 3)
-				{
-					floatbuffer.put(p++, texture != null ? texture.getZ() : 0);
-				}
+				System.arraycopy(textures, j * TEXTURE_STRIDE, staging, p, textureSize);
+				p += textureSize;
 			}
-			if (hasColor())
+			if (hasColor)
 			{
-				IFloatMatrix color = getColors()[j];
-				floatbuffer.put(p++, color != null ? color.getX() : 0);
-				floatbuffer.put(p++, color != null ? color.getY() : 0);
-				floatbuffer.put(p++, color != null ? color.getZ() : 0);
-				floatbuffer.put(p++, color != null ? color.getU() : 0);
+				System.arraycopy(colors, j * colorSize, staging, p, colorSize);
+				p += colorSize;
 			}
-			if (hasCenter())
+			if (hasCenter)
 			{
-				IFloatMatrix center = getCenters()[j];
-				floatbuffer.put(p++, center != null ? center.getX() : 0);
-				floatbuffer.put(p++, center != null ? center.getY() : 0);
-				floatbuffer.put(p++, center != null ? center.getZ() : 0);
-				floatbuffer.put(p++, center != null ? center.getU() : 0);
+				System.arraycopy(centers, j * centerSize, staging, p, centerSize);
+				p += centerSize;
+			}
+
+			if (p == stagingSize)
+			{
+				floatbuffer.put(staging, 0, p);
+				p = 0;
 			}
 		}
+		floatbuffer.put(staging, 0, p);
 	}
 	
 	/**
@@ -190,52 +208,52 @@ public class VertexFormatter implements IVertexFormatter, INamed
       OpenGLManager.getInstance().checkError(c);
 	}
 	
-	public IFloatMatrix[] getPositions()
+	public float[] getPositions()
 	{
 		return positions;
 	}
 
-	public void setPositions(IFloatMatrix[] positions)
+	public void setPositions(float[] positions)
 	{
 		this.positions = positions;
 	}
 
-	public IFloatMatrix[] getNormals()
+	public float[] getNormals()
 	{
 		return normals;
 	}
 
-	public void setNormals(IFloatMatrix[] normals)
+	public void setNormals(float[] normals)
 	{
 		this.normals = normals;
 	}
 
-	public IFloatMatrix[] getTextures()
+	public float[] getTextures()
 	{
 		return textures;
 	}
 
-	public void setTextures(IFloatMatrix[] textures)
+	public void setTextures(float[] textures)
 	{
 		this.textures = textures;
 	}
 
-	public IFloatMatrix[] getColors()
+	public float[] getColors()
 	{
 		return colors;
 	}
 
-	public void setColors(IFloatMatrix[] colors)
+	public void setColors(float[] colors)
 	{
 		this.colors = colors;
 	}
 
-	public IFloatMatrix[] getCenters()
+	public float[] getCenters()
 	{
 		return centers;
 	}
 
-	public void setCenters(IFloatMatrix[] centers)
+	public void setCenters(float[] centers)
 	{
 		this.centers = centers;
 	}
@@ -350,14 +368,15 @@ public class VertexFormatter implements IVertexFormatter, INamed
 	
 	public int getTextureSize()
 	{
-		if (textures.length > 0 && textures[0] != null)
-		{
-			return textures[0].getLength();
-		}
-		else
-		{
-			return 2;
-		}
+		return textureSize;
+	}
+
+	/**
+	 * Sets the number of texture coordinates per vertex, 2 or 3.
+	 */
+	public void setTextureSize(int textureSize)
+	{
+		this.textureSize = textureSize;
 	}
 	
 	public int getColorSize()
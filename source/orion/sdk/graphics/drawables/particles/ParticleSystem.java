@@ -1,9 +1,6 @@
 package orion.sdk.graphics.drawables.particles;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 
 import com.jogamp.opengl.GLException;
 
@@ -14,10 +11,10 @@ import orion.sdk.graphics.util.OpenGLContext;
 import orion.sdk.graphics.util.OpenGLManager;
 import orion.sdk.graphics.viewing.cameras.ACamera;
 import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.FloatVectorBatch;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.Vec4f;
 import orion.sdk.math.geometry.Box;
-import orion.sdk.monitoring.incidents.Incident;
-import orion.sdk.monitoring.incidents.IncidentManager;
 
 public class ParticleSystem extends Mesh implements IUpdatable
 {
@@ -58,7 +55,7 @@ public class ParticleSystem extends Mesh implements IUpdatable
 		synchronized (particles)
 		{
 			particleSorter.updateDistances();
-			Arrays.sort(particles, particleSorter);
+			particleSorter.sort();
 		}
 	}
 	
@@ -149,9 +146,18 @@ public class ParticleSystem extends Mesh implements IUpdatable
 		return 0.01f;
 	}
 	
-	protected class ParticleSorter implements Comparator<Particle>
+	/**
+	 * Sorts the particles back to front along the viewing direction. The distances are computed as a
+	 * batch over the particle positions and sorted as primitive keys, without boxing.
+	 */
+	protected class ParticleSorter
 	{
-		protected Map<Particle, Float> particleDistances = new HashMap<Particle, Float>();
+		protected FloatVectorBatch positions = new FloatVectorBatch(0);
+		protected float[] distances = new float[0];
+		protected long[] keys = new long[0];
+		protected Particle[] sorted = new Particle[0];
+		private final Vec4f observer = new Vec4f();
+		private final Vec4f direction = new Vec4f();
 		
 		public ParticleSorter()
 		{
@@ -162,41 +168,65 @@ public class ParticleSystem extends Mesh implements IUpdatable
 		{
 			synchronized (particles)
 			{
-				IFloatMatrix observer = cameraSnapshot.getObserver();
-				IFloatMatrix direction = observer.subtract(cameraSnapshot.getTarget()); 
-				for (Particle particle : particles)
+				int count = particles.length;
+				positions.setSize(count);
+				for (int i = 0; i < count; i++)
 				{
-					IFloatMatrix projection = observer.subtract(particle.position).projectToVector(direction);
-					float distance = projection.norm();
-					particleDistances.put(particle, distance);
+					Particle particle = particles[i];
+					if (particle != null)
+					{
+						positions.set(i, particle.position);
+					}
+					else
+					{
+						positions.set(i, 0, 0, 0, 1);
+					}
+				}
+				
+				cameraSnapshot.getObserver(observer);
+				Vec4f.subtract(observer, cameraSnapshot.getTarget(direction), direction);
+				if (distances.length < count)
+				{
+					distances = new float[count];
 				}
+				positions.distanceAlong(observer, direction, distances);
 			}
 		}
-
-		@Override
-		public int compare(Particle a, Particle b)
+		
+		/**
+		 * Sorts the particles by the distances of the last call to {@link #updateDistances()}, farthest
+		 * first. Empty slots are moved to the end, particles at equal distance keep their order.
+		 */
+		public void sort()
 		{
-			try
+			synchronized (particles)
 			{
-				float distanceA = particleDistances.get(a);
-				float distanceB = particleDistances.get(b);
-				if (distanceA > distanceB)
+				int count = particles.length;
+				if (keys.length < count)
 				{
-					return -1;
-				} 
-				else if (distanceA < distanceB)
+					keys = new long[count];
+					sorted = new Particle[count];
+				}
+				
+				/*
+				 * The bits of a non-negative float are ordered like the float itself, so the high word
+				 * orders by descending distance and the low word keeps the original order
+				 */
+				for (int i = 0; i < count; i++)
 				{
-					return 1;					
+					long high = particles[i] != null 
+						? 0x7ffffffeL - Float.floatToIntBits(Math.abs(distances[i])) 
+						: 0x7fffffffL;
+					keys[i] = (high << 32) | i;
 				}
-				else
+				Arrays.sort(keys, 0, count);
+				
+				for (int i = 0; i < count; i++)
 				{
-					return 0;
+					sorted[i] = particles[(int) keys[i]];
 				}
-			}
-			catch (Exception e)
-			{
-				IncidentManager.notifyIncident(Incident.newError("Compare error", e));
-				return 0;
+				System.arraycopy(sorted, 0, particles, 0, count);
+				Arrays.fill(sorted, null);
 			}
 		}
 	}
@@ -13,10 +13,12 @@ import orion.sdk.graphics.util.OpenGLManager;
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.IFloatMatrix;
 import orion.sdk.math.geometry.Box;
+import orion.sdk.math.geometry.TriangleBVH;
 
 /**
  * Represents a mesh of triangles with {@code 4f} postitions, {@code 4f} colors and {@code 3f}
- * normals.
+ * normals. The attributes are stored in one {@code float} array each, with a fixed number of floats per
+ * vertex, and the attributes set for each vertex are flagged in {@link #attributes}.
  * @author Tim
  * @since 1.0.00
  */
@@ -24,19 +26,36 @@ public class Mesh implements IDrawable
 {
 	public final static IFloatMatrix DEFAULT_CENTER = FloatMatrix.vector(0f, 0f, 0f, 1f);
 	public final static IFloatMatrix DEFAULT_COLOR = FloatMatrix.vector(1f, 1f, 1f, 1f); 
+	public final static int POSITION_SIZE = 4;
+	public final static int NORMAL_SIZE = 3;
+	public final static int TEXTURE_SIZE = VertexFormatter.TEXTURE_STRIDE;
+	public final static int COLOR_SIZE = 4;
+	public final static int CENTER_SIZE = 4;
 	public int faceType = 0;
 	
-	public IFloatMatrix[] positions = null;
-	public IFloatMatrix[] colors = null;
-	public IFloatMatrix[] normals = null;
-	public IFloatMatrix[] textures = null;
-	public IFloatMatrix[] centers = null;
+	public float[] positions = null;
+	public float[] colors = null;
+	public float[] normals = null;
+	public float[] textures = null;
+	public float[] centers = null;
+	
+	/**
+	 * The {@link Attribute} flags of the attributes set for each vertex. Attributes which are not set are
+	 * zero.
+	 */
+	public byte[] attributes = null;
+	
+	/**
+	 * The number of texture coordinates per vertex, 2 or 3, taken from the texture of the first vertex.
+	 */
+	public int textureSize = 2;
 	public int[] indexes = new int[0];
 	public VertexFormatter vertexFormat = null;
 	protected VertexBuffer vertexBuffer = null;
 	protected boolean visible = true;
 	protected boolean ready = false;
 	protected Box bounds = null;
+	protected TriangleBVH bvh = null;
 	
 	
 	public Mesh(int faces, int faceType, Box bounds) throws GLException
@@ -45,11 +64,20 @@ public class Mesh implements IDrawable
 		this.setBounds(bounds);
 		int size = faces * getVertexPerFaceCount();
 		indexes = new int[size];
-		positions = new IFloatMatrix[size];
-		colors = new IFloatMatrix[size];
-		normals = new IFloatMatrix[size];
-		textures = new IFloatMatrix[size];
-		centers = new IFloatMatrix[size];
+		positions = new float[size * POSITION_SIZE];
+		colors = new float[size * COLOR_SIZE];
+		normals = new float[size * NORMAL_SIZE];
+		textures = new float[size * TEXTURE_SIZE];
+		centers = new float[size * CENTER_SIZE];
+		attributes = new byte[size];
+	}
+	
+	/**
+	 * Returns the number of vertices the mesh has storage for.
+	 */
+	public int getVertexCount()
+	{
+		return attributes.length;
 	}
 	
 	public void setVertexFormatter(VertexFormatter formatter)
@@ -61,6 +89,7 @@ public class Mesh implements IDrawable
 		this.vertexFormat.setNormals(normals);
 		this.vertexFormat.setTextures(textures);
 		this.vertexFormat.setCenters(centers);		
+		this.vertexFormat.setTextureSize(textureSize);
 	}
 	
 	public int getVertexPerFaceCount() throws GLException
@@ -88,13 +117,111 @@ public class Mesh implements IDrawable
 		}		 
 	}
 	
+	public void setPosition(int index, float x, float y, float z, float w)
+	{
+		int i = index * POSITION_SIZE;
+		positions[i] = x;
+		positions[i + 1] = y;
+		positions[i + 2] = z;
+		positions[i + 3] = w;
+		attributes[index] |= Attribute.POSITION;
+	}
+	
+	public void setNormal(int index, float x, float y, float z)
+	{
+		int i = index * NORMAL_SIZE;
+		normals[i] = x;
+		normals[i + 1] = y;
+		normals[i + 2] = z;
+		attributes[index] |= Attribute.NORMAL;
+	}
+	
+	/**
+	 * Sets the texture coordinates of a vertex, {@code r} is only used if {@link #textureSize} is 3.
+	 */
+	public void setTexture(int index, float s, float t, float r)
+	{
+		int i = index * TEXTURE_SIZE;
+		textures[i] = s;
+		textures[i + 1] = t;
+		textures[i + 2] = r;
+		attributes[index] |= Attribute.TEXTURE;
+	}
+	
+	public void setColor(int index, float r, float g, float b, float a)
+	{
+		int i = index * COLOR_SIZE;
+		colors[i] = r;
+		colors[i + 1] = g;
+		colors[i + 2] = b;
+		colors[i + 3] = a;
+		attributes[index] |= Attribute.COLOR;
+	}
+	
+	public void setCenter(int index, float x, float y, float z, float w)
+	{
+		int i = index * CENTER_SIZE;
+		centers[i] = x;
+		centers[i + 1] = y;
+		centers[i + 2] = z;
+		centers[i + 3] = w;
+		attributes[index] |= Attribute.CENTER;
+	}
+	
+	/**
+	 * Copies the attributes of a vertex into the attribute arrays, attributes which are {@code null} are
+	 * cleared.
+	 */
 	public void setVertex(int index, IFloatMatrix postition, IFloatMatrix normal, IFloatMatrix texture, IFloatMatrix color, IFloatMatrix center)
 	{
-		positions[index] = postition;
-		normals[index] = normal;
-		textures[index] = texture;
-		colors[index] = color;
-		centers[index] = center;
+		byte flags = 0;
+		flags |= copy(postition, positions, index, POSITION_SIZE, Attribute.POSITION);
+		flags |= copy(normal, normals, index, NORMAL_SIZE, Attribute.NORMAL);
+		flags |= copy(texture, textures, index, TEXTURE_SIZE, Attribute.TEXTURE);
+		flags |= copy(color, colors, index, COLOR_SIZE, Attribute.COLOR);
+		flags |= copy(center, centers, index, CENTER_SIZE, Attribute.CENTER);
+		attributes[index] = flags;
+		
+		if (index == 0)
+		{
+			setTextureSize(texture != null ? texture.getLength() : 2);
+		}
+	}
+	
+	private static byte copy(IFloatMatrix value, float[] target, int index, int size, byte flag)
+	{
+		int offset = index * size;
+		if (value == null)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				target[offset + i] = 0;
+			}
+			return 0;
+		}
+		
+		int length = Math.min(value.getLength(), size);
+		for (int i = 0; i < length; i++)
+		{
+			target[offset + i] = value.get(i);
+		}
+		for (int i = length; i < size; i++)
+		{
+			target[offset + i] = 0;
+		}
+		return flag;
+	}
+	
+	/**
+	 * Sets the number of texture coordinates per vertex, which is clamped to 2 or 3.
+	 */
+	public void setTextureSize(int textureSize)
+	{
+		this.textureSize = Math.max(2, Math.min(textureSize, TEXTURE_SIZE));
+		if (vertexFormat != null)
+		{
+			vertexFormat.setTextureSize(this.textureSize);
+		}
 	}
 	
 	public void setVertex(int index, IFloatMatrix postition, IFloatMatrix normal, IFloatMatrix texture, IFloatMatrix color)
@@ -118,6 +245,85 @@ public class Mesh implements IDrawable
 		setVertex(index, postition, null);
 	}
 
+	/**
+	 * Builds the bounding volume hierarchy of the faces for ray queries. Quads are split into two
+	 * triangles, faces with missing vertices are left out.
+	 */
+	public TriangleBVH buildBVH() throws GLException
+	{
+		int vertexCount = getVertexPerFaceCount(), faces = getFaceCount();
+		int trianglesPerFace = vertexCount - 2;
+		int[] triangles = new int[3 * trianglesPerFace * faces];
+		
+		for (int face = 0; face < faces; face++)
+		{
+			int start = face * vertexCount;
+			for (int i = 0; i < trianglesPerFace; i++)
+			{
+				int triangle = 3 * (face * trianglesPerFace + i);
+				triangles[triangle + 0] = indexes[start];
+				triangles[triangle + 1] = indexes[start + i + 1];
+				triangles[triangle + 2] = indexes[start + i + 2];
+			}
+			
+			for (int i = 0; i < vertexCount; i++)
+			{
+				if ((attributes[indexes[start + i]] & Attribute.POSITION) == 0)
+				{
+					for (int j = 0; j < 3 * trianglesPerFace; j++)
+					{
+						triangles[3 * face * trianglesPerFace + j] = -1;
+					}
+					break;
+				}
+			}
+		}
+		
+		bvh = new TriangleBVH(getVertexCoordinates(), triangles);
+		return bvh;
+	}
+	
+	/**
+	 * Updates the bounding volume hierarchy after vertices moved, the faces must not have changed.
+	 */
+	public void refitBVH()
+	{
+		if (bvh != null)
+		{
+			bvh.refit(getVertexCoordinates());
+		}
+	}
+	
+	/**
+	 * Returns the bounding volume hierarchy, or {@code null} if it has not been built.
+	 */
+	public TriangleBVH getBVH()
+	{
+		return bvh;
+	}
+	
+	/**
+	 * Returns the face of a triangle of the bounding volume hierarchy.
+	 */
+	public int getFaceOfTriangle(int triangle) throws GLException
+	{
+		return triangle / (getVertexPerFaceCount() - 2);
+	}
+	
+	/**
+	 * Returns the {@code xyz} coordinates of all vertex positions.
+	 */
+	protected float[] getVertexCoordinates()
+	{
+		int vertexCount = getVertexCount();
+		float[] coordinates = new float[3 * vertexCount];
+		for (int i = 0; i < vertexCount; i++)
+		{
+			System.arraycopy(positions, i * POSITION_SIZE, coordinates, 3 * i, 3);
+		}
+		return coordinates;
+	}
+	
 	@Override
 	public void draw(OpenGLContext c)
 	{		
@@ -125,16 +331,7 @@ public class Mesh implements IDrawable
 		
 		if (getFaceCount() > 0)
 		{
-			int drawMode = 0;
-			switch (faceType)
-			{
-				case FaceType.TRIANGLE:
-					drawMode = GL2.GL_TRIANGLES;				
-					break;
-				case FaceType.QUAD:
-					drawMode = GL2.GL_QUADS;
-					break;
-			}
+			int drawMode = getDrawMode();
 			
 			if (vertexBuffer != null)
 			{
@@ -144,16 +341,25 @@ public class Mesh implements IDrawable
 			{
 				AShader shader = ShaderManager.getActiveShader();
 				
+				/*
+				 * The attributes are passed on immediately, so one vector per attribute is reused
+				 */
+				FloatMatrix position = FloatMatrix.vector(0f, 0f, 0f, 0f);
+				FloatMatrix normal = FloatMatrix.vector(0f, 0f, 0f);
+				FloatMatrix texture = textureSize == 3 ? FloatMatrix.vector(0f, 0f, 0f) : FloatMatrix.vector(0f, 0f);
+				FloatMatrix color = FloatMatrix.vector(0f, 0f, 0f, 0f);
+				
 				c.gl().glBegin(drawMode);
 				
 				for (int i = 0; i < indexes.length; i++)
 				{
 					int index = indexes[i];
+					byte flags = attributes[index];
 					
-					shader.setVertexTexture(textures[index], c);
-					shader.setVertexColor(colors[index], c);
-					shader.setVertexNormal(normals[index], c);
-					shader.setVertexPosition(positions[index], c);
+					shader.setVertexTexture(load(texture, textures, index, TEXTURE_SIZE, flags, Attribute.TEXTURE), c);
+					shader.setVertexColor(load(color, colors, index, COLOR_SIZE, flags, Attribute.COLOR), c);
+					shader.setVertexNormal(load(normal, normals, index, NORMAL_SIZE, flags, Attribute.NORMAL), c);
+					shader.setVertexPosition(load(position, positions, index, POSITION_SIZE, flags, Attribute.POSITION), c);
 				}
 				
 				c.gl().glEnd();
@@ -163,6 +369,58 @@ public class Mesh implements IDrawable
 		OpenGLManager.getInstance().popDebug();
 	}
 	
+	/**
+	 * Draws the mesh {@code instanceCount} times in one call. Returns {@code false} without drawing if
+	 * the mesh has no vertex buffer.
+	 */
+	public boolean drawInstanced(OpenGLContext c, int instanceCount)
+	{
+		if (vertexBuffer == null)
+		{
+			return false;
+		}
+		
+		if (getFaceCount() > 0 && instanceCount > 0)
+		{
+			OpenGLManager.getInstance().pushDebug("Drawing", this);
+			vertexBuffer.drawInstanced(c, getDrawMode(), instanceCount);
+			OpenGLManager.getInstance().popDebug();
+		}
+		return true;
+	}
+	
+	/**
+	 * Loads an attribute of a vertex into the vector, or returns {@code null} if the vertex does not have
+	 * the attribute.
+	 */
+	private static FloatMatrix load(FloatMatrix vector, float[] source, int index, int size, byte flags, byte flag)
+	{
+		if ((flags & flag) == 0)
+		{
+			return null;
+		}
+		
+		int offset = index * size;
+		for (int i = 0; i < vector.getLength(); i++)
+		{
+			vector.set(i, source[offset + i]);
+		}
+		return vector;
+	}
+	
+	protected int getDrawMode()
+	{
+		switch (faceType)
+		{
+			case FaceType.TRIANGLE:
+				return GL2.GL_TRIANGLES;
+			case FaceType.QUAD:
+				return GL2.GL_QUADS;
+			default:
+				return 0;
+		}
+	}
+	
 	@Override
 	public void upload(OpenGLContext c) throws GLException
 	{
@@ -201,6 +459,15 @@ public class Mesh implements IDrawable
 		public static final int TRIANGLE = 0;
 		public static final int QUAD = 1;
 	}
+	
+	public static class Attribute
+	{
+		public static final byte POSITION = 1;
+		public static final byte NORMAL = 2;
+		public static final byte TEXTURE = 4;
+		public static final byte COLOR = 8;
+		public static final byte CENTER = 16;
+	}
 
 	@Override
 	public int getFaceCount()
@@ -5,6 +5,8 @@ import com.jogamp.opengl.GLException;
 import orion.sdk.data.cubes.ObjectCube;
 import orion.sdk.graphics.util.OpenGLContext;
 import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.FloatVectorBatch;
+import orion.sdk.math.Mat4f;
 import orion.sdk.math.geometry.Box;
 
 public class StaticVoxelChunk extends VoxelChunk
@@ -27,6 +29,8 @@ public class StaticVoxelChunk extends VoxelChunk
 				bounds.getWidth() / width,
 				bounds.getHeight() / height,
 				bounds.getDepth() / depth);
+		FloatVectorBatch corners = new FloatVectorBatch(8);
+		Mat4f transform = new Mat4f();
 		for (int x = 0; x < width; x++)
 		{
 			for (int y = 0; y < height; y++)
@@ -43,7 +47,7 @@ public class StaticVoxelChunk extends VoxelChunk
 								x / (float) width * bounds.getWidth() + bounds.getLeft(),
 								y / (float) height * bounds.getHeight() + bounds.getBottom(),
 								z / (float) depth * bounds.getDepth() + bounds.getBack());
-							voxel.setFaces(this, position, size);
+							voxel.setFaces(this, position, size, corners, transform);
 						}
 						advanceCursor(faceCount);
 					}												
@@ -2,7 +2,9 @@ package orion.sdk.graphics.drawables.voxels;
 
 import orion.sdk.graphics.shading.texturing.Sprite;
 import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.FloatVectorBatch;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.Mat4f;
 
 public class Voxel
 {	
@@ -15,6 +17,13 @@ public class Voxel
 	public boolean sideBottom	= true;
 	public FloatMatrix color			= FloatMatrix.vector(1, 1, 1, 1);
 	
+	/**
+	 * The corners of the unit cube, front face first.
+	 */
+	protected static final FloatVectorBatch UNIT_CUBE = new FloatVectorBatch(8).setSize(8)
+		.set(0, 0, 0, 1, 1).set(1, 1, 0, 1, 1).set(2, 1, 1, 1, 1).set(3, 0, 1, 1, 1)
+		.set(4, 0, 0, 0, 1).set(5, 1, 0, 0, 1).set(6, 1, 1, 0, 1).set(7, 0, 1, 0, 1);
+	
 	public Voxel()
 	{
 	}
@@ -32,27 +41,35 @@ public class Voxel
 	}
 	
 	public void setFaces(VoxelChunk voxelSystem, FloatMatrix position, FloatMatrix size) throws Exception
+	{
+		setFaces(voxelSystem, position, size, new FloatVectorBatch(UNIT_CUBE.size()), new Mat4f());
+	}
+	
+	/**
+	 * Sets the faces of this voxel, where the corners are transformed as one batch into {@code corners}
+	 * using {@code transform} as scratch. Chunks pass the same scratch objects for all their voxels.
+	 */
+	public void setFaces(VoxelChunk voxelSystem, FloatMatrix position, FloatMatrix size, FloatVectorBatch corners, Mat4f transform) throws Exception
 	{
 		int faceCursor = voxelSystem.getCursor();
 
-		FloatMatrix I = FloatMatrix.identity(4);
-		
 		/*
 		 * Positions
 		 */
-		IFloatMatrix scale = FloatMatrix.scale(size);
-		IFloatMatrix translation = FloatMatrix.translate(position);
-		IFloatMatrix transform = translation.product(scale);
+		transform
+			.setTranslation(position.getX(), position.getY(), position.getZ())
+			.scale(size.getX(), size.getY(), size.getZ());
+		FloatVectorBatch.transform(transform, UNIT_CUBE, corners);
 		
-		IFloatMatrix p1 = transform.product(FloatMatrix.vector(0, 0, 1, 1));
-		IFloatMatrix p2 = transform.product(FloatMatrix.vector(1, 0, 1, 1));
-		IFloatMatrix p3 = transform.product(FloatMatrix.vector(1, 1, 1, 1));
-		IFloatMatrix p4 = transform.product(FloatMatrix.vector(0, 1, 1, 1));
+		IFloatMatrix p1 = corner(corners, 0);
+		IFloatMatrix p2 = corner(corners, 1);
+		IFloatMatrix p3 = corner(corners, 2);
+		IFloatMatrix p4 = corner(corners, 3);
 		
-		IFloatMatrix p5 = transform.product(FloatMatrix.vector(0, 0, 0, 1));
-		IFloatMatrix p6 = transform.product(FloatMatrix.vector(1, 0, 0, 1));
-		IFloatMatrix p7 = transform.product(FloatMatrix.vector(1, 1, 0, 1));
-		IFloatMatrix p8 = transform.product(FloatMatrix.vector(0, 1, 0, 1));
+		IFloatMatrix p5 = corner(corners, 4);
+		IFloatMatrix p6 = corner(corners, 5);
+		IFloatMatrix p7 = corner(corners, 6);
+		IFloatMatrix p8 = corner(corners, 7);
 		
 		/*
 		 * Normals
@@ -130,4 +147,9 @@ public class Voxel
 			voxelSystem.setFace(j++, v1, v2, v3, v4);
 		}
 	}
+	
+	private static IFloatMatrix corner(FloatVectorBatch corners, int i)
+	{
+		return FloatMatrix.vector(corners.x[i], corners.y[i], corners.z[i], corners.w[i]);
+	}
 }
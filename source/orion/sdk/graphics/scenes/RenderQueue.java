@@ -0,0 +1,356 @@
+package orion.sdk.graphics.scenes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jogamp.opengl.GLException;
+
+import orion.sdk.data.LongKeySorter;
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.shading.glsl.AShader;
+import orion.sdk.graphics.shading.lighting.Material;
+import orion.sdk.graphics.shading.texturing.Texture;
+import orion.sdk.graphics.util.IStackable;
+import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.graphics.util.OpenGLStack;
+import orion.sdk.graphics.viewing.FrustumCuller;
+import orion.sdk.graphics.viewing.cameras.ACamera;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+import orion.sdk.node.drawables.DrawableNode;
+import orion.sdk.node.drawables.EntityNode;
+import orion.sdk.node.drawables.ShadedNode;
+
+/**
+ * Collects the visible drawables of a frame and draws them sorted by state, so that neighboring items
+ * sharing a shader or material do not switch it. Each item has a 64 bit key:
+ *
+ * <pre>
+ * opaque:      | pass | shader | texture | material | depth          |
+ * transparent: | pass | inverted depth   | shader   | material | texture |
+ * </pre>
+ *
+ * The pass takes two bits, shaders, textures and materials twelve bits each and the depth 24 bits. Opaque
+ * items are grouped by state and drawn front to back within a group, transparent items are drawn after
+ * them, back to front. The keys are sorted by a {@link LongKeySorter}.
+ *
+ * While submitting, the shader and material of an item are swapped onto the {@link OpenGLStack} only if
+ * they differ from the previous item. Items without a shader or material use the ones on the stack when
+ * submitting begins. {@link ShadedNode}s skip pushing the state which is already applied.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class RenderQueue
+{
+	public static final int OPAQUE = 0;
+	public static final int TRANSPARENT = 1;
+
+	private static final int MATERIAL_STACK = OpenGLStack.getHandle(Material.class);
+	private static final int SHADER_STACK = OpenGLStack.getHandle(AShader.class);
+
+	private static final int ID_BITS = 12;
+	private static final int ID_MASK = (1 << ID_BITS) - 1;
+	private static final int DEPTH_BITS = 24;
+	private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+	private IDrawable[] drawables = new IDrawable[64];
+	private AShader[] shaders = new AShader[64];
+	private Material[] materials = new Material[64];
+	private long[] keys = new long[64];
+	private int[] order = new int[64];
+	private int count = 0;
+	private boolean sorted = true;
+
+	private final LongKeySorter sorter = new LongKeySorter();
+	private final Map<Object, Integer> ids = new IdentityHashMap<Object, Integer>();
+	private final List<IDrawable> visible = new ArrayList<IDrawable>();
+	private final Vec4f observer = new Vec4f(0, 0, 0, 1);
+	private final Mat4f transformation = new Mat4f();
+
+	private int shaderChangeCount = 0;
+	private int materialChangeCount = 0;
+
+	/**
+	 * Starts a new frame with depths measured from the observer of the camera.
+	 */
+	public void begin(ACamera camera)
+	{
+		begin(camera.getObserver(observer));
+	}
+
+	/**
+	 * Starts a new frame with depths measured from {@code observer}.
+	 */
+	public void begin(Vec4f observer)
+	{
+		this.observer.set(observer);
+		Arrays.fill(drawables, 0, count, null);
+		Arrays.fill(shaders, 0, count, null);
+		Arrays.fill(materials, 0, count, null);
+		ids.clear();
+		count = 0;
+		sorted = true;
+	}
+
+	/**
+	 * Adds the drawables of the subtree which are not culled by {@code culler}.
+	 */
+	public void collect(IDrawable drawable, FrustumCuller culler)
+	{
+		visible.clear();
+		culler.collect(drawable, visible);
+		for (IDrawable item : visible)
+		{
+			add(item);
+		}
+		visible.clear();
+	}
+
+	/**
+	 * Adds a drawable with the shader and material of a {@link ShadedNode}, transparent if it enables
+	 * alpha blending, at the distance of an {@link EntityNode}.
+	 */
+	public void add(IDrawable drawable)
+	{
+		AShader shader = null;
+		Material material = null;
+		boolean transparent = false;
+		float depth = 0;
+
+		if (drawable instanceof ShadedNode)
+		{
+			shader = ((ShadedNode) drawable).getShader();
+			material = ((ShadedNode) drawable).getMaterial();
+		}
+		if (drawable instanceof DrawableNode)
+		{
+			transparent = ((DrawableNode) drawable).shouldEnableAlphaBlending();
+		}
+		if (drawable instanceof EntityNode)
+		{
+			((EntityNode) drawable).getVertexTransformation(transformation);
+			float dx = transformation.m03 - observer.x, dy = transformation.m13 - observer.y, dz = transformation.m23 - observer.z;
+			depth = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+		}
+
+		add(drawable, shader, material, transparent, depth);
+	}
+
+	/**
+	 * Adds a drawable with the given state and distance to the observer.
+	 */
+	public void add(IDrawable drawable, AShader shader, Material material, boolean transparent, float depth)
+	{
+		if (count == drawables.length)
+		{
+			int capacity = count * 2;
+			drawables = Arrays.copyOf(drawables, capacity);
+			shaders = Arrays.copyOf(shaders, capacity);
+			materials = Arrays.copyOf(materials, capacity);
+			keys = Arrays.copyOf(keys, capacity);
+			order = Arrays.copyOf(order, capacity);
+		}
+
+		drawables[count] = drawable;
+		shaders[count] = shader;
+		materials[count] = material;
+		keys[count] = getKey(shader, material, transparent, depth);
+		order[count] = count;
+		count++;
+		sorted = false;
+	}
+
+	/**
+	 * Sorts the items by their keys.
+	 */
+	public void sort()
+	{
+		if (!sorted)
+		{
+			for (int i = 0; i < count; i++)
+			{
+				order[i] = i;
+			}
+			sorter.sort(keys, order, count);
+			sorted = true;
+		}
+	}
+
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the item at {@code index} in the sorted order.
+	 */
+	public IDrawable get(int index)
+	{
+		sort();
+		return drawables[order[index]];
+	}
+
+	/**
+	 * Returns the number of times the shader or material changes between the sorted items, counting items
+	 * without them as sharing the same default.
+	 */
+	public int countStateChanges()
+	{
+		sort();
+		int changes = 0;
+		for (int i = 1; i < count; i++)
+		{
+			int previous = order[i - 1], next = order[i];
+			if (shaders[previous] != shaders[next] || materials[previous] != materials[next])
+			{
+				changes++;
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Draws the sorted items, switching the shader and material only where they change.
+	 */
+	public void submit(OpenGLContext c) throws GLException
+	{
+		sort();
+		shaderChangeCount = 0;
+		materialChangeCount = 0;
+
+		Material defaultMaterial = (Material) OpenGLStack.peek(MATERIAL_STACK);
+		AShader defaultShader = (AShader) OpenGLStack.peek(SHADER_STACK);
+		Material currentMaterial = defaultMaterial;
+		AShader currentShader = defaultShader;
+
+		try
+		{
+			for (int i = 0; i < count; i++)
+			{
+				int item = order[i];
+				Material material = materials[item] != null ? materials[item] : defaultMaterial;
+				AShader shader = shaders[item] != null ? shaders[item] : defaultShader;
+
+				boolean materialChanged = material != currentMaterial;
+				if (materialChanged)
+				{
+					switchState(MATERIAL_STACK, currentMaterial, material, c);
+					currentMaterial = material;
+					materialChangeCount++;
+				}
+
+				if (shader != currentShader)
+				{
+					switchState(SHADER_STACK, currentShader, shader, c);
+					currentShader = shader;
+					shaderChangeCount++;
+				}
+				else if (materialChanged && shader != null)
+				{
+					/*
+					 * The uniforms of the shader depend on the material
+					 */
+					OpenGLStack.apply(shader, c);
+				}
+
+				drawables[item].draw(c);
+			}
+		}
+		finally
+		{
+			switchState(SHADER_STACK, currentShader, defaultShader, c);
+			switchState(MATERIAL_STACK, currentMaterial, defaultMaterial, c);
+		}
+	}
+
+	/**
+	 * Returns the number of shader switches of the last submission.
+	 */
+	public int getShaderChangeCount()
+	{
+		return shaderChangeCount;
+	}
+
+	/**
+	 * Returns the number of material switches of the last submission.
+	 */
+	public int getMaterialChangeCount()
+	{
+		return materialChangeCount;
+	}
+
+	private static void switchState(int stack, IStackable current, IStackable next, OpenGLContext c)
+	{
+		if (current == next)
+		{
+			return;
+		}
+
+		if (current == null)
+		{
+			OpenGLStack.push(stack, next, c);
+		}
+		else if (next == null)
+		{
+			OpenGLStack.pop(stack, current, c);
+		}
+		else
+		{
+			OpenGLStack.swap(stack, current, next, c);
+		}
+	}
+
+	private long getKey(AShader shader, Material material, boolean transparent, float depth)
+	{
+		long shaderId = getId(shader);
+		long materialId = getId(material);
+		long textureId = getId(material != null ? material.getTexture(Texture.ETextureType.DIFFUSE) : null);
+
+		/*
+		 * The bits of non-negative floats ascend with their value, the top 24 of them keep the order
+		 */
+		long depthBits = (Float.floatToIntBits(depth > 0 ? depth : 0) >>> (31 - DEPTH_BITS)) & DEPTH_MASK;
+
+		if (transparent)
+		{
+			return ((long) TRANSPARENT << 62)
+				| ((DEPTH_MASK - depthBits) << 38)
+				| (shaderId << 26)
+				| (materialId << 14)
+				| (textureId << 2);
+		}
+		else
+		{
+			return ((long) OPAQUE << 62)
+				| (shaderId << 50)
+				| (textureId << 38)
+				| (materialId << 26)
+				| (depthBits << 2);
+		}
+	}
+
+	/**
+	 * Returns a small id for the object, zero for {@code null}. Ids are handed out in order of first use
+	 * and are valid for one frame only. Once they run out, the remaining objects share the last id, which
+	 * only affects the grouping of the sort since submitting compares the state itself.
+	 */
+	private int getId(Object object)
+	{
+		if (object == null)
+		{
+			return 0;
+		}
+
+		Integer id = ids.get(object);
+		if (id == null)
+		{
+			id = Math.min(ids.size() + 1, ID_MASK);
+			ids.put(object, id);
+		}
+		return id;
+	}
+}
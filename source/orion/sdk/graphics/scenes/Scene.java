@@ -14,6 +14,7 @@ import orion.sdk.graphics.shading.lighting.Material;
 import orion.sdk.graphics.util.OpenGLContext;
 import orion.sdk.graphics.util.OpenGLManager;
 import orion.sdk.graphics.util.OpenGLStack;
+import orion.sdk.graphics.viewing.FrustumCuller;
 import orion.sdk.graphics.viewing.cameras.ACamera;
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.geometry.Box;
@@ -22,6 +23,14 @@ public class Scene implements IDrawable, IUpdatable
 {
 	private List<IDrawable> drawables = new ArrayList<IDrawable>();
 	private ACamera camera = null;
+	private FrustumCuller culler = null;
+	private RenderQueue renderQueue = new RenderQueue();
+	
+	/**
+	 * Draws the visible drawables through the render queue, sorted by state, if {@code true}. Otherwise
+	 * they are drawn in the order of the scene graph.
+	 */
+	public boolean sortByState = false;
 	protected boolean ready = true;
 	protected String name = null;
 	
@@ -32,6 +41,7 @@ public class Scene implements IDrawable, IUpdatable
 	{
 		this.setCamera(camera);
 		this.name = name;
+		this.culler = new FrustumCuller(name + ".culler");
 		
 		Capabilities capabilities = new Capabilities();
 		capabilities.mapAmbient = true;
@@ -111,22 +121,49 @@ public class Scene implements IDrawable, IUpdatable
 		 */
 		OpenGLStack.push(ACamera.class, this.getCamera(), c);		
 
+		/*
+		 * Push the culler, with the frustum of the camera as applied for this frame
+		 */
+		getCuller().begin(this.getCamera());
+		OpenGLStack.push(FrustumCuller.class, getCuller(), c);
+		
 		/*
 		 * Render each drawable if there are any
 		 */
-		if (this.getDrawables() != null)
+		if (this.getDrawables() != null && sortByState)
 		{
+			renderQueue.begin(this.getCamera());
 			for (int i = 0; i < this.getDrawables().size(); i++)
 			{
 				IDrawable drawable = this.getDrawables().get(i);
 				if (drawable.isVisible() && drawable.isReady())
+				{
+					renderQueue.collect(drawable, getCuller());
+				}
+			}
+			renderQueue.submit(c);
+			
+			OpenGLManager.getInstance().logDebugScreens(this, c);
+		}
+		else if (this.getDrawables() != null)
+		{
+			for (int i = 0; i < this.getDrawables().size(); i++)
+			{
+				IDrawable drawable = this.getDrawables().get(i);
+				if (drawable.isVisible() && drawable.isReady() && !getCuller().isCulled(drawable))
 				{
 					drawable.draw(c);
+					getCuller().countDrawn(drawable);
 					
 					OpenGLManager.getInstance().logDebugScreens(this, c);
 				}
 			}
 		}
+		
+		/*
+		 * Pop the culler
+		 */
+		OpenGLStack.pop(FrustumCuller.class, getCuller(), c);
 				
 		/*
 		 * Pop the camera
@@ -236,6 +273,23 @@ public class Scene implements IDrawable, IUpdatable
 		this.camera = camera;
 	}
 
+	/**
+	 * Returns the render queue of this scene, which also provides the state change counters of the last
+	 * frame.
+	 */
+	public RenderQueue getRenderQueue()
+	{
+		return renderQueue;
+	}
+
+	/**
+	 * Returns the culler of this scene, which also provides the culling counters of the last frame.
+	 */
+	public FrustumCuller getCuller()
+	{
+		return culler;
+	}
+
 	public List<IDrawable> getDrawables()
 	{
 		return drawables;
@@ -30,6 +30,9 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 	
 	protected Map<String, Integer> uniforms = new TreeMap<String, Integer>();
 	protected Map<String, Integer> attributes = new TreeMap<String, Integer>();
+	protected UniformCache uniformCache = new UniformCache();
+	protected ShaderVariant variant = null;
+	private final float[] uniformValues = new float[16];
 
 	protected AShader(String name)
 	{
@@ -40,6 +43,19 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 	
 	public abstract String getFragmentSource();
 	
+	/**
+	 * Returns a name which covers everything the attribute bindings of the shader depend on, so that
+	 * shaders with the same name and source can share a program.
+	 */
+	protected String getVariantName()
+	{
+		return getClass().getName();
+	}
+	
+	/**
+	 * Uses the program of a {@link ShaderVariant} with the same name and source if one was built already,
+	 * and builds one otherwise, from a cached binary if there is one.
+	 */
 	@Override
 	public void upload(OpenGLContext c) throws GLException
 	{
@@ -58,9 +74,70 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 
 		OpenGLManager.getInstance().checkError(c, this);
 
-		shaderProgram = c.gl().glCreateProgram();		
+		String key = ShaderManager.getVariantKey(getVariantName(), vertexSource, fragmentSource);
+		ShaderVariant shared = ShaderManager.acquireVariant(key);
+		if (shared != null)
+		{
+			useVariant(shared);
+		}
+		else
+		{
+			shaderProgram = c.gl().glCreateProgram();
+			useVariant(new ShaderVariant(key, shaderProgram));
+			
+			long start = System.nanoTime();
+			variant.compileTime = ShaderManager.loadBinary(c, key, shaderProgram);
+			if (variant.compileTime < 0)
+			{
+				compile(c, vertexSource, fragmentSource);
+				variant.compileTime = System.nanoTime() - start;
+				ShaderManager.storeBinary(c, key, shaderProgram, variant.compileTime);
+			}
+			
+			/*
+			* Read active attribute and uniform locations
+			*/
+			setLinkVariables(c);      
+			OpenGLManager.getInstance().checkError(c, this);
+			ShaderManager.addVariant(variant);
+		}
+		
+		resolveUniforms(c);
+		OpenGLManager.getInstance().checkError(c, this);
+		
+		/*
+		 * Shader uploaded
+		 */
+		ready = true;
+		
+		/*
+		 * Log shader information
+		 */
+		OpenGLManager.getInstance().logDebugIncident(Incident.newInformation("Shader source [" + shaderProgram + "]", new Object[] {this.getShaderInformation()}));
+		
+		OpenGLManager.getInstance().popDebug();
+	}
+	
+	private void useVariant(ShaderVariant variant)
+	{
+		this.variant = variant;
+		this.shaderProgram = variant.program;
+		this.uniforms = variant.uniforms;
+		this.attributes = variant.attributes;
+		this.uniformCache = variant.uniformCache;
+		this.vertexShader = variant.vertexShader;
+		this.fragmentShader = variant.fragmentShader;
+	}
+	
+	/**
+	 * Compiles the shaders and links them into the program of the variant.
+	 */
+	private void compile(OpenGLContext c, String vertexSource, String fragmentSource) throws GLException
+	{
 		vertexShader = new VertexShader(getName() + "_vertex", vertexSource, shaderProgram);
 		fragmentShader = new FragmentShader(getName() + "_fragment", fragmentSource, shaderProgram);
+		variant.vertexShader = vertexShader;
+		variant.fragmentShader = fragmentShader;
 		
 		/*
 		 * Upload vertex and fragment shaders.
@@ -82,26 +159,9 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		/*
 		 * Link the shader program
 		*/      
+		ShaderManager.prepareBinary(c, shaderProgram);
 		c.gl().glLinkProgram(shaderProgram);            
 		OpenGLManager.getInstance().checkError(c, this);
-		
-		/*
-		* Read active attribute and uniform locations
-		*/
-		setLinkVariables(c);      
-		OpenGLManager.getInstance().checkError(c, this);
-		
-		/*
-		 * Shader uploaded
-		 */
-		ready = true;
-		
-		/*
-		 * Log shader information
-		 */
-		OpenGLManager.getInstance().logDebugIncident(Incident.newInformation("Shader source [" + shaderProgram + "]", new Object[] {this.getShaderInformation()}));
-		
-		OpenGLManager.getInstance().popDebug();
 	}
 	
 	protected String[] getShaderInformation()
@@ -149,23 +209,21 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		OpenGLManager.getInstance().pushDebug("Releasing", this);
 		OpenGLManager.getInstance().checkError(c, this);
 
-		if (vertexShader != null)
-		{
-			vertexShader.release(c);
-			vertexShader = null;
-		}
-		
-		if (fragmentShader != null)
-		{
-			fragmentShader.release(c);
-			fragmentShader = null;
-		}
-		      
-		if (shaderProgram != -1)
+		/*
+		 * The program is deleted with the last shader using it
+		 */
+		if (variant != null)
 		{
-			c.gl().glDeleteProgram(shaderProgram);
-			shaderProgram = -1;
+			if (ShaderManager.releaseVariant(variant))
+			{
+				variant.release(c);
+			}
+			variant = null;
 		}
+		vertexShader = null;
+		fragmentShader = null;
+		shaderProgram = -1;
+		ready = false;
 		
 		OpenGLManager.getInstance().checkError(c, this);
 		OpenGLManager.getInstance().popDebug();
@@ -218,7 +276,7 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		AShader shader = (AShader) OpenGLStack.peek(AShaderProgram.class);
 		if (shader != null)
 		{
-			c.gl().glUseProgram(shader.shaderProgram);
+			c.state().useProgram(shader.shaderProgram);
 			OpenGLManager.getInstance().checkError(c);
 			return true;
 		}
@@ -236,7 +294,7 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		AShader shader = (AShader) OpenGLStack.peek(AShaderProgram.class);
 		if (shader != null)
 		{
-			c.gl().glUseProgram(0);
+			c.state().useProgram(0);
 			OpenGLManager.getInstance().checkError(c);
 			return true;
 		}
@@ -249,28 +307,36 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 	@Override
 	public boolean isReady()
 	{
-		return 
-			vertexShader != null && vertexShader.isReady() && 
-			fragmentShader != null && fragmentShader.isReady() && 
-			ready;
+		return ready && shaderProgram != -1;
 	}
 	
 	abstract protected void bindAttributes(OpenGLContext c) throws GLException;
 	
 	abstract protected void uploadUniforms(OpenGLContext c) throws GLException;	
 	
+	/**
+	 * Resolves the locations of uniforms once the program is linked or shared. Called on every upload,
+	 * unlike {@link #setLinkVariables(OpenGLContext)}, which only runs when the program is built.
+	 */
+	protected void resolveUniforms(OpenGLContext c)
+	{
+	}
+	
 	protected void setLinkVariables(OpenGLContext c)
 	{		
 		List<String> activeUniforms = getActiveUniforms(c);
 		uniforms.clear();
+		int locationCount = 0;
 		for (String uniform : activeUniforms)
 		{
 			int uniformLoc = c.gl().glGetUniformLocation(shaderProgram, uniform);
 			if (uniformLoc != -1)
 			{
 				uniforms.put(uniform, uniformLoc);
+				locationCount = Math.max(locationCount, uniformLoc + 1);
 			}
 		}
+		uniformCache.reset(locationCount);
 		
 		List<String> activeAttributes = getActiveAttributes(c);
 		attributes.clear();
@@ -372,12 +438,27 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		}
 	}
 
+	/**
+	 * Returns the locations of the uniforms {@code prefix + i + suffix} for {@code i} below {@code count},
+	 * such as the members of an array of structures. Uniforms which are not active get location -1.
+	 */
+	protected int[] getUniformLocations(String prefix, int count, String suffix)
+	{
+		int[] locations = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			Integer location = uniforms.get(prefix + i + suffix);
+			locations[i] = location != null ? location : -1;
+		}
+		return locations;
+	}
+
 	protected void setUniform(OpenGLContext c, String name, int x, boolean check) throws Exception
 	{
 		int location = getUniformLocation(name, check);
 		if (location != -1)
 		{
-			c.gl().glUniform1iARB(location, x);
+			setUniform(c, location, x);
 			
 			OpenGLManager.getInstance().checkError(c, this);
 		}
@@ -388,7 +469,7 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		int location = getUniformLocation(name, check);
 		if (location != -1)
 		{
-			c.gl().glUniform1f(location, x);
+			setUniform(c, location, x);
 			
 			OpenGLManager.getInstance().checkError(c, this);
 		}
@@ -399,27 +480,76 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		int location = getUniformLocation(name, check);
 		if (location != -1)
 		{
-			int length = v.getLength();
-			switch (length)
-			{
-				case 3:
-					c.gl().glUniform3fv(location, 1, v.columnMajor(), 0);
-					break;
-				case 4:
-					c.gl().glUniform4fv(location, 1, v.columnMajor(), 0);
-					break;
-				case 9:
-					c.gl().glUniformMatrix3fv(location, 1, true, v.columnMajor(), 0);
-					break;
-				case 16:
-					c.gl().glUniformMatrix4fv(location, 1, true, v.columnMajor(), 0);
-					break;
-			}
+			setUniform(c, location, v);
 			
 			OpenGLManager.getInstance().checkError(c, this);
 		}
 	}
 	
+	/*
+	 * The following setters take a location resolved when the program was linked. They skip location -1
+	 * and values which did not change since the last upload, and leave checking for errors to the caller.
+	 */
+	
+	protected void setUniform(OpenGLContext c, int location, int x)
+	{
+		if (uniformCache.update(location, x))
+		{
+			c.gl().glUniform1iARB(location, x);
+		}
+	}
+	
+	protected void setUniform(OpenGLContext c, int location, float x)
+	{
+		if (uniformCache.update(location, x))
+		{
+			c.gl().glUniform1f(location, x);
+		}
+	}
+	
+	protected void setUniform(OpenGLContext c, int location, IFloatMatrix v)
+	{
+		int length = v.getLength();
+		if (location != -1 && length <= uniformValues.length)
+		{
+			int index = 0;
+			for (int column = 0; column < v.getColumnCount(); column++)
+			{
+				for (int row = 0; row < v.getRowCount(); row++)
+				{
+					uniformValues[index++] = v.get(row, column);
+				}
+			}
+			setUniform(c, location, uniformValues, length);
+		}
+	}
+	
+	/**
+	 * Sets a vector of three or four values or a 3x3 or 4x4 matrix given in column major order.
+	 */
+	protected void setUniform(OpenGLContext c, int location, float[] values, int length)
+	{
+		if (!uniformCache.update(location, values, 0, length))
+		{
+			return;
+		}
+		switch (length)
+		{
+			case 3:
+				c.gl().glUniform3fv(location, 1, values, 0);
+				break;
+			case 4:
+				c.gl().glUniform4fv(location, 1, values, 0);
+				break;
+			case 9:
+				c.gl().glUniformMatrix3fv(location, 1, true, values, 0);
+				break;
+			case 16:
+				c.gl().glUniformMatrix4fv(location, 1, true, values, 0);
+				break;
+		}
+	}
+	
 	@Override
 	public void apply(OpenGLContext c)
 	{
@@ -436,7 +566,7 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 		/*
 		 * Use the shader program
 		 */
-		c.gl().glUseProgram(shaderProgram);	
+		c.state().useProgram(shaderProgram);	
 				
 		/*
 		 * Upload shader uniform values
@@ -449,7 +579,7 @@ public abstract class AShader extends ProgramBuilder implements IUploadable, ISt
 	@Override
 	public void clear(OpenGLContext c)
 	{
-		c.gl().glUseProgram(0);
+		c.state().useProgram(0);
 		OpenGLManager.getInstance().checkError(c, this);
 	}
 	
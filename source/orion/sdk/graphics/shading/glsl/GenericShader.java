@@ -1,5 +1,9 @@
 package orion.sdk.graphics.shading.glsl;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import com.jogamp.opengl.GLException;
@@ -14,9 +18,14 @@ import orion.sdk.graphics.util.OpenGLStack;
 import orion.sdk.graphics.viewing.cameras.ACamera;
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.Mat3f;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
 import orion.sdk.math.geometry.Box;
 import orion.sdk.node.Node;
+import orion.sdk.node.containers.ContainerNode;
 import orion.sdk.node.drawables.EntityNode;
+import orion.sdk.node.drawables.InstancedNode;
 import orion.sdk.node.drawables.LightNode;
 import orion.sdk.node.drawables.VolumeNode;
 
@@ -31,9 +40,51 @@ public class GenericShader extends AShader
 	public static final int MAX_LIGHTS = 10;
 	public static final int MAX_VOLUME_CHUNKS = 64;
 	
+	/*
+	 * Binding points and std140 sizes of the uniform blocks, see Capabilities.flagUniformBuffers
+	 */
+	public static final int LIGHT_BLOCK_BINDING = 0;
+	public static final int VOLUME_CHUNK_BLOCK_BINDING = 1;
+	static final int FLOATS_PER_LIGHT = 16;
+	static final int FLOATS_PER_VOLUME_CHUNK = 16;
+	
+	private static final int MATERIAL_STACK = OpenGLStack.getHandle(Material.class);
+	private static final int NODE_STACK = OpenGLStack.getHandle(Node.class);
+	private static final int CAMERA_STACK = OpenGLStack.getHandle(ACamera.class);
+	
 	protected Capabilities capabilities = null;
 	protected Node rootNode = null;
 	
+	/*
+	 * Uniform locations, resolved when the program is linked
+	 */
+	private int alphaMapLocation = -1;
+	private int ambientMapLocation = -1;
+	private int diffuseMapLocation = -1;
+	private int specularMapLocation = -1;
+	private int normalMapLocation = -1;
+	private int vertexTransformLocation = -1;
+	private int normalTransformLocation = -1;
+	private int camLocation = -1;
+	private int[] frustumLocations = new int[0];
+	private int[] lightPositionLocations = new int[0];
+	private int[] lightDiffuseLocations = new int[0];
+	private int[] lightSpecularLocations = new int[0];
+	private int[] lightEnabledLocations = new int[0];
+	private int[] chunkPosStartLocations = new int[0];
+	private int[] chunkPosEndLocations = new int[0];
+	private int[] chunkTexStartLocations = new int[0];
+	private int[] chunkTexEndLocations = new int[0];
+	private int[] chunkEnabledLocations = new int[0];
+	
+	private UniformBuffer lightBuffer = null;
+	private UniformBuffer volumeChunkBuffer = null;
+	
+	private final Mat4f vertexTransform = new Mat4f();
+	private final Mat3f normalTransform = new Mat3f();
+	private final Vec4f observer = new Vec4f();
+	private final float[] values = new float[16];
+	
 	/**
 	 * Constructs a generic shader.
 	 */
@@ -50,11 +101,15 @@ public class GenericShader extends AShader
 		
 		if (this.rootNode != null)
 		{
-			List<Node> lightNodes = this.rootNode.findNodes(LightNode.class);			
+			List<Node> lightNodes = this.getNodes(LightNode.class);			
 			int index = 0;
 			
 			for (Node node : lightNodes)
 			{
+				if (index == MAX_LIGHTS)
+				{
+					break;
+				}
 				LightNode lightNode = (LightNode) node;
 				lights[index] = lightNode.getLight();
 				index++;
@@ -70,7 +125,7 @@ public class GenericShader extends AShader
 		
 		if (this.rootNode != null)
 		{
-			List<Node> volumeNodes = this.rootNode.findNodes(VolumeNode.class);
+			List<Node> volumeNodes = this.getNodes(VolumeNode.class);
 			int index = 0;
 			
 			for (Node node : volumeNodes)
@@ -80,6 +135,10 @@ public class GenericShader extends AShader
 				
 				for (VolumeChunk volumeChunk : volumeChunkList)
 				{
+					if (index == MAX_VOLUME_CHUNKS)
+					{
+						break;
+					}
 					volumeChunks[index] = volumeChunk;
 					index++;
 				}
@@ -89,6 +148,22 @@ public class GenericShader extends AShader
 		return volumeChunks;		
 	}
 	
+	/**
+	 * Returns the nodes of the given class below the root node. Containers answer from their registry,
+	 * which is kept up to date as children are added and removed.
+	 */
+	protected List<Node> getNodes(Class<?> nodeClass) throws Exception
+	{
+		if (this.rootNode instanceof ContainerNode)
+		{
+			return ((ContainerNode) this.rootNode).getRegistry().getNodes(nodeClass);
+		}
+		else
+		{
+			return this.rootNode.findNodes(nodeClass);
+		}
+	}
+	
 	public static int getPositionLocation()
 	{
 		return 0;
@@ -114,6 +189,20 @@ public class GenericShader extends AShader
 		return 4;
 	}
 	
+	/**
+	 * Returns the location of the first of the three rows of the instance transformation, which take
+	 * the following locations.
+	 */
+	public static int getInstanceLocation()
+	{
+		return 5;
+	}
+	
+	public static int getInstanceColorLocation()
+	{
+		return 8;
+	}
+	
 	@Override
 	protected void bindAttributes(OpenGLContext c) throws GLException
 	{
@@ -138,16 +227,106 @@ public class GenericShader extends AShader
 		{
 			c.gl().glBindAttribLocation(shaderProgram, getCenterLocation(), "center");
 		}		
+		if (hasInstance())
+		{
+			for (int i = 0; i < 3; i++)
+			{
+				c.gl().glBindAttribLocation(shaderProgram, getInstanceLocation() + i, "instanceRow" + i);
+			}
+			c.gl().glBindAttribLocation(shaderProgram, getInstanceColorLocation(), "instanceColor");
+		}		
 		OpenGLManager.getInstance().checkError(c, this);		
 	}
 	
 	protected Material getMaterial()
 	{
-		Material material = (Material) OpenGLStack.peek(Material.class);
+		Material material = (Material) OpenGLStack.peek(MATERIAL_STACK);
 		
 		return material;
 	}
 	
+	/**
+	 * Includes the capabilities, which the attribute bindings and the generated source depend on.
+	 */
+	@Override
+	protected String getVariantName()
+	{
+		return super.getVariantName() + ":" + capabilities.getKey();
+	}
+	
+	@Override
+	protected void resolveUniforms(OpenGLContext c)
+	{
+		alphaMapLocation = getLinkedLocation("alphaMap");
+		ambientMapLocation = getLinkedLocation("ambientMap");
+		diffuseMapLocation = getLinkedLocation("diffuseMap");
+		specularMapLocation = getLinkedLocation("specularMap");
+		normalMapLocation = getLinkedLocation("normalMap");
+		vertexTransformLocation = getLinkedLocation("vertexTransform");
+		normalTransformLocation = getLinkedLocation("normalTransform");
+		camLocation = getLinkedLocation("cam");
+		frustumLocations = getUniformLocations("frustum", 8, "");
+		
+		if (capabilities.flagUniformBuffers)
+		{
+			if (lightBuffer == null)
+			{
+				lightBuffer = new UniformBuffer("LightBlock", LIGHT_BLOCK_BINDING, MAX_LIGHTS * FLOATS_PER_LIGHT);
+			}
+			lightBuffer.link(c, shaderProgram);
+			
+			if (capabilities.flagVolume)
+			{
+				if (volumeChunkBuffer == null)
+				{
+					volumeChunkBuffer = new UniformBuffer("VolumeChunkBlock", VOLUME_CHUNK_BLOCK_BINDING, MAX_VOLUME_CHUNKS * FLOATS_PER_VOLUME_CHUNK);
+				}
+				volumeChunkBuffer.link(c, shaderProgram);
+			}
+		}
+		else
+		{
+			lightPositionLocations = getUniformLocations("lights[", MAX_LIGHTS, "].position");
+			lightDiffuseLocations = getUniformLocations("lights[", MAX_LIGHTS, "].diffuse");
+			lightSpecularLocations = getUniformLocations("lights[", MAX_LIGHTS, "].specular");
+			lightEnabledLocations = getUniformLocations("lights[", MAX_LIGHTS, "].enabled");
+			
+			if (capabilities.flagVolume)
+			{
+				chunkPosStartLocations = getUniformLocations("volumeChunks[", MAX_VOLUME_CHUNKS, "].posStart");
+				chunkPosEndLocations = getUniformLocations("volumeChunks[", MAX_VOLUME_CHUNKS, "].posEnd");
+				chunkTexStartLocations = getUniformLocations("volumeChunks[", MAX_VOLUME_CHUNKS, "].texStart");
+				chunkTexEndLocations = getUniformLocations("volumeChunks[", MAX_VOLUME_CHUNKS, "].texEnd");
+				chunkEnabledLocations = getUniformLocations("volumeChunks[", MAX_VOLUME_CHUNKS, "].enabled");
+			}
+		}
+	}
+	
+	private int getLinkedLocation(String name)
+	{
+		Integer location = uniforms.get(name);
+		return location != null ? location : -1;
+	}
+	
+	@Override
+	public void release(OpenGLContext c) throws GLException
+	{
+		super.release(c);
+		
+		if (lightBuffer != null)
+		{
+			lightBuffer.release(c);
+		}
+		if (volumeChunkBuffer != null)
+		{
+			volumeChunkBuffer.release(c);
+		}
+	}
+	
+	/**
+	 * Uploads the uniforms through the locations resolved when the program was linked, skipping values
+	 * which did not change since the last upload.
+	 */
 	@Override
 	protected void uploadUniforms(OpenGLContext c) throws GLException
 	{
@@ -162,27 +341,27 @@ public class GenericShader extends AShader
 			{
 				if (capabilities.mapAlpha && material.getTexture(ETextureType.ALPHA) != null)
 				{				
-					setUniform(c, "alphaMap", material.getTexture(ETextureType.ALPHA).getLayer(), true);
+					setUniform(c, alphaMapLocation, material.getTexture(ETextureType.ALPHA).getLayer());
 				}
 				
 				if (capabilities.mapAmbient && material.getTexture(ETextureType.AMBIENT) != null)
 				{				
-					setUniform(c, "ambientMap", material.getTexture(ETextureType.AMBIENT).getLayer(), true);
+					setUniform(c, ambientMapLocation, material.getTexture(ETextureType.AMBIENT).getLayer());
 				}
 				
 				if (capabilities.mapDiffuse && material.getTexture(ETextureType.DIFFUSE) != null)
 				{
-					setUniform(c, "diffuseMap", material.getTexture(ETextureType.DIFFUSE).getLayer(), true);
+					setUniform(c, diffuseMapLocation, material.getTexture(ETextureType.DIFFUSE).getLayer());
 				}
 				
 				if (capabilities.mapSpecular && material.getTexture(ETextureType.SPECULAR) != null)
 				{
-					setUniform(c, "specularMap", material.getTexture(ETextureType.SPECULAR).getLayer(), true);
+					setUniform(c, specularMapLocation, material.getTexture(ETextureType.SPECULAR).getLayer());
 				}
 				
 				if (capabilities.mapNormal && material.getTexture(ETextureType.NORMAL) != null)
 				{
-					setUniform(c, "normalMap", material.getTexture(ETextureType.NORMAL).getLayer(), true);
+					setUniform(c, normalMapLocation, material.getTexture(ETextureType.NORMAL).getLayer());
 				}
 			}
 			
@@ -191,21 +370,29 @@ public class GenericShader extends AShader
 			 */
 			Light[] lights = this.getLights();
 			
-			for (int i = 0; i < MAX_LIGHTS; i++)
+			if (lightBuffer != null)
 			{
-				Light light = lights[i];
-				
-				if (light != null)
+				packLights(lights, lightBuffer.getData());
+				lightBuffer.apply(c);
+			}
+			else
+			{
+				for (int i = 0; i < MAX_LIGHTS; i++)
 				{
-					setUniform(c, "lights[" + i + "].position", light.position, true);
-					setUniform(c, "lights[" + i + "].diffuse", light.diffuse, true);
-					setUniform(c, "lights[" + i + "].specular", light.specular, true);
-					setUniform(c, "lights[" + i + "].enabled", 1.0f, true);
+					Light light = lights[i];
+					
+					if (light != null)
+					{
+						setUniform(c, lightPositionLocations[i], light.position);
+						setUniform(c, lightDiffuseLocations[i], light.diffuse);
+						setUniform(c, lightSpecularLocations[i], light.specular);
+						setUniform(c, lightEnabledLocations[i], 1.0f);
+					}
+					else
+					{
+						setUniform(c, lightEnabledLocations[i], 0.0f);
+					}				
 				}
-				else
-				{
-					setUniform(c, "lights[" + i + "].enabled", 0.0f, true);
-				}				
 			}
 			
 			/*
@@ -215,42 +402,53 @@ public class GenericShader extends AShader
 			{
 				VolumeChunk[] volumeChunks = this.getVolumeChunks();
 				
-				for (int i = 0; i < MAX_VOLUME_CHUNKS; i++)
+				if (volumeChunkBuffer != null)
 				{
-					VolumeChunk volumeChunk = i < volumeChunks.length ? volumeChunks[i] : null;
-					
-					if (volumeChunk != null)
+					packVolumeChunks(volumeChunks, volumeChunkBuffer.getData());
+					volumeChunkBuffer.apply(c);
+				}
+				else
+				{
+					for (int i = 0; i < MAX_VOLUME_CHUNKS; i++)
 					{
-						Box posBounds = volumeChunk.getPositionBounds();
-						Box texBounds = volumeChunk.getTextureBounds();
-						setUniform(c, "volumeChunks[" + i + "].posStart", posBounds.getStart(), true);
-						setUniform(c, "volumeChunks[" + i + "].posEnd", posBounds.getEnd(), true);
-						setUniform(c, "volumeChunks[" + i + "].texStart", texBounds.getStart(), true);
-						setUniform(c, "volumeChunks[" + i + "].texEnd", texBounds.getEnd(), true);
-						setUniform(c, "volumeChunks[" + i + "].enabled", 1.0f, true);			
+						VolumeChunk volumeChunk = i < volumeChunks.length ? volumeChunks[i] : null;
+						
+						if (volumeChunk != null)
+						{
+							Box posBounds = volumeChunk.getPositionBounds();
+							Box texBounds = volumeChunk.getTextureBounds();
+							setUniform(c, chunkPosStartLocations[i], posBounds.getStart());
+							setUniform(c, chunkPosEndLocations[i], posBounds.getEnd());
+							setUniform(c, chunkTexStartLocations[i], texBounds.getStart());
+							setUniform(c, chunkTexEndLocations[i], texBounds.getEnd());
+							setUniform(c, chunkEnabledLocations[i], 1.0f);			
+						}
+						else
+						{
+							setUniform(c, chunkEnabledLocations[i], 0.0f);
+						}				
 					}
-					else
-					{
-						setUniform(c, "volumeChunks[" + i + "].enabled", 0.0f, true);
-					}				
 				}
 			}
 			
 			/*
 			 * Upload vertex, normal and texture transformations
 			 */
-			Node node = (Node) OpenGLStack.peek(Node.class);			
+			Node node = (Node) OpenGLStack.peek(NODE_STACK);			
 			if (node != null)
 			{
 				if (node instanceof EntityNode)
 				{		
 					EntityNode entityNode = (EntityNode) node;
 					
-					IFloatMatrix vertexTransform = entityNode.getVertexTransformation();
-					setUniform(c, "vertexTransform", vertexTransform, false);
+					entityNode.getVertexTransformation(vertexTransform);
+					setUniform(c, vertexTransformLocation, vertexTransform.columnMajor(values, 0), 16);
 					
-					IFloatMatrix normalTransform = entityNode.getNormalTransformation();
-					setUniform(c, "normalTransform", normalTransform, false);
+					if (normalTransformLocation != -1)
+					{
+						entityNode.getNormalTransformation(normalTransform);
+						setUniform(c, normalTransformLocation, normalTransform.columnMajor(values, 0), 9);
+					}
 				}
 
 			}
@@ -258,11 +456,15 @@ public class GenericShader extends AShader
 			/*
 			 * Upload the camera position and frustum
 			 */
-			ACamera camera = (ACamera) OpenGLStack.peek(ACamera.class);
+			ACamera camera = (ACamera) OpenGLStack.peek(CAMERA_STACK);
 			if (camera != null)
 			{
-				IFloatMatrix cam = camera.getObserver();
-				setUniform(c, "cam", cam, true);
+				camera.getObserver(observer);
+				values[0] = observer.x;
+				values[1] = observer.y;
+				values[2] = observer.z;
+				values[3] = observer.w;
+				setUniform(c, camLocation, values, 4);
 				
 				if (capabilities.flagVolume)
 				{
@@ -270,7 +472,7 @@ public class GenericShader extends AShader
 					
 					for (int i = 0; i < 8; i++)
 					{
-						setUniform(c, "frustum" + i, frustum[i], true);
+						setUniform(c, frustumLocations[i], frustum[i]);
 					}
 				}
 			}
@@ -281,6 +483,70 @@ public class GenericShader extends AShader
 		}		
 	}
 	
+	/**
+	 * Writes the lights in the std140 layout of the light block, where each light takes sixteen floats.
+	 */
+	static void packLights(Light[] lights, float[] data)
+	{
+		for (int i = 0; i < MAX_LIGHTS; i++)
+		{
+			int offset = i * FLOATS_PER_LIGHT;
+			Light light = i < lights.length ? lights[i] : null;
+			
+			if (light != null)
+			{
+				putVector(light.position, data, offset);
+				putVector(light.diffuse, data, offset + 4);
+				putVector(light.specular, data, offset + 8);
+				data[offset + 12] = 1.0f;
+			}
+			else
+			{
+				data[offset + 12] = 0.0f;
+			}
+		}
+	}
+	
+	/**
+	 * Writes the volume chunks in the std140 layout of the volume chunk block. The vectors of a chunk are
+	 * aligned to four floats, and the enabled flag fills the last of them.
+	 */
+	static void packVolumeChunks(VolumeChunk[] volumeChunks, float[] data)
+	{
+		for (int i = 0; i < MAX_VOLUME_CHUNKS; i++)
+		{
+			int offset = i * FLOATS_PER_VOLUME_CHUNK;
+			VolumeChunk volumeChunk = i < volumeChunks.length ? volumeChunks[i] : null;
+			
+			if (volumeChunk != null)
+			{
+				Box posBounds = volumeChunk.getPositionBounds();
+				Box texBounds = volumeChunk.getTextureBounds();
+				putVector(posBounds.getStart(), data, offset);
+				putVector(posBounds.getEnd(), data, offset + 4);
+				putVector(texBounds.getStart(), data, offset + 8);
+				putVector(texBounds.getEnd(), data, offset + 12);
+				data[offset + 15] = 1.0f;
+			}
+			else
+			{
+				data[offset + 15] = 0.0f;
+			}
+		}
+	}
+	
+	/**
+	 * Writes up to four components of a vector.
+	 */
+	private static void putVector(IFloatMatrix v, float[] data, int offset)
+	{
+		int length = Math.min(v.getLength(), 4);
+		for (int i = 0; i < length; i++)
+		{
+			data[offset + i] = v.get(i);
+		}
+	}
+	
 	public boolean hasPosition()
 	{
 		return true;
@@ -306,6 +572,11 @@ public class GenericShader extends AShader
 		return capabilities.attribCenter;
 	}	
 	
+	public boolean hasInstance()
+	{
+		return capabilities.attribInstance;
+	}	
+	
 	@Override
 	public String getVertexSource()
 	{
@@ -325,6 +596,17 @@ public class GenericShader extends AShader
 			TB0 + "attribute vec4 center;" + NL +
 			TB0 + NL +
 			
+			(capabilities.attribInstance
+				?
+					TB0 + "attribute vec4 instanceRow0;" + NL +
+					TB0 + "attribute vec4 instanceRow1;" + NL +
+					TB0 + "attribute vec4 instanceRow2;" + NL +
+					TB0 + "attribute vec4 instanceColor;" + NL +
+					TB0 + NL
+				:
+					""
+			) +
+			
 			TB0 + "varying vec4 pos;" + NL +
 			TB0 + "varying vec3 nor;" + NL +
 			TB0 + "varying vec2 uv;" + NL +
@@ -363,6 +645,12 @@ public class GenericShader extends AShader
 					TB1 + "pos = position;" + NL
 				) +
 				
+				(capabilities.attribInstance ?
+					TB1 + "pos = vec4(dot(instanceRow0, pos), dot(instanceRow1, pos), dot(instanceRow2, pos), pos.w);" + NL
+				:
+					""
+				) +
+				
 				(capabilities.flagVolume ?
 						
 						TB1 + "vec4 nearTop = (1 - pos.x) * frustum0 + pos.x * frustum1;" + NL +
@@ -384,8 +672,21 @@ public class GenericShader extends AShader
 				) +
 				
 				TB1 + "gl_Position = gl_ProjectionMatrix * gl_ModelViewMatrix * pos;" + NL +				
-				TB1 + "nor = normalize(normal);" + NL +
-				TB1 + "col = color;" + NL +
+				(capabilities.attribInstance ?
+					/*
+					 * Normals are transformed by the cofactors of the instance rows, which is the
+					 * inverse-transpose up to the determinant, so non-uniform scales keep them
+					 * perpendicular; the sign of the determinant undoes mirroring.
+					 */
+					TB1 + "vec3 cof0 = cross(instanceRow1.xyz, instanceRow2.xyz);" + NL +
+					TB1 + "vec3 cof1 = cross(instanceRow2.xyz, instanceRow0.xyz);" + NL +
+					TB1 + "vec3 cof2 = cross(instanceRow0.xyz, instanceRow1.xyz);" + NL +
+					TB1 + "nor = normalize(sign(dot(instanceRow0.xyz, cof0)) * vec3(dot(cof0, normal), dot(cof1, normal), dot(cof2, normal)));" + NL +
+					TB1 + "col = color * instanceColor;" + NL
+				:
+					TB1 + "nor = normalize(normal);" + NL +
+					TB1 + "col = color;" + NL
+				) +
 				TB1 + "uv = texture.xy;" + NL +
 			TB0 + "}" + NL;				
 	}
@@ -394,6 +695,15 @@ public class GenericShader extends AShader
 	public String getFragmentSource()
 	{
 		return
+			(capabilities.flagUniformBuffers
+				?
+					TB0 + "#version 120" + NL +
+					TB0 + "#extension GL_ARB_uniform_buffer_object : require" + NL +
+					TB0 + NL
+				:
+					""
+			) +
+			
 			TB0 + "struct Light" + NL +
 			TB0 + "{" + NL +
 				TB1 + "vec4 position;" + NL +
@@ -423,12 +733,28 @@ public class GenericShader extends AShader
 			(capabilities.flagVolume
 				?
 					TB0 + "varying vec4 nextPos;" + NL +
-					TB0 + "uniform VolumeChunk volumeChunks[" + MAX_VOLUME_CHUNKS + "];" + NL
+					(capabilities.flagUniformBuffers
+						?
+							TB0 + "layout(std140) uniform VolumeChunkBlock" + NL +
+							TB0 + "{" + NL +
+								TB1 + "VolumeChunk volumeChunks[" + MAX_VOLUME_CHUNKS + "];" + NL +
+							TB0 + "};" + NL
+						:
+							TB0 + "uniform VolumeChunk volumeChunks[" + MAX_VOLUME_CHUNKS + "];" + NL
+					)
 				:
 					""
 			) + NL +
 			
-			TB0 + "uniform Light lights[" + MAX_LIGHTS + "];" + NL +			
+			(capabilities.flagUniformBuffers
+				?
+					TB0 + "layout(std140) uniform LightBlock" + NL +
+					TB0 + "{" + NL +
+						TB1 + "Light lights[" + MAX_LIGHTS + "];" + NL +
+					TB0 + "};" + NL
+				:
+					TB0 + "uniform Light lights[" + MAX_LIGHTS + "];" + NL
+			) +			
 			TB0 + "uniform vec4 cam;" + NL +
 			TB0 + NL +
 			
@@ -906,11 +1232,22 @@ public class GenericShader extends AShader
 		 */
 		public boolean attribCenter = false;
 		
+		/**
+		 * Reads a transformation and a color per instance, see {@link InstancedNode}
+		 */
+		public boolean attribInstance = false;
+		
 		/*
 		 * Shader flags
 		 */
 		public boolean flagVolume = false;				
 		
+		/**
+		 * Packs the lights and volume chunks into uniform buffer objects, which requires
+		 * GL_ARB_uniform_buffer_object
+		 */
+		public boolean flagUniformBuffers = false;
+		
 		/*
 		 * Data dimensions
 		 */
@@ -929,6 +1266,40 @@ public class GenericShader extends AShader
 		 * General
 		 */
 		public float minAlpha = 0.05f;
+		
+		/**
+		 * Returns the values of all capabilities ordered by name, which is equal for equal capabilities.
+		 */
+		public String getKey()
+		{
+			Field[] fields = getClass().getFields();
+			Arrays.sort(fields, new Comparator<Field>()
+			{
+				@Override
+				public int compare(Field a, Field b)
+				{
+					return a.getName().compareTo(b.getName());
+				}
+			});
+			
+			StringBuilder key = new StringBuilder();
+			for (Field field : fields)
+			{
+				if (Modifier.isStatic(field.getModifiers()))
+				{
+					continue;
+				}
+				try
+				{
+					key.append(field.getName()).append('=').append(field.get(this)).append(';');
+				}
+				catch (IllegalAccessException e)
+				{
+					throw new IllegalStateException(e);
+				}
+			}
+			return key.toString();
+		}
 	}
 
 	@Override
@@ -0,0 +1,159 @@
+package orion.sdk.graphics.shading.glsl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import orion.sdk.util.Shell;
+
+/**
+ * Stores linked shader programs as binaries in a directory, one file per variant key. Each file starts with
+ * the driver the binary was retrieved from, so that binaries of another driver or driver version are not
+ * loaded, and the time the program took to compile and link, so that the time saved by loading it can be
+ * reported.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class ProgramBinaryCache
+{
+	private static final int FILE_VERSION = 1;
+	private static final String EXTENSION = ".bin";
+
+	private final File directory;
+
+	public ProgramBinaryCache(File directory)
+	{
+		this.directory = directory;
+	}
+
+	public File getDirectory()
+	{
+		return directory;
+	}
+
+	/**
+	 * Returns the binary stored for the key, or {@code null} if there is none for the driver. Files which
+	 * are stale or cannot be read are removed.
+	 */
+	public Binary load(String key, String driver)
+	{
+		File file = getFile(key);
+		if (!file.isFile())
+		{
+			return null;
+		}
+
+		DataInputStream input = null;
+		try
+		{
+			input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (input.readInt() != FILE_VERSION || !input.readUTF().equals(driver))
+			{
+				input.close();
+				input = null;
+				file.delete();
+				return null;
+			}
+			long compileTime = input.readLong();
+			int format = input.readInt();
+			byte[] data = new byte[input.readInt()];
+			input.readFully(data);
+			return new Binary(format, data, compileTime);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			close(input);
+			input = null;
+			file.delete();
+			return null;
+		}
+		finally
+		{
+			close(input);
+		}
+	}
+
+	/**
+	 * Stores the binary for the key. The file is written next to its final location and renamed, so that
+	 * an interrupted write leaves no partial binary behind.
+	 */
+	public void store(String key, String driver, Binary binary) throws Exception
+	{
+		Shell.makeDirectories(directory);
+
+		File file = getFile(key);
+		File temporary = new File(directory, key + ".tmp");
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+		try
+		{
+			output.writeInt(FILE_VERSION);
+			output.writeUTF(driver);
+			output.writeLong(binary.compileTime);
+			output.writeInt(binary.format);
+			output.writeInt(binary.data.length);
+			output.write(binary.data);
+		}
+		finally
+		{
+			output.close();
+		}
+
+		file.delete();
+		if (!temporary.renameTo(file))
+		{
+			temporary.delete();
+			throw new IOException("Failed to store program binary '" + file + "'");
+		}
+	}
+
+	public void remove(String key)
+	{
+		getFile(key).delete();
+	}
+
+	private File getFile(String key)
+	{
+		return new File(directory, key + EXTENSION);
+	}
+
+	private static void close(DataInputStream input)
+	{
+		if (input != null)
+		{
+			try
+			{
+				input.close();
+			}
+			catch (IOException e)
+			{
+			}
+		}
+	}
+
+	/**
+	 * A program binary in the format reported by the driver.
+	 */
+	public static class Binary
+	{
+		public final int format;
+		public final byte[] data;
+
+		/**
+		 * The time in nanoseconds the program took to compile and link.
+		 */
+		public final long compileTime;
+
+		public Binary(int format, byte[] data, long compileTime)
+		{
+			this.format = format;
+			this.data = data;
+			this.compileTime = compileTime;
+		}
+	}
+}
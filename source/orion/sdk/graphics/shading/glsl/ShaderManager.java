@@ -1,21 +1,322 @@
 package orion.sdk.graphics.shading.glsl;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLException;
 
+import orion.sdk.graphics.util.OpenGLContext;
 import orion.sdk.graphics.util.OpenGLStack;
+import orion.sdk.monitoring.incidents.Incident;
+import orion.sdk.monitoring.incidents.IncidentManager;
 
+/**
+ * Shares linked programs between shaders of the same variant and, if {@link #binaryCache} is set, keeps their
+ * binaries in a {@link ProgramBinaryCache}, so that programs are compiled once rather than once per shader and once per
+ * start. A variant is identified by a hash of the variant name of the shader, which covers everything its
+ * attribute bindings depend on, and of its generated source.
+ */
 public class ShaderManager
 {
+	public static boolean shareVariants = true;
+
+	/**
+	 * The cache program binaries are loaded from and stored in, or {@code null} to always compile. Caching is
+	 * opt-in, since the application has to choose a writable directory for it.
+	 */
+	public static ProgramBinaryCache binaryCache = null;
+
+	private static final Map<String, ShaderVariant> variants = new HashMap<String, ShaderVariant>();
+	private static String driver = null;
+	private static Boolean binarySupported = null;
+
+	private static int compiledCount = 0;
+	private static int loadedCount = 0;
+	private static int sharedCount = 0;
+	private static long compileTime = 0;
+	private static long savedTime = 0;
+	private static boolean reported = true;
 
 	public static AShader getActiveShader()
 	{
 		AShader shader = (AShader) OpenGLStack.peek(AShader.class);
-		
+
 		if (shader != null)
 		{
 			return shader;
 		}
-		
+
 		throw new GLException("No active shader");
 	}
+
+	/**
+	 * Returns the key of a variant, a hexadecimal SHA-256 hash of its name and sources.
+	 */
+	public static String getVariantKey(String variantName, String vertexSource, String fragmentSource)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(variantName.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(vertexSource.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(fragmentSource.getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder key = new StringBuilder();
+			for (byte b : digest.digest())
+			{
+				key.append(Character.forDigit((b >> 4) & 0xF, 16));
+				key.append(Character.forDigit(b & 0xF, 16));
+			}
+			return key.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new GLException("Failed to hash shader variant", e);
+		}
+	}
+
+	/**
+	 * Returns the variant with the key and adds a reference to it, or returns {@code null} if there is none.
+	 */
+	public static synchronized ShaderVariant acquireVariant(String key)
+	{
+		ShaderVariant variant = shareVariants ? variants.get(key) : null;
+		if (variant != null)
+		{
+			variant.references++;
+			sharedCount++;
+			savedTime += variant.compileTime;
+			reported = false;
+		}
+		return variant;
+	}
+
+	/**
+	 * Adds a newly built variant with a reference to it.
+	 */
+	public static synchronized void addVariant(ShaderVariant variant)
+	{
+		variant.references++;
+		if (shareVariants)
+		{
+			variants.put(variant.key, variant);
+		}
+	}
+
+	/**
+	 * Removes a reference to the variant and returns {@code true} if it was the last, in which case the
+	 * variant has to be released.
+	 */
+	public static synchronized boolean releaseVariant(ShaderVariant variant)
+	{
+		variant.references--;
+		if (variant.references > 0)
+		{
+			return false;
+		}
+		if (variants.get(variant.key) == variant)
+		{
+			variants.remove(variant.key);
+		}
+		return true;
+	}
+
+	/**
+	 * Forgets all variants without releasing them, such as after the OpenGL context was lost.
+	 */
+	public static synchronized void invalidateVariants()
+	{
+		variants.clear();
+		driver = null;
+		binarySupported = null;
+	}
+
+	/**
+	 * Asks the driver to keep the binary of the program retrievable, if binaries are cached. Must be called
+	 * before the program is linked.
+	 */
+	static void prepareBinary(OpenGLContext c, int program)
+	{
+		if (binaryCache != null && isBinarySupported(c))
+		{
+			c.gl().glProgramParameteri(program, GL2.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL2.GL_TRUE);
+		}
+	}
+
+	/**
+	 * Loads the cached binary of the variant into the program and returns the time in nanoseconds it took to
+	 * compile, or -1 if there was no binary for the driver or the driver rejected it.
+	 */
+	static long loadBinary(OpenGLContext c, String key, int program)
+	{
+		if (binaryCache == null || !isBinarySupported(c))
+		{
+			return -1;
+		}
+
+		long start = System.nanoTime();
+		ProgramBinaryCache.Binary binary = binaryCache.load(key, getDriver(c));
+		if (binary == null)
+		{
+			return -1;
+		}
+
+		GL2 gl = c.gl();
+		ByteBuffer data = ByteBuffer.allocateDirect(binary.data.length);
+		data.put(binary.data);
+		data.flip();
+		gl.glProgramBinary(program, binary.format, data, binary.data.length);
+
+		int[] status = new int[1];
+		gl.glGetProgramiv(program, GL2.GL_LINK_STATUS, status, 0);
+		if (status[0] != GL2.GL_TRUE)
+		{
+			/*
+			 * The driver may reject binaries for reasons the driver strings do not show
+			 */
+			gl.glGetError();
+			binaryCache.remove(key);
+			return -1;
+		}
+
+		synchronized (ShaderManager.class)
+		{
+			loadedCount++;
+			savedTime += Math.max(binary.compileTime - (System.nanoTime() - start), 0);
+			reported = false;
+		}
+		return binary.compileTime;
+	}
+
+	/**
+	 * Counts a compiled variant and stores the binary of its linked program, if binaries are cached.
+	 */
+	static void storeBinary(OpenGLContext c, String key, int program, long time)
+	{
+		synchronized (ShaderManager.class)
+		{
+			compiledCount++;
+			compileTime += time;
+			reported = false;
+		}
+
+		if (binaryCache == null || !isBinarySupported(c))
+		{
+			return;
+		}
+
+		GL2 gl = c.gl();
+		int[] length = new int[1];
+		gl.glGetProgramiv(program, GL2.GL_PROGRAM_BINARY_LENGTH, length, 0);
+		if (length[0] <= 0)
+		{
+			return;
+		}
+
+		int[] format = new int[1];
+		ByteBuffer data = ByteBuffer.allocateDirect(length[0]);
+		gl.glGetProgramBinary(program, length[0], length, 0, format, 0, data);
+		byte[] bytes = new byte[length[0]];
+		data.get(bytes);
+
+		try
+		{
+			binaryCache.store(key, getDriver(c), new ProgramBinaryCache.Binary(format[0], bytes, time));
+		}
+		catch (Exception e)
+		{
+			IncidentManager.notifyIncident(Incident.newWarning("Failed to store program binary", e));
+		}
+	}
+
+	private static synchronized boolean isBinarySupported(OpenGLContext c)
+	{
+		if (binarySupported == null)
+		{
+			GL2 gl = c.gl();
+			int[] formats = new int[1];
+			if (gl.isFunctionAvailable("glProgramBinary") && gl.isFunctionAvailable("glGetProgramBinary"))
+			{
+				gl.glGetIntegerv(GL2.GL_NUM_PROGRAM_BINARY_FORMATS, formats, 0);
+			}
+			binarySupported = formats[0] > 0;
+		}
+		return binarySupported;
+	}
+
+	/**
+	 * Returns the vendor, renderer and versions of the driver, which binaries are only valid for.
+	 */
+	private static synchronized String getDriver(OpenGLContext c)
+	{
+		if (driver == null)
+		{
+			GL2 gl = c.gl();
+			driver =
+				gl.glGetString(GL2.GL_VENDOR) + "|" +
+				gl.glGetString(GL2.GL_RENDERER) + "|" +
+				gl.glGetString(GL2.GL_VERSION) + "|" +
+				gl.glGetString(GL2.GL_SHADING_LANGUAGE_VERSION);
+		}
+		return driver;
+	}
+
+	public static synchronized int getCompiledCount()
+	{
+		return compiledCount;
+	}
+
+	public static synchronized int getLoadedCount()
+	{
+		return loadedCount;
+	}
+
+	public static synchronized int getSharedCount()
+	{
+		return sharedCount;
+	}
+
+	/**
+	 * Returns the time in nanoseconds spent compiling programs.
+	 */
+	public static synchronized long getCompileTime()
+	{
+		return compileTime;
+	}
+
+	/**
+	 * Returns the time in nanoseconds saved by sharing programs and loading their binaries.
+	 */
+	public static synchronized long getSavedTime()
+	{
+		return savedTime;
+	}
+
+	/**
+	 * Reports the programs built and the time saved since the last report, if any were built.
+	 */
+	public static void reportStatistics()
+	{
+		String message;
+		synchronized (ShaderManager.class)
+		{
+			if (reported)
+			{
+				return;
+			}
+			reported = true;
+			message =
+				"Shaders: " + compiledCount + " compiled in " + compileTime / 1000000 + " ms, " +
+				loadedCount + " loaded from binaries, " + sharedCount + " shared, " +
+				savedTime / 1000000 + " ms saved";
+		}
+		IncidentManager.notifyIncident(Incident.newInformation(message));
+	}
 }
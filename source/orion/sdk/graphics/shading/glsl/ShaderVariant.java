@@ -0,0 +1,81 @@
+package orion.sdk.graphics.shading.glsl;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.jogamp.opengl.GLException;
+
+import orion.sdk.graphics.util.OpenGLContext;
+
+/**
+ * A linked shader program shared by all shaders with the same variant key, along with the state which
+ * belongs to the program rather than to a shader: the uniform and attribute locations and the values last
+ * uploaded to the uniforms. Variants are counted by the {@link ShaderManager} and released with the last
+ * shader using them.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class ShaderVariant
+{
+	protected final String key;
+	protected final int program;
+	protected AShaderProgram vertexShader = null;
+	protected AShaderProgram fragmentShader = null;
+
+	protected final Map<String, Integer> uniforms = new TreeMap<String, Integer>();
+	protected final Map<String, Integer> attributes = new TreeMap<String, Integer>();
+	protected final UniformCache uniformCache = new UniformCache();
+
+	/**
+	 * The time in nanoseconds the program takes to compile and link, which each reuse saves.
+	 */
+	protected long compileTime = 0;
+
+	protected int references = 0;
+
+	public ShaderVariant(String key, int program)
+	{
+		this.key = key;
+		this.program = program;
+	}
+
+	public String getKey()
+	{
+		return key;
+	}
+
+	public int getProgram()
+	{
+		return program;
+	}
+
+	public int getReferences()
+	{
+		return references;
+	}
+
+	/**
+	 * Deletes the program and its shaders.
+	 */
+	public void release(OpenGLContext c) throws GLException
+	{
+		if (vertexShader != null)
+		{
+			vertexShader.release(c);
+			vertexShader = null;
+		}
+
+		if (fragmentShader != null)
+		{
+			fragmentShader.release(c);
+			fragmentShader = null;
+		}
+
+		if (program != -1)
+		{
+			c.state().deleteProgram(program);
+		}
+		uniformCache.reset(0);
+	}
+}
@@ -0,0 +1,135 @@
+package orion.sdk.graphics.shading.glsl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLException;
+
+import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.graphics.util.OpenGLManager;
+
+/**
+ * Backs a uniform block of a shader program with a uniform buffer object. The values are written into
+ * {@link #getData()} in the std140 layout of the block, and applying the buffer uploads the range which
+ * changed since the last upload and binds the buffer to the binding point of the block.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class UniformBuffer
+{
+	private final String blockName;
+	private final int binding;
+	private final float[] data;
+	private final float[] uploaded;
+	private final int[] buffer = new int[1];
+	private boolean valid = false;
+	private FloatBuffer staging = null;
+
+	/**
+	 * Creates a buffer for the block {@code blockName} with {@code size} floats, bound to the binding point
+	 * {@code binding}.
+	 */
+	public UniformBuffer(String blockName, int binding, int size)
+	{
+		this.blockName = blockName;
+		this.binding = binding;
+		this.data = new float[size];
+		this.uploaded = new float[size];
+	}
+
+	/**
+	 * Returns the values to be uploaded on the next apply.
+	 */
+	public float[] getData()
+	{
+		return data;
+	}
+
+	/**
+	 * Binds the block of the linked program to the binding point and allocates the buffer. Returns
+	 * {@code false} if the program has no such block.
+	 */
+	public boolean link(OpenGLContext c, int program) throws GLException
+	{
+		GL2 gl = c.gl();
+		int index = gl.glGetUniformBlockIndex(program, blockName);
+		if (index == GL2.GL_INVALID_INDEX)
+		{
+			return false;
+		}
+		gl.glUniformBlockBinding(program, index, binding);
+
+		if (buffer[0] == 0)
+		{
+			gl.glGenBuffers(1, buffer, 0);
+			c.state().bindBuffer(GL2.GL_UNIFORM_BUFFER, buffer[0]);
+			gl.glBufferData(GL2.GL_UNIFORM_BUFFER, (long) data.length * 4, null, GL2.GL_DYNAMIC_DRAW);
+			c.state().bindBuffer(GL2.GL_UNIFORM_BUFFER, 0);
+		}
+		valid = false;
+
+		OpenGLManager.getInstance().checkError(c);
+		return true;
+	}
+
+	/**
+	 * Uploads the changed values and binds the buffer to the binding point.
+	 */
+	public void apply(OpenGLContext c) throws GLException
+	{
+		if (buffer[0] == 0)
+		{
+			return;
+		}
+
+		int first = 0, last = data.length - 1;
+		if (valid)
+		{
+			while (first <= last && data[first] == uploaded[first])
+			{
+				first++;
+			}
+			while (last >= first && data[last] == uploaded[last])
+			{
+				last--;
+			}
+		}
+
+		GL2 gl = c.gl();
+		if (first <= last)
+		{
+			int length = last - first + 1;
+			if (staging == null)
+			{
+				staging = ByteBuffer.allocateDirect(data.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+			}
+			staging.clear();
+			staging.put(data, first, length);
+			staging.flip();
+
+			c.state().bindBuffer(GL2.GL_UNIFORM_BUFFER, buffer[0]);
+			gl.glBufferSubData(GL2.GL_UNIFORM_BUFFER, (long) first * 4, (long) length * 4, staging);
+			System.arraycopy(data, first, uploaded, first, length);
+			valid = true;
+		}
+
+		/*
+		 * Binding to an indexed binding point also binds the generic target
+		 */
+		gl.glBindBufferBase(GL2.GL_UNIFORM_BUFFER, binding, buffer[0]);
+		c.state().invalidateBuffer(GL2.GL_UNIFORM_BUFFER);
+	}
+
+	public void release(OpenGLContext c) throws GLException
+	{
+		if (buffer[0] != 0)
+		{
+			c.state().deleteBuffers(1, buffer, 0);
+			buffer[0] = 0;
+			valid = false;
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package orion.sdk.graphics.shading.glsl;
+
+/**
+ * Keeps the values last uploaded to the uniforms of a shader program, indexed by their locations, so that
+ * unchanged values are not uploaded again. Uniform values belong to the program and persist while it is
+ * linked, so the cache is reset whenever the program is linked or deleted.
+ *
+ * Locations beyond the size given on reset are not cached and always reported as changed.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class UniformCache
+{
+	private float[][] values = new float[0][];
+	private int uploadedCount = 0;
+	private int skippedCount = 0;
+
+	/**
+	 * Forgets all values and makes room for the locations below {@code locationCount}.
+	 */
+	public void reset(int locationCount)
+	{
+		values = new float[Math.max(locationCount, 0)][];
+	}
+
+	/**
+	 * Stores the value and returns {@code true} if it differs from the one stored before and has to be
+	 * uploaded. Returns {@code false} for location -1, which marks uniforms that are not active.
+	 */
+	public boolean update(int location, float x)
+	{
+		if (location < 0)
+		{
+			return false;
+		}
+		if (location >= values.length)
+		{
+			uploadedCount++;
+			return true;
+		}
+
+		float[] stored = values[location];
+		if (stored != null && stored.length == 1 && stored[0] == x)
+		{
+			skippedCount++;
+			return false;
+		}
+		if (stored == null || stored.length != 1)
+		{
+			stored = values[location] = new float[1];
+		}
+		stored[0] = x;
+		uploadedCount++;
+		return true;
+	}
+
+	/**
+	 * Stores {@code length} values starting at {@code offset} and returns {@code true} if they differ from
+	 * the ones stored before.
+	 */
+	public boolean update(int location, float[] v, int offset, int length)
+	{
+		if (location < 0)
+		{
+			return false;
+		}
+		if (location >= values.length)
+		{
+			uploadedCount++;
+			return true;
+		}
+
+		float[] stored = values[location];
+		if (stored != null && stored.length == length)
+		{
+			boolean changed = false;
+			for (int i = 0; i < length; i++)
+			{
+				if (stored[i] != v[offset + i])
+				{
+					changed = true;
+					break;
+				}
+			}
+			if (!changed)
+			{
+				skippedCount++;
+				return false;
+			}
+		}
+		else
+		{
+			stored = values[location] = new float[length];
+		}
+		System.arraycopy(v, offset, stored, 0, length);
+		uploadedCount++;
+		return true;
+	}
+
+	/**
+	 * Returns the number of values reported as changed since the cache was created.
+	 */
+	public int getUploadedCount()
+	{
+		return uploadedCount;
+	}
+
+	/**
+	 * Returns the number of unchanged values since the cache was created.
+	 */
+	public int getSkippedCount()
+	{
+		return skippedCount;
+	}
+}
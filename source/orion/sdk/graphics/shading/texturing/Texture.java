@@ -470,9 +470,8 @@ public class Texture implements IUploadable, IStackable
 		}
 		
 		int glType = getGlTarget();			
-		c.gl().glActiveTexture(GL2.GL_TEXTURE0 + getLayer());			
-		c.gl().glEnable(glType);		
-		c.gl().glBindTexture(glType, textureId);			
+		c.state().setTextureEnabled(getLayer(), glType, true);		
+		c.state().bindTexture(getLayer(), glType, textureId);			
 		
 		OpenGLManager.getInstance().checkError(c, this);
 	}
@@ -481,9 +480,8 @@ public class Texture implements IUploadable, IStackable
 	public void clear(OpenGLContext c)
 	{
 		int glType = getGlTarget(); 
-		c.gl().glActiveTexture(GL2.GL_TEXTURE0 + getLayer());			
-		c.gl().glBindTexture(glType, 0);			
-		c.gl().glDisable(glType);
+		c.state().bindTexture(getLayer(), glType, 0);			
+		c.state().setTextureEnabled(getLayer(), glType, false);
 	}
 	
 	@Override
@@ -128,7 +128,7 @@ public class TextureStack implements IUploadable, IStackable
 		for (Texture.ETextureType layer : list)
 		{
 			Texture texture = this.textures.get(layer);
-			OpenGLStack.push(Texture.class, texture, c, texture.getLayer());
+			OpenGLStack.push(OpenGLStack.getHandle(Texture.class, texture.getLayer()), texture, c);
 		}
 	}
 	
@@ -141,7 +141,7 @@ public class TextureStack implements IUploadable, IStackable
 		for (Texture.ETextureType layer : list)
 		{
 			Texture texture = this.textures.get(layer);
-			OpenGLStack.pop(Texture.class, texture, c, texture.getLayer());
+			OpenGLStack.pop(OpenGLStack.getHandle(Texture.class, texture.getLayer()), texture, c);
 		}
 	}
 	
@@ -7,22 +7,52 @@ public class OpenGLContext
 {
 	private GL2 glHandle = null;
 	private GLUgl2 gluHandle= null;
+	private final OpenGLState state;
 	public float dt = -1;
 	public float[] viewport = null;
 
 	public OpenGLContext(GL2 gl, GLUgl2 glu, float dt, float[] viewport)
+	{
+		this(gl, glu, dt, viewport, new OpenGLState(gl));
+	}
+
+	/**
+	 * Creates a context on an existing shadowed state, which has to belong to the same OpenGL context.
+	 */
+	public OpenGLContext(GL2 gl, GLUgl2 glu, float dt, float[] viewport, OpenGLState state)
 	{
 		this.glHandle = gl;
 		this.gluHandle = glu;
 		this.dt = dt;
 		this.viewport = viewport;
+		this.state = state;
+	}
+	
+	private OpenGLContext(OpenGLContext c)
+	{
+		this.glHandle = c.glHandle;
+		this.gluHandle = c.gluHandle;
+		this.dt = c.dt;
+		this.viewport = c.viewport;
+		this.state = c.state;
 	}
 
+	/**
+	 * Returns a copy of the context, sharing the shadowed state since it refers to the same OpenGL context.
+	 */
 	public OpenGLContext copy()
 	{
-		OpenGLContext clone = new OpenGLContext(glHandle, gluHandle, dt, viewport);
+		OpenGLContext clone = new OpenGLContext(this);
 		return clone;
 	}
+	
+	/**
+	 * Returns the shadowed OpenGL state, through which state changes are made to drop redundant calls.
+	 */
+	public OpenGLState state()
+	{
+		return state;
+	}
 
 	public GL2 gl()
 	{
@@ -22,6 +22,7 @@ import com.jogamp.opengl.GLPipelineFactory;
 
 import orion.sdk.graphics.drawables.IDrawable;
 import orion.sdk.graphics.drawables.primitives.WireBox;
+import orion.sdk.graphics.shading.glsl.ShaderManager;
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.geometry.Box;
 import orion.sdk.monitoring.incidents.Incident;
@@ -240,7 +241,7 @@ public class OpenGLManager implements INamed
 	{
 		if (bounds != null)
 		{
-			c.gl().glEnable(GL2.GL_DEPTH_TEST);
+			c.state().enable(GL2.GL_DEPTH_TEST);
 			
 			FloatMatrix color = FloatMatrix.vector(0.5f, 0.8f, 0.7f, 1.0f);
 			WireBox box = new WireBox("replacement", bounds, color);
@@ -269,8 +270,10 @@ public class OpenGLManager implements INamed
 				/*
 				 * Allow alpha blending
 				 */
-				c.gl().glEnable(GL.GL_BLEND);
-				c.gl().glBlendFunc(GL2.GL_SRC_ALPHA, GL2.GL_ONE_MINUS_SRC_ALPHA);
+				c.state().beginFrame();
+				c.state().reportStatistics();
+				c.state().enable(GL.GL_BLEND);
+				c.state().blendFunc(GL2.GL_SRC_ALPHA, GL2.GL_ONE_MINUS_SRC_ALPHA);
 		
 				
 				while (this.getAlterationQueueSize() > 0)
@@ -324,6 +327,11 @@ public class OpenGLManager implements INamed
 				
 				OpenGLStack.validateStack();		
 				
+				/*
+				 * Report the time shaders took to build once they were uploaded
+				 */
+				ShaderManager.reportStatistics();
+				
 				popDebug();
 				
 				IncidentManager.cutover();
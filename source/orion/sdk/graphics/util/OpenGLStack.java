@@ -1,117 +1,239 @@
 package orion.sdk.graphics.util;
 
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Set;
-import java.util.Stack;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.jogamp.opengl.GLException;
 
 import orion.sdk.monitoring.incidents.Incident;
 
+/**
+ * Keeps a stack of applied objects per slot, such as the shaders, the materials or the textures of one
+ * texture unit. A slot is resolved once into an integer handle by {@link #getHandle(Class, Object...)},
+ * after which pushing, popping and peeking index a preallocated array of stacks. The methods taking a
+ * class and a context resolve the handle on each call and are kept for convenience.
+ *
+ * The stacks are owned by the OpenGL thread. Other threads may peek and see a recent state.
+ */
 public class OpenGLStack
 {
-	private static Map<String, Stack<IStackable>> states = new TreeMap<String, Stack<IStackable>>();
-	
+	private static final int INITIAL_SLOTS = 64;
+
+	private static final Map<Class<?>, Integer> classHandles = new ConcurrentHashMap<Class<?>, Integer>();
+	private static final Map<Class<?>, int[]> unitHandles = new ConcurrentHashMap<Class<?>, int[]>();
+	private static final Map<SlotKey, Integer> contextHandles = new ConcurrentHashMap<SlotKey, Integer>();
+
+	private static volatile Slot[] slots = new Slot[INITIAL_SLOTS];
+	private static int slotCount = 0;
+
 	protected OpenGLStack()
 	{
 	}
-	
+
+	/**
+	 * Returns the handle of the stack for {@code stackClass} in the given context, creating the stack on
+	 * first use.
+	 */
+	public static int getHandle(Class<?> stackClass, Object... stackContext)
+	{
+		if (stackContext.length == 0)
+		{
+			Integer handle = classHandles.get(stackClass);
+			return handle != null ? handle : createHandle(stackClass, stackContext);
+		}
+		else if (stackContext.length == 1 && stackContext[0] instanceof Integer)
+		{
+			return getHandle(stackClass, ((Integer) stackContext[0]).intValue());
+		}
+		else
+		{
+			Integer handle = contextHandles.get(new SlotKey(stackClass, stackContext));
+			return handle != null ? handle : createHandle(stackClass, stackContext);
+		}
+	}
+
+	/**
+	 * Returns the handle of the stack for {@code stackClass} on a unit, such as a texture unit.
+	 */
+	public static int getHandle(Class<?> stackClass, int unit)
+	{
+		int[] handles = unitHandles.get(stackClass);
+		if (handles != null && unit >= 0 && unit < handles.length && handles[unit] >= 0)
+		{
+			return handles[unit];
+		}
+		return createHandle(stackClass, new Object[] { unit });
+	}
+
+	private static synchronized int createHandle(Class<?> stackClass, Object[] stackContext)
+	{
+		boolean unit = stackContext.length == 1 && stackContext[0] instanceof Integer && (Integer) stackContext[0] >= 0;
+
+		/*
+		 * Another thread may have created the handle meanwhile
+		 */
+		Integer existing;
+		if (stackContext.length == 0)
+		{
+			existing = classHandles.get(stackClass);
+		}
+		else if (unit)
+		{
+			int[] handles = unitHandles.get(stackClass);
+			int index = (Integer) stackContext[0];
+			existing = handles != null && index < handles.length && handles[index] >= 0 ? handles[index] : null;
+		}
+		else
+		{
+			existing = contextHandles.get(new SlotKey(stackClass, stackContext));
+		}
+		if (existing != null)
+		{
+			return existing;
+		}
+
+		int handle = slotCount;
+		Slot[] current = slots;
+		if (handle == current.length)
+		{
+			current = Arrays.copyOf(current, current.length * 2);
+		}
+		current[handle] = new Slot(getKey(stackClass, stackContext));
+		slots = current;
+		slotCount++;
+
+		if (stackContext.length == 0)
+		{
+			classHandles.put(stackClass, handle);
+		}
+		else if (unit)
+		{
+			int index = (Integer) stackContext[0];
+			int[] handles = unitHandles.get(stackClass);
+			if (handles == null || index >= handles.length)
+			{
+				int length = handles == null ? 0 : handles.length;
+				handles = handles == null ? new int[index + 1] : Arrays.copyOf(handles, Math.max(index + 1, length * 2));
+				Arrays.fill(handles, length, handles.length, -1);
+			}
+			else
+			{
+				handles = handles.clone();
+			}
+			handles[index] = handle;
+			unitHandles.put(stackClass, handles);
+		}
+		else
+		{
+			contextHandles.put(new SlotKey(stackClass, stackContext), handle);
+		}
+
+		return handle;
+	}
+
 	private static String getKey(Class<?> stackClass, Object[] stackContext)
 	{
 		StringBuilder key = new StringBuilder();
 		key.append(stackClass.getName());
-		
+
 		for (int i = 0; i < stackContext.length; i++)
 		{
 			key.append(":");
 			key.append(stackContext[i].toString());
 		}
-		
+
 		return key.toString();
 	}
 
-	private static Stack<IStackable> getStateStack(String key)
+	private static Slot getSlot(int handle)
 	{
-		Stack<IStackable> stack = null;
-		
-		if (states.containsKey(key))
-		{
-			stack = states.get(key);
-		}
-		else
-		{
-			stack = new Stack<IStackable>();
-			states.put(key, stack);
-		}
-		
-		return stack;
+		return slots[handle];
 	}
-	
+
 	public static void apply(IStackable object, OpenGLContext c)
 	{
 		OpenGLManager.getInstance().pushDebug("Applying", object);
 		object.apply(c);
 		OpenGLManager.getInstance().popDebug();
 	}
-	
+
 	public static void clear(IStackable object, OpenGLContext c)
 	{
 		OpenGLManager.getInstance().pushDebug("Clearing", object);
 		object.clear(c);
 		OpenGLManager.getInstance().popDebug();
 	}
-	
+
 	public static void push(Class<?> stackClass, IStackable object, OpenGLContext c, Object... stackContext)
+	{
+		push(getHandle(stackClass, stackContext), object, c);
+	}
+
+	public static void push(int handle, IStackable object, OpenGLContext c)
 	{
 		if (object == null)
 		{
 			throw new GLException("Stack violation. Can't push NULL onto the stack.");
 		}
-		
-		String key = getKey(stackClass, stackContext);
-		Stack<IStackable> stack = getStateStack(key);
-		
-		OpenGLManager.getInstance().pushDebug("Pushing onto stack '" + key + "'", object);
+
+		Slot stack = getSlot(handle);
+		OpenGLManager manager = OpenGLManager.getInstance();
+		boolean debug = manager.isDebugEnabled();
+		if (debug)
+		{
+			manager.pushDebug("Pushing onto stack '" + stack.key + "'", object);
+		}
 
 		if (!stack.isEmpty())
 		{
 			IStackable peek = stack.peek();
 			OpenGLStack.clear(peek, c);
-		}		
-		
+		}
+
 		stack.push(object);
 		object.push(c);
 		OpenGLStack.apply(object, c);
-		
-		OpenGLManager.getInstance().logDebugIncident(Incident.newInformation("Stack '" + key + "'", stack.clone()));
-		
-		OpenGLManager.getInstance().popDebug();
+
+		if (debug)
+		{
+			manager.logDebugIncident(Incident.newInformation("Stack '" + stack.key + "'", stack.toList()));
+			manager.popDebug();
+		}
 	}
 
 	public static void pop(Class<?> stackClass, Object expected, OpenGLContext c, Object... stackContext)
+	{
+		pop(getHandle(stackClass, stackContext), expected, c);
+	}
+
+	public static void pop(int handle, Object expected, OpenGLContext c)
 	{
 		if (expected == null)
 		{
 			throw new GLException("Stack violation. Can't expect NULL from the stack.");
 		}
-		
-		String key = getKey(stackClass, stackContext);
-		Stack<IStackable> stack = getStateStack(key);
-				
+
+		Slot stack = getSlot(handle);
+
 		if (!stack.isEmpty())
 		{
 			IStackable actual = stack.pop();
-			
-			OpenGLManager.getInstance().pushDebug("Popping from stack '" + key + "'", actual);	
-			
+
+			OpenGLManager manager = OpenGLManager.getInstance();
+			boolean debug = manager.isDebugEnabled();
+			if (debug)
+			{
+				manager.pushDebug("Popping from stack '" + stack.key + "'", actual);
+			}
+
 			if (actual != expected)
 			{
-				String expectedName = OpenGLManager.getInstance().getShortDescription(expected);
-				String actualName = OpenGLManager.getInstance().getShortDescription(actual);
+				String expectedName = manager.getShortDescription(expected);
+				String actualName = manager.getShortDescription(actual);
 				throw new GLException("Stack violation. Unexpected object popped. Expected '" + expectedName + "' but got '" + actualName + "'.");
 			}
-			
+
 			actual.pop(c);
 			OpenGLStack.clear(actual, c);
 
@@ -120,43 +242,183 @@ public class OpenGLStack
 				IStackable peek = stack.peek();
 				OpenGLStack.apply(peek, c);
 			}
-			
-			OpenGLManager.getInstance().logDebugIncident(Incident.newInformation("Stack", stack.clone()));
-			
-			OpenGLManager.getInstance().popDebug();
+
+			if (debug)
+			{
+				manager.logDebugIncident(Incident.newInformation("Stack", stack.toList()));
+				manager.popDebug();
+			}
 		}
 		else
 		{
 			throw new GLException("Stack violation. Cannot pop empty stack.");
 		}
 	}
-	
-	public static IStackable peek(Class<?> stackClass, Object... stackContext)
+
+	/**
+	 * Replaces the top of the stack by {@code replacement}. Unlike popping and pushing, the object below is
+	 * not applied in between.
+	 */
+	public static void swap(Class<?> stackClass, Object expected, IStackable replacement, OpenGLContext c, Object... stackContext)
 	{
-		String key = getKey(stackClass, stackContext);
-		Stack<IStackable> stack = getStateStack(key);
-		
+		swap(getHandle(stackClass, stackContext), expected, replacement, c);
+	}
+
+	public static void swap(int handle, Object expected, IStackable replacement, OpenGLContext c)
+	{
+		if (expected == null || replacement == null)
+		{
+			throw new GLException("Stack violation. Can't swap NULL on the stack.");
+		}
+
+		Slot stack = getSlot(handle);
+
 		if (stack.isEmpty())
 		{
-			return null;
+			throw new GLException("Stack violation. Cannot swap on empty stack.");
 		}
-		else
+
+		IStackable actual = stack.peek();
+		OpenGLManager manager = OpenGLManager.getInstance();
+		if (actual != expected)
+		{
+			String expectedName = manager.getShortDescription(expected);
+			String actualName = manager.getShortDescription(actual);
+			throw new GLException("Stack violation. Unexpected object swapped. Expected '" + expectedName + "' but got '" + actualName + "'.");
+		}
+
+		boolean debug = manager.isDebugEnabled();
+		if (debug)
+		{
+			manager.pushDebug("Swapping on stack '" + stack.key + "'", replacement);
+		}
+
+		stack.pop();
+		actual.pop(c);
+		OpenGLStack.clear(actual, c);
+
+		stack.push(replacement);
+		replacement.push(c);
+		OpenGLStack.apply(replacement, c);
+
+		if (debug)
 		{
-			return stack.peek();			
+			manager.popDebug();
 		}
 	}
-	
+
+	public static IStackable peek(Class<?> stackClass, Object... stackContext)
+	{
+		return peek(getHandle(stackClass, stackContext));
+	}
+
+	public static IStackable peek(int handle)
+	{
+		return getSlot(handle).peek();
+	}
+
+	/**
+	 * Returns the number of objects on the stack.
+	 */
+	public static int size(int handle)
+	{
+		return getSlot(handle).size;
+	}
+
 	public static void validateStack()
 	{
-		Set<String> keys = OpenGLStack.states.keySet();
-		for (String key : keys)
+		Slot[] current = slots;
+		for (int i = 0; i < current.length && current[i] != null; i++)
 		{
-			Stack stack = states.get(key);
+			Slot stack = current[i];
 			if (!stack.isEmpty())
 			{
-				throw new GLException("Stack violation. Leak detected on stack '" + key + "'. Stack had " + stack.size()
+				throw new GLException("Stack violation. Leak detected on stack '" + stack.key + "'. Stack had " + stack.size
 						+ " elements left at the end of the pass completed.");
 			}
-		}		
+		}
+	}
+
+	/**
+	 * An unsynchronized stack backed by an array.
+	 */
+	private static final class Slot
+	{
+		private final String key;
+		private IStackable[] items = new IStackable[8];
+		private int size = 0;
+
+		private Slot(String key)
+		{
+			this.key = key;
+		}
+
+		private boolean isEmpty()
+		{
+			return size == 0;
+		}
+
+		private void push(IStackable object)
+		{
+			if (size == items.length)
+			{
+				items = Arrays.copyOf(items, size * 2);
+			}
+			items[size++] = object;
+		}
+
+		private IStackable pop()
+		{
+			IStackable object = items[--size];
+			items[size] = null;
+			return object;
+		}
+
+		private IStackable peek()
+		{
+			/*
+			 * Read once, since other threads may peek while the stack changes
+			 */
+			IStackable[] items = this.items;
+			int size = this.size;
+			return size > 0 && size <= items.length ? items[size - 1] : null;
+		}
+
+		private Object toList()
+		{
+			return Arrays.asList(Arrays.copyOf(items, size));
+		}
+	}
+
+	/**
+	 * Identifies a stack by its class and a context other than a unit.
+	 */
+	private static final class SlotKey
+	{
+		private final Class<?> stackClass;
+		private final Object[] stackContext;
+
+		private SlotKey(Class<?> stackClass, Object[] stackContext)
+		{
+			this.stackClass = stackClass;
+			this.stackContext = stackContext;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * stackClass.hashCode() + Arrays.hashCode(stackContext);
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if (!(object instanceof SlotKey))
+			{
+				return false;
+			}
+			SlotKey key = (SlotKey) object;
+			return stackClass == key.stackClass && Arrays.equals(stackContext, key.stackContext);
+		}
 	}
 }
@@ -0,0 +1,478 @@
+package orion.sdk.graphics.util;
+
+import java.util.Arrays;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GL2ES2;
+
+import orion.sdk.monitoring.incidents.Incident;
+import orion.sdk.monitoring.incidents.IncidentManager;
+
+/**
+ * Shadows the OpenGL state which is set through it, and drops calls which would not change that state. It
+ * tracks the program in use, the textures bound and enabled per texture unit, the bound buffers, the
+ * enabled capabilities, the blend color, the blend and depth functions and the viewport.
+ *
+ * State which is not known yet is always set. Code changing tracked state by calling OpenGL directly must
+ * call {@link #invalidate()} afterwards. The state is invalidated at the beginning of each frame, and the
+ * number of dropped calls of the last frame is kept for monitoring. One state is kept per OpenGL context
+ * across frames, so that the counts of the last frame survive.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class OpenGLState
+{
+	/**
+	 * Issues every call if {@code false}, while still counting the calls that would have been dropped.
+	 */
+	public static boolean dropRedundantCalls = true;
+
+	/**
+	 * Frames between two reports of the call counts of the last frame, or 0 to never report them.
+	 */
+	public static int reportInterval = 600;
+
+	public static final int MAX_TEXTURE_UNITS = 32;
+
+	private static final int UNKNOWN = Integer.MIN_VALUE;
+	private static final int[] TEXTURE_TARGETS = { GL2.GL_TEXTURE_1D, GL.GL_TEXTURE_2D, GL2.GL_TEXTURE_3D, GL.GL_TEXTURE_CUBE_MAP };
+
+	private final GL2ES2 gl;
+
+	private int program;
+	private int activeTextureUnit;
+	private final int[] textures = new int[MAX_TEXTURE_UNITS * TEXTURE_TARGETS.length];
+	private final int[] texturesEnabled = new int[MAX_TEXTURE_UNITS * TEXTURE_TARGETS.length];
+
+	/*
+	 * Buffers and capabilities are few, so they are kept in small arrays of keys and values
+	 */
+	private int[] bufferTargets = new int[4];
+	private int[] buffers = new int[4];
+	private int bufferCount;
+	private int[] capabilities = new int[16];
+	private int[] capabilitiesEnabled = new int[16];
+	private int capabilityCount;
+
+	private int blendSource;
+	private int blendDestination;
+	private int depthFunction;
+	private final float[] blendColor = new float[4];
+	private boolean blendColorKnown;
+	private final int[] viewport = new int[4];
+	private final int[] query = new int[1];
+
+	private int issuedCount = 0;
+	private int droppedCount = 0;
+	private int lastFrameIssuedCount = 0;
+	private int lastFrameDroppedCount = 0;
+	private int framesSinceReport = 0;
+
+	public OpenGLState(GL2ES2 gl)
+	{
+		this.gl = gl;
+		invalidate();
+	}
+
+	/**
+	 * Forgets all tracked state, so that the next call of each kind is issued.
+	 */
+	public void invalidate()
+	{
+		program = UNKNOWN;
+		activeTextureUnit = UNKNOWN;
+		Arrays.fill(textures, UNKNOWN);
+		Arrays.fill(texturesEnabled, UNKNOWN);
+		bufferCount = 0;
+		capabilityCount = 0;
+		blendSource = UNKNOWN;
+		blendDestination = UNKNOWN;
+		depthFunction = UNKNOWN;
+		blendColorKnown = false;
+		Arrays.fill(viewport, UNKNOWN);
+	}
+
+	/**
+	 * Starts counting the calls of a new frame and invalidates the state, which may have been changed
+	 * between frames.
+	 */
+	public void beginFrame()
+	{
+		lastFrameIssuedCount = issuedCount;
+		lastFrameDroppedCount = droppedCount;
+		issuedCount = 0;
+		droppedCount = 0;
+		invalidate();
+	}
+
+	/**
+	 * Returns the OpenGL handle the state is shadowing.
+	 */
+	public GL2ES2 getGL()
+	{
+		return gl;
+	}
+
+	/**
+	 * Reports the calls issued and dropped during the last frame, once every {@link #reportInterval} frames.
+	 */
+	public void reportStatistics()
+	{
+		if (reportInterval <= 0 || ++framesSinceReport < reportInterval)
+		{
+			return;
+		}
+		framesSinceReport = 0;
+		IncidentManager.notifyIncident(Incident.newInformation(
+			"OpenGL state: " + lastFrameIssuedCount + " calls issued, " + lastFrameDroppedCount + " dropped in the last frame"));
+	}
+
+	public int getIssuedCount()
+	{
+		return issuedCount;
+	}
+
+	public int getDroppedCount()
+	{
+		return droppedCount;
+	}
+
+	public int getLastFrameIssuedCount()
+	{
+		return lastFrameIssuedCount;
+	}
+
+	public int getLastFrameDroppedCount()
+	{
+		return lastFrameDroppedCount;
+	}
+
+	/**
+	 * Counts a call and returns {@code true} if it has to be issued.
+	 */
+	private boolean issue(boolean changed)
+	{
+		if (changed)
+		{
+			issuedCount++;
+			return true;
+		}
+		droppedCount++;
+		return !dropRedundantCalls;
+	}
+
+	public void useProgram(int program)
+	{
+		if (issue(this.program != program))
+		{
+			gl.glUseProgram(program);
+			this.program = program;
+		}
+	}
+
+	/**
+	 * Forgets the program if it is in use, since its name may be reused after it was deleted.
+	 */
+	public void deleteProgram(int program)
+	{
+		gl.glDeleteProgram(program);
+		if (this.program == program)
+		{
+			this.program = UNKNOWN;
+		}
+	}
+
+	public void activeTexture(int unit)
+	{
+		if (issue(activeTextureUnit != unit))
+		{
+			gl.glActiveTexture(GL.GL_TEXTURE0 + unit);
+			activeTextureUnit = unit;
+		}
+	}
+
+	/**
+	 * Binds the texture to the target of a texture unit, activating the unit if the binding changes.
+	 */
+	public void bindTexture(int unit, int target, int texture)
+	{
+		int slot = getTextureSlot(unit, target);
+		if (slot < 0)
+		{
+			activeTexture(unit);
+			issuedCount++;
+			gl.glBindTexture(target, texture);
+			return;
+		}
+
+		if (issue(textures[slot] != texture))
+		{
+			activeTexture(unit);
+			gl.glBindTexture(target, texture);
+			textures[slot] = texture;
+		}
+	}
+
+	/**
+	 * Enables or disables the texture target of a texture unit for the fixed function pipeline.
+	 */
+	public void setTextureEnabled(int unit, int target, boolean enabled)
+	{
+		int slot = getTextureSlot(unit, target);
+		int state = enabled ? 1 : 0;
+		if (slot < 0)
+		{
+			issuedCount++;
+		}
+		else if (issue(texturesEnabled[slot] != state))
+		{
+			texturesEnabled[slot] = state;
+		}
+		else
+		{
+			return;
+		}
+
+		activeTexture(unit);
+		if (enabled)
+		{
+			gl.glEnable(target);
+		}
+		else
+		{
+			gl.glDisable(target);
+		}
+	}
+
+	private static int getTextureSlot(int unit, int target)
+	{
+		if (unit < 0 || unit >= MAX_TEXTURE_UNITS)
+		{
+			return -1;
+		}
+		for (int i = 0; i < TEXTURE_TARGETS.length; i++)
+		{
+			if (TEXTURE_TARGETS[i] == target)
+			{
+				return unit * TEXTURE_TARGETS.length + i;
+			}
+		}
+		return -1;
+	}
+
+	public void bindBuffer(int target, int buffer)
+	{
+		int index = indexOf(bufferTargets, bufferCount, target);
+		if (issue(index < 0 || buffers[index] != buffer))
+		{
+			gl.glBindBuffer(target, buffer);
+			if (index < 0)
+			{
+				if (bufferCount == bufferTargets.length)
+				{
+					bufferTargets = Arrays.copyOf(bufferTargets, bufferCount * 2);
+					buffers = Arrays.copyOf(buffers, bufferCount * 2);
+				}
+				index = bufferCount++;
+				bufferTargets[index] = target;
+			}
+			buffers[index] = buffer;
+		}
+	}
+
+	/**
+	 * Deletes buffers and forgets the targets they were bound to.
+	 */
+	public void deleteBuffers(int count, int[] names, int offset)
+	{
+		gl.glDeleteBuffers(count, names, offset);
+		for (int i = 0; i < bufferCount; i++)
+		{
+			for (int j = offset; j < offset + count; j++)
+			{
+				if (buffers[i] == names[j])
+				{
+					buffers[i] = UNKNOWN;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forgets the buffer bound to the target, after it was bound by a call which is not tracked, such as
+	 * glBindBufferBase.
+	 */
+	public void invalidateBuffer(int target)
+	{
+		int index = indexOf(bufferTargets, bufferCount, target);
+		if (index >= 0)
+		{
+			buffers[index] = UNKNOWN;
+		}
+	}
+
+	public void enable(int capability)
+	{
+		setEnabled(capability, true);
+	}
+
+	public void disable(int capability)
+	{
+		setEnabled(capability, false);
+	}
+
+	public void setEnabled(int capability, boolean enabled)
+	{
+		int state = enabled ? 1 : 0;
+		int index = indexOf(capabilities, capabilityCount, capability);
+		if (issue(index < 0 || capabilitiesEnabled[index] != state))
+		{
+			if (enabled)
+			{
+				gl.glEnable(capability);
+			}
+			else
+			{
+				gl.glDisable(capability);
+			}
+			if (index < 0)
+			{
+				if (capabilityCount == capabilities.length)
+				{
+					capabilities = Arrays.copyOf(capabilities, capabilityCount * 2);
+					capabilitiesEnabled = Arrays.copyOf(capabilitiesEnabled, capabilityCount * 2);
+				}
+				index = capabilityCount++;
+				capabilities[index] = capability;
+			}
+			capabilitiesEnabled[index] = state;
+		}
+	}
+
+	/**
+	 * Returns whether the capability is enabled, asking OpenGL only if it is not known.
+	 */
+	public boolean isEnabled(int capability)
+	{
+		int index = indexOf(capabilities, capabilityCount, capability);
+		if (index >= 0)
+		{
+			return capabilitiesEnabled[index] == 1;
+		}
+		return gl.glIsEnabled(capability);
+	}
+
+	public void blendFunc(int source, int destination)
+	{
+		if (issue(blendSource != source || blendDestination != destination))
+		{
+			gl.glBlendFunc(source, destination);
+			blendSource = source;
+			blendDestination = destination;
+		}
+	}
+
+	/**
+	 * Returns the source factor of the blend function, asking OpenGL only if it is not known.
+	 */
+	public int getBlendSource()
+	{
+		if (blendSource == UNKNOWN)
+		{
+			blendSource = getInteger(GL2ES2.GL_BLEND_SRC_RGB);
+		}
+		return blendSource;
+	}
+
+	/**
+	 * Returns the destination factor of the blend function, asking OpenGL only if it is not known.
+	 */
+	public int getBlendDestination()
+	{
+		if (blendDestination == UNKNOWN)
+		{
+			blendDestination = getInteger(GL2ES2.GL_BLEND_DST_RGB);
+		}
+		return blendDestination;
+	}
+
+	public void blendColor(float red, float green, float blue, float alpha)
+	{
+		if (issue(!blendColorKnown || blendColor[0] != red || blendColor[1] != green || blendColor[2] != blue || blendColor[3] != alpha))
+		{
+			gl.glBlendColor(red, green, blue, alpha);
+			blendColor[0] = red;
+			blendColor[1] = green;
+			blendColor[2] = blue;
+			blendColor[3] = alpha;
+			blendColorKnown = true;
+		}
+	}
+
+	/**
+	 * Copies the blend color into {@code color} and returns it, asking OpenGL only if it is not known.
+	 */
+	public float[] getBlendColor(float[] color)
+	{
+		if (!blendColorKnown)
+		{
+			gl.glGetFloatv(GL2ES2.GL_BLEND_COLOR, blendColor, 0);
+			blendColorKnown = true;
+		}
+		System.arraycopy(blendColor, 0, color, 0, 4);
+		return color;
+	}
+
+	public void depthFunc(int function)
+	{
+		if (issue(depthFunction != function))
+		{
+			gl.glDepthFunc(function);
+			depthFunction = function;
+		}
+	}
+
+	/**
+	 * Returns the depth function, asking OpenGL only if it is not known.
+	 */
+	public int getDepthFunc()
+	{
+		if (depthFunction == UNKNOWN)
+		{
+			depthFunction = getInteger(GL.GL_DEPTH_FUNC);
+		}
+		return depthFunction;
+	}
+
+	private int getInteger(int name)
+	{
+		gl.glGetIntegerv(name, query, 0);
+		return query[0];
+	}
+
+	public void viewport(int x, int y, int width, int height)
+	{
+		if (issue(viewport[0] != x || viewport[1] != y || viewport[2] != width || viewport[3] != height))
+		{
+			gl.glViewport(x, y, width, height);
+			viewport[0] = x;
+			viewport[1] = y;
+			viewport[2] = width;
+			viewport[3] = height;
+		}
+	}
+
+	private static int indexOf(int[] keys, int count, int key)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			if (keys[i] == key)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+}
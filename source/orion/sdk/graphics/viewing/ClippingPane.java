@@ -50,7 +50,7 @@ public class ClippingPane implements IStackable
 		try
 		{
 			int pane = GL2.GL_CLIP_PLANE0 + this.index;
-			c.gl().glEnable(pane);
+			c.state().enable(pane);
 			double[] equation;
 			equation = getEquation();
 			c.gl().glClipPlane(pane, equation, 0 );
@@ -65,7 +65,7 @@ public class ClippingPane implements IStackable
 	public void clear(OpenGLContext c)
 	{
 		int pane = GL2.GL_CLIP_PLANE0 + this.index;
-		c.gl().glDisable(pane);		
+		c.state().disable(pane);		
 	}
 	
 	@Override
@@ -0,0 +1,232 @@
+package orion.sdk.graphics.viewing;
+
+import java.util.List;
+
+import com.jogamp.opengl.GLException;
+
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.util.IStackable;
+import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.graphics.viewing.cameras.ACamera;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.geometry.AABB;
+import orion.sdk.math.geometry.Box;
+import orion.sdk.math.geometry.Frustum;
+import orion.sdk.node.Node;
+import orion.sdk.node.containers.ContainerNode;
+import orion.sdk.node.drawables.EntityNode;
+
+/**
+ * Rejects drawables whose bounds lie outside the view frustum of a camera. The bounds of entities are
+ * transformed by their vertex transformation, the bounds of other drawables are taken as they are. Drawables
+ * without bounds are never culled. Containers with bounds are culled along with their whole subtree.
+ *
+ * A culler is pushed onto the {@link orion.sdk.graphics.util.OpenGLStack} by the scene, so that containers
+ * can test their children while drawing. It does not touch OpenGL itself, {@link #collect(IDrawable, List)}
+ * runs the same traversal without a context. The counters are reset by {@link #begin(Frustum)} and cover
+ * one frame.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class FrustumCuller implements IStackable
+{
+	public boolean enabled = true;
+
+	private final String name;
+	private final Frustum frustum = new Frustum();
+	private int visitedCount = 0;
+	private int culledCount = 0;
+	private int drawnCount = 0;
+
+	/*
+	 * Scratch objects for the bounds tests, used by the drawing thread only
+	 */
+	private final AABB bounds = new AABB();
+	private final Mat4f transformation = new Mat4f();
+
+	public FrustumCuller(String name)
+	{
+		this.name = name;
+	}
+
+	/**
+	 * Starts a new frame culled against the frustum of the given camera.
+	 */
+	public void begin(ACamera camera)
+	{
+		camera.getFrustum(this.frustum);
+		resetCounters();
+	}
+
+	/**
+	 * Starts a new frame culled against the given frustum.
+	 */
+	public void begin(Frustum frustum)
+	{
+		this.frustum.set(frustum);
+		resetCounters();
+	}
+
+	public void resetCounters()
+	{
+		visitedCount = 0;
+		culledCount = 0;
+		drawnCount = 0;
+	}
+
+	public Frustum getFrustum()
+	{
+		return frustum;
+	}
+
+	/**
+	 * Returns {@code true} if the drawable lies outside the frustum and can be skipped. Counts the drawable
+	 * as visited and, if so, as culled.
+	 */
+	public boolean isCulled(IDrawable drawable)
+	{
+		visitedCount++;
+
+		if (!enabled || getWorldBounds(drawable, bounds) == null || frustum.intersects(bounds))
+		{
+			return false;
+		}
+
+		culledCount++;
+		return true;
+	}
+
+	/**
+	 * Counts a drawable tested elsewhere as visited and, if {@code culled}, as culled. Returns
+	 * {@code culled}.
+	 */
+	public boolean countVisited(boolean culled)
+	{
+		visitedCount++;
+		if (culled)
+		{
+			culledCount++;
+		}
+		return culled;
+	}
+
+	/**
+	 * Counts a drawable which was not culled and has been drawn. Containers are not counted.
+	 */
+	public void countDrawn(IDrawable drawable)
+	{
+		if (!(drawable instanceof ContainerNode))
+		{
+			drawnCount++;
+		}
+	}
+
+	/**
+	 * Culls the drawable and its subtree like drawing does, but adds the drawables which would be drawn
+	 * to {@code visible} instead of drawing them.
+	 */
+	public void collect(IDrawable drawable, List<IDrawable> visible)
+	{
+		if (drawable.isVisible() && !isCulled(drawable))
+		{
+			collectVisible(drawable, visible);
+		}
+	}
+
+	private void collectVisible(IDrawable drawable, List<IDrawable> visible)
+	{
+		if (!(drawable instanceof ContainerNode))
+		{
+			visible.add(drawable);
+			countDrawn(drawable);
+			return;
+		}
+
+		ContainerNode container = (ContainerNode) drawable;
+		Node[] nodes = container.publishChildren();
+		container.beginCulling(this);
+		for (Node child : nodes)
+		{
+			if (child instanceof IDrawable)
+			{
+				IDrawable drawableChild = (IDrawable) child;
+				if (drawableChild.isVisible() && !container.isCulled(this, drawableChild))
+				{
+					collectVisible(drawableChild, visible);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the bounds of the drawable in world space into {@code dest}, or returns {@code null} if it
+	 * has no bounds.
+	 */
+	public AABB getWorldBounds(IDrawable drawable, AABB dest)
+	{
+		Box box = drawable.getBounds();
+		if (box == null)
+		{
+			return null;
+		}
+
+		box.getAABB(dest);
+		if (drawable instanceof EntityNode)
+		{
+			((EntityNode) drawable).getVertexTransformation(transformation);
+			AABB.transform(transformation, dest, dest);
+		}
+		return dest;
+	}
+
+	/**
+	 * Returns the number of drawables tested since the frame began.
+	 */
+	public int getVisitedCount()
+	{
+		return visitedCount;
+	}
+
+	/**
+	 * Returns the number of drawables skipped since the frame began, not counting their subtrees.
+	 */
+	public int getCulledCount()
+	{
+		return culledCount;
+	}
+
+	/**
+	 * Returns the number of drawables drawn since the frame began, not counting containers.
+	 */
+	public int getDrawnCount()
+	{
+		return drawnCount;
+	}
+
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+
+	@Override
+	public void push(OpenGLContext c) throws GLException
+	{
+	}
+
+	@Override
+	public void pop(OpenGLContext c) throws GLException
+	{
+	}
+
+	@Override
+	public void apply(OpenGLContext c) throws GLException
+	{
+	}
+
+	@Override
+	public void clear(OpenGLContext c) throws GLException
+	{
+	}
+}
@@ -14,6 +14,10 @@ import orion.sdk.graphics.viewing.projection.AUnprojectRequest;
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.FloatQuaternion;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+import orion.sdk.math.WorldPosition;
+import orion.sdk.math.geometry.Frustum;
 import orion.sdk.monitoring.incidents.Incident;
 import orion.sdk.monitoring.incidents.IncidentManager;
 
@@ -21,12 +25,29 @@ public abstract class ACamera implements IStackable
 {
 	protected static Stack<ACamera> cameras = new Stack<ACamera>();
 	
-	protected IFloatMatrix observer = FloatMatrix.vector(0, 0, 10f, 1);
-	protected IFloatMatrix target = FloatMatrix.vector(0, 0, 0, 1);
-	protected IFloatMatrix up = FloatMatrix.vector(0, 1, 0, 0);
+	protected final Vec4f observer = new Vec4f(0, 0, 10f, 1);
+	protected final Vec4f target = new Vec4f(0, 0, 0, 1);
+	protected final Vec4f up = new Vec4f(0, 1, 0, 0);
+	
+	/**
+	 * The high precision world position the observer, target and entity offsets are relative to.
+	 */
+	protected final WorldPosition origin = new WorldPosition();
 	protected String name = "unknown camera";
+	
+	/**
+	 * The aspect ratio of the viewport the camera was last applied to.
+	 */
+	protected float aspectRatio = 1;
 	private Queue<AUnprojectRequest> unprojectRequests = new LinkedBlockingQueue<AUnprojectRequest>();
 	
+	/*
+	 * Scratch vectors for the camera operations, guarded by the display mutex
+	 */
+	private final Vec4f direction = new Vec4f();
+	private final Mat4f view = new Mat4f();
+	private final Mat4f projection = new Mat4f();
+	
 	
 	public ACamera(String name)
 	{
@@ -51,11 +72,11 @@ public abstract class ACamera implements IStackable
 	{
 		synchronized (OpenGLManager.getInstance().getDisplayMutex()) 
 		{	
-			IFloatMatrix direction = target.subtract(observer);		
-	      direction = FloatQuaternion.matrixProduct(rotation, direction);
-	      direction = direction.scalarProduct(-1f);
-	      observer = target.add(direction); 
-	      up = FloatQuaternion.matrixProduct(rotation, up);     
+			Vec4f.subtract(observer, target, direction);
+			direction.w = 0;
+			FloatQuaternion.rotate(rotation, direction, direction);
+			Vec4f.add(target, direction, observer);
+			FloatQuaternion.rotate(rotation, up, up);
 		}
 	}
 	
@@ -63,10 +84,11 @@ public abstract class ACamera implements IStackable
 	{
 		synchronized (OpenGLManager.getInstance().getDisplayMutex()) 
 		{
-	      IFloatMatrix direction = target.subtract(observer);
-	      direction = FloatQuaternion.matrixProduct(rotation, direction);
-	      target = observer.add(direction);		
-	      up = FloatQuaternion.matrixProduct(rotation, up);
+			Vec4f.subtract(target, observer, direction);
+			direction.w = 0;
+			FloatQuaternion.rotate(rotation, direction, direction);
+			Vec4f.add(observer, direction, target);
+			FloatQuaternion.rotate(rotation, up, up);
 		}
 	}
 
@@ -74,35 +96,38 @@ public abstract class ACamera implements IStackable
 			throws Exception
 	{
 		synchronized (OpenGLManager.getInstance().getDisplayMutex()) 
-		{		
-			IFloatMatrix offset = FloatQuaternion.matrixProduct(rotation,
-					FloatMatrix.vector(0, 0, getObserverDistance(), 0));
-			IFloatMatrix up = FloatQuaternion.matrixProduct(rotation, FloatMatrix.vector(0, 1, 0, 0));
-	
-			this.target = FloatMatrix.vector(target, 4);
-			this.target.setU(1);
-			
-			this.observer = target.add(offset);
-			this.observer.setU(1);
-	
-			this.up = FloatMatrix.vector(up, 4);
-			this.up.setU(0);
+		{
+			direction.set(0, 0, getObserverDistance(), 0);
+			FloatQuaternion.rotate(rotation, direction, direction);
+	
+			this.target.set(target.get(0), target.get(1), target.get(2), 1);
+			Vec4f.add(this.target, direction, this.observer);
+			this.observer.w = 1;
+	
+			this.up.set(0, 1, 0, 0);
+			FloatQuaternion.rotate(rotation, this.up, this.up);
 		}
 	}
 	
 	public float getObserverDistance() throws Exception
 	{
-		return observer.subtract(target).norm();
+		float
+			dx = observer.x - target.x,
+			dy = observer.y - target.y,
+			dz = observer.z - target.z;
+		return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
 	}
 	
 	public void setObserverDistance(float distance) throws Exception
 	{
 		synchronized (OpenGLManager.getInstance().getDisplayMutex()) 
 		{
-			IFloatMatrix direction = observer.subtract(target);
+			Vec4f.subtract(observer, target, direction);
+			direction.w = 0;
 			direction.normalize();
 			float observerDistance = (distance > 0 ? distance : 0.01f);
-			observer = target.add(direction.scalarProduct(observerDistance));
+			direction.scale(observerDistance);
+			Vec4f.add(target, direction, observer);
 		}
 	}
 	
@@ -111,77 +136,180 @@ public abstract class ACamera implements IStackable
 	{
 		synchronized (OpenGLManager.getInstance().getDisplayMutex()) 
 		{
-			IFloatMatrix offset = 
-					FloatQuaternion.matrixProduct(rotation, FloatMatrix.vector(0, 0, -1 * getObserverDistance(), 0));
-			IFloatMatrix up = FloatQuaternion.matrixProduct(rotation, FloatMatrix.vector(0, 1, 0, 0));
-	
-			this.observer = FloatMatrix.vector(observer, 4);
-			this.observer.setU(1);
-			
-			this.target = observer.add(offset);
-			this.target.setU(1);
-	
-			this.up = FloatMatrix.vector(up, 4);
-			this.up.setU(0);
+			direction.set(0, 0, -1 * getObserverDistance(), 0);
+			FloatQuaternion.rotate(rotation, direction, direction);
+	
+			this.observer.set(observer.get(0), observer.get(1), observer.get(2), 1);
+			Vec4f.add(this.observer, direction, this.target);
+			this.target.w = 1;
+	
+			this.up.set(0, 1, 0, 0);
+			FloatQuaternion.rotate(rotation, this.up, this.up);
 		}
 	}
 	
 	public IFloatMatrix getTarget()
 	{
-		return target.clone();
+		return target.toFloatMatrix();
+	}
+	
+	public Vec4f getTarget(Vec4f dest)
+	{
+		return dest.set(target);
 	}
 	
 	public IFloatMatrix getObserver()
 	{
-		return observer.clone();
+		return observer.toFloatMatrix();
+	}
+	
+	public Vec4f getObserver(Vec4f dest)
+	{
+		return dest.set(observer);
 	}
 	
 	public IFloatMatrix getUp()
 	{
-		return up.clone();
+		return up.toFloatMatrix();
+	}
+	
+	public Vec4f getUp(Vec4f dest)
+	{
+		return dest.set(up);
+	}
+	
+	public WorldPosition getOrigin(WorldPosition dest)
+	{
+		return dest.set(origin);
+	}
+	
+	/**
+	 * Returns the origin of this camera. The returned position must not be modified.
+	 */
+	public WorldPosition getOrigin()
+	{
+		return origin;
+	}
+	
+	public void setOrigin(WorldPosition origin)
+	{
+		synchronized (OpenGLManager.getInstance().getDisplayMutex()) 
+		{
+			this.origin.set(origin);
+		}
 	}
 	
 	public IFloatMatrix getModelViewRotation() throws Exception
 	{
-		IFloatMatrix forward =
-			FloatMatrix.vector(
-				observer.getX() - target.getX(),
-				observer.getY() - target.getY(),
-				observer.getZ() - target.getZ());
-		forward.normalize();
-		
-		IFloatMatrix up =	FloatMatrix.vector(this.getUp(), 3);
-		up.normalize();
+		return getModelViewRotation(new Mat4f()).toFloatMatrix();
+	}
+	
+	/**
+	 * Writes the rotation part of the model view matrix into {@code dest}.
+	 */
+	public Mat4f getModelViewRotation(Mat4f dest)
+	{
+		float
+			fx = observer.x - target.x,
+			fy = observer.y - target.y,
+			fz = observer.z - target.z,
+			fn = (float) Math.sqrt(fx * fx + fy * fy + fz * fz);
+		if (fn > 0)
+		{
+			fx /= fn; fy /= fn; fz /= fn;
+		}
 		
-		IFloatMatrix side = up.cross(forward);
-		side.normalize();
+		float
+			ux = up.x,
+			uy = up.y,
+			uz = up.z,
+			un = (float) Math.sqrt(ux * ux + uy * uy + uz * uz);
+		if (un > 0)
+		{
+			ux /= un; uy /= un; uz /= un;
+		}
 		
-		IFloatMatrix rotation = FloatMatrix.matrix(
-				side.getX(), up.getX(), forward.getX(), 0f,	
-				side.getY(), up.getY(), forward.getY(), 0f,
-				side.getZ(), up.getZ(), forward.getZ(), 0f,
-				0f, 0f, 0f, 1f);
+		float
+			sx = uy * fz - uz * fy,
+			sy = uz * fx - ux * fz,
+			sz = ux * fy - uy * fx,
+			sn = (float) Math.sqrt(sx * sx + sy * sy + sz * sz);
+		if (sn > 0)
+		{
+			sx /= sn; sy /= sn; sz /= sn;
+		}
 		
-		return rotation;
+		return dest.set(
+			sx, ux, fx, 0f,	
+			sy, uy, fy, 0f,
+			sz, uz, fz, 0f,
+			0f, 0f, 0f, 1f);
 	}
 
 	
 	public IFloatMatrix getModelViewTranslation() throws Exception
 	{
-		IFloatMatrix translation = FloatMatrix.translate(
-			-1f * observer.getX(),
-			-1f * observer.getY(),
-			-1f * observer.getZ());
-		
-		return translation;
+		return getModelViewTranslation(new Mat4f()).toFloatMatrix();
+	}
+	
+	/**
+	 * Writes the translation part of the model view matrix into {@code dest}.
+	 */
+	public Mat4f getModelViewTranslation(Mat4f dest)
+	{
+		return dest.setTranslation(-1f * observer.x, -1f * observer.y, -1f * observer.z);
 	}
 	
 	public IFloatMatrix getModelView() throws Exception
 	{
-		IFloatMatrix rotation = getModelViewRotation();
-		IFloatMatrix translation = getModelViewTranslation();
-		IFloatMatrix modelView = rotation.product(translation);
-		return modelView;
+		return getModelView(new Mat4f()).toFloatMatrix();
+	}
+	
+	/**
+	 * Writes the model view matrix into {@code dest}.
+	 */
+	public Mat4f getModelView(Mat4f dest)
+	{
+		getModelViewRotation(dest);
+		return dest.translate(-1f * observer.x, -1f * observer.y, -1f * observer.z);
+	}
+	
+	/**
+	 * Writes the viewing transformation {@link #apply(OpenGLContext)} multiplies onto the model view
+	 * matrix into {@code dest}.
+	 */
+	public Mat4f getView(Mat4f dest)
+	{
+		return dest.setLookAt(observer, target, up);
+	}
+	
+	/**
+	 * Writes the projection {@link #apply(OpenGLContext)} multiplies onto the projection matrix into
+	 * {@code dest}, using the current {@link #getAspectRatio() aspect ratio}.
+	 */
+	public abstract Mat4f getProjection(Mat4f dest);
+	
+	/**
+	 * Writes the view frustum of this camera into {@code dest}, without requiring an OpenGL context.
+	 */
+	public Frustum getFrustum(Frustum dest)
+	{
+		synchronized (OpenGLManager.getInstance().getDisplayMutex()) 
+		{
+			getProjection(projection);
+			getView(view);
+			return dest.set(Mat4f.mul(projection, view, projection));
+		}
+	}
+	
+	public float getAspectRatio()
+	{
+		return aspectRatio;
+	}
+	
+	public void setAspectRatio(float aspectRatio)
+	{
+		this.aspectRatio = aspectRatio;
 	}
 	
 	public void clear(OpenGLContext c)
@@ -3,6 +3,7 @@ package orion.sdk.graphics.viewing.cameras;
 import com.jogamp.opengl.GL2;
 
 import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.math.Mat4f;
 import orion.sdk.math.geometry.Box;
 
 public class OrthographicCamera extends ACamera
@@ -24,23 +25,31 @@ public class OrthographicCamera extends ACamera
 				
 		c.gl().glMatrixMode(GL2.GL_MODELVIEW);
 		c.glu().gluLookAt(
-				observer.getX(), observer.getY(), observer.getZ(),
-				target.getX(), target.getY(), target.getZ(),
-				up.getX(), up.getY(), up.getZ());
+				observer.x, observer.y, observer.z,
+				target.x, target.y, target.z,
+				up.x, up.y, up.z);
 		
 		super.apply(c);
 	}
 
+	@Override
+	public Mat4f getProjection(Mat4f dest)
+	{
+		return dest.setOrthographic(bounds.getLeft(), bounds.getRight(), bounds.getTop(), bounds.getBottom(), near, far);
+	}
+
 	@Override
 	public OrthographicCamera clone() throws CloneNotSupportedException
 	{
 		OrthographicCamera clone = new OrthographicCamera(this.name);
-		clone.observer = observer.clone();
-		clone.target = target.clone();
-		clone.up = up;
+		clone.observer.set(observer);
+		clone.target.set(target);
+		clone.up.set(up);
+		clone.origin.set(origin);
 		clone.bounds = bounds;
 		clone.near = near;
 		clone.far = far;
+		clone.aspectRatio = aspectRatio;
 		return clone;
 	}
 }
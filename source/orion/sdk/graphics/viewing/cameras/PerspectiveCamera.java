@@ -3,6 +3,7 @@ package orion.sdk.graphics.viewing.cameras;
 import com.jogamp.opengl.GL2;
 
 import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.math.Mat4f;
 
 public class PerspectiveCamera extends ACamera
 {
@@ -21,31 +22,39 @@ public class PerspectiveCamera extends ACamera
 	{
 		if (c.viewport[3] != 0)
 		{
-			float aspectRatio = c.viewport[2] / c.viewport[3];
+			aspectRatio = c.viewport[2] / c.viewport[3];
 			
 			c.gl().glMatrixMode(GL2.GL_PROJECTION);
 			c.glu().gluPerspective(fieldOfView, aspectRatio, near, far);
 			
 			c.gl().glMatrixMode(GL2.GL_MODELVIEW);
 			c.glu().gluLookAt(
-					observer.getX(), observer.getY(), observer.getZ(),
-					target.getX(), target.getY(), target.getZ(),
-					up.getX(), up.getY(), up.getZ());
+					observer.x, observer.y, observer.z,
+					target.x, target.y, target.z,
+					up.x, up.y, up.z);
 		}
 		
 		super.apply(c);
 	}
 
+	@Override
+	public Mat4f getProjection(Mat4f dest)
+	{
+		return dest.setPerspective(fieldOfView, aspectRatio, near, far);
+	}
+
 	@Override
 	public PerspectiveCamera clone() throws CloneNotSupportedException
 	{
 		PerspectiveCamera clone = new PerspectiveCamera(this.name);
-		clone.observer = observer.clone();
-		clone.target = target.clone();
-		clone.up = up;
+		clone.observer.set(observer);
+		clone.target.set(target);
+		clone.up.set(up);
+		clone.origin.set(origin);
 		clone.fieldOfView = fieldOfView;
 		clone.near = near;
 		clone.far = far;
+		clone.aspectRatio = aspectRatio;
 		return clone;
 	}
 }
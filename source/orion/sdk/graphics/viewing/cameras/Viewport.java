@@ -150,7 +150,7 @@ public class Viewport implements IDrawable, IStackable
 		/*
 		 * Set the viewport boundries
 		 */
-		c.gl().glViewport((int) getLeft(), (int) getTop(), (int) getWidth(),  (int) getHeight());
+		c.state().viewport((int) getLeft(), (int) getTop(), (int) getWidth(),  (int) getHeight());
 
 		/*
 		 * Clear the required OpenGL buffers
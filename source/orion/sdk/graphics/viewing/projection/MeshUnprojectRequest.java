@@ -0,0 +1,94 @@
+package orion.sdk.graphics.viewing.projection;
+
+import orion.sdk.graphics.drawables.surfaces.Mesh;
+import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.graphics.viewing.cameras.ACamera;
+import orion.sdk.graphics.viewing.cameras.Viewport;
+import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+import orion.sdk.math.geometry.TriangleBVH;
+
+/**
+ * Picks the closest face of a mesh under the source point. The ray is transformed into the model space
+ * of the mesh and intersected with its bounding volume hierarchy, which is built on the first request
+ * if necessary. Listeners are only notified if the mesh is hit.
+ */
+public class MeshUnprojectRequest extends AUnprojectRequest
+{
+	protected Mesh mesh;
+	protected IFloatMatrix transformation;
+	protected int face = -1;
+
+	/**
+	 * @param transformation The transformation from model to world space, or {@code null} for the
+	 *        identity.
+	 */
+	public MeshUnprojectRequest(
+		String name,
+		FloatMatrix sourcePoint,
+		Viewport sourceViewport,
+		Viewport desinationViewport,
+		Mesh mesh,
+		IFloatMatrix transformation)
+	{
+		super(name, sourcePoint, sourceViewport, desinationViewport);
+		this.mesh = mesh;
+		this.transformation = transformation;
+	}
+
+	@Override
+	public void unproject(ACamera camera, OpenGLContext c) throws Exception
+	{
+		IFloatMatrix nearScreen = FloatMatrix.vector(sourcePoint.getX(), sourcePoint.getY(), 0f, 1f);
+		IFloatMatrix farScreen = FloatMatrix.vector(sourcePoint.getX(), sourcePoint.getY(), 1f, 1f);
+
+		Vec4f near = new Vec4f().set(camera.unproject(c, nearScreen, sourceViewport, desinationViewport));
+		Vec4f far = new Vec4f().set(camera.unproject(c, farScreen, sourceViewport, desinationViewport));
+		Vec4f direction = Vec4f.subtract(far, near, new Vec4f());
+		direction.w = 0;
+
+		/*
+		 * The parameter of the hit is the same in model and world space
+		 */
+		Vec4f modelOrigin = new Vec4f(near);
+		Vec4f modelDirection = new Vec4f(direction);
+		if (transformation != null)
+		{
+			Mat4f inverse = new Mat4f().set(transformation);
+			if (!inverse.invert())
+			{
+				throw new Exception("Transformation of '" + name + "' is singular");
+			}
+			inverse.transform(modelOrigin);
+			inverse.transform(modelDirection);
+		}
+
+		TriangleBVH bvh = mesh.getBVH();
+		if (bvh == null)
+		{
+			bvh = mesh.buildBVH();
+		}
+
+		float[] distance = new float[1];
+		int triangle = bvh.intersect(modelOrigin, modelDirection, 1, false, distance);
+		if (triangle >= 0)
+		{
+			face = mesh.getFaceOfTriangle(triangle);
+			notifyListeners(Vec4f.add(near, direction.scale(distance[0]), new Vec4f()).toFloatMatrix());
+		}
+		else
+		{
+			face = -1;
+		}
+	}
+
+	/**
+	 * Returns the face hit by the last unprojection, or {@code -1}.
+	 */
+	public int getFace()
+	{
+		return face;
+	}
+}
@@ -325,6 +325,12 @@ public class FloatMatrix implements IPersistable, IFloatMatrix
 		
 		FloatMatrix result = new FloatMatrix(this.getRowCount(), v.getColumnCount());
 		
+		if (v instanceof FloatMatrix)
+		{
+			MatrixProduct.multiply(this.entries, ((FloatMatrix) v).entries, result.entries, this.rows, this.columns, result.columns);
+			return result;
+		}
+		
 		for (int row = 0; row < this.getRowCount(); row++)
 		{
 			for (int column = 0; column < v.getColumnCount(); column++)
@@ -551,7 +557,16 @@ public class FloatMatrix implements IPersistable, IFloatMatrix
 	@Override
 	public boolean singular() throws Exception
 	{
-		return this.determinant() == 0;
+		return this.decompose().isSingular();
+	}
+
+	/**
+	 * Returns the LU decomposition of this matrix, which can be reused to solve several systems.
+	 */
+	@Override
+	public LUDecomposition decompose() throws Exception
+	{
+		return new LUDecomposition(this);
 	}
 
 	/**
@@ -564,6 +579,39 @@ public class FloatMatrix implements IPersistable, IFloatMatrix
 		
 		int size = this.getRowCount();
 		
+		/*
+		 * Closed form inverses for the common 3x3 and 4x4 cases. Other sizes use the LU decomposition.
+		 */
+		if (size == 4)
+		{
+			Mat4f inverse = new Mat4f().set(this.entries, 0);
+			if (Mat4f.invert(inverse, inverse))
+			{
+				FloatMatrix result = new FloatMatrix(4, 4);
+				inverse.rowMajor(result.entries, 0);
+				return result;
+			}
+		}
+		else if (size == 3)
+		{
+			Mat3f inverse = new Mat3f().set(this.entries, 0);
+			if (Mat3f.invert(inverse, inverse))
+			{
+				FloatMatrix result = new FloatMatrix(3, 3);
+				inverse.rowMajor(result.entries, 0);
+				return result;
+			}
+		}
+		
+		LUDecomposition lu = this.decompose();
+		if (!lu.isSingular())
+		{
+			return lu.inverse();
+		}
+		
+		/*
+		 * Singular matrices keep the result of the Gauss-Jordan elimination
+		 */
 		IFloatMatrix A = FloatMatrix.concatinateHorizontal(this, FloatMatrix.identity(size));
 		A = A.gaussianElimination();
 		
@@ -650,16 +698,17 @@ public class FloatMatrix implements IPersistable, IFloatMatrix
 			return this.get(0, 0) * this.get(1, 1) - this.get(0, 1) * this.get(1, 0);
 		}
 		
-		float det = 0;
+		if (this.getColumnCount() == 3)
+		{
+			return new Mat3f().set(this.entries, 0).determinant();
+		}
 		
-		for (int column = 0; column < this.getColumnCount(); column++)
+		if (this.getColumnCount() == 4)
 		{
-			IFloatMatrix minor = this.removeRow(0).removeColumn(column);
-			
-			det += (float) Math.pow(-1, column) * this.get(0, column) * minor.determinant();
+			return new Mat4f().set(this.entries, 0).determinant();
 		}
 		
-		return det;
+		return this.decompose().determinant();
 	}
 
 	/**
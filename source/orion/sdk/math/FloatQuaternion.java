@@ -17,7 +17,7 @@ public class FloatQuaternion
 	/**
 	 * The imaginary vector part of this quaternion.
 	 */
-	protected IFloatMatrix v = FloatMatrix.vector(0f, 0f, 0f);
+	protected final Vec3f v = new Vec3f();
 
 	/**
 	 * Creates a new quaternion with zero real and imaginary components.
@@ -32,8 +32,7 @@ public class FloatQuaternion
 	 */
 	public FloatQuaternion(float x, float y, float z, float w)
 	{
-		this.w = w;
-		this.v = FloatMatrix.vector(x, y, z);
+		this.set(x, y, z, w);
 	}
 
 	/**
@@ -41,8 +40,25 @@ public class FloatQuaternion
 	 */
 	public FloatQuaternion(float w, IFloatMatrix v)
 	{
+		this.set(v.get(0), v.get(1), v.get(2), w);
+	}
+
+	/**
+	 * Sets the components of this quaternion.
+	 */
+	public FloatQuaternion set(float x, float y, float z, float w)
+	{
+		this.v.set(x, y, z);
 		this.w = w;
-		this.v = FloatMatrix.vector(v.get(0), v.get(1), v.get(2));
+		return this;
+	}
+
+	/**
+	 * Sets this quaternion to a copy of another quaternion.
+	 */
+	public FloatQuaternion set(FloatQuaternion q)
+	{
+		return this.set(q.v.x, q.v.y, q.v.z, q.w);
 	}
 
 	public float getW()
@@ -55,14 +71,32 @@ public class FloatQuaternion
 		this.w = w;
 	}
 	
+	/**
+	 * Returns a copy of the imaginary vector part of this quaternion.
+	 */
 	public IFloatMatrix getV()
 	{
-		return v;
+		return v.toFloatMatrix();
 	}
 	
 	public void setV(IFloatMatrix v)
 	{
-		this.v = v;
+		this.v.set(v);
+	}
+
+	public float getX()
+	{
+		return v.x;
+	}
+
+	public float getY()
+	{
+		return v.y;
+	}
+
+	public float getZ()
+	{
+		return v.z;
 	}
 
 	/**
@@ -70,7 +104,7 @@ public class FloatQuaternion
 	 */
 	public FloatQuaternion conjugate()
 	{
-		return new FloatQuaternion(w, v.scalarProduct(-1));
+		return new FloatQuaternion(-v.x, -v.y, -v.z, w);
 	}
 
 	/**
@@ -78,8 +112,15 @@ public class FloatQuaternion
 	 */
 	public FloatQuaternion inverse()
 	{
-		float denominator = w * w + v.get(0) * v.get(0) + v.get(1) * v.get(1) + v.get(2) * v.get(2);
-		return scalarProduct(conjugate(), 1f / denominator);
+		return inverse(this, new FloatQuaternion());
+	}
+
+	/**
+	 * Gets the squared norm of this quaternion.
+	 */
+	public float normSquared()
+	{
+		return w * w + v.x * v.x + v.y * v.y + v.z * v.z;
 	}
 
 	/**
@@ -87,7 +128,7 @@ public class FloatQuaternion
 	 */
 	public float norm()
 	{
-		return (float) Math.sqrt(w * w + v.get(0) * v.get(0) + v.get(1) * v.get(1) + v.get(2) * v.get(2));
+		return (float) Math.sqrt(normSquared());
 	}
 
 	/**
@@ -103,11 +144,7 @@ public class FloatQuaternion
 	 */
 	public static FloatQuaternion rotation(IFloatMatrix axis, float angle)
 	{
-		IFloatMatrix u = axis;
-		float s = (float) Math.cos(angle / 2);
-		IFloatMatrix v = u.scalarProduct((float) Math.sin(angle / 2));
-		FloatQuaternion q = new FloatQuaternion(s, v);
-		return FloatQuaternion.scalarProduct(q, 1f / q.norm());
+		return rotation(axis.get(0), axis.get(1), axis.get(2), angle);
 	}
 
 	/**
@@ -115,8 +152,21 @@ public class FloatQuaternion
 	 */
 	public static FloatQuaternion rotation(float axisX, float axisY, float axisZ, float angle)
 	{
-		return rotation(FloatMatrix.vector(axisX, axisY, axisZ), angle);
+		return rotation(axisX, axisY, axisZ, angle, new FloatQuaternion());
 	}
+
+	/**
+	 * Writes a normalized quaternion representing a rotation about an arbitrary axis into {@code dest}.
+	 */
+	public static FloatQuaternion rotation(float axisX, float axisY, float axisZ, float angle, FloatQuaternion dest)
+	{
+		float s = (float) Math.cos(angle / 2);
+		float sin = (float) Math.sin(angle / 2);
+		dest.set(axisX * sin, axisY * sin, axisZ * sin, s);
+		dest.normalize();
+		return dest;
+	}
+
 	/**
 	 * Returns a quaternion from a general 3x3 or 4x4 rotation matrix.
 	 */
@@ -175,37 +225,77 @@ public class FloatQuaternion
 	 * Returns a rotation quaternion equivalent to an Euler rotation transformation.
 	 * @return
 	 */
-	public static FloatQuaternion fromEuler(float xRoll, float yRoll, float zRoll) throws Exception
+	public static FloatQuaternion fromEuler(float xRoll, float yRoll, float zRoll)
 	{
-		return
-			FloatQuaternion.product(FloatQuaternion.product(
-				rotation(FloatMatrix.vector(1, 0, 0), xRoll), 
-				rotation(FloatMatrix.vector(0, 1, 0), yRoll)), 
-				rotation(FloatMatrix.vector(0, 0, 1), zRoll)); 
+		FloatQuaternion result = rotation(1, 0, 0, xRoll);
+		FloatQuaternion next = rotation(0, 1, 0, yRoll);
+		mul(result, next, result);
+		rotation(0, 0, 1, zRoll, next);
+		return mul(result, next, result);
 	}
 	
 	/**
 	 * Returns the product of two quaternions.
 	 */
-	public static FloatQuaternion product(FloatQuaternion a, FloatQuaternion b) throws Exception
+	public static FloatQuaternion product(FloatQuaternion a, FloatQuaternion b)
 	{
-		float w = a.w * b.w - a.v.dot(b.v);
-		
-		IFloatMatrix t = b.v.scalarProduct(a.w).add(a.v.scalarProduct(b.w));
-		IFloatMatrix v = t.add(a.v.cross(b.v));
+		return mul(a, b, new FloatQuaternion());
+	}
+
+	/**
+	 * Writes the product of two quaternions into {@code dest}. The destination may be one of the operands.
+	 */
+	public static FloatQuaternion mul(FloatQuaternion a, FloatQuaternion b, FloatQuaternion dest)
+	{
+		float
+			ax = a.v.x, ay = a.v.y, az = a.v.z, aw = a.w,
+			bx = b.v.x, by = b.v.y, bz = b.v.z, bw = b.w;
 		
-		return new FloatQuaternion(w, v);
+		return dest.set(
+			aw * bx + bw * ax + ay * bz - az * by,
+			aw * by + bw * ay + az * bx - ax * bz,
+			aw * bz + bw * az + ax * by - ay * bx,
+			aw * bw - ax * bx - ay * by - az * bz);
 	}
 
 	/**
 	 * Returns the product of a quaternion and a 3x1 or 4x1 vector.
 	 */
-	public static IFloatMatrix matrixProduct(FloatQuaternion q, IFloatMatrix P) throws Exception
+	public static IFloatMatrix matrixProduct(FloatQuaternion q, IFloatMatrix P)
 	{
-		FloatQuaternion p = new FloatQuaternion(0, FloatMatrix.vector(P.get(0), P.get(1), P.get(2)));
-		FloatQuaternion qInv = q.inverse();
-		FloatQuaternion y = FloatQuaternion.product(FloatQuaternion.product(q, p), qInv);
-		return FloatMatrix.vector(y.v.get(0), y.v.get(1), y.v.get(2), 0);
+		Vec4f p = new Vec4f(P.get(0), P.get(1), P.get(2), 0);
+		rotate(q, p, p);
+		return FloatMatrix.vector(p.x, p.y, p.z, 0);
+	}
+
+	/**
+	 * Writes the rotation {@code q * p * q^-1} of the {@code xyz} part of {@code p} into {@code dest}. The
+	 * {@code w} component is copied. The destination may be {@code p}.
+	 */
+	public static Vec4f rotate(FloatQuaternion q, Vec4f p, Vec4f dest)
+	{
+		/*
+		 * Expanded form of q * p * q^-1 which does not assume q to be normalized:
+		 * p' = p + 2 / |q|^2 * (w * (v x p) + v x (v x p))
+		 */
+		float
+			qx = q.v.x, qy = q.v.y, qz = q.v.z, qw = q.w,
+			n = q.normSquared(),
+			s = n > 0 ? 2f / n : 0;
+		float
+			tx = qy * p.z - qz * p.y,
+			ty = qz * p.x - qx * p.z,
+			tz = qx * p.y - qy * p.x;
+		float
+			ux = qy * tz - qz * ty,
+			uy = qz * tx - qx * tz,
+			uz = qx * ty - qy * tx;
+		
+		return dest.set(
+			p.x + s * (qw * tx + ux),
+			p.y + s * (qw * ty + uy),
+			p.z + s * (qw * tz + uz),
+			p.w);
 	}
 
 	/**
@@ -213,33 +303,61 @@ public class FloatQuaternion
 	 */
 	public static FloatQuaternion scalarProduct(FloatQuaternion x, float c)
 	{
-		float w = x.w * c;
-		IFloatMatrix v = x.v.scalarProduct(c);
-		return new FloatQuaternion(w, v);
+		return scalarProduct(x, c, new FloatQuaternion());
+	}
+
+	/**
+	 * Writes the scalar multiplication of a quaternion into {@code dest}.
+	 */
+	public static FloatQuaternion scalarProduct(FloatQuaternion x, float c, FloatQuaternion dest)
+	{
+		return dest.set(x.v.x * c, x.v.y * c, x.v.z * c, x.w * c);
 	}
 
 	/**
 	 * Performs quaternion addition.
 	 */
-	public static FloatQuaternion add(FloatQuaternion a, FloatQuaternion b) throws Exception
+	public static FloatQuaternion add(FloatQuaternion a, FloatQuaternion b)
 	{
-		return new FloatQuaternion(a.w + b.w, a.v.add(b.v));
+		return new FloatQuaternion(a.v.x + b.v.x, a.v.y + b.v.y, a.v.z + b.v.z, a.w + b.w);
 	}
 
 	/**
 	 * Performs quaternion subtraction.
 	 */
-	public static FloatQuaternion subtract(FloatQuaternion a, FloatQuaternion b) throws Exception
+	public static FloatQuaternion subtract(FloatQuaternion a, FloatQuaternion b)
 	{
-		return new FloatQuaternion(a.w - b.w, a.v.subtract(b.v));
+		return new FloatQuaternion(a.v.x - b.v.x, a.v.y - b.v.y, a.v.z - b.v.z, a.w - b.w);
+	}
+
+	/**
+	 * Writes the inverse of {@code q} into {@code dest}.
+	 */
+	public static FloatQuaternion inverse(FloatQuaternion q, FloatQuaternion dest)
+	{
+		float c = 1f / q.normSquared();
+		return dest.set(-q.v.x * c, -q.v.y * c, -q.v.z * c, q.w * c);
 	}
 
 	/**
 	 * Returns the linear interpolation between two quaternions.
 	 */
-	public static FloatQuaternion interpolate(FloatQuaternion a, FloatQuaternion b, float alpha) throws Exception
+	public static FloatQuaternion interpolate(FloatQuaternion a, FloatQuaternion b, float alpha)
 	{
-		return add(scalarProduct(a, 1 - alpha), scalarProduct(b, alpha));
+		return interpolate(a, b, alpha, new FloatQuaternion());
+	}
+
+	/**
+	 * Writes the linear interpolation between two quaternions into {@code dest}.
+	 */
+	public static FloatQuaternion interpolate(FloatQuaternion a, FloatQuaternion b, float alpha, FloatQuaternion dest)
+	{
+		float beta = 1 - alpha;
+		return dest.set(
+			beta * a.v.x + alpha * b.v.x,
+			beta * a.v.y + alpha * b.v.y,
+			beta * a.v.z + alpha * b.v.z,
+			beta * a.w + alpha * b.w);
 	}
 
 	/**
@@ -255,8 +373,12 @@ public class FloatQuaternion
 	 */
 	public void setAngle(float angle) throws Exception
 	{
+		float denominator = (float)Math.sin(getAngle() / 2);
+		if (denominator == 0)
+			throw new Exception("Multiple of 360 degree rotation, cannot find axis of rotation");
+		
+		v.scale((float)Math.sin(angle / 2) / denominator);
 		w = (float)Math.cos(angle / 2);
-		v = getAxis().scalarProduct((float)Math.sin(angle / 2));
 	}
 
 	/**
@@ -268,7 +390,7 @@ public class FloatQuaternion
 		if (denominator == 0)
 			throw new Exception("Multiple of 360 degree rotation, cannot find axis of rotation");
 		else
-			return v.scalarProduct(1f / denominator);
+			return FloatMatrix.vector(v.x / denominator, v.y / denominator, v.z / denominator);
 	}
 
 	/**
@@ -279,7 +401,7 @@ public class FloatQuaternion
 	{
 		float norm = axis.norm();
 		if (norm > 0)
-			v = axis.scalarProduct(1f / norm * (float)Math.sin(getAngle() / 2));
+			v.set(axis).scale(1f / norm * (float)Math.sin(getAngle() / 2));
 		else
 			throw new Exception("Norm of axis is zero");
 	}
@@ -289,22 +411,22 @@ public class FloatQuaternion
 	 */
 	public IFloatMatrix getMatrix()
 	{
-			IFloatMatrix M = FloatMatrix.identity(4);
-			float x = v.get(0), y = v.get(1), z = v.get(2);
-
-			M.set(0, 0, 1f - 2f * y * y - 2f * z * z);
-			M.set(0, 1, 2 * x * y - 2 * w * z);
-			M.set(0, 2, 2f * x * z + 2f * w * y);
-
-			M.set(1, 0, 2 * x * y + 2 * w * z);
-			M.set(1, 1, 1f - 2f * x * x - 2f * z * z);
-			M.set(1, 2, 2f * y * z - 2f * w * x);
+		return getMatrix(new Mat4f()).toFloatMatrix();
+	}
 
-			M.set(2, 0, 2 * x * z - 2 * w * y);
-			M.set(2, 1, 2f * y * z + 2f * w * x);
-			M.set(2, 2, 1f - 2f * x * x - 2f * y * y);
+	/**
+	 * Writes the 4x4 matrix representing this quaternion into {@code dest}. It is assumed that this
+	 * quaternion is normalized.
+	 */
+	public Mat4f getMatrix(Mat4f dest)
+	{
+		float x = v.x, y = v.y, z = v.z;
 
-			return M;
+		return dest.set(
+			1f - 2f * y * y - 2f * z * z, 2f * x * y - 2f * w * z, 2f * x * z + 2f * w * y, 0,
+			2f * x * y + 2f * w * z, 1f - 2f * x * x - 2f * z * z, 2f * y * z - 2f * w * x, 0,
+			2f * x * z - 2f * w * y, 2f * y * z + 2f * w * x, 1f - 2f * x * x - 2f * y * y, 0,
+			0, 0, 0, 1);
 	}
 
 	@Override
@@ -328,15 +450,12 @@ public class FloatQuaternion
 	 */
 	public void normalize()
 	{
-		FloatQuaternion result = scalarProduct(this, 1 / norm());;
-		w = result.w;
-		v = result.v;
+		scalarProduct(this, 1 / norm(), this);
 	}
 
 	@Override
 	public FloatQuaternion clone()
 	{
-		return new FloatQuaternion(w, v.clone());
+		return new FloatQuaternion(v.x, v.y, v.z, w);
 	}
 }
-
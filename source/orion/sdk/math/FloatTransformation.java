@@ -3,9 +3,24 @@ package orion.sdk.math;
 
 public class FloatTransformation
 {
-	private IFloatMatrix position = FloatMatrix.vector(0f, 0f, 0f, 1f);
-	private IFloatMatrix scale = FloatMatrix.vector(1f, 1f, 1f, 0f);
+	private final Vec4f position = new Vec4f(0f, 0f, 0f, 1f);
+	private final Vec4f scale = new Vec4f(1f, 1f, 1f, 0f);
 	private FloatQuaternion rotation = FloatQuaternion.identity();
+	
+	/**
+	 * The optional high precision anchor of this transformation in world space. 
+	 */
+	private WorldPosition worldPosition = null;
+
+	/**
+	 * Counts the modifications of this transformation, see {@link #getModificationCount()}.
+	 */
+	private int modificationCount = 0;
+
+	/**
+	 * The rotation at the last call of {@link #getModificationCount()}, to detect changes made in place.
+	 */
+	private final FloatQuaternion lastRotation = new FloatQuaternion();
 
 	public FloatTransformation()
 	{
@@ -13,40 +28,161 @@ public class FloatTransformation
 
 	public FloatTransformation(FloatMatrix position, FloatMatrix scale, FloatQuaternion rotation)
 	{
-		this.position = position;
-		this.scale = scale;
+		this.position.set(position);
+		this.scale.set(scale);
 		this.rotation = rotation;
 	}
 
 	public IFloatMatrix getMatrix() throws Exception
 	{
-		IFloatMatrix matrix = FloatMatrix.identity(4);
+		return getMatrix(new Mat4f()).toFloatMatrix();
+	}
+
+	/**
+	 * Writes the matrix {@code T * R * S} of this transformation into {@code dest} without allocating.
+	 */
+	public Mat4f getMatrix(Mat4f dest)
+	{
+		rotation.getMatrix(dest);
+
+		/*
+		 * R * S scales the columns of R, T replaces the last column
+		 */
+		dest.m00 *= scale.x; dest.m01 *= scale.y; dest.m02 *= scale.z;
+		dest.m10 *= scale.x; dest.m11 *= scale.y; dest.m12 *= scale.z;
+		dest.m20 *= scale.x; dest.m21 *= scale.y; dest.m22 *= scale.z;
+		dest.m03 = position.x;
+		dest.m13 = position.y;
+		dest.m23 = position.z;
+
+		return dest;
+	}
+
+	/**
+	 * Writes the matrix {@code T * R * S} of this transformation into {@code dest}, where the translation
+	 * is taken relative to {@code origin} if this transformation has a world position. The offset of the
+	 * world position to the origin is added to the position.
+	 */
+	public Mat4f getMatrix(Mat4f dest, WorldPosition origin)
+	{
+		getMatrix(dest);
 		
-		matrix = matrix.product(FloatMatrix.translate(getPosition()));
-		matrix = matrix.product(getRotation().getMatrix());
-		matrix = matrix.product(FloatMatrix.scale(getScale()));
+		if (worldPosition != null)
+		{
+			dest.m03 += (float) worldPosition.getRelative(0, origin);
+			dest.m13 += (float) worldPosition.getRelative(1, origin);
+			dest.m23 += (float) worldPosition.getRelative(2, origin);
+		}
 		
-		return matrix;
+		return dest;
 	}
-	
+
+	/**
+	 * Returns a copy of the position of this transformation.
+	 */
 	public IFloatMatrix getPosition()
 	{
-		return position;
+		return position.toFloatMatrix();
+	}
+
+	/**
+	 * Writes the position of this transformation into {@code dest}.
+	 */
+	public Vec4f getPosition(Vec4f dest)
+	{
+		return dest.set(position);
 	}
 
 	public void setPosition(IFloatMatrix position)
 	{
-		this.position = position;
+		this.position.set(position);
+		this.modificationCount++;
 	}
 
+	public void setPosition(float x, float y, float z)
+	{
+		this.position.set(x, y, z, this.position.w);
+		this.modificationCount++;
+	}
+
+	/**
+	 * Returns a copy of the scale of this transformation.
+	 */
 	public IFloatMatrix getScale()
 	{
-		return scale;
+		return scale.toFloatMatrix();
+	}
+
+	/**
+	 * Writes the scale of this transformation into {@code dest}.
+	 */
+	public Vec4f getScale(Vec4f dest)
+	{
+		return dest.set(scale);
 	}
 
 	public void setScale(IFloatMatrix scale)
 	{
-		this.scale = scale;
+		this.scale.set(scale);
+		this.modificationCount++;
+	}
+
+	public void setScale(float x, float y, float z)
+	{
+		this.scale.set(x, y, z, this.scale.w);
+		this.modificationCount++;
+	}
+
+	/**
+	 * Returns {@code true} if this transformation is anchored at a world position.
+	 */
+	public boolean hasWorldPosition()
+	{
+		return worldPosition != null;
+	}
+
+	/**
+	 * Writes the world position of this transformation into {@code dest}. Transformations without world
+	 * position are anchored at the origin.
+	 */
+	public WorldPosition getWorldPosition(WorldPosition dest)
+	{
+		return worldPosition != null ? dest.set(worldPosition) : dest.zero();
+	}
+
+	/**
+	 * Anchors this transformation at a copy of the given world position, or removes the anchor if it
+	 * is {@code null}.
+	 */
+	public void setWorldPosition(WorldPosition worldPosition)
+	{
+		if (worldPosition == null)
+		{
+			this.worldPosition = null;
+		}
+		else if (this.worldPosition == null)
+		{
+			this.worldPosition = new WorldPosition(worldPosition);
+		}
+		else
+		{
+			this.worldPosition.set(worldPosition);
+		}
+		this.modificationCount++;
+	}
+
+	/**
+	 * Moves the world position of this transformation by the given offset.
+	 */
+	public void translateWorldPosition(double dx, double dy, double dz)
+	{
+		if (this.worldPosition == null)
+		{
+			this.worldPosition = new WorldPosition();
+		}
+		
+		this.worldPosition.add(dx, dy, dz);
+		this.modificationCount++;
 	}
 
 	public FloatQuaternion getRotation()
@@ -57,6 +193,32 @@ public class FloatTransformation
 	public void setRotation(FloatQuaternion rotation)
 	{
 		this.rotation = rotation;
+		this.modificationCount++;
+	}
+
+	/**
+	 * Returns a counter which changes whenever this transformation is modified, so that matrices derived
+	 * from it only need to be recomputed if the counter differs from the one they were computed at.
+	 * Changes made in place to the quaternion returned by {@link #getRotation()} are detected as well.
+	 */
+	public int getModificationCount()
+	{
+		FloatQuaternion r = this.rotation;
+		if (r.getX() != lastRotation.getX() || r.getY() != lastRotation.getY() ||
+			r.getZ() != lastRotation.getZ() || r.getW() != lastRotation.getW())
+		{
+			lastRotation.set(r);
+			this.modificationCount++;
+		}
+		return modificationCount;
+	}
+
+	/**
+	 * Marks this transformation as modified.
+	 */
+	public void invalidate()
+	{
+		this.modificationCount++;
 	}
 
 }
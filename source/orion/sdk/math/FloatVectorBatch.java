@@ -0,0 +1,200 @@
+package orion.sdk.math;
+
+/**
+ * A batch of 4D vectors in structure of arrays layout. The components of all vectors are stored in the
+ * separate arrays {@link #x}, {@link #y}, {@link #z} and {@link #w}, so that batch operations run as
+ * plain counted loops over contiguous floats, which the JIT compiler unrolls and vectorizes. Operations
+ * never allocate once the capacity is large enough.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class FloatVectorBatch
+{
+	public float[] x;
+	public float[] y;
+	public float[] z;
+	public float[] w;
+
+	/**
+	 * The number of vectors in this batch.
+	 */
+	private int size = 0;
+
+	/**
+	 * Creates a new empty batch with the given capacity.
+	 */
+	public FloatVectorBatch(int capacity)
+	{
+		this.x = new float[capacity];
+		this.y = new float[capacity];
+		this.z = new float[capacity];
+		this.w = new float[capacity];
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public int capacity()
+	{
+		return x.length;
+	}
+
+	/**
+	 * Resizes this batch to {@code size} vectors. The capacity grows if necessary, existing vectors are
+	 * kept.
+	 */
+	public FloatVectorBatch setSize(int size)
+	{
+		ensureCapacity(size);
+		this.size = size;
+		return this;
+	}
+
+	/**
+	 * Grows the component arrays to hold at least {@code capacity} vectors.
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		if (capacity > x.length)
+		{
+			int length = Math.max(capacity, x.length * 2);
+			x = copyOf(x, length);
+			y = copyOf(y, length);
+			z = copyOf(z, length);
+			w = copyOf(w, length);
+		}
+	}
+
+	public FloatVectorBatch set(int i, float x, float y, float z, float w)
+	{
+		this.x[i] = x;
+		this.y[i] = y;
+		this.z[i] = z;
+		this.w[i] = w;
+		return this;
+	}
+
+	public FloatVectorBatch set(int i, Vec4f v)
+	{
+		return this.set(i, v.x, v.y, v.z, v.w);
+	}
+
+	/**
+	 * Sets the vector at {@code i} from a 3x1 or 4x1 vector matrix. The {@code w} component is set to one
+	 * for 3D vectors.
+	 */
+	public FloatVectorBatch set(int i, IFloatMatrix v)
+	{
+		return this.set(i, v.get(0), v.get(1), v.get(2), v.getLength() > 3 ? v.get(3) : 1);
+	}
+
+	/**
+	 * Writes the vector at {@code i} into {@code dest}.
+	 */
+	public Vec4f get(int i, Vec4f dest)
+	{
+		return dest.set(x[i], y[i], z[i], w[i]);
+	}
+
+	/**
+	 * Transforms all vectors of this batch in place.
+	 */
+	public FloatVectorBatch transform(Mat4f m)
+	{
+		return transform(m, this, this);
+	}
+
+	/**
+	 * Writes the dot product of every vector with {@code v} into {@code dest}.
+	 */
+	public float[] dot(Vec4f v, float[] dest)
+	{
+		float vx = v.x, vy = v.y, vz = v.z, vw = v.w;
+		float[] x = this.x, y = this.y, z = this.z, w = this.w;
+
+		for (int i = 0; i < size; i++)
+		{
+			dest[i] = x[i] * vx + y[i] * vy + z[i] * vz + w[i] * vw;
+		}
+		return dest;
+	}
+
+	/**
+	 * Writes the signed distance of every point to {@code origin} along {@code direction} into
+	 * {@code dest}, that is the length of the projection of {@code p - origin} onto {@code direction}.
+	 * Only the {@code xyz} components are taken into account.
+	 */
+	public float[] distanceAlong(Vec4f origin, Vec4f direction, float[] dest)
+	{
+		float length = (float) Math.sqrt(direction.dot3(direction));
+		float
+			dx = length > 0 ? direction.x / length : 0,
+			dy = length > 0 ? direction.y / length : 0,
+			dz = length > 0 ? direction.z / length : 0,
+			offset = origin.x * dx + origin.y * dy + origin.z * dz;
+		float[] x = this.x, y = this.y, z = this.z;
+
+		for (int i = 0; i < size; i++)
+		{
+			dest[i] = x[i] * dx + y[i] * dy + z[i] * dz - offset;
+		}
+		return dest;
+	}
+
+	/**
+	 * Normalizes the {@code xyz} part of every vector in place. Zero vectors are left unchanged.
+	 */
+	public FloatVectorBatch normalize()
+	{
+		float[] x = this.x, y = this.y, z = this.z;
+
+		for (int i = 0; i < size; i++)
+		{
+			float lengthSquared = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+			float scale = lengthSquared > 0 ? 1f / (float) Math.sqrt(lengthSquared) : 1f;
+			x[i] *= scale;
+			y[i] *= scale;
+			z[i] *= scale;
+		}
+		return this;
+	}
+
+	/**
+	 * Writes the products {@code m * v} of all vectors {@code v} of {@code src} into {@code dest}, which is
+	 * resized to the size of {@code src}. The destination may be the source.
+	 */
+	public static FloatVectorBatch transform(Mat4f m, FloatVectorBatch src, FloatVectorBatch dest)
+	{
+		int size = src.size;
+		dest.setSize(size);
+
+		float
+			m00 = m.m00, m01 = m.m01, m02 = m.m02, m03 = m.m03,
+			m10 = m.m10, m11 = m.m11, m12 = m.m12, m13 = m.m13,
+			m20 = m.m20, m21 = m.m21, m22 = m.m22, m23 = m.m23,
+			m30 = m.m30, m31 = m.m31, m32 = m.m32, m33 = m.m33;
+		float[]
+			sx = src.x, sy = src.y, sz = src.z, sw = src.w,
+			dx = dest.x, dy = dest.y, dz = dest.z, dw = dest.w;
+
+		for (int i = 0; i < size; i++)
+		{
+			float vx = sx[i], vy = sy[i], vz = sz[i], vw = sw[i];
+			dx[i] = m00 * vx + m01 * vy + m02 * vz + m03 * vw;
+			dy[i] = m10 * vx + m11 * vy + m12 * vz + m13 * vw;
+			dz[i] = m20 * vx + m21 * vy + m22 * vz + m23 * vw;
+			dw[i] = m30 * vx + m31 * vy + m32 * vz + m33 * vw;
+		}
+		return dest;
+	}
+
+	private static float[] copyOf(float[] array, int length)
+	{
+		float[] copy = new float[length];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+}
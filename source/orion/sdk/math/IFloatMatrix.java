@@ -76,6 +76,8 @@ public interface IFloatMatrix
 
 	public boolean singular() throws Exception;
 
+	public LUDecomposition decompose() throws Exception;
+
 	public IFloatMatrix invert() throws Exception;
 
 	public IFloatMatrix removeColumn(int column) throws Exception;
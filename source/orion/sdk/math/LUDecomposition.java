@@ -0,0 +1,320 @@
+package orion.sdk.math;
+
+/**
+ * The LU decomposition {@code P * A = L * U} of a square matrix with partial pivoting. The decomposition
+ * is computed once and can then be reused for any number of {@link #solve(float[], float[])} calls, the
+ * {@link #determinant()} and the {@link #inverse()}. The factors are kept in double precision, so
+ * rounding during the elimination stays well below the resolution of the float entries.
+ *
+ * Whether the matrix is singular is decided by {@link MathUtils#isSingular}, like for the closed-form
+ * inverses of {@link Mat3f} and {@link Mat4f}. Instances are not thread safe, since solving uses an
+ * internal work array.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class LUDecomposition
+{
+	private final int size;
+
+	/**
+	 * The row major factors, {@code L} below the diagonal with an implicit unit diagonal and {@code U}
+	 * on and above the diagonal.
+	 */
+	private final double[] lu;
+
+	/**
+	 * Row {@code i} of {@code P * A} is row {@code pivot[i]} of {@code A}.
+	 */
+	private final int[] pivot;
+	private final double[] work;
+	private int pivotSign = 1;
+	private boolean singular = false;
+
+	/**
+	 * Decomposes the given square matrix.
+	 */
+	public LUDecomposition(IFloatMatrix a) throws Exception
+	{
+		if (a.getRowCount() != a.getColumnCount())
+		{
+			throw new Exception("Matrix is not square");
+		}
+
+		this.size = a.getRowCount();
+		this.lu = new double[size * size];
+		this.pivot = new int[size];
+		this.work = new double[size];
+
+		double[] rowLengths = new double[size];
+		for (int i = 0; i < size; i++)
+		{
+			pivot[i] = i;
+			double length = 0;
+			for (int j = 0; j < size; j++)
+			{
+				double value = a.get(i, j);
+				lu[i * size + j] = value;
+				length += value * value;
+			}
+			rowLengths[i] = Math.sqrt(length);
+		}
+
+		decompose();
+
+		if (!singular)
+		{
+			/*
+			 * The determinant relative to the product of the row lengths is accumulated factor by factor,
+			 * since either product alone may overflow for large matrices
+			 */
+			double ratio = 1;
+			for (int k = 0; k < size; k++)
+			{
+				ratio *= lu[k * size + k] / rowLengths[k];
+			}
+			singular = MathUtils.isSingular(ratio, 1, size);
+		}
+	}
+
+	private void decompose()
+	{
+		int n = size;
+
+		for (int k = 0; k < n; k++)
+		{
+			/*
+			 * Find the largest pivot in column k and move it to the diagonal
+			 */
+			int p = k;
+			for (int i = k + 1; i < n; i++)
+			{
+				if (Math.abs(lu[i * n + k]) > Math.abs(lu[p * n + k]))
+				{
+					p = i;
+				}
+			}
+
+			if (p != k)
+			{
+				for (int j = 0; j < n; j++)
+				{
+					double temp = lu[p * n + j];
+					lu[p * n + j] = lu[k * n + j];
+					lu[k * n + j] = temp;
+				}
+				int temp = pivot[p];
+				pivot[p] = pivot[k];
+				pivot[k] = temp;
+				pivotSign = -pivotSign;
+			}
+
+			double diagonal = lu[k * n + k];
+			if (diagonal == 0)
+			{
+				singular = true;
+				continue;
+			}
+
+			/*
+			 * Eliminate column k below the diagonal, keeping the multipliers as L
+			 */
+			for (int i = k + 1; i < n; i++)
+			{
+				double factor = lu[i * n + k] /= diagonal;
+				if (factor != 0)
+				{
+					for (int j = k + 1; j < n; j++)
+					{
+						lu[i * n + j] -= factor * lu[k * n + j];
+					}
+				}
+			}
+		}
+	}
+
+	public int getSize()
+	{
+		return size;
+	}
+
+	public boolean isSingular()
+	{
+		return singular;
+	}
+
+	/**
+	 * Returns the determinant of the decomposed matrix, which is zero if it is singular.
+	 */
+	public float determinant()
+	{
+		if (singular)
+		{
+			return 0;
+		}
+
+		double det = pivotSign;
+		for (int k = 0; k < size; k++)
+		{
+			det *= lu[k * size + k];
+		}
+		return (float) det;
+	}
+
+	/**
+	 * Returns a copy of the row permutation {@code P}, where row {@code i} of {@code P * A} is row
+	 * {@code pivot[i]} of {@code A}.
+	 */
+	public int[] getPivot()
+	{
+		return pivot.clone();
+	}
+
+	/**
+	 * Returns the unit lower triangular factor.
+	 */
+	public IFloatMatrix getL()
+	{
+		FloatMatrix L = new FloatMatrix(size, size);
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < i; j++)
+			{
+				L.set(i, j, (float) lu[i * size + j]);
+			}
+			L.set(i, i, 1);
+		}
+		return L;
+	}
+
+	/**
+	 * Returns the upper triangular factor.
+	 */
+	public IFloatMatrix getU()
+	{
+		FloatMatrix U = new FloatMatrix(size, size);
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = i; j < size; j++)
+			{
+				U.set(i, j, (float) lu[i * size + j]);
+			}
+		}
+		return U;
+	}
+
+	/**
+	 * Solves {@code A * x = b} and writes {@code x} into {@code dest}, which may be {@code b}. Does not
+	 * allocate.
+	 */
+	public float[] solve(float[] b, float[] dest) throws Exception
+	{
+		if (singular)
+		{
+			throw new Exception("Matrix is singular");
+		}
+		if (b.length != size)
+		{
+			throw new Exception("Vector has " + b.length + " entries, expected " + size);
+		}
+
+		for (int i = 0; i < size; i++)
+		{
+			work[i] = b[pivot[i]];
+		}
+		substitute(work);
+		for (int i = 0; i < size; i++)
+		{
+			dest[i] = (float) work[i];
+		}
+		return dest;
+	}
+
+	/**
+	 * Solves {@code A * X = B} for every column of {@code B} and returns {@code X}.
+	 */
+	public IFloatMatrix solve(IFloatMatrix B) throws Exception
+	{
+		if (singular)
+		{
+			throw new Exception("Matrix is singular");
+		}
+		if (B.getRowCount() != size)
+		{
+			throw new Exception("Matrix has " + B.getRowCount() + " rows, expected " + size);
+		}
+
+		int columns = B.getColumnCount();
+		FloatMatrix X = new FloatMatrix(size, columns);
+		for (int j = 0; j < columns; j++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				work[i] = B.get(pivot[i], j);
+			}
+			substitute(work);
+			for (int i = 0; i < size; i++)
+			{
+				X.set(i, j, (float) work[i]);
+			}
+		}
+		return X;
+	}
+
+	/**
+	 * Returns the inverse of the decomposed matrix.
+	 */
+	public IFloatMatrix inverse() throws Exception
+	{
+		if (singular)
+		{
+			throw new Exception("Matrix is singular");
+		}
+
+		FloatMatrix inverse = new FloatMatrix(size, size);
+		for (int j = 0; j < size; j++)
+		{
+			/*
+			 * Column j of the inverse solves A * x = e_j
+			 */
+			for (int i = 0; i < size; i++)
+			{
+				work[i] = pivot[i] == j ? 1 : 0;
+			}
+			substitute(work);
+			for (int i = 0; i < size; i++)
+			{
+				inverse.set(i, j, (float) work[i]);
+			}
+		}
+		return inverse;
+	}
+
+	/**
+	 * Solves {@code L * U * x = y} in place by forward and back substitution.
+	 */
+	private void substitute(double[] y)
+	{
+		int n = size;
+
+		for (int i = 1; i < n; i++)
+		{
+			double sum = y[i];
+			for (int k = 0; k < i; k++)
+			{
+				sum -= lu[i * n + k] * y[k];
+			}
+			y[i] = sum;
+		}
+
+		for (int i = n - 1; i >= 0; i--)
+		{
+			double sum = y[i];
+			for (int k = i + 1; k < n; k++)
+			{
+				sum -= lu[i * n + k] * y[k];
+			}
+			y[i] = sum / lu[i * n + i];
+		}
+	}
+}
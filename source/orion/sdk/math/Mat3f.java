@@ -0,0 +1,313 @@
+package orion.sdk.math;
+
+/**
+ * A mutable, fixed-size 3x3 matrix. The entries are stored in plain fields
+ * where {@code mRC} is the entry at row {@code R} and column {@code C}. All
+ * operations either work in place or write into a destination matrix and never
+ * allocate. The destination of an operation may be one of its operands.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class Mat3f
+{
+	public float m00 = 1, m01 = 0, m02 = 0;
+	public float m10 = 0, m11 = 1, m12 = 0;
+	public float m20 = 0, m21 = 0, m22 = 1;
+
+	/**
+	 * Creates a new identity matrix.
+	 */
+	public Mat3f()
+	{
+	}
+
+	/**
+	 * Creates a copy of the given matrix.
+	 */
+	public Mat3f(Mat3f m)
+	{
+		this.set(m);
+	}
+
+	public Mat3f set(
+		float m00, float m01, float m02,
+		float m10, float m11, float m12,
+		float m20, float m21, float m22)
+	{
+		this.m00 = m00; this.m01 = m01; this.m02 = m02;
+		this.m10 = m10; this.m11 = m11; this.m12 = m12;
+		this.m20 = m20; this.m21 = m21; this.m22 = m22;
+		return this;
+	}
+
+	public Mat3f set(Mat3f m)
+	{
+		return this.set(
+			m.m00, m.m01, m.m02,
+			m.m10, m.m11, m.m12,
+			m.m20, m.m21, m.m22);
+	}
+
+	/**
+	 * Sets this matrix to the upper left 3x3 block of {@code m}.
+	 */
+	public Mat3f set(Mat4f m)
+	{
+		return this.set(
+			m.m00, m.m01, m.m02,
+			m.m10, m.m11, m.m12,
+			m.m20, m.m21, m.m22);
+	}
+
+	/**
+	 * Sets this matrix from a 3x3 matrix.
+	 */
+	public Mat3f set(IFloatMatrix m)
+	{
+		if (m.getRowCount() != 3 || m.getColumnCount() != 3)
+		{
+			throw new IllegalArgumentException("Matrix is not 3x3");
+		}
+
+		return this.set(
+			m.get(0, 0), m.get(0, 1), m.get(0, 2),
+			m.get(1, 0), m.get(1, 1), m.get(1, 2),
+			m.get(2, 0), m.get(2, 1), m.get(2, 2));
+	}
+
+	/**
+	 * Sets this matrix from 9 row major entries in {@code src} starting at {@code offset}.
+	 */
+	public Mat3f set(float[] src, int offset)
+	{
+		return this.set(
+			src[offset + 0], src[offset + 1], src[offset + 2],
+			src[offset + 3], src[offset + 4], src[offset + 5],
+			src[offset + 6], src[offset + 7], src[offset + 8]);
+	}
+
+	public Mat3f identity()
+	{
+		return this.set(
+			1, 0, 0,
+			0, 1, 0,
+			0, 0, 1);
+	}
+
+	/**
+	 * Returns the entry at {@code [row, column]}.
+	 */
+	public float get(int row, int column)
+	{
+		switch (row * 3 + column)
+		{
+			case 0: return m00;
+			case 1: return m01;
+			case 2: return m02;
+			case 3: return m10;
+			case 4: return m11;
+			case 5: return m12;
+			case 6: return m20;
+			case 7: return m21;
+			case 8: return m22;
+			default: throw new IndexOutOfBoundsException("[" + row + ", " + column + "]");
+		}
+	}
+
+	/**
+	 * Returns the determinant of this matrix using cofactor expansion along the first row.
+	 */
+	public float determinant()
+	{
+		return
+			m00 * (m11 * m22 - m12 * m21) +
+			m01 * (m12 * m20 - m10 * m22) +
+			m02 * (m10 * m21 - m11 * m20);
+	}
+
+	public Mat3f transpose()
+	{
+		return transpose(this, this);
+	}
+
+	/**
+	 * Transforms {@code v} in place.
+	 */
+	public Vec3f transform(Vec3f v)
+	{
+		return transform(this, v, v);
+	}
+
+	/**
+	 * Writes this matrix into {@code dest} starting at {@code offset} using the row major representation.
+	 */
+	public float[] rowMajor(float[] dest, int offset)
+	{
+		dest[offset + 0] = m00; dest[offset + 1] = m01; dest[offset + 2] = m02;
+		dest[offset + 3] = m10; dest[offset + 4] = m11; dest[offset + 5] = m12;
+		dest[offset + 6] = m20; dest[offset + 7] = m21; dest[offset + 8] = m22;
+		return dest;
+	}
+
+	/**
+	 * Writes this matrix into {@code dest} starting at {@code offset} using the column major
+	 * representation, as expected by OpenGL.
+	 */
+	public float[] columnMajor(float[] dest, int offset)
+	{
+		dest[offset + 0] = m00; dest[offset + 1] = m10; dest[offset + 2] = m20;
+		dest[offset + 3] = m01; dest[offset + 4] = m11; dest[offset + 5] = m21;
+		dest[offset + 6] = m02; dest[offset + 7] = m12; dest[offset + 8] = m22;
+		return dest;
+	}
+
+	/**
+	 * Returns a new 3x3 {@link FloatMatrix} with the entries of this matrix.
+	 */
+	public FloatMatrix toFloatMatrix()
+	{
+		return FloatMatrix.matrix(
+			m00, m01, m02,
+			m10, m11, m12,
+			m20, m21, m22);
+	}
+
+	public boolean equals(Mat3f m, float error)
+	{
+		return
+			Math.abs(m00 - m.m00) <= error && Math.abs(m01 - m.m01) <= error && Math.abs(m02 - m.m02) <= error &&
+			Math.abs(m10 - m.m10) <= error && Math.abs(m11 - m.m11) <= error && Math.abs(m12 - m.m12) <= error &&
+			Math.abs(m20 - m.m20) <= error && Math.abs(m21 - m.m21) <= error && Math.abs(m22 - m.m22) <= error;
+	}
+
+	@Override
+	public String toString()
+	{
+		return
+			"\n[" + m00 + ", " + m01 + ", " + m02 + "\n" +
+			" " + m10 + ", " + m11 + ", " + m12 + "\n" +
+			" " + m20 + ", " + m21 + ", " + m22 + "]\n";
+	}
+
+	/**
+	 * Writes the product {@code a * b} into {@code dest}.
+	 */
+	public static Mat3f mul(Mat3f a, Mat3f b, Mat3f dest)
+	{
+		return dest.set(
+			a.m00 * b.m00 + a.m01 * b.m10 + a.m02 * b.m20,
+			a.m00 * b.m01 + a.m01 * b.m11 + a.m02 * b.m21,
+			a.m00 * b.m02 + a.m01 * b.m12 + a.m02 * b.m22,
+
+			a.m10 * b.m00 + a.m11 * b.m10 + a.m12 * b.m20,
+			a.m10 * b.m01 + a.m11 * b.m11 + a.m12 * b.m21,
+			a.m10 * b.m02 + a.m11 * b.m12 + a.m12 * b.m22,
+
+			a.m20 * b.m00 + a.m21 * b.m10 + a.m22 * b.m20,
+			a.m20 * b.m01 + a.m21 * b.m11 + a.m22 * b.m21,
+			a.m20 * b.m02 + a.m21 * b.m12 + a.m22 * b.m22);
+	}
+
+	/**
+	 * Writes the transpose of {@code a} into {@code dest}.
+	 */
+	public static Mat3f transpose(Mat3f a, Mat3f dest)
+	{
+		return dest.set(
+			a.m00, a.m10, a.m20,
+			a.m01, a.m11, a.m21,
+			a.m02, a.m12, a.m22);
+	}
+
+	/**
+	 * Writes the product {@code m * v} into {@code dest}.
+	 */
+	public static Vec3f transform(Mat3f m, Vec3f v, Vec3f dest)
+	{
+		return dest.set(
+			m.m00 * v.x + m.m01 * v.y + m.m02 * v.z,
+			m.m10 * v.x + m.m11 * v.y + m.m12 * v.z,
+			m.m20 * v.x + m.m21 * v.y + m.m22 * v.z);
+	}
+
+	/**
+	 * Writes the inverse of {@code a} into {@code dest} using the adjugate. Returns {@code false} and
+	 * leaves {@code dest} unchanged if {@code a} is singular, see {@link MathUtils#isSingular}.
+	 */
+	public static boolean invert(Mat3f a, Mat3f dest)
+	{
+		return cofactors(
+			a.m00, a.m01, a.m02,
+			a.m10, a.m11, a.m12,
+			a.m20, a.m21, a.m22,
+			true, dest);
+	}
+
+	/**
+	 * Writes the normal matrix, the inverse transpose of the upper left 3x3 block of {@code m}, into
+	 * {@code dest}. Returns {@code false} and leaves {@code dest} unchanged if the block is singular.
+	 */
+	public static boolean normal(Mat4f m, Mat3f dest)
+	{
+		return cofactors(
+			m.m00, m.m01, m.m02,
+			m.m10, m.m11, m.m12,
+			m.m20, m.m21, m.m22,
+			false, dest);
+	}
+
+	/**
+	 * Writes the cofactor matrix divided by the determinant into {@code dest}, which is the inverse
+	 * transpose of the given matrix. If {@code transpose} is set the result is transposed, which yields
+	 * the inverse.
+	 */
+	private static boolean cofactors(
+		float a00, float a01, float a02,
+		float a10, float a11, float a12,
+		float a20, float a21, float a22,
+		boolean transpose, Mat3f dest)
+	{
+		float
+			c00 = a11 * a22 - a12 * a21,
+			c01 = a12 * a20 - a10 * a22,
+			c02 = a10 * a21 - a11 * a20;
+
+		float det = a00 * c00 + a01 * c01 + a02 * c02;
+		double bound = Math.sqrt(
+			(double) (a00 * a00 + a01 * a01 + a02 * a02) *
+			(a10 * a10 + a11 * a11 + a12 * a12) *
+			(a20 * a20 + a21 * a21 + a22 * a22));
+
+		if (MathUtils.isSingular(det, bound, 3))
+		{
+			return false;
+		}
+
+		float invDet = 1f / det;
+		float
+			c10 = a02 * a21 - a01 * a22,
+			c11 = a00 * a22 - a02 * a20,
+			c12 = a01 * a20 - a00 * a21,
+			c20 = a01 * a12 - a02 * a11,
+			c21 = a02 * a10 - a00 * a12,
+			c22 = a00 * a11 - a01 * a10;
+
+		if (transpose)
+		{
+			dest.set(
+				c00 * invDet, c10 * invDet, c20 * invDet,
+				c01 * invDet, c11 * invDet, c21 * invDet,
+				c02 * invDet, c12 * invDet, c22 * invDet);
+		}
+		else
+		{
+			dest.set(
+				c00 * invDet, c01 * invDet, c02 * invDet,
+				c10 * invDet, c11 * invDet, c12 * invDet,
+				c20 * invDet, c21 * invDet, c22 * invDet);
+		}
+
+		return true;
+	}
+}
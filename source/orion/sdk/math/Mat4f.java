@@ -0,0 +1,571 @@
+package orion.sdk.math;
+
+/**
+ * A mutable, fixed-size 4x4 matrix. The entries are stored in plain fields
+ * where {@code mRC} is the entry at row {@code R} and column {@code C}, so
+ * the layout matches the row-major {@link FloatMatrix}. All operations either
+ * work in place or write into a destination matrix and never allocate. The
+ * destination of an operation may be one of its operands.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class Mat4f
+{
+	public float m00 = 1, m01 = 0, m02 = 0, m03 = 0;
+	public float m10 = 0, m11 = 1, m12 = 0, m13 = 0;
+	public float m20 = 0, m21 = 0, m22 = 1, m23 = 0;
+	public float m30 = 0, m31 = 0, m32 = 0, m33 = 1;
+
+	/**
+	 * Creates a new identity matrix.
+	 */
+	public Mat4f()
+	{
+	}
+
+	/**
+	 * Creates a copy of the given matrix.
+	 */
+	public Mat4f(Mat4f m)
+	{
+		this.set(m);
+	}
+
+	public Mat4f set(
+		float m00, float m01, float m02, float m03,
+		float m10, float m11, float m12, float m13,
+		float m20, float m21, float m22, float m23,
+		float m30, float m31, float m32, float m33)
+	{
+		this.m00 = m00; this.m01 = m01; this.m02 = m02; this.m03 = m03;
+		this.m10 = m10; this.m11 = m11; this.m12 = m12; this.m13 = m13;
+		this.m20 = m20; this.m21 = m21; this.m22 = m22; this.m23 = m23;
+		this.m30 = m30; this.m31 = m31; this.m32 = m32; this.m33 = m33;
+		return this;
+	}
+
+	public Mat4f set(Mat4f m)
+	{
+		return this.set(
+			m.m00, m.m01, m.m02, m.m03,
+			m.m10, m.m11, m.m12, m.m13,
+			m.m20, m.m21, m.m22, m.m23,
+			m.m30, m.m31, m.m32, m.m33);
+	}
+
+	/**
+	 * Sets this matrix from a 4x4 matrix.
+	 */
+	public Mat4f set(IFloatMatrix m)
+	{
+		if (m.getRowCount() != 4 || m.getColumnCount() != 4)
+		{
+			throw new IllegalArgumentException("Matrix is not 4x4");
+		}
+
+		return this.set(
+			m.get(0, 0), m.get(0, 1), m.get(0, 2), m.get(0, 3),
+			m.get(1, 0), m.get(1, 1), m.get(1, 2), m.get(1, 3),
+			m.get(2, 0), m.get(2, 1), m.get(2, 2), m.get(2, 3),
+			m.get(3, 0), m.get(3, 1), m.get(3, 2), m.get(3, 3));
+	}
+
+	/**
+	 * Sets this matrix from 16 row major entries in {@code src} starting at {@code offset}.
+	 */
+	public Mat4f set(float[] src, int offset)
+	{
+		return this.set(
+			src[offset +  0], src[offset +  1], src[offset +  2], src[offset +  3],
+			src[offset +  4], src[offset +  5], src[offset +  6], src[offset +  7],
+			src[offset +  8], src[offset +  9], src[offset + 10], src[offset + 11],
+			src[offset + 12], src[offset + 13], src[offset + 14], src[offset + 15]);
+	}
+
+	public Mat4f identity()
+	{
+		return this.set(
+			1, 0, 0, 0,
+			0, 1, 0, 0,
+			0, 0, 1, 0,
+			0, 0, 0, 1);
+	}
+
+	/**
+	 * Sets this matrix to a translation.
+	 */
+	public Mat4f setTranslation(float dx, float dy, float dz)
+	{
+		return this.set(
+			1, 0, 0, dx,
+			0, 1, 0, dy,
+			0, 0, 1, dz,
+			0, 0, 0, 1);
+	}
+
+	/**
+	 * Sets this matrix to a scaling.
+	 */
+	public Mat4f setScale(float sx, float sy, float sz)
+	{
+		return this.set(
+			sx, 0, 0, 0,
+			0, sy, 0, 0,
+			0, 0, sz, 0,
+			0, 0, 0, 1);
+	}
+
+	/**
+	 * Sets this matrix to a perspective projection like {@code gluPerspective}, where {@code fieldOfView}
+	 * is the vertical angle in degrees.
+	 */
+	public Mat4f setPerspective(float fieldOfView, float aspectRatio, float near, float far)
+	{
+		float f = 1f / (float) Math.tan(Math.toRadians(fieldOfView) / 2);
+		float depth = near - far;
+		return this.set(
+			f / aspectRatio, 0, 0, 0,
+			0, f, 0, 0,
+			0, 0, (far + near) / depth, 2 * far * near / depth,
+			0, 0, -1, 0);
+	}
+
+	/**
+	 * Sets this matrix to an orthographic projection like {@code glOrtho}.
+	 */
+	public Mat4f setOrthographic(float left, float right, float bottom, float top, float near, float far)
+	{
+		return this.set(
+			2 / (right - left), 0, 0, -(right + left) / (right - left),
+			0, 2 / (top - bottom), 0, -(top + bottom) / (top - bottom),
+			0, 0, -2 / (far - near), -(far + near) / (far - near),
+			0, 0, 0, 1);
+	}
+
+	/**
+	 * Sets this matrix to a viewing transformation like {@code gluLookAt}. Only the {@code xyz}
+	 * components of the vectors are used.
+	 */
+	public Mat4f setLookAt(Vec4f observer, Vec4f target, Vec4f up)
+	{
+		float
+			fx = target.x - observer.x,
+			fy = target.y - observer.y,
+			fz = target.z - observer.z;
+		float length = (float) Math.sqrt(fx * fx + fy * fy + fz * fz);
+		fx /= length; fy /= length; fz /= length;
+
+		/*
+		 * s = f x up, u = s x f
+		 */
+		float
+			sx = fy * up.z - fz * up.y,
+			sy = fz * up.x - fx * up.z,
+			sz = fx * up.y - fy * up.x;
+		length = (float) Math.sqrt(sx * sx + sy * sy + sz * sz);
+		sx /= length; sy /= length; sz /= length;
+		float
+			ux = sy * fz - sz * fy,
+			uy = sz * fx - sx * fz,
+			uz = sx * fy - sy * fx;
+
+		return this.set(
+			sx, sy, sz, -(sx * observer.x + sy * observer.y + sz * observer.z),
+			ux, uy, uz, -(ux * observer.x + uy * observer.y + uz * observer.z),
+			-fx, -fy, -fz, fx * observer.x + fy * observer.y + fz * observer.z,
+			0, 0, 0, 1);
+	}
+
+	/**
+	 * Returns the entry at {@code [row, column]}.
+	 */
+	public float get(int row, int column)
+	{
+		switch (row * 4 + column)
+		{
+			case 0: return m00;
+			case 1: return m01;
+			case 2: return m02;
+			case 3: return m03;
+			case 4: return m10;
+			case 5: return m11;
+			case 6: return m12;
+			case 7: return m13;
+			case 8: return m20;
+			case 9: return m21;
+			case 10: return m22;
+			case 11: return m23;
+			case 12: return m30;
+			case 13: return m31;
+			case 14: return m32;
+			case 15: return m33;
+			default: throw new IndexOutOfBoundsException("[" + row + ", " + column + "]");
+		}
+	}
+
+	/**
+	 * Multiplies this matrix by {@code m} from the right.
+	 */
+	public Mat4f mul(Mat4f m)
+	{
+		return mul(this, m, this);
+	}
+
+	/**
+	 * Post-multiplies this matrix by a translation.
+	 */
+	public Mat4f translate(float dx, float dy, float dz)
+	{
+		this.m03 += this.m00 * dx + this.m01 * dy + this.m02 * dz;
+		this.m13 += this.m10 * dx + this.m11 * dy + this.m12 * dz;
+		this.m23 += this.m20 * dx + this.m21 * dy + this.m22 * dz;
+		this.m33 += this.m30 * dx + this.m31 * dy + this.m32 * dz;
+		return this;
+	}
+
+	/**
+	 * Post-multiplies this matrix by a scaling.
+	 */
+	public Mat4f scale(float sx, float sy, float sz)
+	{
+		this.m00 *= sx; this.m01 *= sy; this.m02 *= sz;
+		this.m10 *= sx; this.m11 *= sy; this.m12 *= sz;
+		this.m20 *= sx; this.m21 *= sy; this.m22 *= sz;
+		this.m30 *= sx; this.m31 *= sy; this.m32 *= sz;
+		return this;
+	}
+
+	public Mat4f transpose()
+	{
+		return transpose(this, this);
+	}
+
+	/**
+	 * Transforms {@code v} in place.
+	 */
+	public Vec4f transform(Vec4f v)
+	{
+		return transform(this, v, v);
+	}
+
+	/**
+	 * Inverts this matrix in place. Returns {@code false} and leaves this matrix unchanged if it is
+	 * singular.
+	 */
+	public boolean invert()
+	{
+		return invert(this, this);
+	}
+
+	/**
+	 * Returns {@code true} if the last row of this matrix is {@code [0, 0, 0, 1]}, i.e. it only
+	 * combines a linear transformation with a translation.
+	 */
+	public boolean isAffine()
+	{
+		return m30 == 0 && m31 == 0 && m32 == 0 && m33 == 1;
+	}
+
+	/**
+	 * Returns the determinant of this matrix using cofactor expansion over 2x2 minors.
+	 */
+	public float determinant()
+	{
+		float
+			s0 = m00 * m11 - m10 * m01,
+			s1 = m00 * m12 - m10 * m02,
+			s2 = m00 * m13 - m10 * m03,
+			s3 = m01 * m12 - m11 * m02,
+			s4 = m01 * m13 - m11 * m03,
+			s5 = m02 * m13 - m12 * m03;
+		float
+			c5 = m22 * m33 - m32 * m23,
+			c4 = m21 * m33 - m31 * m23,
+			c3 = m21 * m32 - m31 * m22,
+			c2 = m20 * m33 - m30 * m23,
+			c1 = m20 * m32 - m30 * m22,
+			c0 = m20 * m31 - m30 * m21;
+
+		return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+	}
+
+	public float trace()
+	{
+		return m00 + m11 + m22 + m33;
+	}
+
+	/**
+	 * Writes this matrix into {@code dest} starting at {@code offset} using the row major representation.
+	 */
+	public float[] rowMajor(float[] dest, int offset)
+	{
+		dest[offset +  0] = m00; dest[offset +  1] = m01; dest[offset +  2] = m02; dest[offset +  3] = m03;
+		dest[offset +  4] = m10; dest[offset +  5] = m11; dest[offset +  6] = m12; dest[offset +  7] = m13;
+		dest[offset +  8] = m20; dest[offset +  9] = m21; dest[offset + 10] = m22; dest[offset + 11] = m23;
+		dest[offset + 12] = m30; dest[offset + 13] = m31; dest[offset + 14] = m32; dest[offset + 15] = m33;
+		return dest;
+	}
+
+	/**
+	 * Writes this matrix into {@code dest} starting at {@code offset} using the column major
+	 * representation, as expected by OpenGL.
+	 */
+	public float[] columnMajor(float[] dest, int offset)
+	{
+		dest[offset +  0] = m00; dest[offset +  1] = m10; dest[offset +  2] = m20; dest[offset +  3] = m30;
+		dest[offset +  4] = m01; dest[offset +  5] = m11; dest[offset +  6] = m21; dest[offset +  7] = m31;
+		dest[offset +  8] = m02; dest[offset +  9] = m12; dest[offset + 10] = m22; dest[offset + 11] = m32;
+		dest[offset + 12] = m03; dest[offset + 13] = m13; dest[offset + 14] = m23; dest[offset + 15] = m33;
+		return dest;
+	}
+
+	/**
+	 * Returns a new 4x4 {@link FloatMatrix} with the entries of this matrix.
+	 */
+	public FloatMatrix toFloatMatrix()
+	{
+		return FloatMatrix.matrix(
+			m00, m01, m02, m03,
+			m10, m11, m12, m13,
+			m20, m21, m22, m23,
+			m30, m31, m32, m33);
+	}
+
+	public boolean equals(Mat4f m, float error)
+	{
+		return
+			Math.abs(m00 - m.m00) <= error && Math.abs(m01 - m.m01) <= error &&
+			Math.abs(m02 - m.m02) <= error && Math.abs(m03 - m.m03) <= error &&
+			Math.abs(m10 - m.m10) <= error && Math.abs(m11 - m.m11) <= error &&
+			Math.abs(m12 - m.m12) <= error && Math.abs(m13 - m.m13) <= error &&
+			Math.abs(m20 - m.m20) <= error && Math.abs(m21 - m.m21) <= error &&
+			Math.abs(m22 - m.m22) <= error && Math.abs(m23 - m.m23) <= error &&
+			Math.abs(m30 - m.m30) <= error && Math.abs(m31 - m.m31) <= error &&
+			Math.abs(m32 - m.m32) <= error && Math.abs(m33 - m.m33) <= error;
+	}
+
+	@Override
+	public String toString()
+	{
+		return
+			"\n[" + m00 + ", " + m01 + ", " + m02 + ", " + m03 + "\n" +
+			" " + m10 + ", " + m11 + ", " + m12 + ", " + m13 + "\n" +
+			" " + m20 + ", " + m21 + ", " + m22 + ", " + m23 + "\n" +
+			" " + m30 + ", " + m31 + ", " + m32 + ", " + m33 + "]\n";
+	}
+
+	/**
+	 * Writes the product {@code a * b} into {@code dest}.
+	 */
+	public static Mat4f mul(Mat4f a, Mat4f b, Mat4f dest)
+	{
+		return dest.set(
+			a.m00 * b.m00 + a.m01 * b.m10 + a.m02 * b.m20 + a.m03 * b.m30,
+			a.m00 * b.m01 + a.m01 * b.m11 + a.m02 * b.m21 + a.m03 * b.m31,
+			a.m00 * b.m02 + a.m01 * b.m12 + a.m02 * b.m22 + a.m03 * b.m32,
+			a.m00 * b.m03 + a.m01 * b.m13 + a.m02 * b.m23 + a.m03 * b.m33,
+
+			a.m10 * b.m00 + a.m11 * b.m10 + a.m12 * b.m20 + a.m13 * b.m30,
+			a.m10 * b.m01 + a.m11 * b.m11 + a.m12 * b.m21 + a.m13 * b.m31,
+			a.m10 * b.m02 + a.m11 * b.m12 + a.m12 * b.m22 + a.m13 * b.m32,
+			a.m10 * b.m03 + a.m11 * b.m13 + a.m12 * b.m23 + a.m13 * b.m33,
+
+			a.m20 * b.m00 + a.m21 * b.m10 + a.m22 * b.m20 + a.m23 * b.m30,
+			a.m20 * b.m01 + a.m21 * b.m11 + a.m22 * b.m21 + a.m23 * b.m31,
+			a.m20 * b.m02 + a.m21 * b.m12 + a.m22 * b.m22 + a.m23 * b.m32,
+			a.m20 * b.m03 + a.m21 * b.m13 + a.m22 * b.m23 + a.m23 * b.m33,
+
+			a.m30 * b.m00 + a.m31 * b.m10 + a.m32 * b.m20 + a.m33 * b.m30,
+			a.m30 * b.m01 + a.m31 * b.m11 + a.m32 * b.m21 + a.m33 * b.m31,
+			a.m30 * b.m02 + a.m31 * b.m12 + a.m32 * b.m22 + a.m33 * b.m32,
+			a.m30 * b.m03 + a.m31 * b.m13 + a.m32 * b.m23 + a.m33 * b.m33);
+	}
+
+	/**
+	 * Writes the entrywise sum {@code a + b} into {@code dest}.
+	 */
+	public static Mat4f add(Mat4f a, Mat4f b, Mat4f dest)
+	{
+		return dest.set(
+			a.m00 + b.m00, a.m01 + b.m01, a.m02 + b.m02, a.m03 + b.m03,
+			a.m10 + b.m10, a.m11 + b.m11, a.m12 + b.m12, a.m13 + b.m13,
+			a.m20 + b.m20, a.m21 + b.m21, a.m22 + b.m22, a.m23 + b.m23,
+			a.m30 + b.m30, a.m31 + b.m31, a.m32 + b.m32, a.m33 + b.m33);
+	}
+
+	/**
+	 * Writes the entrywise difference {@code a - b} into {@code dest}.
+	 */
+	public static Mat4f subtract(Mat4f a, Mat4f b, Mat4f dest)
+	{
+		return dest.set(
+			a.m00 - b.m00, a.m01 - b.m01, a.m02 - b.m02, a.m03 - b.m03,
+			a.m10 - b.m10, a.m11 - b.m11, a.m12 - b.m12, a.m13 - b.m13,
+			a.m20 - b.m20, a.m21 - b.m21, a.m22 - b.m22, a.m23 - b.m23,
+			a.m30 - b.m30, a.m31 - b.m31, a.m32 - b.m32, a.m33 - b.m33);
+	}
+
+	/**
+	 * Writes the scalar product {@code c * a} into {@code dest}.
+	 */
+	public static Mat4f scale(Mat4f a, float c, Mat4f dest)
+	{
+		return dest.set(
+			c * a.m00, c * a.m01, c * a.m02, c * a.m03,
+			c * a.m10, c * a.m11, c * a.m12, c * a.m13,
+			c * a.m20, c * a.m21, c * a.m22, c * a.m23,
+			c * a.m30, c * a.m31, c * a.m32, c * a.m33);
+	}
+
+	/**
+	 * Writes the transpose of {@code a} into {@code dest}.
+	 */
+	public static Mat4f transpose(Mat4f a, Mat4f dest)
+	{
+		return dest.set(
+			a.m00, a.m10, a.m20, a.m30,
+			a.m01, a.m11, a.m21, a.m31,
+			a.m02, a.m12, a.m22, a.m32,
+			a.m03, a.m13, a.m23, a.m33);
+	}
+
+	/**
+	 * Writes the product {@code m * v} into {@code dest}.
+	 */
+	public static Vec4f transform(Mat4f m, Vec4f v, Vec4f dest)
+	{
+		return dest.set(
+			m.m00 * v.x + m.m01 * v.y + m.m02 * v.z + m.m03 * v.w,
+			m.m10 * v.x + m.m11 * v.y + m.m12 * v.z + m.m13 * v.w,
+			m.m20 * v.x + m.m21 * v.y + m.m22 * v.z + m.m23 * v.w,
+			m.m30 * v.x + m.m31 * v.y + m.m32 * v.z + m.m33 * v.w);
+	}
+
+	/**
+	 * Writes the inverse of {@code a} into {@code dest}. Affine matrices take the cheaper
+	 * {@link #invertAffine(Mat4f, Mat4f)} path. Returns {@code false} and leaves {@code dest}
+	 * unchanged if {@code a} is singular, see {@link MathUtils#isSingular}.
+	 */
+	public static boolean invert(Mat4f a, Mat4f dest)
+	{
+		if (a.isAffine())
+		{
+			return invertAffine(a, dest);
+		}
+
+		/*
+		 * Laplace expansion over the 2x2 minors of the upper and lower two rows
+		 */
+		float
+			a00 = a.m00, a01 = a.m01, a02 = a.m02, a03 = a.m03,
+			a10 = a.m10, a11 = a.m11, a12 = a.m12, a13 = a.m13,
+			a20 = a.m20, a21 = a.m21, a22 = a.m22, a23 = a.m23,
+			a30 = a.m30, a31 = a.m31, a32 = a.m32, a33 = a.m33;
+		float
+			s0 = a00 * a11 - a10 * a01,
+			s1 = a00 * a12 - a10 * a02,
+			s2 = a00 * a13 - a10 * a03,
+			s3 = a01 * a12 - a11 * a02,
+			s4 = a01 * a13 - a11 * a03,
+			s5 = a02 * a13 - a12 * a03;
+		float
+			c5 = a22 * a33 - a32 * a23,
+			c4 = a21 * a33 - a31 * a23,
+			c3 = a21 * a32 - a31 * a22,
+			c2 = a20 * a33 - a30 * a23,
+			c1 = a20 * a32 - a30 * a22,
+			c0 = a20 * a31 - a30 * a21;
+
+		float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+		double bound = Math.sqrt(
+			(double) (a00 * a00 + a01 * a01 + a02 * a02 + a03 * a03) *
+			(a10 * a10 + a11 * a11 + a12 * a12 + a13 * a13) *
+			(a20 * a20 + a21 * a21 + a22 * a22 + a23 * a23) *
+			(a30 * a30 + a31 * a31 + a32 * a32 + a33 * a33));
+
+		if (MathUtils.isSingular(det, bound, 4))
+		{
+			return false;
+		}
+
+		float invDet = 1f / det;
+
+		dest.set(
+			( a11 * c5 - a12 * c4 + a13 * c3) * invDet,
+			(-a01 * c5 + a02 * c4 - a03 * c3) * invDet,
+			( a31 * s5 - a32 * s4 + a33 * s3) * invDet,
+			(-a21 * s5 + a22 * s4 - a23 * s3) * invDet,
+
+			(-a10 * c5 + a12 * c2 - a13 * c1) * invDet,
+			( a00 * c5 - a02 * c2 + a03 * c1) * invDet,
+			(-a30 * s5 + a32 * s2 - a33 * s1) * invDet,
+			( a20 * s5 - a22 * s2 + a23 * s1) * invDet,
+
+			( a10 * c4 - a11 * c2 + a13 * c0) * invDet,
+			(-a00 * c4 + a01 * c2 - a03 * c0) * invDet,
+			( a30 * s4 - a31 * s2 + a33 * s0) * invDet,
+			(-a20 * s4 + a21 * s2 - a23 * s0) * invDet,
+
+			(-a10 * c3 + a11 * c1 - a12 * c0) * invDet,
+			( a00 * c3 - a01 * c1 + a02 * c0) * invDet,
+			(-a30 * s3 + a31 * s1 - a32 * s0) * invDet,
+			( a20 * s3 - a21 * s1 + a22 * s0) * invDet);
+
+		return true;
+	}
+
+	/**
+	 * Writes the inverse of the affine matrix {@code a = [A | t]} into {@code dest}, which is
+	 * {@code [A^-1 | -A^-1 * t]}. The last row of {@code a} is assumed to be {@code [0, 0, 0, 1]}.
+	 * Returns {@code false} and leaves {@code dest} unchanged if {@code a} is singular, see
+	 * {@link MathUtils#isSingular}.
+	 */
+	public static boolean invertAffine(Mat4f a, Mat4f dest)
+	{
+		float
+			a00 = a.m00, a01 = a.m01, a02 = a.m02,
+			a10 = a.m10, a11 = a.m11, a12 = a.m12,
+			a20 = a.m20, a21 = a.m21, a22 = a.m22,
+			tx = a.m03, ty = a.m13, tz = a.m23;
+		float
+			c00 = a11 * a22 - a12 * a21,
+			c01 = a12 * a20 - a10 * a22,
+			c02 = a10 * a21 - a11 * a20;
+
+		float det = a00 * c00 + a01 * c01 + a02 * c02;
+
+		/*
+		 * The determinant and the row lengths are those of the whole matrix, whose last row has length 1
+		 */
+		double bound = Math.sqrt(
+			(double) (a00 * a00 + a01 * a01 + a02 * a02 + tx * tx) *
+			(a10 * a10 + a11 * a11 + a12 * a12 + ty * ty) *
+			(a20 * a20 + a21 * a21 + a22 * a22 + tz * tz));
+
+		if (MathUtils.isSingular(det, bound, 4))
+		{
+			return false;
+		}
+
+		float invDet = 1f / det;
+		float
+			b00 = c00 * invDet,
+			b01 = (a02 * a21 - a01 * a22) * invDet,
+			b02 = (a01 * a12 - a02 * a11) * invDet,
+			b10 = c01 * invDet,
+			b11 = (a00 * a22 - a02 * a20) * invDet,
+			b12 = (a02 * a10 - a00 * a12) * invDet,
+			b20 = c02 * invDet,
+			b21 = (a01 * a20 - a00 * a21) * invDet,
+			b22 = (a00 * a11 - a01 * a10) * invDet;
+
+		dest.set(
+			b00, b01, b02, -(b00 * tx + b01 * ty + b02 * tz),
+			b10, b11, b12, -(b10 * tx + b11 * ty + b12 * tz),
+			b20, b21, b22, -(b20 * tx + b21 * ty + b22 * tz),
+			0, 0, 0, 1);
+
+		return true;
+	}
+}
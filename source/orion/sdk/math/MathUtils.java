@@ -2,6 +2,25 @@ package orion.sdk.math;
 
 public class MathUtils
 {
+	/**
+	 * The determinant of a matrix relative to the product of the lengths of its rows, per dimension, up to
+	 * which the matrix is considered singular. It is fixed, so that no caller changes the decision for all
+	 * others.
+	 */
+	public static final double SINGULAR_TOLERANCE = Math.ulp(1f);
+
+	/**
+	 * Returns {@code true} if a square matrix of dimension {@code size} is singular, i.e. if the absolute
+	 * value of its {@code determinant} is not larger than {@code size * SINGULAR_TOLERANCE * bound}, where
+	 * {@code bound} is the product of the lengths of its rows. This product is the largest determinant rows
+	 * of these lengths can have, so the test does not depend on the scale of the rows. It is shared by
+	 * {@link LUDecomposition} and the closed-form inverses of {@link Mat3f} and {@link Mat4f}, so that they
+	 * agree on which matrices are singular.
+	 */
+	public static boolean isSingular(double determinant, double bound, int size)
+	{
+		return Math.abs(determinant) <= size * SINGULAR_TOLERANCE * bound;
+	}
 
 	/**
 	 * Determines whether and where a ray intersects a enclosed triangle. All vectors are 3D.
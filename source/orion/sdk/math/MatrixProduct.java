@@ -0,0 +1,247 @@
+package orion.sdk.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cache blocked and parallel kernels for large matrix products. The operands are row major arrays. The
+ * product is computed in i-k-j order over tiles of {@link #BLOCK_SIZE} rows, inner indices and columns,
+ * so that a tile of the right operand stays in cache while it is reused for every row of the left tile.
+ * Every entry of the result is still accumulated in the order of the inner index, which gives the same
+ * result as the naive product.
+ *
+ * Products with at least {@link #PARALLEL_THRESHOLD} multiply-adds are split into row ranges which are
+ * computed in parallel on a shared fork/join pool.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class MatrixProduct
+{
+	/**
+	 * The edge length of the tiles. 64 floats are 256 bytes, three tiles fit into a 64 KiB L1 cache.
+	 */
+	public static int BLOCK_SIZE = 64;
+
+	/**
+	 * The number of multiply-adds from which products are computed in parallel.
+	 */
+	public static long PARALLEL_THRESHOLD = 128L * 128L * 128L;
+
+	/**
+	 * The number of multiply-adds below which products skip the blocking.
+	 */
+	public static long BLOCKING_THRESHOLD = 32L * 32L * 32L;
+
+	private static ForkJoinPool pool = null;
+
+	/**
+	 * A kernel computing the rows {@code [rowStart, rowEnd)} of a product.
+	 */
+	public interface IRowKernel
+	{
+		public void compute(int rowStart, int rowEnd) throws Exception;
+	}
+
+	private MatrixProduct()
+	{
+	}
+
+	/**
+	 * Writes the product of the {@code m x k} matrix {@code a} and the {@code k x n} matrix {@code b} into
+	 * the zeroed {@code m x n} matrix {@code c}.
+	 */
+	public static void multiply(final float[] a, final float[] b, final float[] c, int m, final int k, final int n) throws Exception
+	{
+		long work = (long) m * k * n;
+		final int block = getBlockSize(work, k, n);
+		
+		if (!isParallel(m, work))
+		{
+			multiply(a, b, c, k, n, 0, m, block);
+			return;
+		}
+		
+		run(m, work, new IRowKernel()
+		{
+			@Override
+			public void compute(int rowStart, int rowEnd)
+			{
+				multiply(a, b, c, k, n, rowStart, rowEnd, block);
+			}
+		});
+	}
+
+	/**
+	 * Writes the product of the {@code m x k} matrix {@code a} and the {@code k x n} matrix {@code b} into
+	 * the zeroed {@code m x n} matrix {@code c}.
+	 */
+	public static void multiply(final double[] a, final double[] b, final double[] c, int m, final int k, final int n) throws Exception
+	{
+		long work = (long) m * k * n;
+		final int block = getBlockSize(work, k, n);
+		
+		if (!isParallel(m, work))
+		{
+			multiply(a, b, c, k, n, 0, m, block);
+			return;
+		}
+		
+		run(m, work, new IRowKernel()
+		{
+			@Override
+			public void compute(int rowStart, int rowEnd)
+			{
+				multiply(a, b, c, k, n, rowStart, rowEnd, block);
+			}
+		});
+	}
+
+	/**
+	 * Computes all {@code rows} of a product with the given {@code kernel}, in parallel if the product
+	 * takes at least {@link #PARALLEL_THRESHOLD} multiply-adds.
+	 */
+	public static void run(int rows, long work, IRowKernel kernel) throws Exception
+	{
+		if (!isParallel(rows, work))
+		{
+			kernel.compute(0, rows);
+			return;
+		}
+
+		RowTask task = new RowTask(kernel, 0, rows, Math.max(BLOCK_SIZE, rows / (8 * getPool().getParallelism())));
+		getPool().invoke(task);
+		if (task.exception != null)
+		{
+			throw task.exception;
+		}
+	}
+
+	/**
+	 * Returns {@code true} if a product with the given number of rows and multiply-adds is computed in
+	 * parallel.
+	 */
+	public static boolean isParallel(int rows, long work)
+	{
+		return work >= PARALLEL_THRESHOLD && rows >= 2 * BLOCK_SIZE;
+	}
+
+	/**
+	 * Returns the tile size for a product with the given number of multiply-adds. Small products are not
+	 * tiled.
+	 */
+	public static int getBlockSize(long work, int k, int n)
+	{
+		return work < BLOCKING_THRESHOLD ? Math.max(1, Math.max(k, n)) : BLOCK_SIZE;
+	}
+
+	private static synchronized ForkJoinPool getPool()
+	{
+		if (pool == null)
+		{
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	private static void multiply(float[] a, float[] b, float[] c, int k, int n, int rowStart, int rowEnd, int block)
+	{
+		for (int ii = rowStart; ii < rowEnd; ii += block)
+		{
+			int iEnd = Math.min(ii + block, rowEnd);
+			for (int pp = 0; pp < k; pp += block)
+			{
+				int pEnd = Math.min(pp + block, k);
+				for (int jj = 0; jj < n; jj += block)
+				{
+					int jEnd = Math.min(jj + block, n);
+					for (int i = ii; i < iEnd; i++)
+					{
+						int ci = i * n, ai = i * k;
+						for (int p = pp; p < pEnd; p++)
+						{
+							float aip = a[ai + p];
+							int bp = p * n;
+							for (int j = jj; j < jEnd; j++)
+							{
+								c[ci + j] += aip * b[bp + j];
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static void multiply(double[] a, double[] b, double[] c, int k, int n, int rowStart, int rowEnd, int block)
+	{
+		for (int ii = rowStart; ii < rowEnd; ii += block)
+		{
+			int iEnd = Math.min(ii + block, rowEnd);
+			for (int pp = 0; pp < k; pp += block)
+			{
+				int pEnd = Math.min(pp + block, k);
+				for (int jj = 0; jj < n; jj += block)
+				{
+					int jEnd = Math.min(jj + block, n);
+					for (int i = ii; i < iEnd; i++)
+					{
+						int ci = i * n, ai = i * k;
+						for (int p = pp; p < pEnd; p++)
+						{
+							double aip = a[ai + p];
+							int bp = p * n;
+							for (int j = jj; j < jEnd; j++)
+							{
+								c[ci + j] += aip * b[bp + j];
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits a row range in halves until it is not larger than {@code grain}.
+	 */
+	private static class RowTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final IRowKernel kernel;
+		private final int rowStart, rowEnd, grain;
+		private volatile Exception exception = null;
+
+		public RowTask(IRowKernel kernel, int rowStart, int rowEnd, int grain)
+		{
+			this.kernel = kernel;
+			this.rowStart = rowStart;
+			this.rowEnd = rowEnd;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (rowEnd - rowStart <= grain)
+			{
+				try
+				{
+					kernel.compute(rowStart, rowEnd);
+				}
+				catch (Exception e)
+				{
+					exception = e;
+				}
+				return;
+			}
+
+			int middle = (rowStart + rowEnd) >>> 1;
+			RowTask left = new RowTask(kernel, rowStart, middle, grain);
+			RowTask right = new RowTask(kernel, middle, rowEnd, grain);
+			invokeAll(left, right);
+			exception = left.exception != null ? left.exception : right.exception;
+		}
+	}
+}
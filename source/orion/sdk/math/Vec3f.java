@@ -0,0 +1,162 @@
+package orion.sdk.math;
+
+/**
+ * A mutable, fixed-size 3D vector. All operations either work in place or
+ * write into a destination vector and never allocate.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class Vec3f
+{
+	public float x = 0;
+	public float y = 0;
+	public float z = 0;
+
+	/**
+	 * Creates a new zero vector.
+	 */
+	public Vec3f()
+	{
+	}
+
+	/**
+	 * Creates a new vector with the given components.
+	 */
+	public Vec3f(float x, float y, float z)
+	{
+		this.set(x, y, z);
+	}
+
+	/**
+	 * Creates a copy of the given vector.
+	 */
+	public Vec3f(Vec3f v)
+	{
+		this.set(v);
+	}
+
+	public Vec3f set(float x, float y, float z)
+	{
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+
+	public Vec3f set(Vec3f v)
+	{
+		return this.set(v.x, v.y, v.z);
+	}
+
+	/**
+	 * Sets this vector from the first three entries of a vector matrix.
+	 */
+	public Vec3f set(IFloatMatrix v)
+	{
+		if (v.getLength() < 3)
+		{
+			throw new IllegalArgumentException("Vector has less than 3 entries");
+		}
+
+		return this.set(v.get(0), v.get(1), v.get(2));
+	}
+
+	public Vec3f zero()
+	{
+		return this.set(0, 0, 0);
+	}
+
+	public Vec3f add(Vec3f v)
+	{
+		return add(this, v, this);
+	}
+
+	public Vec3f subtract(Vec3f v)
+	{
+		return subtract(this, v, this);
+	}
+
+	public Vec3f scale(float c)
+	{
+		return scale(this, c, this);
+	}
+
+	public float dot(Vec3f v)
+	{
+		return this.x * v.x + this.y * v.y + this.z * v.z;
+	}
+
+	public float lengthSquared()
+	{
+		return this.dot(this);
+	}
+
+	public float length()
+	{
+		return (float) Math.sqrt(this.lengthSquared());
+	}
+
+	/**
+	 * Normalizes this vector. Zero vectors are left unchanged.
+	 */
+	public Vec3f normalize()
+	{
+		float length = this.length();
+
+		if (length > 0)
+		{
+			this.scale(1f / length);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Returns a new {@code 3x1} matrix with the entries of this vector.
+	 */
+	public FloatMatrix toFloatMatrix()
+	{
+		return FloatMatrix.vector(x, y, z);
+	}
+
+	public boolean equals(Vec3f v, float error)
+	{
+		return
+			Math.abs(this.x - v.x) <= error &&
+			Math.abs(this.y - v.y) <= error &&
+			Math.abs(this.z - v.z) <= error;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "[" + x + ", " + y + ", " + z + "]";
+	}
+
+	public static Vec3f add(Vec3f a, Vec3f b, Vec3f dest)
+	{
+		return dest.set(a.x + b.x, a.y + b.y, a.z + b.z);
+	}
+
+	public static Vec3f subtract(Vec3f a, Vec3f b, Vec3f dest)
+	{
+		return dest.set(a.x - b.x, a.y - b.y, a.z - b.z);
+	}
+
+	public static Vec3f scale(Vec3f a, float c, Vec3f dest)
+	{
+		return dest.set(a.x * c, a.y * c, a.z * c);
+	}
+
+	/**
+	 * Writes the cross product {@code a x b} into {@code dest}. The destination may be one of the operands.
+	 */
+	public static Vec3f cross(Vec3f a, Vec3f b, Vec3f dest)
+	{
+		return dest.set(
+			a.y * b.z - a.z * b.y,
+			a.z * b.x - a.x * b.z,
+			a.x * b.y - a.y * b.x);
+	}
+}
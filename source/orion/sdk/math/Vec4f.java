@@ -0,0 +1,192 @@
+package orion.sdk.math;
+
+/**
+ * A mutable, fixed-size homogeneous 4D vector. All operations either work in
+ * place or write into a destination vector and never allocate.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class Vec4f
+{
+	public float x = 0;
+	public float y = 0;
+	public float z = 0;
+	public float w = 0;
+
+	/**
+	 * Creates a new zero vector.
+	 */
+	public Vec4f()
+	{
+	}
+
+	/**
+	 * Creates a new vector with the given components.
+	 */
+	public Vec4f(float x, float y, float z, float w)
+	{
+		this.set(x, y, z, w);
+	}
+
+	/**
+	 * Creates a copy of the given vector.
+	 */
+	public Vec4f(Vec4f v)
+	{
+		this.set(v);
+	}
+
+	public Vec4f set(float x, float y, float z, float w)
+	{
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.w = w;
+		return this;
+	}
+
+	public Vec4f set(Vec4f v)
+	{
+		return this.set(v.x, v.y, v.z, v.w);
+	}
+
+	/**
+	 * Sets this vector from a 3x1 or 4x1 vector matrix. The {@code w} component is left unchanged for
+	 * 3D vectors.
+	 */
+	public Vec4f set(IFloatMatrix v)
+	{
+		int length = v.getLength();
+
+		if (length < 3)
+		{
+			throw new IllegalArgumentException("Vector has less than 3 entries");
+		}
+
+		return this.set(v.get(0), v.get(1), v.get(2), length > 3 ? v.get(3) : this.w);
+	}
+
+	public Vec4f zero()
+	{
+		return this.set(0, 0, 0, 0);
+	}
+
+	public Vec4f add(Vec4f v)
+	{
+		return add(this, v, this);
+	}
+
+	public Vec4f subtract(Vec4f v)
+	{
+		return subtract(this, v, this);
+	}
+
+	public Vec4f scale(float c)
+	{
+		return scale(this, c, this);
+	}
+
+	public float dot(Vec4f v)
+	{
+		return this.x * v.x + this.y * v.y + this.z * v.z + this.w * v.w;
+	}
+
+	/**
+	 * Returns the dot product of the {@code xyz} parts of both vectors.
+	 */
+	public float dot3(Vec4f v)
+	{
+		return this.x * v.x + this.y * v.y + this.z * v.z;
+	}
+
+	public float lengthSquared()
+	{
+		return this.dot(this);
+	}
+
+	public float length()
+	{
+		return (float) Math.sqrt(this.lengthSquared());
+	}
+
+	/**
+	 * Normalizes this vector. Zero vectors are left unchanged.
+	 */
+	public Vec4f normalize()
+	{
+		float length = this.length();
+
+		if (length > 0)
+		{
+			this.scale(1f / length);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Returns a new {@code 4x1} matrix with the entries of this vector.
+	 */
+	public FloatMatrix toFloatMatrix()
+	{
+		return FloatMatrix.vector(x, y, z, w);
+	}
+
+	public boolean equals(Vec4f v, float error)
+	{
+		return
+			Math.abs(this.x - v.x) <= error &&
+			Math.abs(this.y - v.y) <= error &&
+			Math.abs(this.z - v.z) <= error &&
+			Math.abs(this.w - v.w) <= error;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "[" + x + ", " + y + ", " + z + ", " + w + "]";
+	}
+
+	public static Vec4f add(Vec4f a, Vec4f b, Vec4f dest)
+	{
+		return dest.set(a.x + b.x, a.y + b.y, a.z + b.z, a.w + b.w);
+	}
+
+	public static Vec4f subtract(Vec4f a, Vec4f b, Vec4f dest)
+	{
+		return dest.set(a.x - b.x, a.y - b.y, a.z - b.z, a.w - b.w);
+	}
+
+	public static Vec4f scale(Vec4f a, float c, Vec4f dest)
+	{
+		return dest.set(a.x * c, a.y * c, a.z * c, a.w * c);
+	}
+
+	/**
+	 * Writes the cross product of the {@code xyz} parts of {@code a} and {@code b} into {@code dest} and
+	 * sets {@code w} to zero, like {@link FloatMatrix#cross(IFloatMatrix)} for 4D vectors. The
+	 * destination may be one of the operands.
+	 */
+	public static Vec4f cross(Vec4f a, Vec4f b, Vec4f dest)
+	{
+		return dest.set(
+			a.y * b.z - a.z * b.y,
+			a.z * b.x - a.x * b.z,
+			a.x * b.y - a.y * b.x,
+			0);
+	}
+
+	/**
+	 * Returns the euclidean distance between {@code a} and {@code b}.
+	 */
+	public static float distance(Vec4f a, Vec4f b)
+	{
+		float
+			dx = a.x - b.x,
+			dy = a.y - b.y,
+			dz = a.z - b.z,
+			dw = a.w - b.w;
+		return (float) Math.sqrt(dx * dx + dy * dy + dz * dz + dw * dw);
+	}
+}
@@ -0,0 +1,247 @@
+package orion.sdk.math;
+
+/**
+ * A high precision position in world space. Every coordinate is stored as an unevaluated sum of two
+ * doubles (double-double), which gives about 106 bits of mantissa. A galaxy of {@code 1e21} units
+ * across is thus resolved to about {@code 1e-11} units. Additions, subtractions and comparisons work
+ * on primitive values and never allocate.
+ *
+ * Positions are rendered relative to an origin, usually the one of the camera, see
+ * {@link #getRelative(WorldPosition, Vec4f)}, so that the offset fits into a float.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class WorldPosition implements Comparable<WorldPosition>
+{
+	/**
+	 * The high and low parts of x, y and z in this order.
+	 */
+	private final double[] components = new double[6];
+
+	/**
+	 * Creates a new position at the origin.
+	 */
+	public WorldPosition()
+	{
+	}
+
+	public WorldPosition(double x, double y, double z)
+	{
+		this.set(x, y, z);
+	}
+
+	/**
+	 * Creates a copy of the given position.
+	 */
+	public WorldPosition(WorldPosition p)
+	{
+		this.set(p);
+	}
+
+	public WorldPosition set(double x, double y, double z)
+	{
+		components[0] = x; components[1] = 0;
+		components[2] = y; components[3] = 0;
+		components[4] = z; components[5] = 0;
+		return this;
+	}
+
+	public WorldPosition set(WorldPosition p)
+	{
+		System.arraycopy(p.components, 0, components, 0, 6);
+		return this;
+	}
+
+	public WorldPosition zero()
+	{
+		return this.set(0, 0, 0);
+	}
+
+	/**
+	 * Returns the given axis, {@code 0}, {@code 1} or {@code 2}, rounded to a double.
+	 */
+	public double get(int axis)
+	{
+		return components[2 * axis] + components[2 * axis + 1];
+	}
+
+	public double getX()
+	{
+		return get(0);
+	}
+
+	public double getY()
+	{
+		return get(1);
+	}
+
+	public double getZ()
+	{
+		return get(2);
+	}
+
+	/**
+	 * Translates this position by the given offset.
+	 */
+	public WorldPosition add(double dx, double dy, double dz)
+	{
+		addDouble(components, 0, dx);
+		addDouble(components, 2, dy);
+		addDouble(components, 4, dz);
+		return this;
+	}
+
+	public WorldPosition add(WorldPosition p)
+	{
+		return add(this, p, this);
+	}
+
+	public WorldPosition subtract(WorldPosition p)
+	{
+		return subtract(this, p, this);
+	}
+
+	/**
+	 * Writes the offset of this position relative to {@code origin} into the {@code xyz} part of
+	 * {@code dest} and sets {@code w} to one. The difference is evaluated in full precision before it
+	 * is rounded to float.
+	 */
+	public Vec4f getRelative(WorldPosition origin, Vec4f dest)
+	{
+		return dest.set(
+			(float) difference(components, origin.components, 0),
+			(float) difference(components, origin.components, 2),
+			(float) difference(components, origin.components, 4),
+			1);
+	}
+
+	/**
+	 * Returns the offset of this position relative to {@code origin} along the given axis.
+	 */
+	public double getRelative(int axis, WorldPosition origin)
+	{
+		return difference(components, origin.components, 2 * axis);
+	}
+
+	/**
+	 * Returns the squared distance between this position and {@code p}.
+	 */
+	public double distanceSquared(WorldPosition p)
+	{
+		double
+			dx = difference(components, p.components, 0),
+			dy = difference(components, p.components, 2),
+			dz = difference(components, p.components, 4);
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Compares a single axis of this position with the one of {@code p}.
+	 */
+	public int compare(int axis, WorldPosition p)
+	{
+		int i = 2 * axis;
+		int result = Double.compare(components[i], p.components[i]);
+		return result != 0 ? result : Double.compare(components[i + 1], p.components[i + 1]);
+	}
+
+	/**
+	 * Orders positions lexicographically by x, y and z.
+	 */
+	@Override
+	public int compareTo(WorldPosition p)
+	{
+		for (int axis = 0; axis < 3; axis++)
+		{
+			int result = compare(axis, p);
+			if (result != 0)
+			{
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		return obj instanceof WorldPosition && compareTo((WorldPosition) obj) == 0;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int hash = 1;
+		for (int i = 0; i < 6; i++)
+		{
+			hash = 31 * hash + Double.hashCode(components[i]);
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "[" + getX() + ", " + getY() + ", " + getZ() + "]";
+	}
+
+	/**
+	 * Writes the sum {@code a + b} into {@code dest}. The destination may be one of the operands.
+	 */
+	public static WorldPosition add(WorldPosition a, WorldPosition b, WorldPosition dest)
+	{
+		for (int i = 0; i < 6; i += 2)
+		{
+			sum(a.components[i], a.components[i + 1], b.components[i], b.components[i + 1], dest.components, i);
+		}
+		return dest;
+	}
+
+	/**
+	 * Writes the difference {@code a - b} into {@code dest}. The destination may be one of the operands.
+	 */
+	public static WorldPosition subtract(WorldPosition a, WorldPosition b, WorldPosition dest)
+	{
+		for (int i = 0; i < 6; i += 2)
+		{
+			sum(a.components[i], a.components[i + 1], -b.components[i], -b.components[i + 1], dest.components, i);
+		}
+		return dest;
+	}
+
+	/**
+	 * Adds the double-doubles {@code (aHi, aLo)} and {@code (bHi, bLo)} and writes the normalized
+	 * result to {@code dest[i]} and {@code dest[i + 1]}.
+	 */
+	private static void sum(double aHi, double aLo, double bHi, double bLo, double[] dest, int i)
+	{
+		/*
+		 * Knuth's two-sum of the high parts, then fold in the low parts
+		 */
+		double s = aHi + bHi;
+		double v = s - aHi;
+		double e = (aHi - (s - v)) + (bHi - v);
+		e += aLo + bLo;
+
+		double hi = s + e;
+		dest[i + 1] = e - (hi - s);
+		dest[i] = hi;
+	}
+
+	private static void addDouble(double[] components, int i, double d)
+	{
+		sum(components[i], components[i + 1], d, 0, components, i);
+	}
+
+	/**
+	 * Returns {@code a[i] - b[i]} rounded to a double.
+	 */
+	private static double difference(double[] a, double[] b, int i)
+	{
+		double s = a[i] - b[i];
+		double v = s - a[i];
+		double e = (a[i] - (s - v)) + (-b[i] - v);
+		return s + (e + (a[i + 1] - b[i + 1]));
+	}
+}
@@ -0,0 +1,102 @@
+package orion.sdk.math.generic;
+
+@SuppressWarnings("rawtypes")
+public class GenericDouble implements IGenericPrimitive
+{
+	private double value = 0;
+	
+	public GenericDouble(double value)
+	{
+		this.value = value;
+	}
+	
+	@Override
+	public IGenericPrimitive add(IGenericPrimitive other)
+	{
+		GenericDouble otherDouble = (GenericDouble) other;
+		
+		return new GenericDouble(this.getValue() + otherDouble.getValue());
+	}
+
+	@Override
+	public IGenericPrimitive subtract(IGenericPrimitive other)
+	{
+		GenericDouble otherDouble = (GenericDouble) other;
+		
+		return new GenericDouble(this.getValue() - otherDouble.getValue());
+	}
+
+	@Override
+	public IGenericPrimitive multiply(IGenericPrimitive other)
+	{
+		GenericDouble otherDouble = (GenericDouble) other;
+		
+		return new GenericDouble(this.getValue() * otherDouble.getValue());
+	}
+
+	@Override
+	public IGenericPrimitive devide(IGenericPrimitive other)
+	{
+		GenericDouble otherDouble = (GenericDouble) other;
+		
+		return new GenericDouble(this.getValue() / otherDouble.getValue());
+	}
+
+	@Override
+	public IGenericPrimitive power(IGenericPrimitive power)
+	{
+		GenericDouble otherDouble = (GenericDouble) power;
+		
+		return new GenericDouble(Math.pow(this.getValue(), otherDouble.getValue()));
+	}
+	
+	@Override
+	public IGenericPrimitive absolute()
+	{
+		return new GenericDouble(Math.abs(this.getValue()));
+	}
+
+	@Override
+	public int compare(IGenericPrimitive other)
+	{
+		GenericDouble otherDouble = (GenericDouble) other;
+		
+		return Double.compare(this.getValue(), otherDouble.getValue());
+	}
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (obj instanceof GenericDouble)
+		{
+			GenericDouble other = (GenericDouble) obj;
+			return this.getValue() == other.getValue();
+		}
+		else
+		{
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Double.hashCode(this.getValue());
+	}
+
+	public double getValue()
+	{
+		return value;
+	}
+	
+	public void setValue(double value)
+	{
+		this.value = value;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return Double.toString(this.getValue());
+	}
+}
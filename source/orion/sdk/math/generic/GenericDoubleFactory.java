@@ -0,0 +1,35 @@
+package orion.sdk.math.generic;
+
+public class GenericDoubleFactory implements IGenericPrimitiveFactory<GenericDouble>
+{
+	@Override
+	public GenericDouble create() throws Exception
+	{
+		return new GenericDouble(0);
+	}
+
+	@Override
+	public GenericDouble create(int value) throws Exception
+	{
+		return new GenericDouble(value);
+	}
+
+	@Override
+	public GenericDouble create(long value) throws Exception
+	{
+		return new GenericDouble(value);
+	}
+
+	@Override
+	public GenericDouble create(float value) throws Exception
+	{
+		return new GenericDouble(value);
+	}
+
+	@Override
+	public GenericDouble create(double value) throws Exception
+	{
+		return new GenericDouble(value);
+	}
+
+}
@@ -0,0 +1,431 @@
+package orion.sdk.math.generic;
+
+import orion.sdk.math.MatrixProduct;
+
+/**
+ * A {@link GenericMatrix} specialization that stores its entries in a row major {@code double[]}.
+ * The arithmetic operations work on the primitive array directly and only box entries when they are
+ * accessed through {@link #get(int)}.
+ * 
+ * @author Tim
+ * @since 1.0.00
+ */
+public class GenericDoubleMatrix extends GenericMatrix<GenericDouble>
+{
+	protected double[] values = null;
+	
+	public GenericDoubleMatrix(IGenericPrimitiveFactory<GenericDouble> primitiveFactory, int rows, int columns) throws Exception
+	{
+		super(primitiveFactory, rows, columns, false);
+		this.values = new double[rows * columns];
+	}
+	
+	public GenericDoubleMatrix(int rows, int columns) throws Exception
+	{
+		this(GenericMatrixFactory.DOUBLE_FACTORY, rows, columns);
+	}
+	
+	@Override
+	protected GenericDoubleMatrix newMatrix(int rows, int columns) throws Exception
+	{
+		return new GenericDoubleMatrix(this.primitiveFactory, rows, columns);
+	}
+	
+	@Override
+	public GenericDouble get(int i)
+	{
+		return new GenericDouble(values[i]);
+	}
+
+	@Override
+	public void set(int i, GenericDouble value)
+	{
+		values[i] = value.getValue();
+	}
+	
+	public double getDouble(int i)
+	{
+		return values[i];
+	}
+	
+	public double getDouble(int row, int column)
+	{
+		return values[row * columns + column];
+	}
+	
+	public void setDouble(int i, double value)
+	{
+		values[i] = value;
+	}
+	
+	public void setDouble(int row, int column, double value)
+	{
+		values[row * columns + column] = value;
+	}
+	
+	/**
+	 * Returns the backing array of this matrix in row major order.
+	 */
+	public double[] getValues()
+	{
+		return values;
+	}
+	
+	@Override
+	public GenericDouble norm(int dimensions) throws Exception
+	{
+		if (rows > 1 && columns > 1) throw new Exception("Matrix is not a row nor column vector");
+		
+		double sum = 0;
+		
+		for (int i = 0; i < dimensions; i++)
+		{
+			sum += values[i] * values[i];
+		}
+		
+		return new GenericDouble(Math.sqrt(sum));
+	}
+	
+	@Override
+	public void normalize() throws Exception
+	{
+		double norm = norm().getValue();
+		
+		if (norm > 0)
+		{
+			for (int i = 0; i < values.length; i++)
+			{
+				values[i] /= norm;
+			}
+		}
+	}
+	
+	@Override
+	public GenericDouble dot(GenericMatrix<GenericDouble> v) throws Exception
+	{
+		if (!(v instanceof GenericDoubleMatrix))
+		{
+			return super.dot(v);
+		}
+		
+		if (this.getLength() != v.getLength()) throw new Exception("Vector dimensions do not match");
+		
+		double[] other = ((GenericDoubleMatrix) v).values;
+		double result = 0;
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result += values[i] * other[i];
+		}
+		
+		return new GenericDouble(result);
+	}
+	
+	@Override
+	public void clear()
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			values[i] = 0;
+		}
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> transpose() throws Exception
+	{
+		GenericDoubleMatrix result = this.newMatrix(columns, rows);
+		
+		for (int row = 0; row < rows; row++)
+		{
+			for (int column = 0; column < columns; column++)
+			{
+				result.values[column * rows + row] = values[row * columns + column];
+			}
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> add(GenericMatrix<GenericDouble> v) throws Exception
+	{
+		if (!(v instanceof GenericDoubleMatrix))
+		{
+			return super.add(v);
+		}
+		
+		if (this.getLength() != v.getLength()) throw new Exception("Dimensions do not match");
+		
+		double[] other = ((GenericDoubleMatrix) v).values;
+		GenericDoubleMatrix result = this.newMatrix(rows, columns);
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result.values[i] = values[i] + other[i];
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> subtract(GenericMatrix<GenericDouble> v) throws Exception
+	{
+		if (!(v instanceof GenericDoubleMatrix))
+		{
+			return super.subtract(v);
+		}
+		
+		if (this.getLength() != v.getLength()) throw new Exception("Dimensions do not match");
+		
+		double[] other = ((GenericDoubleMatrix) v).values;
+		GenericDoubleMatrix result = this.newMatrix(rows, columns);
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result.values[i] = values[i] - other[i];
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> product(GenericMatrix<GenericDouble> v) throws Exception
+	{
+		if (!(v instanceof GenericDoubleMatrix))
+		{
+			return super.product(v);
+		}
+		
+		if (this.getColumnCount() != v.getRowCount()) throw new Exception("Inner dimensions do not match");
+		
+		double[] other = ((GenericDoubleMatrix) v).values;
+		int n = v.getColumnCount();
+		GenericDoubleMatrix result = this.newMatrix(rows, n);
+		
+		MatrixProduct.multiply(values, other, result.values, rows, columns, n);
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> scalarProduct(GenericDouble c) throws Exception
+	{
+		double scalar = c.getValue();
+		GenericDoubleMatrix result = this.newMatrix(rows, columns);
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result.values[i] = scalar * values[i];
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> subMatrix(int row, int column, int rowCount, int columnCount) throws Exception
+	{
+		GenericDoubleMatrix result = this.newMatrix(rowCount, columnCount);
+		
+		for (int i = 0; i < rowCount; i++)
+		{
+			System.arraycopy(values, (row + i) * columns + column, result.values, i * columnCount, columnCount);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public void swapRows(int rowI, int rowJ)
+	{
+		for (int j = 0; j < columns; j++)
+		{
+			double temp = values[rowI * columns + j];
+			values[rowI * columns + j] = values[rowJ * columns + j];
+			values[rowJ * columns + j] = temp;
+		}
+	}
+	
+	@Override
+	public void swapColumns(int columnI, int columnJ)
+	{
+		for (int i = 0; i < rows; i++)
+		{
+			double temp = values[i * columns + columnI];
+			values[i * columns + columnI] = values[i * columns + columnJ];
+			values[i * columns + columnJ] = temp;
+		}
+	}
+	
+	@Override
+	public GenericDoubleMatrix clone()
+	{
+		try
+		{
+			GenericDoubleMatrix matrix = this.newMatrix(rows, columns);
+			System.arraycopy(values, 0, matrix.values, 0, values.length);
+			return matrix;
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException("Failed to clone generic matrix.", e);
+		}
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> gaussianElimination() throws Exception
+	{
+		GenericDoubleMatrix A = this.clone();
+		double[] a = A.values;
+		int i = 0, j = 0;
+		int m = rows, n = columns;
+		
+		while (i < m && j < n)
+		{
+			/*
+			 * Find pivot in column j, starting in row i:
+			 */
+			int maxi = i;
+			
+			for (int k = i + 1; k < m; k++)
+			{
+				if (Math.abs(a[k * n + j]) > Math.abs(a[maxi * n + j]))
+				{
+					maxi = k;
+				}
+			}
+			
+			if (a[maxi * n + j] != 0)
+			{
+				A.swapRows(i, maxi);
+				
+				double pivot = a[i * n + j];
+				
+				for (int p = 0; p < n; p++)
+				{
+					a[i * n + p] /= pivot;
+				}
+				
+				for (int u = 0; u < m; u++)
+				{
+					if (u != i)
+					{
+						double b = a[u * n + j];
+						
+						for (int p = 0; p < n; p++)
+						{
+							a[u * n + p] -= b * a[i * n + p];
+						}
+					}
+				}
+				
+				i = i + 1;
+			}
+			
+			j = j + 1;
+		}
+		
+		return A;
+	}
+	
+	/**
+	 * Returns the determinant using partial pivoted elimination, which is {@code O(n^3)} instead of the
+	 * {@code O(n!)} cofactor expansion of the generic implementation.
+	 */
+	@Override
+	public GenericDouble determinant() throws Exception
+	{
+		if (rows != columns) throw new Exception("Matrix is not square");
+		
+		double[] a = values.clone();
+		int n = rows;
+		double det = 1;
+		
+		for (int j = 0; j < n; j++)
+		{
+			int maxi = j;
+			
+			for (int k = j + 1; k < n; k++)
+			{
+				if (Math.abs(a[k * n + j]) > Math.abs(a[maxi * n + j]))
+				{
+					maxi = k;
+				}
+			}
+			
+			if (a[maxi * n + j] == 0)
+			{
+				return new GenericDouble(0);
+			}
+			
+			if (maxi != j)
+			{
+				for (int p = 0; p < n; p++)
+				{
+					double temp = a[j * n + p];
+					a[j * n + p] = a[maxi * n + p];
+					a[maxi * n + p] = temp;
+				}
+				det = -det;
+			}
+			
+			double pivot = a[j * n + j];
+			det *= pivot;
+			
+			for (int u = j + 1; u < n; u++)
+			{
+				double f = a[u * n + j] / pivot;
+				
+				for (int p = j; p < n; p++)
+				{
+					a[u * n + p] -= f * a[j * n + p];
+				}
+			}
+		}
+		
+		return new GenericDouble(det);
+	}
+	
+	@Override
+	public GenericDouble trace() throws Exception
+	{
+		if (rows != columns) throw new Exception("Matrix is not square");
+		
+		double result = 0;
+		
+		for (int i = 0; i < rows; i++)
+		{
+			result += values[i * columns + i];
+		}
+		
+		return new GenericDouble(result);
+	}
+	
+	@Override
+	public void setToIdentity()
+	{
+		for (int row = 0; row < rows; row++)
+		{
+			for (int column = 0; column < columns; column++)
+			{
+				values[row * columns + column] = row == column ? 1 : 0;
+			}
+		}
+	}
+	
+	@Override
+	public GenericMatrix<GenericDouble> invert() throws Exception
+	{
+		if (rows != columns) throw new Exception("Matrix is not square");
+		
+		int size = rows;
+		GenericDoubleMatrix A = this.newMatrix(size, 2 * size);
+		
+		for (int row = 0; row < size; row++)
+		{
+			System.arraycopy(values, row * size, A.values, row * 2 * size, size);
+			A.values[row * 2 * size + size + row] = 1;
+		}
+		
+		return A.gaussianElimination().subMatrix(0, size, size, size);
+	}
+}
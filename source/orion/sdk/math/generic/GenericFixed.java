@@ -0,0 +1,216 @@
+package orion.sdk.math.generic;
+
+/**
+ * A signed Q32.32 fixed point number stored in a {@code long}. The range is about +/-2.1e9 with a
+ * constant resolution of 2^-32, which keeps absolute errors independent of the magnitude. Products and
+ * quotients out of that range throw an {@link ArithmeticException} rather than wrap.
+ * 
+ * The static helpers operate on the raw representation and are used by {@link GenericFixedMatrix} to
+ * avoid allocations.
+ */
+@SuppressWarnings("rawtypes")
+public class GenericFixed implements IGenericPrimitive
+{
+	/**
+	 * The number of fractional bits.
+	 */
+	public static final int FRACTION_BITS = 32;
+	
+	/**
+	 * The raw representation of {@code 1}.
+	 */
+	public static final long ONE = 1L << FRACTION_BITS;
+	
+	private long raw = 0;
+	
+	public GenericFixed(long raw)
+	{
+		this.raw = raw;
+	}
+	
+	public static GenericFixed fromDouble(double value)
+	{
+		return new GenericFixed(toRaw(value));
+	}
+	
+	public static long toRaw(double value)
+	{
+		return Math.round(value * ONE);
+	}
+	
+	public static double toDouble(long raw)
+	{
+		return (double) raw / ONE;
+	}
+
+	/**
+	 * Returns the raw product of two raw fixed point numbers, truncated towards negative infinity.
+	 * 
+	 * @throws ArithmeticException if the product is out of range
+	 */
+	public static long multiply(long a, long b)
+	{
+		/*
+		 * The product has 64 fractional bits, keep the middle 64 bits of the 128 bit result. They hold the
+		 * whole product only if the bits above them merely repeat its sign.
+		 */
+		long high = multiplyHigh(a, b);
+		long overflow = high >> (FRACTION_BITS - 1);
+		if (overflow != 0 && overflow != -1)
+		{
+			throw new ArithmeticException("Fixed point multiplication overflow");
+		}
+		long low = a * b;
+		return (high << (64 - FRACTION_BITS)) | (low >>> FRACTION_BITS);
+	}
+
+	/**
+	 * Returns the raw quotient of two raw fixed point numbers, truncated towards zero.
+	 * 
+	 * @throws ArithmeticException if the divisor is zero or the quotient is out of range
+	 */
+	public static long divide(long a, long b)
+	{
+		if (b == 0)
+		{
+			throw new ArithmeticException("Fixed point division by zero");
+		}
+		
+		/*
+		 * The magnitudes are unsigned, so that the one of Long.MIN_VALUE fits
+		 */
+		boolean negative = (a < 0) != (b < 0);
+		long n = Math.abs(a), d = Math.abs(b);
+		
+		/*
+		 * Integer part by long division, then the fractional bits one at a time
+		 */
+		long quotient = Long.divideUnsigned(n, d);
+		long remainder = Long.remainderUnsigned(n, d);
+		if (Long.compareUnsigned(quotient, 1L << (64 - FRACTION_BITS)) >= 0)
+		{
+			throw new ArithmeticException("Fixed point division overflow");
+		}
+		
+		for (int i = 0; i < FRACTION_BITS; i++)
+		{
+			remainder <<= 1;
+			quotient <<= 1;
+			
+			if (Long.compareUnsigned(remainder, d) >= 0)
+			{
+				remainder -= d;
+				quotient |= 1;
+			}
+		}
+		
+		if (negative ? Long.compareUnsigned(quotient, Long.MIN_VALUE) > 0 : quotient < 0)
+		{
+			throw new ArithmeticException("Fixed point division overflow");
+		}
+		return negative ? -quotient : quotient;
+	}
+
+	/**
+	 * Returns the upper 64 bits of the signed 128 bit product of {@code a} and {@code b}.
+	 */
+	private static long multiplyHigh(long a, long b)
+	{
+		long a1 = a >> 32, a2 = a & 0xFFFFFFFFL;
+		long b1 = b >> 32, b2 = b & 0xFFFFFFFFL;
+		
+		long a2b2 = a2 * b2;
+		long a1b2 = a1 * b2;
+		long a2b1 = a2 * b1;
+		long a1b1 = a1 * b1;
+		
+		long carry = (a2b2 >>> 32) + (a1b2 & 0xFFFFFFFFL) + (a2b1 & 0xFFFFFFFFL);
+		
+		return a1b1 + (a1b2 >> 32) + (a2b1 >> 32) + (carry >>> 32);
+	}
+	
+	@Override
+	public IGenericPrimitive add(IGenericPrimitive other)
+	{
+		return new GenericFixed(this.raw + ((GenericFixed) other).raw);
+	}
+
+	@Override
+	public IGenericPrimitive subtract(IGenericPrimitive other)
+	{
+		return new GenericFixed(this.raw - ((GenericFixed) other).raw);
+	}
+
+	@Override
+	public IGenericPrimitive multiply(IGenericPrimitive other)
+	{
+		return new GenericFixed(multiply(this.raw, ((GenericFixed) other).raw));
+	}
+
+	@Override
+	public IGenericPrimitive devide(IGenericPrimitive other)
+	{
+		return new GenericFixed(divide(this.raw, ((GenericFixed) other).raw));
+	}
+
+	/**
+	 * Raises this number to a power. This goes through {@code double} and is only exact to 53 bits.
+	 */
+	@Override
+	public IGenericPrimitive power(IGenericPrimitive power)
+	{
+		return fromDouble(Math.pow(this.getValue(), ((GenericFixed) power).getValue()));
+	}
+	
+	@Override
+	public IGenericPrimitive absolute()
+	{
+		return new GenericFixed(Math.abs(this.raw));
+	}
+
+	@Override
+	public int compare(IGenericPrimitive other)
+	{
+		return Long.compare(this.raw, ((GenericFixed) other).raw);
+	}
+	
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (obj instanceof GenericFixed)
+		{
+			return this.raw == ((GenericFixed) obj).raw;
+		}
+		else
+		{
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Long.hashCode(this.raw);
+	}
+
+	public long getRaw()
+	{
+		return raw;
+	}
+	
+	public void setRaw(long raw)
+	{
+		this.raw = raw;
+	}
+
+	public double getValue()
+	{
+		return toDouble(raw);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return Double.toString(this.getValue());
+	}
+}
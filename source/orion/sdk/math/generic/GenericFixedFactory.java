@@ -0,0 +1,35 @@
+package orion.sdk.math.generic;
+
+public class GenericFixedFactory implements IGenericPrimitiveFactory<GenericFixed>
+{
+	@Override
+	public GenericFixed create() throws Exception
+	{
+		return new GenericFixed(0);
+	}
+
+	@Override
+	public GenericFixed create(int value) throws Exception
+	{
+		return new GenericFixed((long) value << GenericFixed.FRACTION_BITS);
+	}
+
+	@Override
+	public GenericFixed create(long value) throws Exception
+	{
+		return new GenericFixed(value << GenericFixed.FRACTION_BITS);
+	}
+
+	@Override
+	public GenericFixed create(float value) throws Exception
+	{
+		return GenericFixed.fromDouble(value);
+	}
+
+	@Override
+	public GenericFixed create(double value) throws Exception
+	{
+		return GenericFixed.fromDouble(value);
+	}
+
+}
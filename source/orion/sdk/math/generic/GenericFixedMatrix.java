@@ -0,0 +1,469 @@
+package orion.sdk.math.generic;
+
+import orion.sdk.math.MatrixProduct;
+
+/**
+ * A {@link GenericMatrix} specialization that stores its entries as raw Q32.32 fixed point numbers in
+ * a row major {@code long[]}, see {@link GenericFixed}. Additions are exact and products are truncated
+ * to 32 fractional bits, so the error does not grow with the magnitude of the entries. The arithmetic
+ * operations work on the primitive array directly and only box entries when they are accessed through
+ * {@link #get(int)}.
+ * 
+ * @author Tim
+ * @since 1.0.00
+ */
+public class GenericFixedMatrix extends GenericMatrix<GenericFixed>
+{
+	protected long[] values = null;
+	
+	public GenericFixedMatrix(IGenericPrimitiveFactory<GenericFixed> primitiveFactory, int rows, int columns) throws Exception
+	{
+		super(primitiveFactory, rows, columns, false);
+		this.values = new long[rows * columns];
+	}
+	
+	public GenericFixedMatrix(int rows, int columns) throws Exception
+	{
+		this(GenericMatrixFactory.FIXED_FACTORY, rows, columns);
+	}
+	
+	@Override
+	protected GenericFixedMatrix newMatrix(int rows, int columns) throws Exception
+	{
+		return new GenericFixedMatrix(this.primitiveFactory, rows, columns);
+	}
+	
+	@Override
+	public GenericFixed get(int i)
+	{
+		return new GenericFixed(values[i]);
+	}
+
+	@Override
+	public void set(int i, GenericFixed value)
+	{
+		values[i] = value.getRaw();
+	}
+	
+	public double getDouble(int i)
+	{
+		return GenericFixed.toDouble(values[i]);
+	}
+	
+	public double getDouble(int row, int column)
+	{
+		return GenericFixed.toDouble(values[row * columns + column]);
+	}
+	
+	public void setDouble(int i, double value)
+	{
+		values[i] = GenericFixed.toRaw(value);
+	}
+	
+	public void setDouble(int row, int column, double value)
+	{
+		values[row * columns + column] = GenericFixed.toRaw(value);
+	}
+	
+	/**
+	 * Returns the backing array of raw fixed point values of this matrix in row major order.
+	 */
+	public long[] getValues()
+	{
+		return values;
+	}
+	
+	@Override
+	public GenericFixed norm(int dimensions) throws Exception
+	{
+		if (rows > 1 && columns > 1) throw new Exception("Matrix is not a row nor column vector");
+		
+		long sum = 0;
+		
+		for (int i = 0; i < dimensions; i++)
+		{
+			sum += GenericFixed.multiply(values[i], values[i]);
+		}
+		
+		return GenericFixed.fromDouble(Math.sqrt(GenericFixed.toDouble(sum)));
+	}
+	
+	@Override
+	public void normalize() throws Exception
+	{
+		long norm = norm().getRaw();
+		
+		if (norm > 0)
+		{
+			for (int i = 0; i < values.length; i++)
+			{
+				values[i] = GenericFixed.divide(values[i], norm);
+			}
+		}
+	}
+	
+	@Override
+	public GenericFixed dot(GenericMatrix<GenericFixed> v) throws Exception
+	{
+		if (!(v instanceof GenericFixedMatrix))
+		{
+			return super.dot(v);
+		}
+		
+		if (this.getLength() != v.getLength()) throw new Exception("Vector dimensions do not match");
+		
+		long[] other = ((GenericFixedMatrix) v).values;
+		long result = 0;
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result += GenericFixed.multiply(values[i], other[i]);
+		}
+		
+		return new GenericFixed(result);
+	}
+	
+	@Override
+	public void clear()
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			values[i] = 0;
+		}
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> transpose() throws Exception
+	{
+		GenericFixedMatrix result = this.newMatrix(columns, rows);
+		
+		for (int row = 0; row < rows; row++)
+		{
+			for (int column = 0; column < columns; column++)
+			{
+				result.values[column * rows + row] = values[row * columns + column];
+			}
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> add(GenericMatrix<GenericFixed> v) throws Exception
+	{
+		if (!(v instanceof GenericFixedMatrix))
+		{
+			return super.add(v);
+		}
+		
+		if (this.getLength() != v.getLength()) throw new Exception("Dimensions do not match");
+		
+		long[] other = ((GenericFixedMatrix) v).values;
+		GenericFixedMatrix result = this.newMatrix(rows, columns);
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result.values[i] = values[i] + other[i];
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> subtract(GenericMatrix<GenericFixed> v) throws Exception
+	{
+		if (!(v instanceof GenericFixedMatrix))
+		{
+			return super.subtract(v);
+		}
+		
+		if (this.getLength() != v.getLength()) throw new Exception("Dimensions do not match");
+		
+		long[] other = ((GenericFixedMatrix) v).values;
+		GenericFixedMatrix result = this.newMatrix(rows, columns);
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result.values[i] = values[i] - other[i];
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> product(GenericMatrix<GenericFixed> v) throws Exception
+	{
+		if (!(v instanceof GenericFixedMatrix))
+		{
+			return super.product(v);
+		}
+		
+		if (this.getColumnCount() != v.getRowCount()) throw new Exception("Inner dimensions do not match");
+		
+		final long[] other = ((GenericFixedMatrix) v).values;
+		final int n = v.getColumnCount();
+		GenericFixedMatrix result = this.newMatrix(rows, n);
+		final long[] product = result.values;
+		long work = (long) rows * columns * n;
+		final int block = MatrixProduct.getBlockSize(work, columns, n);
+		
+		/*
+		 * i-k-j order over tiles, which walks both operands row by row
+		 */
+		MatrixProduct.run(rows, work, new MatrixProduct.IRowKernel()
+		{
+			@Override
+			public void compute(int rowStart, int rowEnd)
+			{
+				for (int ii = rowStart; ii < rowEnd; ii += block)
+				{
+					int iEnd = Math.min(ii + block, rowEnd);
+					for (int pp = 0; pp < columns; pp += block)
+					{
+						int pEnd = Math.min(pp + block, columns);
+						for (int jj = 0; jj < n; jj += block)
+						{
+							int jEnd = Math.min(jj + block, n);
+							for (int row = ii; row < iEnd; row++)
+							{
+								for (int i = pp; i < pEnd; i++)
+								{
+									long a = values[row * columns + i];
+									
+									for (int column = jj; column < jEnd; column++)
+									{
+										product[row * n + column] += GenericFixed.multiply(a, other[i * n + column]);
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		});
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> scalarProduct(GenericFixed c) throws Exception
+	{
+		long scalar = c.getRaw();
+		GenericFixedMatrix result = this.newMatrix(rows, columns);
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			result.values[i] = GenericFixed.multiply(scalar, values[i]);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> subMatrix(int row, int column, int rowCount, int columnCount) throws Exception
+	{
+		GenericFixedMatrix result = this.newMatrix(rowCount, columnCount);
+		
+		for (int i = 0; i < rowCount; i++)
+		{
+			System.arraycopy(values, (row + i) * columns + column, result.values, i * columnCount, columnCount);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public void swapRows(int rowI, int rowJ)
+	{
+		for (int j = 0; j < columns; j++)
+		{
+			long temp = values[rowI * columns + j];
+			values[rowI * columns + j] = values[rowJ * columns + j];
+			values[rowJ * columns + j] = temp;
+		}
+	}
+	
+	@Override
+	public void swapColumns(int columnI, int columnJ)
+	{
+		for (int i = 0; i < rows; i++)
+		{
+			long temp = values[i * columns + columnI];
+			values[i * columns + columnI] = values[i * columns + columnJ];
+			values[i * columns + columnJ] = temp;
+		}
+	}
+	
+	@Override
+	public GenericFixedMatrix clone()
+	{
+		try
+		{
+			GenericFixedMatrix matrix = this.newMatrix(rows, columns);
+			System.arraycopy(values, 0, matrix.values, 0, values.length);
+			return matrix;
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException("Failed to clone generic matrix.", e);
+		}
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> gaussianElimination() throws Exception
+	{
+		GenericFixedMatrix A = this.clone();
+		long[] a = A.values;
+		int i = 0, j = 0;
+		int m = rows, n = columns;
+		
+		while (i < m && j < n)
+		{
+			/*
+			 * Find pivot in column j, starting in row i:
+			 */
+			int maxi = i;
+			
+			for (int k = i + 1; k < m; k++)
+			{
+				if (Math.abs(a[k * n + j]) > Math.abs(a[maxi * n + j]))
+				{
+					maxi = k;
+				}
+			}
+			
+			if (a[maxi * n + j] != 0)
+			{
+				A.swapRows(i, maxi);
+				
+				long pivot = a[i * n + j];
+				
+				for (int p = 0; p < n; p++)
+				{
+					a[i * n + p] = GenericFixed.divide(a[i * n + p], pivot);
+				}
+				
+				for (int u = 0; u < m; u++)
+				{
+					if (u != i)
+					{
+						long b = a[u * n + j];
+						
+						for (int p = 0; p < n; p++)
+						{
+							a[u * n + p] -= GenericFixed.multiply(b, a[i * n + p]);
+						}
+					}
+				}
+				
+				i = i + 1;
+			}
+			
+			j = j + 1;
+		}
+		
+		return A;
+	}
+	
+	/**
+	 * Returns the determinant using partial pivoted elimination, which is {@code O(n^3)} instead of the
+	 * {@code O(n!)} cofactor expansion of the generic implementation.
+	 */
+	@Override
+	public GenericFixed determinant() throws Exception
+	{
+		if (rows != columns) throw new Exception("Matrix is not square");
+		
+		long[] a = values.clone();
+		int n = rows;
+		long det = GenericFixed.ONE;
+		
+		for (int j = 0; j < n; j++)
+		{
+			int maxi = j;
+			
+			for (int k = j + 1; k < n; k++)
+			{
+				if (Math.abs(a[k * n + j]) > Math.abs(a[maxi * n + j]))
+				{
+					maxi = k;
+				}
+			}
+			
+			if (a[maxi * n + j] == 0)
+			{
+				return new GenericFixed(0);
+			}
+			
+			if (maxi != j)
+			{
+				for (int p = 0; p < n; p++)
+				{
+					long temp = a[j * n + p];
+					a[j * n + p] = a[maxi * n + p];
+					a[maxi * n + p] = temp;
+				}
+				det = -det;
+			}
+			
+			long pivot = a[j * n + j];
+			det = GenericFixed.multiply(det, pivot);
+			
+			for (int u = j + 1; u < n; u++)
+			{
+				long f = GenericFixed.divide(a[u * n + j], pivot);
+				
+				for (int p = j; p < n; p++)
+				{
+					a[u * n + p] -= GenericFixed.multiply(f, a[j * n + p]);
+				}
+			}
+		}
+		
+		return new GenericFixed(det);
+	}
+	
+	@Override
+	public GenericFixed trace() throws Exception
+	{
+		if (rows != columns) throw new Exception("Matrix is not square");
+		
+		long result = 0;
+		
+		for (int i = 0; i < rows; i++)
+		{
+			result += values[i * columns + i];
+		}
+		
+		return new GenericFixed(result);
+	}
+	
+	@Override
+	public void setToIdentity()
+	{
+		for (int row = 0; row < rows; row++)
+		{
+			for (int column = 0; column < columns; column++)
+			{
+				values[row * columns + column] = row == column ? GenericFixed.ONE : 0;
+			}
+		}
+	}
+	
+	@Override
+	public GenericMatrix<GenericFixed> invert() throws Exception
+	{
+		if (rows != columns) throw new Exception("Matrix is not square");
+		
+		int size = rows;
+		GenericFixedMatrix A = this.newMatrix(size, 2 * size);
+		
+		for (int row = 0; row < size; row++)
+		{
+			System.arraycopy(values, row * size, A.values, row * 2 * size, size);
+			A.values[row * 2 * size + size + row] = GenericFixed.ONE;
+		}
+		
+		return A.gaussianElimination().subMatrix(0, size, size, size);
+	}
+}
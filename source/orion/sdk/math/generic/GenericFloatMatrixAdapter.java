@@ -4,6 +4,7 @@ import java.util.List;
 
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.LUDecomposition;
 
 public class GenericFloatMatrixAdapter implements IFloatMatrix
 {
@@ -441,6 +442,12 @@ public class GenericFloatMatrixAdapter implements IFloatMatrix
 		return this.matrix.singular();
 	}
 
+	@Override
+	public LUDecomposition decompose() throws Exception
+	{
+		return new LUDecomposition(this);
+	}
+
 	@Override
 	public IFloatMatrix invert() throws Exception
 	{
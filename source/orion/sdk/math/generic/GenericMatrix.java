@@ -5,6 +5,7 @@ import java.util.List;
 
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.MatrixProduct;
 import orion.sdk.monitoring.incidents.Incident;
 import orion.sdk.monitoring.incidents.IncidentManager;
 
@@ -27,6 +28,15 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	private T TWO = null;
 
 	protected GenericMatrix(IGenericPrimitiveFactory<T> primitiveFactory, int rows, int columns) throws Exception
+	{
+		this(primitiveFactory, rows, columns, true);
+	}
+	
+	/**
+	 * Creates a new matrix. Specializations that store their entries in primitive arrays pass
+	 * {@code false} for {@code allocateEntries} and override {@link #get(int)} and {@link #set(int, IGenericPrimitive)}.
+	 */
+	protected GenericMatrix(IGenericPrimitiveFactory<T> primitiveFactory, int rows, int columns, boolean allocateEntries) throws Exception
 	{
 		this.primitiveFactory = primitiveFactory;
 		this.ZERO = this.primitiveFactory.create();
@@ -36,13 +46,30 @@ public class GenericMatrix<T extends IGenericPrimitive>
 		
 		this.rows = rows;
 		this.columns = columns;
-		this.entries = new ArrayList<T>(rows * columns);
 		
-		for (int i = 0; i < this.getLength(); i++)
+		if (allocateEntries)
 		{
-			this.entries.add(primitiveFactory.create());
-		}		
-		
+			this.entries = new ArrayList<T>(rows * columns);
+			
+			for (int i = 0; i < this.getLength(); i++)
+			{
+				this.entries.add(primitiveFactory.create());
+			}
+		}
+	}
+	
+	/**
+	 * Creates a new zero matrix of the same kind as this matrix. All operations create their results
+	 * through this method so that specializations stay specialized.
+	 */
+	protected GenericMatrix<T> newMatrix(int rows, int columns) throws Exception
+	{
+		return new GenericMatrix<T>(this.primitiveFactory, rows, columns);
+	}
+	
+	public IGenericPrimitiveFactory<T> getPrimitiveFactory()
+	{
+		return primitiveFactory;
 	}
 	
 	public GenericMatrix(IGenericPrimitiveFactory<T> primitiveFactory, T... entries) throws Exception
@@ -141,7 +168,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 
 	public T norm() throws Exception
 	{
-		return norm(entries.size());
+		return norm(this.getLength());
 	}
 
 	public T norm(int dimensions) throws Exception
@@ -164,10 +191,10 @@ public class GenericMatrix<T extends IGenericPrimitive>
 		
 		if (norm.compare(this.ZERO) > 0)
 		{
-			for (int i = 0; i < entries.size(); i++)
+			for (int i = 0; i < this.getLength(); i++)
 			{
-				T normalizedValue = (T) this.entries.get(i).devide(norm); 
-				this.entries.set(i, normalizedValue);
+				T normalizedValue = (T) this.get(i).devide(norm); 
+				this.set(i, normalizedValue);
 			}
 		}
 	}
@@ -190,30 +217,19 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	{
 		this.assertVectors(v);
 		
-		if (v.getLength() == 4)
-		{
-			return new GenericMatrix<T>(
-					this.primitiveFactory,
-					(T) this.get(1).multiply(v.get(2)).subtract(this.get(2).multiply(v.get(1))),
-					(T) this.get(2).multiply(v.get(0)).subtract(this.get(0).multiply(v.get(2))),
-					(T) this.get(0).multiply(v.get(1)).subtract(this.get(1).multiply(v.get(0))),
-					ZERO);
-		}
-		else if (v.getLength() == 3)
+		if (v.getLength() == 4 || v.getLength() == 3)
 		{
-			return new GenericMatrix<T>(
-					this.primitiveFactory,
-					(T) this.get(1).multiply(v.get(2)).subtract(this.get(2).multiply(v.get(1))),
-					(T) this.get(2).multiply(v.get(0)).subtract(this.get(0).multiply(v.get(2))),
-					(T) this.get(0).multiply(v.get(1)).subtract(this.get(1).multiply(v.get(0))));					
+			GenericMatrix<T> result = this.newMatrix(v.getLength(), 1);
+			result.set(0, (T) this.get(1).multiply(v.get(2)).subtract(this.get(2).multiply(v.get(1))));
+			result.set(1, (T) this.get(2).multiply(v.get(0)).subtract(this.get(0).multiply(v.get(2))));
+			result.set(2, (T) this.get(0).multiply(v.get(1)).subtract(this.get(1).multiply(v.get(0))));
+			return result;
 		}
 		else if (v.getLength() == 2)
 		{
-			return new GenericMatrix<T>(
-					this.primitiveFactory,
-					ZERO,
-					ZERO,
-					(T) this.get(0).multiply(v.get(1)).subtract(this.get(1).multiply(v.get(0))));					
+			GenericMatrix<T> result = this.newMatrix(3, 1);
+			result.set(2, (T) this.get(0).multiply(v.get(1)).subtract(this.get(1).multiply(v.get(0))));
+			return result;
 		}
 		else
 		{
@@ -246,7 +262,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 
 	public GenericMatrix<T> column(int j) throws Exception
 	{
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, this.getRowCount(), 1);
+		GenericMatrix<T> result = this.newMatrix(this.getRowCount(), 1);
 		
 		for (int i = 0; i < this.getRowCount(); i++)
 		{
@@ -258,7 +274,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	
 	public GenericMatrix<T> row(int i) throws Exception
 	{
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, 1, this.getColumnCount());		
+		GenericMatrix<T> result = this.newMatrix(1, this.getColumnCount());		
 
 		for (int j = 0; j < this.getColumnCount(); j++)
 		{
@@ -270,7 +286,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	
 	public GenericMatrix<T> transpose() throws Exception
 	{
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, this.getColumnCount(), this.getRowCount());
+		GenericMatrix<T> result = this.newMatrix(this.getColumnCount(), this.getRowCount());
 		
 		for (int row = 0; row < this.getRowCount(); row++)
 		{
@@ -285,7 +301,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	
 	public GenericMatrix<T> add(GenericMatrix<T> v) throws Exception
 	{
-		GenericMatrix<T> matrix = new GenericMatrix<T>(this.primitiveFactory, this.getRowCount(), this.getColumnCount());
+		GenericMatrix<T> matrix = this.newMatrix(this.getRowCount(), this.getColumnCount());
 		
 		try
 		{
@@ -304,7 +320,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 
 	public GenericMatrix<T> subtract(GenericMatrix<T> v) throws Exception
 	{
-		GenericMatrix<T> matrix = new GenericMatrix<T>(this.primitiveFactory, this.getRowCount(), this.getColumnCount());
+		GenericMatrix<T> matrix = this.newMatrix(this.getRowCount(), this.getColumnCount());
 		
 		try
 		{
@@ -321,33 +337,43 @@ public class GenericMatrix<T extends IGenericPrimitive>
 		return matrix;
 	}
 	
-	public GenericMatrix<T> product(GenericMatrix<T> v) throws Exception
+	public GenericMatrix<T> product(final GenericMatrix<T> v) throws Exception
 	{
 		if (this.getColumnCount() != v.getRowCount()) throw new Exception("Inner dimensions do not match");
 		
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, this.getRowCount(), this.getColumnCount());
+		final GenericMatrix<T> result = this.newMatrix(this.getRowCount(), v.getColumnCount());
 		
-		for (int row = 0; row < this.getRowCount(); row++)
+		/*
+		 * Large products compute ranges of rows in parallel
+		 */
+		MatrixProduct.run(rows, (long) rows * columns * v.getColumnCount(), new MatrixProduct.IRowKernel()
 		{
-			for (int column = 0; column < v.getColumnCount(); column++)
+			@Override
+			public void compute(int rowStart, int rowEnd) throws Exception
 			{
-				T sum = ZERO;
-				
-				for (int i = 0; i < this.getColumnCount(); i++)
+				for (int row = rowStart; row < rowEnd; row++)
 				{
-					sum = (T) sum.add(this.get(row, i).multiply(v.get(i, column)));
+					for (int column = 0; column < v.getColumnCount(); column++)
+					{
+						T sum = ZERO;
+						
+						for (int i = 0; i < getColumnCount(); i++)
+						{
+							sum = (T) sum.add(get(row, i).multiply(v.get(i, column)));
+						}
+						
+						result.set(row, column, sum);
+					}
 				}
-				
-				result.set(row, column, sum);
 			}
-		}
+		});
 		
 		return result;
 	}
 	
 	public GenericMatrix<T> scalarProduct(T c) throws Exception
 	{
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, this.getRowCount(), this.getColumnCount());
+		GenericMatrix<T> result = this.newMatrix(this.getRowCount(), this.getColumnCount());
 
 		for (int row = 0; row < this.getRowCount(); row++)
 		{
@@ -362,7 +388,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	
 	public GenericMatrix<T> subMatrix(int row, int column, int rowCount, int columnCount) throws Exception
 	{
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, rowCount, columnCount);
+		GenericMatrix<T> result = this.newMatrix(rowCount, columnCount);
 		
 		for (int i = 0; i < rowCount; i++)
 		{
@@ -401,7 +427,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	{
 		try
 		{
-			GenericMatrix<T> matrix = new GenericMatrix<T>(this.primitiveFactory, this.getRowCount(), this.getColumnCount());
+			GenericMatrix<T> matrix = this.newMatrix(this.getRowCount(), this.getColumnCount());
 			
 			for (int i = 0; i < this.getLength(); i++)
 			{
@@ -492,7 +518,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	{
 		if (A.getRowCount() != B.getRowCount()) throw new Exception("A and B do not have equal row counts");
 		
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, A.getRowCount(), A.getColumnCount() + B.getColumnCount());
+		GenericMatrix<T> result = this.newMatrix(A.getRowCount(), A.getColumnCount() + B.getColumnCount());
 		
 		for (int row = 0; row < A.getRowCount(); row++)
 		{
@@ -514,7 +540,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 	{
 		if (A.getColumnCount() != B.getColumnCount()) throw new Exception("A and B do not have equal column counts");
 		
-		GenericMatrix<T> result = new GenericMatrix<T>(this.primitiveFactory, A.getRowCount() + B.getRowCount(), A.getColumnCount());
+		GenericMatrix<T> result = this.newMatrix(A.getRowCount() + B.getRowCount(), A.getColumnCount());
 		
 		for (int column = 0; column < A.getColumnCount(); column++)
 		{
@@ -764,7 +790,7 @@ public class GenericMatrix<T extends IGenericPrimitive>
 		
 		int size = this.getRowCount();
 		
-		GenericMatrix<T> I = new GenericMatrix<>(this.primitiveFactory, size, size);
+		GenericMatrix<T> I = this.newMatrix(size, size);
 		I.setToIdentity();
 		
 		GenericMatrix<T> A = this.concatinateHorizontal(this, I);
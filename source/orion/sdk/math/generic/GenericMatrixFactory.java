@@ -0,0 +1,72 @@
+package orion.sdk.math.generic;
+
+/**
+ * Creates {@link GenericMatrix} instances and picks the primitive array specialization for the
+ * primitive type of the given factory. Primitive types without a specialization, like
+ * {@link GenericBigDecimal} for exact arithmetic, use the list based {@link GenericMatrix}.
+ * 
+ * @author Tim
+ * @since 1.0.00
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class GenericMatrixFactory
+{
+	public static final GenericFloatFactory FLOAT_FACTORY = new GenericFloatFactory();
+	public static final GenericDoubleFactory DOUBLE_FACTORY = new GenericDoubleFactory();
+	public static final GenericFixedFactory FIXED_FACTORY = new GenericFixedFactory();
+	public static final GenericBigDecimalFactory BIG_DECIMAL_FACTORY = new GenericBigDecimalFactory();
+	
+	/**
+	 * Creates a new zero matrix.
+	 */
+	public static <T extends IGenericPrimitive> GenericMatrix<T> create(IGenericPrimitiveFactory<T> primitiveFactory, int rows, int columns) throws Exception
+	{
+		if (primitiveFactory instanceof GenericDoubleFactory)
+		{
+			return (GenericMatrix<T>) new GenericDoubleMatrix((GenericDoubleFactory) primitiveFactory, rows, columns);
+		}
+		else if (primitiveFactory instanceof GenericFixedFactory)
+		{
+			return (GenericMatrix<T>) new GenericFixedMatrix((GenericFixedFactory) primitiveFactory, rows, columns);
+		}
+		else
+		{
+			return new GenericMatrix<T>(primitiveFactory, rows, columns);
+		}
+	}
+	
+	/**
+	 * Creates a new matrix with the given row major entries.
+	 */
+	public static <T extends IGenericPrimitive> GenericMatrix<T> create(IGenericPrimitiveFactory<T> primitiveFactory, int rows, int columns, double... entries) throws Exception
+	{
+		if (entries.length != rows * columns) throw new Exception("Entry count does not match the dimensions");
+		
+		GenericMatrix<T> matrix = create(primitiveFactory, rows, columns);
+		
+		for (int i = 0; i < entries.length; i++)
+		{
+			matrix.set(i, primitiveFactory.create(entries[i]));
+		}
+		
+		return matrix;
+	}
+	
+	/**
+	 * Creates a new column vector with the given entries.
+	 */
+	public static <T extends IGenericPrimitive> GenericMatrix<T> vector(IGenericPrimitiveFactory<T> primitiveFactory, double... entries) throws Exception
+	{
+		return create(primitiveFactory, entries.length, 1, entries);
+	}
+	
+	/**
+	 * Creates a new identity matrix.
+	 */
+	public static <T extends IGenericPrimitive> GenericMatrix<T> identity(IGenericPrimitiveFactory<T> primitiveFactory, int size) throws Exception
+	{
+		GenericMatrix<T> matrix = create(primitiveFactory, size, size);
+		matrix.setToIdentity();
+		return matrix;
+	}
+}
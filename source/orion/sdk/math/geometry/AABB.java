@@ -0,0 +1,240 @@
+package orion.sdk.math.geometry;
+
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+
+/**
+ * A mutable axis aligned bounding box stored in plain float fields. All operations either work in place
+ * or write into a destination and never allocate. A box whose minimum exceeds its maximum on any axis is
+ * empty, see {@link #empty()}.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class AABB
+{
+	public float minX = 0, minY = 0, minZ = 0;
+	public float maxX = 0, maxY = 0, maxZ = 0;
+
+	public AABB()
+	{
+	}
+
+	public AABB(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+	{
+		this.set(minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	/**
+	 * Creates a copy of the given box.
+	 */
+	public AABB(AABB b)
+	{
+		this.set(b);
+	}
+
+	public AABB set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+	{
+		this.minX = minX; this.minY = minY; this.minZ = minZ;
+		this.maxX = maxX; this.maxY = maxY; this.maxZ = maxZ;
+		return this;
+	}
+
+	public AABB set(AABB b)
+	{
+		return this.set(b.minX, b.minY, b.minZ, b.maxX, b.maxY, b.maxZ);
+	}
+
+	/**
+	 * Sets this box to the bounds of {@code box}.
+	 */
+	public AABB set(Box box)
+	{
+		return box.getAABB(this);
+	}
+
+	/**
+	 * Makes this box empty, so that including a point sets it to that point.
+	 */
+	public AABB empty()
+	{
+		return this.set(
+			Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+			Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+	}
+
+	public boolean isEmpty()
+	{
+		return !(minX <= maxX && minY <= maxY && minZ <= maxZ);
+	}
+
+	public float getWidth()
+	{
+		return maxX - minX;
+	}
+
+	public float getHeight()
+	{
+		return maxY - minY;
+	}
+
+	public float getDepth()
+	{
+		return maxZ - minZ;
+	}
+
+	/**
+	 * Writes the center of this box into {@code dest} and sets {@code w} to one.
+	 */
+	public Vec4f getCenter(Vec4f dest)
+	{
+		return dest.set(0.5f * (minX + maxX), 0.5f * (minY + maxY), 0.5f * (minZ + maxZ), 1);
+	}
+
+	/**
+	 * Writes the size of this box into {@code dest} and sets {@code w} to zero.
+	 */
+	public Vec4f getSize(Vec4f dest)
+	{
+		return dest.set(maxX - minX, maxY - minY, maxZ - minZ, 0);
+	}
+
+	/**
+	 * Writes the point at the given relative coordinates into {@code dest}, where {@code (0, 0, 0)} is
+	 * the minimum and {@code (1, 1, 1)} the maximum.
+	 */
+	public Vec4f getPoint(float relativeX, float relativeY, float relativeZ, Vec4f dest)
+	{
+		return dest.set(
+			minX + relativeX * (maxX - minX),
+			minY + relativeY * (maxY - minY),
+			minZ + relativeZ * (maxZ - minZ),
+			1);
+	}
+
+	/**
+	 * Returns half the surface area of this box, which is proportional to the probability of a random
+	 * ray hitting it.
+	 */
+	public float getHalfArea()
+	{
+		float x = maxX - minX, y = maxY - minY, z = maxZ - minZ;
+		return isEmpty() ? 0 : x * y + y * z + z * x;
+	}
+
+	/**
+	 * Grows this box to include the given point.
+	 */
+	public AABB include(float x, float y, float z)
+	{
+		if (x < minX) minX = x;
+		if (y < minY) minY = y;
+		if (z < minZ) minZ = z;
+		if (x > maxX) maxX = x;
+		if (y > maxY) maxY = y;
+		if (z > maxZ) maxZ = z;
+		return this;
+	}
+
+	/**
+	 * Grows this box to include {@code b}.
+	 */
+	public AABB include(AABB b)
+	{
+		return union(this, b, this);
+	}
+
+	public boolean contains(float x, float y, float z)
+	{
+		return
+			x >= minX && x <= maxX &&
+			y >= minY && y <= maxY &&
+			z >= minZ && z <= maxZ;
+	}
+
+	/**
+	 * Returns {@code true} if {@code b} lies completely inside this box.
+	 */
+	public boolean contains(AABB b)
+	{
+		return
+			b.minX >= minX && b.maxX <= maxX &&
+			b.minY >= minY && b.maxY <= maxY &&
+			b.minZ >= minZ && b.maxZ <= maxZ;
+	}
+
+	/**
+	 * Returns {@code true} if this box and {@code b} overlap, touching boxes overlap.
+	 */
+	public boolean intersects(AABB b)
+	{
+		return
+			b.minX <= maxX && b.maxX >= minX &&
+			b.minY <= maxY && b.maxY >= minY &&
+			b.minZ <= maxZ && b.maxZ >= minZ;
+	}
+
+	/**
+	 * Writes the cell {@code (x, y, z)} of a {@code width x height x depth} grid over this box into
+	 * {@code dest}.
+	 */
+	public AABB subDivide(int x, int y, int z, int width, int height, int depth, AABB dest)
+	{
+		float
+			cellX = (maxX - minX) / width,
+			cellY = (maxY - minY) / height,
+			cellZ = (maxZ - minZ) / depth;
+		float
+			left = minX + x * cellX,
+			bottom = minY + y * cellY,
+			back = minZ + z * cellZ;
+		return dest.set(left, bottom, back, left + cellX, bottom + cellY, back + cellZ);
+	}
+
+	public boolean equals(AABB b, float error)
+	{
+		return
+			Math.abs(minX - b.minX) <= error && Math.abs(minY - b.minY) <= error && Math.abs(minZ - b.minZ) <= error &&
+			Math.abs(maxX - b.maxX) <= error && Math.abs(maxY - b.maxY) <= error && Math.abs(maxZ - b.maxZ) <= error;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "[" + minX + ", " + minY + ", " + minZ + "] - [" + maxX + ", " + maxY + ", " + maxZ + "]";
+	}
+
+	/**
+	 * Writes the smallest box containing {@code a} and {@code b} into {@code dest}.
+	 */
+	public static AABB union(AABB a, AABB b, AABB dest)
+	{
+		return dest.set(
+			Math.min(a.minX, b.minX), Math.min(a.minY, b.minY), Math.min(a.minZ, b.minZ),
+			Math.max(a.maxX, b.maxX), Math.max(a.maxY, b.maxY), Math.max(a.maxZ, b.maxZ));
+	}
+
+	/**
+	 * Writes the bounds of {@code src} transformed by the affine matrix {@code m} into {@code dest}. The
+	 * center is transformed and the extents are projected onto the axes by the absolute entries of
+	 * {@code m}, which is exact for the transformed box. The destination may be the source.
+	 */
+	public static AABB transform(Mat4f m, AABB src, AABB dest)
+	{
+		float
+			cx = 0.5f * (src.minX + src.maxX),
+			cy = 0.5f * (src.minY + src.maxY),
+			cz = 0.5f * (src.minZ + src.maxZ),
+			ex = 0.5f * (src.maxX - src.minX),
+			ey = 0.5f * (src.maxY - src.minY),
+			ez = 0.5f * (src.maxZ - src.minZ);
+		float
+			tx = m.m00 * cx + m.m01 * cy + m.m02 * cz + m.m03,
+			ty = m.m10 * cx + m.m11 * cy + m.m12 * cz + m.m13,
+			tz = m.m20 * cx + m.m21 * cy + m.m22 * cz + m.m23,
+			rx = Math.abs(m.m00) * ex + Math.abs(m.m01) * ey + Math.abs(m.m02) * ez,
+			ry = Math.abs(m.m10) * ex + Math.abs(m.m11) * ey + Math.abs(m.m12) * ez,
+			rz = Math.abs(m.m20) * ex + Math.abs(m.m21) * ey + Math.abs(m.m22) * ez;
+		return dest.set(tx - rx, ty - ry, tz - rz, tx + rx, ty + ry, tz + rz);
+	}
+}
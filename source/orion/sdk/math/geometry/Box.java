@@ -111,6 +111,25 @@ public class Box implements IBounded<Box>, IRectangular<Box>
 		this.end.setZ(z + depth);
 	}
 	
+	/**
+	 * Writes the bounds of this box into {@code dest}, for allocation free tests such as
+	 * {@link Frustum#classify(AABB)}.
+	 */
+	public AABB getAABB(AABB dest)
+	{
+		return dest.set(
+			this.start.getX(), this.start.getY(), this.start.getZ(),
+			this.end.getX(), this.end.getY(), this.end.getZ());
+	}
+
+	/**
+	 * Sets this box to the bounds of {@code b}.
+	 */
+	public void set(AABB b)
+	{
+		this.set(b.minX, b.minY, b.minZ, b.getWidth(), b.getHeight(), b.getDepth());
+	}
+
 	public Box subDivide(int x, int y, int z, int width, int height, int depth) throws Exception
 	{
 		FloatMatrix cellSize = 
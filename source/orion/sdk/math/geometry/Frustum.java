@@ -0,0 +1,248 @@
+package orion.sdk.math.geometry;
+
+import orion.sdk.math.Mat4f;
+
+/**
+ * The six clipping planes of a view frustum, extracted from a combined projection and view matrix. The
+ * planes point inwards and are normalized, so that {@code a * x + b * y + c * z + d} is the signed
+ * distance of a point to a plane. The tests are conservative, a box which is reported as intersecting
+ * may still be invisible close to the edges of the frustum.
+ *
+ * Boxes are tested by their center and half extents, which takes one dot product and one absolute dot
+ * product per plane and never allocates.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class Frustum
+{
+	public static final int OUTSIDE = 0;
+	public static final int INTERSECTING = 1;
+	public static final int INSIDE = 2;
+
+	public static final int LEFT = 0;
+	public static final int RIGHT = 1;
+	public static final int BOTTOM = 2;
+	public static final int TOP = 3;
+	public static final int NEAR = 4;
+	public static final int FAR = 5;
+
+	/**
+	 * The planes {@code (a, b, c, d)} in the order {@link #LEFT}, {@link #RIGHT}, {@link #BOTTOM},
+	 * {@link #TOP}, {@link #NEAR}, {@link #FAR}.
+	 */
+	private final float[] planes = new float[24];
+
+	/**
+	 * Creates a frustum which contains everything.
+	 */
+	public Frustum()
+	{
+		for (int i = 0; i < 6; i++)
+		{
+			this.planes[i * 4 + 3] = Float.POSITIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Creates the frustum of the given view projection matrix.
+	 */
+	public Frustum(Mat4f viewProjection)
+	{
+		this.set(viewProjection);
+	}
+
+	/**
+	 * Extracts the planes of the combined matrix {@code projection * view}. Points inside the frustum
+	 * satisfy {@code -w <= x, y, z <= w} in clip coordinates, so every plane is the last row of the matrix
+	 * plus or minus one of the others.
+	 */
+	public Frustum set(Mat4f m)
+	{
+		setPlane(LEFT, m.m30 + m.m00, m.m31 + m.m01, m.m32 + m.m02, m.m33 + m.m03);
+		setPlane(RIGHT, m.m30 - m.m00, m.m31 - m.m01, m.m32 - m.m02, m.m33 - m.m03);
+		setPlane(BOTTOM, m.m30 + m.m10, m.m31 + m.m11, m.m32 + m.m12, m.m33 + m.m13);
+		setPlane(TOP, m.m30 - m.m10, m.m31 - m.m11, m.m32 - m.m12, m.m33 - m.m13);
+		setPlane(NEAR, m.m30 + m.m20, m.m31 + m.m21, m.m32 + m.m22, m.m33 + m.m23);
+		setPlane(FAR, m.m30 - m.m20, m.m31 - m.m21, m.m32 - m.m22, m.m33 - m.m23);
+		return this;
+	}
+
+	/**
+	 * Copies the planes of {@code f}.
+	 */
+	public Frustum set(Frustum f)
+	{
+		System.arraycopy(f.planes, 0, this.planes, 0, this.planes.length);
+		return this;
+	}
+
+	/**
+	 * Sets a plane and normalizes it.
+	 */
+	public void setPlane(int plane, float a, float b, float c, float d)
+	{
+		float length = (float) Math.sqrt(a * a + b * b + c * c);
+		float scale = length > 0 ? 1f / length : 1f;
+		int i = plane * 4;
+		planes[i] = a * scale;
+		planes[i + 1] = b * scale;
+		planes[i + 2] = c * scale;
+		planes[i + 3] = d * scale;
+	}
+
+	/**
+	 * Writes the plane {@code (a, b, c, d)} into {@code dest}.
+	 */
+	public float[] getPlane(int plane, float[] dest)
+	{
+		System.arraycopy(planes, plane * 4, dest, 0, 4);
+		return dest;
+	}
+
+	/**
+	 * Returns the signed distance of a point to a plane, which is positive inside.
+	 */
+	public float distance(int plane, float x, float y, float z)
+	{
+		int i = plane * 4;
+		return planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3];
+	}
+
+	public boolean contains(float x, float y, float z)
+	{
+		return intersects(x, y, z, 0);
+	}
+
+	/**
+	 * Returns {@code true} if the sphere with the given center and radius may be visible.
+	 */
+	public boolean intersects(float x, float y, float z, float radius)
+	{
+		final float[] p = this.planes;
+		for (int i = 0; i < 24; i += 4)
+		{
+			if (p[i] * x + p[i + 1] * y + p[i + 2] * z + p[i + 3] < -radius)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if the box may be visible.
+	 */
+	public boolean intersects(AABB box)
+	{
+		return intersects(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+	}
+
+	/**
+	 * Returns {@code true} if the box with the given bounds may be visible.
+	 */
+	public boolean intersects(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+	{
+		float
+			cx = 0.5f * (minX + maxX),
+			cy = 0.5f * (minY + maxY),
+			cz = 0.5f * (minZ + maxZ),
+			ex = 0.5f * (maxX - minX),
+			ey = 0.5f * (maxY - minY),
+			ez = 0.5f * (maxZ - minZ);
+
+		final float[] p = this.planes;
+		for (int i = 0; i < 24; i += 4)
+		{
+			float a = p[i], b = p[i + 1], c = p[i + 2];
+			float distance = a * cx + b * cy + c * cz + p[i + 3];
+			float radius = Math.abs(a) * ex + Math.abs(b) * ey + Math.abs(c) * ez;
+			if (distance < -radius)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns {@link #INSIDE} if the box lies completely inside the frustum, {@link #OUTSIDE} if it lies
+	 * completely outside of a plane and {@link #INTERSECTING} otherwise.
+	 */
+	public int classify(AABB box)
+	{
+		return classify(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+	}
+
+	/**
+	 * Classifies the box with the given bounds like {@link #classify(AABB)}.
+	 */
+	public int classify(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+	{
+		float
+			cx = 0.5f * (minX + maxX),
+			cy = 0.5f * (minY + maxY),
+			cz = 0.5f * (minZ + maxZ),
+			ex = 0.5f * (maxX - minX),
+			ey = 0.5f * (maxY - minY),
+			ez = 0.5f * (maxZ - minZ);
+
+		final float[] p = this.planes;
+		int result = INSIDE;
+		for (int i = 0; i < 24; i += 4)
+		{
+			float a = p[i], b = p[i + 1], c = p[i + 2];
+			float distance = a * cx + b * cy + c * cz + p[i + 3];
+			float radius = Math.abs(a) * ex + Math.abs(b) * ey + Math.abs(c) * ez;
+			if (distance < -radius)
+			{
+				return OUTSIDE;
+			}
+			if (distance < radius)
+			{
+				result = INTERSECTING;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Tests the first {@code count} boxes and writes the result into {@code visible}. Returns the number
+	 * of visible boxes. {@code null} entries are not visible.
+	 */
+	public int intersects(AABB[] boxes, int count, boolean[] visible)
+	{
+		int result = 0;
+		for (int i = 0; i < count; i++)
+		{
+			AABB box = boxes[i];
+			boolean v = box != null && intersects(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+			visible[i] = v;
+			if (v)
+			{
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Classifies the first {@code count} boxes into {@code dest} like {@link #classify(AABB)}. Returns the
+	 * number of boxes which are not {@link #OUTSIDE}. {@code null} entries are outside.
+	 */
+	public int classify(AABB[] boxes, int count, int[] dest)
+	{
+		int result = 0;
+		for (int i = 0; i < count; i++)
+		{
+			AABB box = boxes[i];
+			int c = box == null ? OUTSIDE : classify(box);
+			dest[i] = c;
+			if (c != OUTSIDE)
+			{
+				result++;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,633 @@
+package orion.sdk.math.geometry;
+
+import java.util.Arrays;
+import java.util.List;
+
+import orion.sdk.math.Vec4f;
+
+/**
+ * A loose octree over items with axis aligned bounds. Every cell has loose bounds of twice its size, so an
+ * item is stored in exactly one cell, the deepest one whose size is at least the extent of the item and
+ * which contains its center. Moving an item only re-inserts it if it leaves the cell, see
+ * {@link #update(int, AABB)}. Items whose center lies outside of the root cube are kept in the root.
+ *
+ * Items are addressed by integer handles, which are reused after {@link #remove(int)}. Cells and items are
+ * kept in flat arrays, with the items of a cell linked into a list, so that millions of items cause no
+ * per item objects besides the items themselves. Cells are created on demand and kept when they become
+ * empty, empty subtrees are skipped by the queries. The octree is not thread safe.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class LooseOctree<T>
+{
+	/**
+	 * The default maximum depth of the octree, the root has depth zero.
+	 */
+	public static int MAX_DEPTH = 10;
+
+	private final float centerX, centerY, centerZ, halfSize;
+	private final int maxDepth;
+
+	/*
+	 * The cells, where the root is cell zero. cellChildren holds eight entries per cell, -1 for missing
+	 * children. cellItemCounts counts the items in the subtree of a cell.
+	 */
+	private int cellCount = 0;
+	private float[] cellCenters;
+	private int[] cellDepths;
+	private int[] cellParents;
+	private int[] cellChildren;
+	private int[] cellFirstItems;
+	private int[] cellItemCounts;
+
+	/*
+	 * The items, where itemCells is -1 for free handles. itemNext links the items of a cell and the free
+	 * handles.
+	 */
+	private int size = 0;
+	private int itemCount = 0;
+	private int freeItem = -1;
+	private Object[] items;
+	private float[] itemBounds;
+	private int[] itemCells;
+	private int[] itemNext;
+	private int[] itemPrevious;
+
+	/**
+	 * Creates an octree with a root cube around the given bounds and the default maximum depth.
+	 */
+	public LooseOctree(AABB bounds)
+	{
+		this(bounds, MAX_DEPTH);
+	}
+
+	/**
+	 * Creates an octree with a root cube around the given bounds and the given maximum depth.
+	 */
+	public LooseOctree(AABB bounds, int maxDepth)
+	{
+		this.centerX = 0.5f * (bounds.minX + bounds.maxX);
+		this.centerY = 0.5f * (bounds.minY + bounds.maxY);
+		this.centerZ = 0.5f * (bounds.minZ + bounds.maxZ);
+		this.halfSize = 0.5f * Math.max(bounds.getWidth(), Math.max(bounds.getHeight(), bounds.getDepth()));
+		this.maxDepth = maxDepth;
+
+		allocateCells(64);
+		allocateItems(64);
+		clear();
+	}
+
+	/**
+	 * Removes all items and cells.
+	 */
+	public void clear()
+	{
+		Arrays.fill(items, 0, itemCount, null);
+		size = 0;
+		itemCount = 0;
+		freeItem = -1;
+		cellCount = 0;
+		createCell(-1, centerX, centerY, centerZ, 0);
+	}
+
+	/**
+	 * Returns the number of items.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	public int getCellCount()
+	{
+		return cellCount;
+	}
+
+	public int getMaxDepth()
+	{
+		return maxDepth;
+	}
+
+	/**
+	 * Returns the number of handles in use or free, all handles are smaller.
+	 */
+	public int getHandleCount()
+	{
+		return itemCount;
+	}
+
+	/**
+	 * Makes room for {@code capacity} items without growing the arrays again.
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		if (capacity > items.length)
+		{
+			allocateItems(Math.max(capacity, items.length * 2));
+		}
+	}
+
+	/**
+	 * Inserts an item and returns its handle.
+	 */
+	public int insert(T item, AABB bounds)
+	{
+		int handle;
+		if (freeItem >= 0)
+		{
+			handle = freeItem;
+			freeItem = itemNext[handle];
+		}
+		else
+		{
+			ensureCapacity(itemCount + 1);
+			handle = itemCount++;
+		}
+
+		items[handle] = item;
+		setBounds(handle, bounds);
+		link(handle, locate(handle));
+		size++;
+		return handle;
+	}
+
+	/**
+	 * Inserts the first {@code count} items and writes their handles into {@code handles}.
+	 */
+	public int[] insert(T[] items, AABB[] bounds, int count, int[] handles)
+	{
+		ensureCapacity(itemCount + count);
+		for (int i = 0; i < count; i++)
+		{
+			handles[i] = insert(items[i], bounds[i]);
+		}
+		return handles;
+	}
+
+	/**
+	 * Sets the bounds of an item. Returns {@code true} if the item moved to another cell.
+	 */
+	public boolean update(int handle, AABB bounds)
+	{
+		checkHandle(handle);
+		setBounds(handle, bounds);
+
+		int cell = itemCells[handle];
+		if (fits(handle, cell))
+		{
+			return false;
+		}
+
+		unlink(handle);
+		link(handle, locate(handle));
+		return true;
+	}
+
+	/**
+	 * Removes an item, its handle may be reused by later insertions.
+	 */
+	public void remove(int handle)
+	{
+		checkHandle(handle);
+		unlink(handle);
+		items[handle] = null;
+		itemCells[handle] = -1;
+		itemNext[handle] = freeItem;
+		freeItem = handle;
+		size--;
+	}
+
+	/**
+	 * Returns the item with the given handle.
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int handle)
+	{
+		checkHandle(handle);
+		return (T) items[handle];
+	}
+
+	/**
+	 * Writes the bounds of an item into {@code dest}.
+	 */
+	public AABB getBounds(int handle, AABB dest)
+	{
+		checkHandle(handle);
+		int i = handle * 6;
+		return dest.set(itemBounds[i], itemBounds[i + 1], itemBounds[i + 2], itemBounds[i + 3], itemBounds[i + 4], itemBounds[i + 5]);
+	}
+
+	/**
+	 * Returns the depth of the cell holding an item.
+	 */
+	public int getDepth(int handle)
+	{
+		checkHandle(handle);
+		return cellDepths[itemCells[handle]];
+	}
+
+	/**
+	 * Writes the handles of the items intersecting {@code range} into {@code dest}, which needs room for
+	 * {@link #size()} handles, and returns their number.
+	 */
+	public int query(AABB range, int[] dest)
+	{
+		int count = 0;
+		int[] stack = new int[8 * (maxDepth + 1)];
+		int top = 0;
+		stack[top++] = 0;
+
+		while (top > 0)
+		{
+			int cell = stack[--top];
+			for (int item = cellFirstItems[cell]; item >= 0; item = itemNext[item])
+			{
+				int i = item * 6;
+				if (itemBounds[i] <= range.maxX && itemBounds[i + 3] >= range.minX &&
+					itemBounds[i + 1] <= range.maxY && itemBounds[i + 4] >= range.minY &&
+					itemBounds[i + 2] <= range.maxZ && itemBounds[i + 5] >= range.minZ)
+				{
+					dest[count++] = item;
+				}
+			}
+
+			for (int c = cell * 8, end = c + 8; c < end; c++)
+			{
+				int child = cellChildren[c];
+				if (child >= 0 && cellItemCounts[child] > 0)
+				{
+					float loose = 2 * getHalfSize(child);
+					int j = child * 3;
+					if (cellCenters[j] - loose <= range.maxX && cellCenters[j] + loose >= range.minX &&
+						cellCenters[j + 1] - loose <= range.maxY && cellCenters[j + 1] + loose >= range.minY &&
+						cellCenters[j + 2] - loose <= range.maxZ && cellCenters[j + 2] + loose >= range.minZ)
+					{
+						stack[top++] = child;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the handles of the items which may be visible in the frustum into {@code dest}, which needs
+	 * room for {@link #size()} handles, and returns their number. The items of cells inside the frustum
+	 * are not tested one by one.
+	 */
+	public int query(Frustum frustum, int[] dest)
+	{
+		int count = 0;
+
+		/*
+		 * The stack holds twice the cell index, plus one if the cell is known to be inside
+		 */
+		int[] stack = new int[8 * (maxDepth + 1)];
+		int top = 0;
+		stack[top++] = 0;
+
+		while (top > 0)
+		{
+			int entry = stack[--top];
+			int cell = entry >> 1;
+			boolean inside = (entry & 1) != 0;
+
+			for (int item = cellFirstItems[cell]; item >= 0; item = itemNext[item])
+			{
+				int i = item * 6;
+				if (inside || frustum.intersects(itemBounds[i], itemBounds[i + 1], itemBounds[i + 2], itemBounds[i + 3], itemBounds[i + 4], itemBounds[i + 5]))
+				{
+					dest[count++] = item;
+				}
+			}
+
+			for (int c = cell * 8, end = c + 8; c < end; c++)
+			{
+				int child = cellChildren[c];
+				if (child >= 0 && cellItemCounts[child] > 0)
+				{
+					int classification = Frustum.INSIDE;
+					if (!inside)
+					{
+						float loose = 2 * getHalfSize(child);
+						int j = child * 3;
+						classification = frustum.classify(
+							cellCenters[j] - loose, cellCenters[j + 1] - loose, cellCenters[j + 2] - loose,
+							cellCenters[j] + loose, cellCenters[j + 1] + loose, cellCenters[j + 2] + loose);
+					}
+					if (classification != Frustum.OUTSIDE)
+					{
+						stack[top++] = child * 2 + (classification == Frustum.INSIDE ? 1 : 0);
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the handles of the items whose bounds are hit by the ray within {@code maxDistance} into
+	 * {@code dest}, which needs room for {@link #size()} handles, and returns their number. The direction
+	 * does not need to be normalized, distances are measured in multiples of it.
+	 */
+	public int query(Vec4f origin, Vec4f direction, float maxDistance, int[] dest)
+	{
+		float
+			ox = origin.x, oy = origin.y, oz = origin.z,
+			ix = 1f / direction.x, iy = 1f / direction.y, iz = 1f / direction.z;
+
+		int count = 0;
+		int[] stack = new int[8 * (maxDepth + 1)];
+		int top = 0;
+		stack[top++] = 0;
+
+		while (top > 0)
+		{
+			int cell = stack[--top];
+			for (int item = cellFirstItems[cell]; item >= 0; item = itemNext[item])
+			{
+				int i = item * 6;
+				if (hits(ox, oy, oz, ix, iy, iz, maxDistance,
+					itemBounds[i], itemBounds[i + 1], itemBounds[i + 2], itemBounds[i + 3], itemBounds[i + 4], itemBounds[i + 5]))
+				{
+					dest[count++] = item;
+				}
+			}
+
+			for (int c = cell * 8, end = c + 8; c < end; c++)
+			{
+				int child = cellChildren[c];
+				if (child >= 0 && cellItemCounts[child] > 0)
+				{
+					float loose = 2 * getHalfSize(child);
+					int j = child * 3;
+					if (hits(ox, oy, oz, ix, iy, iz, maxDistance,
+						cellCenters[j] - loose, cellCenters[j + 1] - loose, cellCenters[j + 2] - loose,
+						cellCenters[j] + loose, cellCenters[j + 1] + loose, cellCenters[j + 2] + loose))
+					{
+						stack[top++] = child;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the items intersecting {@code range} to {@code dest}.
+	 */
+	public List<T> query(AABB range, List<T> dest)
+	{
+		int[] handles = new int[size];
+		return addItems(handles, query(range, handles), dest);
+	}
+
+	/**
+	 * Adds the items which may be visible in the frustum to {@code dest}.
+	 */
+	public List<T> query(Frustum frustum, List<T> dest)
+	{
+		int[] handles = new int[size];
+		return addItems(handles, query(frustum, handles), dest);
+	}
+
+	/**
+	 * Adds the items whose bounds are hit by the ray within {@code maxDistance} to {@code dest}.
+	 */
+	public List<T> query(Vec4f origin, Vec4f direction, float maxDistance, List<T> dest)
+	{
+		int[] handles = new int[size];
+		return addItems(handles, query(origin, direction, maxDistance, handles), dest);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> addItems(int[] handles, int count, List<T> dest)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			dest.add((T) items[handles[i]]);
+		}
+		return dest;
+	}
+
+	/**
+	 * Returns {@code true} if the ray hits the box within {@code [0, maxDistance]}, using the slab test.
+	 */
+	private static boolean hits(
+		float ox, float oy, float oz, float ix, float iy, float iz, float maxDistance,
+		float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+	{
+		float t0 = (minX - ox) * ix, t1 = (maxX - ox) * ix;
+		float near = Math.min(t0, t1), far = Math.max(t0, t1);
+		t0 = (minY - oy) * iy; t1 = (maxY - oy) * iy;
+		near = Math.max(near, Math.min(t0, t1)); far = Math.min(far, Math.max(t0, t1));
+		t0 = (minZ - oz) * iz; t1 = (maxZ - oz) * iz;
+		near = Math.max(near, Math.min(t0, t1)); far = Math.min(far, Math.max(t0, t1));
+		return near <= far && far >= 0 && near <= maxDistance;
+	}
+
+	private float getHalfSize(int cell)
+	{
+		return halfSize / (1 << cellDepths[cell]);
+	}
+
+	/**
+	 * Returns {@code true} if the cell is the one {@link #locate(int)} would choose for the item, without
+	 * walking down from the root.
+	 */
+	private boolean fits(int handle, int cell)
+	{
+		int i = handle * 6;
+		float
+			x = 0.5f * (itemBounds[i] + itemBounds[i + 3]),
+			y = 0.5f * (itemBounds[i + 1] + itemBounds[i + 4]),
+			z = 0.5f * (itemBounds[i + 2] + itemBounds[i + 5]),
+			r = getExtent(handle);
+
+		int j = cell * 3;
+		float h = getHalfSize(cell);
+		boolean inside =
+			Math.abs(x - cellCenters[j]) <= h &&
+			Math.abs(y - cellCenters[j + 1]) <= h &&
+			Math.abs(z - cellCenters[j + 2]) <= h;
+
+		if (cell == 0 && (!inside || r > h))
+		{
+			return true;
+		}
+		return inside && r <= h && (cellDepths[cell] == maxDepth || r > 0.5f * h);
+	}
+
+	/**
+	 * Returns the cell an item belongs into, creating missing cells on the way down.
+	 */
+	private int locate(int handle)
+	{
+		int i = handle * 6;
+		float
+			x = 0.5f * (itemBounds[i] + itemBounds[i + 3]),
+			y = 0.5f * (itemBounds[i + 1] + itemBounds[i + 4]),
+			z = 0.5f * (itemBounds[i + 2] + itemBounds[i + 5]),
+			r = getExtent(handle);
+
+		if (Math.abs(x - centerX) > halfSize || Math.abs(y - centerY) > halfSize || Math.abs(z - centerZ) > halfSize)
+		{
+			return 0;
+		}
+
+		int cell = 0;
+		float h = halfSize;
+		while (cellDepths[cell] < maxDepth && r <= 0.5f * h)
+		{
+			int j = cell * 3;
+			int octant =
+				(x >= cellCenters[j] ? 1 : 0) |
+				(y >= cellCenters[j + 1] ? 2 : 0) |
+				(z >= cellCenters[j + 2] ? 4 : 0);
+			int child = cellChildren[cell * 8 + octant];
+			h *= 0.5f;
+			if (child < 0)
+			{
+				child = createCell(cell,
+					cellCenters[j] + ((octant & 1) != 0 ? h : -h),
+					cellCenters[j + 1] + ((octant & 2) != 0 ? h : -h),
+					cellCenters[j + 2] + ((octant & 4) != 0 ? h : -h),
+					cellDepths[cell] + 1);
+				cellChildren[cell * 8 + octant] = child;
+			}
+			cell = child;
+		}
+		return cell;
+	}
+
+	/**
+	 * Returns the largest half extent of an item.
+	 */
+	private float getExtent(int handle)
+	{
+		int i = handle * 6;
+		return 0.5f * Math.max(itemBounds[i + 3] - itemBounds[i], Math.max(itemBounds[i + 4] - itemBounds[i + 1], itemBounds[i + 5] - itemBounds[i + 2]));
+	}
+
+	private void setBounds(int handle, AABB bounds)
+	{
+		int i = handle * 6;
+		itemBounds[i] = bounds.minX;
+		itemBounds[i + 1] = bounds.minY;
+		itemBounds[i + 2] = bounds.minZ;
+		itemBounds[i + 3] = bounds.maxX;
+		itemBounds[i + 4] = bounds.maxY;
+		itemBounds[i + 5] = bounds.maxZ;
+	}
+
+	private void link(int handle, int cell)
+	{
+		int first = cellFirstItems[cell];
+		itemCells[handle] = cell;
+		itemPrevious[handle] = -1;
+		itemNext[handle] = first;
+		if (first >= 0)
+		{
+			itemPrevious[first] = handle;
+		}
+		cellFirstItems[cell] = handle;
+
+		for (int c = cell; c >= 0; c = cellParents[c])
+		{
+			cellItemCounts[c]++;
+		}
+	}
+
+	private void unlink(int handle)
+	{
+		int cell = itemCells[handle];
+		int previous = itemPrevious[handle], next = itemNext[handle];
+		if (previous >= 0)
+		{
+			itemNext[previous] = next;
+		}
+		else
+		{
+			cellFirstItems[cell] = next;
+		}
+		if (next >= 0)
+		{
+			itemPrevious[next] = previous;
+		}
+
+		for (int c = cell; c >= 0; c = cellParents[c])
+		{
+			cellItemCounts[c]--;
+		}
+	}
+
+	private int createCell(int parent, float x, float y, float z, int depth)
+	{
+		if (cellCount == cellDepths.length)
+		{
+			allocateCells(cellCount * 2);
+		}
+
+		int cell = cellCount++;
+		cellCenters[cell * 3] = x;
+		cellCenters[cell * 3 + 1] = y;
+		cellCenters[cell * 3 + 2] = z;
+		cellDepths[cell] = depth;
+		cellParents[cell] = parent;
+		Arrays.fill(cellChildren, cell * 8, cell * 8 + 8, -1);
+		cellFirstItems[cell] = -1;
+		cellItemCounts[cell] = 0;
+		return cell;
+	}
+
+	private void allocateCells(int capacity)
+	{
+		if (cellCenters == null)
+		{
+			cellCenters = new float[capacity * 3];
+			cellDepths = new int[capacity];
+			cellParents = new int[capacity];
+			cellChildren = new int[capacity * 8];
+			cellFirstItems = new int[capacity];
+			cellItemCounts = new int[capacity];
+		}
+		else
+		{
+			cellCenters = Arrays.copyOf(cellCenters, capacity * 3);
+			cellDepths = Arrays.copyOf(cellDepths, capacity);
+			cellParents = Arrays.copyOf(cellParents, capacity);
+			cellChildren = Arrays.copyOf(cellChildren, capacity * 8);
+			cellFirstItems = Arrays.copyOf(cellFirstItems, capacity);
+			cellItemCounts = Arrays.copyOf(cellItemCounts, capacity);
+		}
+	}
+
+	private void allocateItems(int capacity)
+	{
+		if (items == null)
+		{
+			items = new Object[capacity];
+			itemBounds = new float[capacity * 6];
+			itemCells = new int[capacity];
+			itemNext = new int[capacity];
+			itemPrevious = new int[capacity];
+		}
+		else
+		{
+			items = Arrays.copyOf(items, capacity);
+			itemBounds = Arrays.copyOf(itemBounds, capacity * 6);
+			itemCells = Arrays.copyOf(itemCells, capacity);
+			itemNext = Arrays.copyOf(itemNext, capacity);
+			itemPrevious = Arrays.copyOf(itemPrevious, capacity);
+		}
+	}
+
+	private void checkHandle(int handle)
+	{
+		if (handle < 0 || handle >= itemCount || itemCells[handle] < 0)
+		{
+			throw new IllegalArgumentException("Invalid handle " + handle);
+		}
+	}
+}
@@ -0,0 +1,614 @@
+package orion.sdk.math.geometry;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import orion.sdk.math.Vec4f;
+
+/**
+ * A bounding volume hierarchy over a triangle soup for ray queries. The hierarchy is built top down
+ * with the surface area heuristic evaluated over {@link #BIN_COUNT} centroid bins per axis. Subtrees
+ * with more than {@link #PARALLEL_THRESHOLD} triangles are built in parallel on a fork/join pool.
+ *
+ * The nodes are stored in flat arrays and every child is stored after its parent, which lets
+ * {@link #refit(float[])} update the bounds of moved vertices in a single backwards pass without
+ * rebuilding the tree. Rays are answered in batches, either with the closest hit or with any hit, and
+ * invalid input such as degenerate triangles or rays never throws.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class TriangleBVH
+{
+	/**
+	 * The number of triangles up to which a node is always a leaf.
+	 */
+	public static int LEAF_SIZE = 2;
+
+	/**
+	 * The number of triangles up to which a node becomes a leaf if no split is cheaper.
+	 */
+	public static int MAX_LEAF_SIZE = 16;
+
+	public static int BIN_COUNT = 16;
+
+	/**
+	 * The number of triangles from which subtrees are built in parallel.
+	 */
+	public static int PARALLEL_THRESHOLD = 4096;
+
+	private static final float EPSILON = 1e-12f;
+
+	private static ForkJoinPool pool = null;
+
+	/**
+	 * The {@code xyz} coordinates of the vertices.
+	 */
+	private float[] vertices;
+
+	/**
+	 * The three vertex indexes of every triangle.
+	 */
+	private final int[] triangles;
+
+	/**
+	 * The triangles in leaf order. Leaves reference ranges of this array.
+	 */
+	private final int[] order;
+
+	/*
+	 * Nodes, a node is a leaf if its count is positive
+	 */
+	private final float[] nodeBounds;
+	private final int[] nodeLeft;
+	private final int[] nodeStart;
+	private final int[] nodeCount;
+	private final int nodes;
+
+	/**
+	 * Builds the hierarchy over the given triangles. Triangles with a negative vertex index are left out.
+	 *
+	 * @param vertices The {@code xyz} coordinates of the vertices.
+	 * @param triangles The three vertex indexes of every triangle.
+	 */
+	public TriangleBVH(float[] vertices, int[] triangles)
+	{
+		this.vertices = vertices;
+		this.triangles = triangles;
+
+		int triangleCount = triangles.length / 3, valid = 0;
+		int[] order = new int[triangleCount];
+		for (int i = 0; i < triangleCount; i++)
+		{
+			if (triangles[3 * i] >= 0 && triangles[3 * i + 1] >= 0 && triangles[3 * i + 2] >= 0)
+			{
+				order[valid++] = i;
+			}
+		}
+		this.order = valid < triangleCount ? Arrays.copyOf(order, valid) : order;
+
+		int capacity = Math.max(1, 2 * valid - 1);
+		this.nodeBounds = new float[6 * capacity];
+		this.nodeLeft = new int[capacity];
+		this.nodeStart = new int[capacity];
+		this.nodeCount = new int[capacity];
+
+		/*
+		 * Centroids and bounds of the triangles
+		 */
+		float[] centroids = new float[3 * triangleCount];
+		float[] bounds = new float[6 * triangleCount];
+		for (int i = 0; i < valid; i++)
+		{
+			int triangle = this.order[i];
+			triangleBounds(triangle, bounds, 6 * triangle);
+			for (int axis = 0; axis < 3; axis++)
+			{
+				centroids[3 * triangle + axis] = 0.5f * (bounds[6 * triangle + axis] + bounds[6 * triangle + 3 + axis]);
+			}
+		}
+
+		AtomicInteger counter = new AtomicInteger(1);
+		BuildTask root = new BuildTask(0, 0, valid, centroids, bounds, counter);
+		if (valid > PARALLEL_THRESHOLD)
+		{
+			getPool().invoke(root);
+		}
+		else
+		{
+			root.compute();
+		}
+		this.nodes = counter.get();
+	}
+
+	public int getTriangleCount()
+	{
+		return order.length;
+	}
+
+	public int getNodeCount()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Writes the bounds of all triangles as {@code minX, minY, minZ, maxX, maxY, maxZ} into {@code dest}.
+	 */
+	public float[] getBounds(float[] dest)
+	{
+		System.arraycopy(nodeBounds, 0, dest, 0, 6);
+		return dest;
+	}
+
+	/**
+	 * Updates the bounds of the hierarchy after vertices moved. The triangles must not change.
+	 *
+	 * @param vertices The new {@code xyz} coordinates of the vertices.
+	 */
+	public void refit(float[] vertices)
+	{
+		this.vertices = vertices;
+		float[] bounds = new float[6];
+
+		/*
+		 * Children are stored after their parents
+		 */
+		for (int node = nodes - 1; node >= 0; node--)
+		{
+			int offset = 6 * node;
+			if (nodeCount[node] > 0 || node == 0 && order.length == 0)
+			{
+				leafBounds(nodeStart[node], nodeCount[node], nodeBounds, offset, bounds);
+			}
+			else
+			{
+				int left = 6 * nodeLeft[node], right = left + 6;
+				for (int axis = 0; axis < 3; axis++)
+				{
+					nodeBounds[offset + axis] = Math.min(nodeBounds[left + axis], nodeBounds[right + axis]);
+					nodeBounds[offset + 3 + axis] = Math.max(nodeBounds[left + 3 + axis], nodeBounds[right + 3 + axis]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Intersects a batch of rays with the triangles. A ray {@code i} starts at
+	 * {@code origins[3i .. 3i + 2]} and is tested for {@code 0 <= t <= maxDistance} along
+	 * {@code directions[3i .. 3i + 2]}, which need not be normalized.
+	 *
+	 * @param anyHit If set, a ray stops at the first triangle it hits instead of the closest one.
+	 * @param distances Receives the parameter {@code t} of every hit, or infinity on a miss.
+	 * @param hits Receives the index of the hit triangle, or {@code -1} on a miss.
+	 * @return The number of rays which hit a triangle.
+	 */
+	public int intersect(float[] origins, float[] directions, int rayCount, float maxDistance, boolean anyHit, float[] distances, int[] hits)
+	{
+		int[] stack = new int[64];
+		int hitCount = 0;
+
+		for (int i = 0; i < rayCount; i++)
+		{
+			int o = 3 * i;
+			stack = intersect(
+				origins[o], origins[o + 1], origins[o + 2],
+				directions[o], directions[o + 1], directions[o + 2],
+				maxDistance, anyHit, stack, distances, hits, i);
+			if (hits[i] >= 0)
+			{
+				hitCount++;
+			}
+		}
+		return hitCount;
+	}
+
+	/**
+	 * Intersects a single ray with the triangles and returns the index of the hit triangle or {@code -1}.
+	 * The parameter of the hit is written into {@code distance[0]}.
+	 */
+	public int intersect(Vec4f origin, Vec4f direction, float maxDistance, boolean anyHit, float[] distance)
+	{
+		int[] hit = new int[1];
+		intersect(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, maxDistance, anyHit, new int[64], distance, hit, 0);
+		return hit[0];
+	}
+
+	/**
+	 * Traverses the hierarchy front to back and writes the result to {@code distances[i]} and
+	 * {@code hits[i]}. Returns the stack, which grows if the tree is deep.
+	 */
+	private int[] intersect(
+		float ox, float oy, float oz,
+		float dx, float dy, float dz,
+		float maxDistance, boolean anyHit,
+		int[] stack, float[] distances, int[] hits, int i)
+	{
+		float closest = maxDistance;
+		int hit = -1;
+		float
+			ix = 1f / dx,
+			iy = 1f / dy,
+			iz = 1f / dz;
+
+		int size = 0;
+		if (order.length > 0 && entry(0, ox, oy, oz, ix, iy, iz, closest) >= 0)
+		{
+			stack[size++] = 0;
+		}
+
+		traversal:
+		while (size > 0)
+		{
+			int node = stack[--size];
+			int count = nodeCount[node];
+
+			if (count > 0)
+			{
+				int start = nodeStart[node];
+				for (int k = start; k < start + count; k++)
+				{
+					int triangle = order[k];
+					float t = intersectTriangle(triangle, ox, oy, oz, dx, dy, dz);
+					if (t >= 0 && t <= closest)
+					{
+						closest = t;
+						hit = triangle;
+						if (anyHit)
+						{
+							break traversal;
+						}
+					}
+				}
+			}
+			else
+			{
+				/*
+				 * Visit the nearer child first by pushing it last
+				 */
+				int left = nodeLeft[node], right = left + 1;
+				float
+					tLeft = entry(left, ox, oy, oz, ix, iy, iz, closest),
+					tRight = entry(right, ox, oy, oz, ix, iy, iz, closest);
+
+				if (size + 2 > stack.length)
+				{
+					stack = Arrays.copyOf(stack, 2 * stack.length);
+				}
+
+				if (tLeft >= 0 && tRight >= 0)
+				{
+					boolean leftFirst = tLeft <= tRight;
+					stack[size++] = leftFirst ? right : left;
+					stack[size++] = leftFirst ? left : right;
+				}
+				else if (tLeft >= 0)
+				{
+					stack[size++] = left;
+				}
+				else if (tRight >= 0)
+				{
+					stack[size++] = right;
+				}
+			}
+		}
+
+		distances[i] = hit >= 0 ? closest : Float.POSITIVE_INFINITY;
+		hits[i] = hit;
+		return stack;
+	}
+
+	/**
+	 * Returns the parameter at which the ray enters the bounds of {@code node}, or {@code -1} if it misses
+	 * them within {@code [0, maxDistance]}.
+	 */
+	private float entry(int node, float ox, float oy, float oz, float ix, float iy, float iz, float maxDistance)
+	{
+		int b = 6 * node;
+		float
+			x0 = (nodeBounds[b] - ox) * ix, x1 = (nodeBounds[b + 3] - ox) * ix,
+			y0 = (nodeBounds[b + 1] - oy) * iy, y1 = (nodeBounds[b + 4] - oy) * iy,
+			z0 = (nodeBounds[b + 2] - oz) * iz, z1 = (nodeBounds[b + 5] - oz) * iz;
+		float
+			tNear = Math.max(Math.max(Math.min(x0, x1), Math.min(y0, y1)), Math.max(Math.min(z0, z1), 0)),
+			tFar = Math.min(Math.min(Math.max(x0, x1), Math.max(y0, y1)), Math.min(Math.max(z0, z1), maxDistance));
+
+		/*
+		 * NaN from rays in a slab plane fails the comparison and counts as a miss
+		 */
+		return tNear <= tFar ? tNear : -1;
+	}
+
+	/**
+	 * Returns the parameter of the intersection of the ray with a triangle, or {@code -1} if it misses.
+	 * Both sides of the triangle are hit.
+	 */
+	private float intersectTriangle(int triangle, float ox, float oy, float oz, float dx, float dy, float dz)
+	{
+		/*
+		 * "Fast, Minimum Storage Ray/Triangle Intersection" by Tomas Moller and Ben Trumbore
+		 */
+		int
+			a = 3 * triangles[3 * triangle],
+			b = 3 * triangles[3 * triangle + 1],
+			c = 3 * triangles[3 * triangle + 2];
+		float[] v = vertices;
+		float
+			e1x = v[b] - v[a], e1y = v[b + 1] - v[a + 1], e1z = v[b + 2] - v[a + 2],
+			e2x = v[c] - v[a], e2y = v[c + 1] - v[a + 1], e2z = v[c + 2] - v[a + 2];
+		float
+			px = dy * e2z - dz * e2y,
+			py = dz * e2x - dx * e2z,
+			pz = dx * e2y - dy * e2x;
+		float det = e1x * px + e1y * py + e1z * pz;
+
+		if (det > -EPSILON && det < EPSILON)
+		{
+			return -1;
+		}
+
+		float invDet = 1f / det;
+		float
+			tx = ox - v[a], ty = oy - v[a + 1], tz = oz - v[a + 2];
+		float u = (tx * px + ty * py + tz * pz) * invDet;
+		if (u < 0 || u > 1)
+		{
+			return -1;
+		}
+
+		float
+			qx = ty * e1z - tz * e1y,
+			qy = tz * e1x - tx * e1z,
+			qz = tx * e1y - ty * e1x;
+		float w = (dx * qx + dy * qy + dz * qz) * invDet;
+		if (w < 0 || u + w > 1)
+		{
+			return -1;
+		}
+
+		return (e2x * qx + e2y * qy + e2z * qz) * invDet;
+	}
+
+	private void triangleBounds(int triangle, float[] dest, int offset)
+	{
+		for (int axis = 0; axis < 3; axis++)
+		{
+			float
+				a = vertices[3 * triangles[3 * triangle] + axis],
+				b = vertices[3 * triangles[3 * triangle + 1] + axis],
+				c = vertices[3 * triangles[3 * triangle + 2] + axis];
+			dest[offset + axis] = Math.min(a, Math.min(b, c));
+			dest[offset + 3 + axis] = Math.max(a, Math.max(b, c));
+		}
+	}
+
+	private void leafBounds(int start, int count, float[] dest, int offset, float[] bounds)
+	{
+		empty(dest, offset);
+		for (int k = start; k < start + count; k++)
+		{
+			triangleBounds(order[k], bounds, 0);
+			grow(dest, offset, bounds, 0);
+		}
+	}
+
+	private static void empty(float[] bounds, int offset)
+	{
+		for (int axis = 0; axis < 3; axis++)
+		{
+			bounds[offset + axis] = Float.POSITIVE_INFINITY;
+			bounds[offset + 3 + axis] = Float.NEGATIVE_INFINITY;
+		}
+	}
+
+	private static void grow(float[] bounds, int offset, float[] other, int otherOffset)
+	{
+		for (int axis = 0; axis < 3; axis++)
+		{
+			bounds[offset + axis] = Math.min(bounds[offset + axis], other[otherOffset + axis]);
+			bounds[offset + 3 + axis] = Math.max(bounds[offset + 3 + axis], other[otherOffset + 3 + axis]);
+		}
+	}
+
+	private static float area(float[] bounds, int offset)
+	{
+		float
+			x = bounds[offset + 3] - bounds[offset],
+			y = bounds[offset + 4] - bounds[offset + 1],
+			z = bounds[offset + 5] - bounds[offset + 2];
+		return x < 0 ? 0 : x * y + y * z + z * x;
+	}
+
+	private static synchronized ForkJoinPool getPool()
+	{
+		if (pool == null)
+		{
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * Builds the subtree of a node over the range {@code [start, end)} of the triangle order.
+	 */
+	private class BuildTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int node, start, end;
+		private final float[] centroids, bounds;
+		private final AtomicInteger counter;
+
+		public BuildTask(int node, int start, int end, float[] centroids, float[] bounds, AtomicInteger counter)
+		{
+			this.node = node;
+			this.start = start;
+			this.end = end;
+			this.centroids = centroids;
+			this.bounds = bounds;
+			this.counter = counter;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int count = end - start;
+
+			/*
+			 * Bounds of the triangles and of their centroids
+			 */
+			int offset = 6 * node;
+			float[] centroidBounds = new float[6];
+			empty(nodeBounds, offset);
+			empty(centroidBounds, 0);
+			for (int k = start; k < end; k++)
+			{
+				int triangle = order[k];
+				grow(nodeBounds, offset, bounds, 6 * triangle);
+				for (int axis = 0; axis < 3; axis++)
+				{
+					float centroid = centroids[3 * triangle + axis];
+					centroidBounds[axis] = Math.min(centroidBounds[axis], centroid);
+					centroidBounds[3 + axis] = Math.max(centroidBounds[3 + axis], centroid);
+				}
+			}
+
+			nodeStart[node] = start;
+			nodeCount[node] = count;
+			if (count <= LEAF_SIZE)
+			{
+				return;
+			}
+
+			int middle = split(count, offset, centroidBounds);
+			if (middle < 0)
+			{
+				return;
+			}
+
+			int left = counter.getAndAdd(2);
+			nodeLeft[node] = left;
+			nodeCount[node] = 0;
+
+			BuildTask leftTask = new BuildTask(left, start, middle, centroids, bounds, counter);
+			BuildTask rightTask = new BuildTask(left + 1, middle, end, centroids, bounds, counter);
+			if (count > PARALLEL_THRESHOLD)
+			{
+				invokeAll(leftTask, rightTask);
+			}
+			else
+			{
+				leftTask.compute();
+				rightTask.compute();
+			}
+		}
+
+		/**
+		 * Partitions the range at the cheapest binned split and returns the first index of the right
+		 * half, or {@code -1} if the node stays a leaf.
+		 */
+		private int split(int count, int offset, float[] centroidBounds)
+		{
+			int bins = BIN_COUNT;
+			int[] binCounts = new int[bins];
+			float[] binBounds = new float[6 * bins];
+			float[] leftAreas = new float[bins];
+			float[] sweep = new float[6];
+
+			float bestCost = Float.POSITIVE_INFINITY;
+			int bestAxis = -1, bestBin = -1;
+
+			for (int axis = 0; axis < 3; axis++)
+			{
+				float min = centroidBounds[axis], extent = centroidBounds[3 + axis] - min;
+				if (!(extent > 0))
+				{
+					continue;
+				}
+
+				Arrays.fill(binCounts, 0);
+				for (int bin = 0; bin < bins; bin++)
+				{
+					empty(binBounds, 6 * bin);
+				}
+
+				float scale = bins / extent;
+				for (int k = start; k < end; k++)
+				{
+					int triangle = order[k];
+					int bin = Math.min(bins - 1, (int) ((centroids[3 * triangle + axis] - min) * scale));
+					binCounts[bin]++;
+					grow(binBounds, 6 * bin, bounds, 6 * triangle);
+				}
+
+				/*
+				 * Sweep from the left to get the areas of all left halves, then from the right
+				 */
+				empty(sweep, 0);
+				for (int bin = 0; bin < bins - 1; bin++)
+				{
+					grow(sweep, 0, binBounds, 6 * bin);
+					leftAreas[bin] = area(sweep, 0);
+				}
+
+				empty(sweep, 0);
+				int rightCount = 0;
+				for (int bin = bins - 1; bin > 0; bin--)
+				{
+					grow(sweep, 0, binBounds, 6 * bin);
+					rightCount += binCounts[bin];
+					int leftCount = count - rightCount;
+					float cost = leftAreas[bin - 1] * leftCount + area(sweep, 0) * rightCount;
+					if (leftCount > 0 && rightCount > 0 && cost < bestCost)
+					{
+						bestCost = cost;
+						bestAxis = axis;
+						bestBin = bin;
+					}
+				}
+			}
+
+			/*
+			 * The cost of a leaf relative to the cost of a split, both in units of triangle tests
+			 */
+			float area = area(nodeBounds, offset);
+			boolean splitCheaper = area > 0 ? 1 + bestCost / area < count : bestAxis >= 0;
+
+			if (bestAxis < 0)
+			{
+				/*
+				 * All centroids coincide, large ranges are split in the middle
+				 */
+				return count <= MAX_LEAF_SIZE ? -1 : (start + end) >>> 1;
+			}
+			if (!splitCheaper && count <= MAX_LEAF_SIZE)
+			{
+				return -1;
+			}
+
+			return partition(bestAxis, bestBin, centroidBounds);
+		}
+
+		private int partition(int axis, int splitBin, float[] centroidBounds)
+		{
+			float min = centroidBounds[axis], scale = BIN_COUNT / (centroidBounds[3 + axis] - min);
+			int i = start, j = end - 1;
+			while (i <= j)
+			{
+				int bin = Math.min(BIN_COUNT - 1, (int) ((centroids[3 * order[i] + axis] - min) * scale));
+				if (bin < splitBin)
+				{
+					i++;
+				}
+				else
+				{
+					int temp = order[i];
+					order[i] = order[j];
+					order[j--] = temp;
+				}
+			}
+			return i;
+		}
+	}
+}
@@ -13,6 +13,8 @@ import orion.sdk.util.IPersistable;
 
 public abstract class Node implements IPersistable, IUpdatable, IStackable
 {
+	private static final int NODE_STACK = OpenGLStack.getHandle(Node.class);
+	
 	protected Node parent = null;
 	
 	public String name = "unnamed";
@@ -51,6 +53,16 @@ public abstract class Node implements IPersistable, IUpdatable, IStackable
 		return nodes;
 	}
 
+	/**
+	 * Returns {@code true} if this node may be updated on a worker thread while other nodes are updated,
+	 * which requires its update to touch no state shared with other nodes. Nodes are updated serially by
+	 * default.
+	 */
+	public boolean isParallelUpdateSafe()
+	{
+		return false;
+	}
+
 	public Node getParent()
 	{
 		return parent;
@@ -91,11 +103,11 @@ public abstract class Node implements IPersistable, IUpdatable, IStackable
 	
 	protected void pushNode(OpenGLContext c)
 	{
-		OpenGLStack.push(Node.class, this, c);
+		OpenGLStack.push(NODE_STACK, this, c);
 	}
 	
 	protected void popNode(OpenGLContext c)
 	{
-		OpenGLStack.pop(Node.class, this, c);
+		OpenGLStack.pop(NODE_STACK, this, c);
 	}
 }
@@ -0,0 +1,203 @@
+package orion.sdk.node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import orion.sdk.node.containers.ContainerNode;
+
+/**
+ * Indexes the nodes of a subtree by type. A type is indexed by walking the subtree once, the first time
+ * its nodes are requested. From then on the containers of the subtree report added and removed children
+ * to the registries of their ancestors, and {@link #getNodes(Class)} hands out a cached read-only
+ * snapshot which is only rebuilt after the nodes of the type changed.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class NodeRegistry
+{
+	private final ContainerNode root;
+	private final Map<Class<?>, Index> indices = new HashMap<Class<?>, Index>();
+	private int modificationCount = 0;
+
+	public NodeRegistry(ContainerNode root)
+	{
+		this.root = root;
+	}
+
+	public ContainerNode getRoot()
+	{
+		return root;
+	}
+
+	/**
+	 * Returns a read-only snapshot of the nodes in the subtree which are instances of {@code nodeClass},
+	 * including the root. The snapshot does not change when nodes are added or removed later.
+	 */
+	public List<Node> getNodes(Class<?> nodeClass)
+	{
+		synchronized (this)
+		{
+			Index index = indices.get(nodeClass);
+			if (index != null)
+			{
+				return index.getSnapshot();
+			}
+		}
+
+		/*
+		 * The subtree is walked without holding the registry, since containers register while holding the
+		 * lock of their children. The walk is repeated if the subtree changed meanwhile.
+		 */
+		while (true)
+		{
+			int count;
+			synchronized (this)
+			{
+				count = modificationCount;
+			}
+
+			List<Node> nodes = new ArrayList<Node>();
+			collect(root, nodes);
+
+			synchronized (this)
+			{
+				Index index = indices.get(nodeClass);
+				if (index == null && count == modificationCount)
+				{
+					index = new Index(nodeClass);
+					index.add(nodes);
+					indices.put(nodeClass, index);
+				}
+				if (index != null)
+				{
+					return index.getSnapshot();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Registers {@code node} and its subtree with the indexed types.
+	 */
+	public void register(Node node)
+	{
+		List<Node> nodes = getSubtree(node);
+		if (nodes != null)
+		{
+			synchronized (this)
+			{
+				for (Index index : indices.values())
+				{
+					index.add(nodes);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes {@code node} and its subtree from the indexed types.
+	 */
+	public void unregister(Node node)
+	{
+		List<Node> nodes = getSubtree(node);
+		if (nodes != null)
+		{
+			synchronized (this)
+			{
+				for (Index index : indices.values())
+				{
+					index.remove(nodes);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of indexed types.
+	 */
+	public synchronized int getTypeCount()
+	{
+		return indices.size();
+	}
+
+	/**
+	 * Counts a modification and returns the nodes of the subtree, or {@code null} if no type is indexed.
+	 */
+	private List<Node> getSubtree(Node node)
+	{
+		synchronized (this)
+		{
+			modificationCount++;
+			if (indices.isEmpty())
+			{
+				return null;
+			}
+		}
+
+		List<Node> nodes = new ArrayList<Node>();
+		collect(node, nodes);
+		return nodes;
+	}
+
+	private static void collect(Node node, List<Node> nodes)
+	{
+		nodes.add(node);
+
+		if (node instanceof ContainerNode)
+		{
+			for (Node child : ((ContainerNode) node).getChildren())
+			{
+				collect(child, nodes);
+			}
+		}
+	}
+
+	private static final class Index
+	{
+		private final Class<?> nodeClass;
+		private final Set<Node> nodes = new LinkedHashSet<Node>();
+		private List<Node> snapshot = null;
+
+		private Index(Class<?> nodeClass)
+		{
+			this.nodeClass = nodeClass;
+		}
+
+		private void add(List<Node> nodes)
+		{
+			for (Node node : nodes)
+			{
+				if (nodeClass.isInstance(node) && this.nodes.add(node))
+				{
+					snapshot = null;
+				}
+			}
+		}
+
+		private void remove(List<Node> nodes)
+		{
+			for (Node node : nodes)
+			{
+				if (this.nodes.remove(node))
+				{
+					snapshot = null;
+				}
+			}
+		}
+
+		private List<Node> getSnapshot()
+		{
+			if (snapshot == null)
+			{
+				snapshot = Collections.unmodifiableList(new ArrayList<Node>(nodes));
+			}
+			return snapshot;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package orion.sdk.node.containers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import orion.sdk.node.Node;
+
+/**
+ * The children of a container. Changes are made to a pending list while holding the monitor of the child
+ * list, and published as a new array by {@link #publish()}, at most once per batch of changes. Readers
+ * iterate over the published array without locking and see a consistent snapshot, which is never modified
+ * once published.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public final class ChildList
+{
+	private static final Node[] EMPTY = new Node[0];
+
+	private final List<Node> pending = new ArrayList<Node>();
+	private volatile Node[] published = EMPTY;
+	private volatile boolean dirty = false;
+	private int publishCount = 0;
+
+	public synchronized void add(Node child)
+	{
+		pending.add(child);
+		dirty = true;
+	}
+
+	public synchronized boolean remove(Node child)
+	{
+		if (pending.remove(child))
+		{
+			dirty = true;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces the children by the first {@code count} nodes of {@code children}.
+	 */
+	public synchronized void set(Node[] children, int count)
+	{
+		pending.clear();
+		for (int i = 0; i < count; i++)
+		{
+			pending.add(children[i]);
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Returns the pending child at {@code index}.
+	 */
+	public synchronized Node get(int index)
+	{
+		return pending.get(index);
+	}
+
+	/**
+	 * Returns the number of pending children.
+	 */
+	public synchronized int size()
+	{
+		return pending.size();
+	}
+
+	/**
+	 * Returns a copy of the pending children.
+	 */
+	public synchronized List<Node> copy()
+	{
+		return new ArrayList<Node>(pending);
+	}
+
+	/**
+	 * Publishes the pending children if they changed and returns the published array, which must not be
+	 * modified. Takes no lock if nothing changed since the last call.
+	 */
+	public Node[] publish()
+	{
+		if (dirty)
+		{
+			synchronized (this)
+			{
+				if (dirty)
+				{
+					published = pending.toArray(new Node[pending.size()]);
+					publishCount++;
+					dirty = false;
+				}
+			}
+		}
+		return published;
+	}
+
+	/**
+	 * Returns the last published array without publishing pending changes.
+	 */
+	public Node[] getPublished()
+	{
+		return published;
+	}
+
+	/**
+	 * Returns the number of arrays published so far.
+	 */
+	public synchronized int getPublishCount()
+	{
+		return publishCount;
+	}
+}
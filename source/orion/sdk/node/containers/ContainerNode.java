@@ -1,25 +1,67 @@
 package orion.sdk.node.containers;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import com.jogamp.opengl.GLException;
 
 import orion.sdk.graphics.drawables.IDrawable;
 import orion.sdk.graphics.util.OpenGLContext;
 import orion.sdk.graphics.util.OpenGLManager;
+import orion.sdk.graphics.util.OpenGLStack;
+import orion.sdk.graphics.viewing.FrustumCuller;
 import orion.sdk.math.geometry.Box;
 import orion.sdk.node.Node;
+import orion.sdk.node.NodeRegistry;
 import orion.sdk.util.StructuredBinary;
 
+/**
+ * A node holding other nodes. Children may be added and removed from any thread. Changes are published
+ * once per frame when the container is updated or drawn, so that updating and drawing iterate over
+ * consistent snapshots of the children without locking.
+ *
+ * With {@link #parallelUpdate} set, containers with more than {@link #PARALLEL_UPDATE_THRESHOLD} children
+ * update them as fork/join tasks of {@link #updatePool}. Children which are not
+ * {@link Node#isParallelUpdateSafe() safe} for parallel update are updated first on the calling thread.
+ */
 public class ContainerNode extends Node implements IDrawable
 {
-	protected Map<String, Node> lookup = new HashMap<String, Node>();
-	protected List<Node> children = new LinkedList<Node>();	
+	/**
+	 * The number of children above which they are split into parallel tasks, and the most children a
+	 * single task updates.
+	 */
+	public static int PARALLEL_UPDATE_THRESHOLD = 256;
+	
+	/**
+	 * The pool parallel updates run on, unless they are started from a task of another pool.
+	 */
+	public static ForkJoinPool updatePool = ForkJoinPool.commonPool();
+	
+	protected Map<String, Node> lookup = new ConcurrentHashMap<String, Node>();
+	
+	/**
+	 * The children, whose monitor guards changes to them.
+	 */
+	protected final ChildList children = new ChildList();
+	
+	/**
+	 * Updates the children in parallel if {@code true}.
+	 */
+	public boolean parallelUpdate = false;
+	
+	/*
+	 * Whether each child is safe and the exceptions of the last parallel update by child, used by the
+	 * updating thread only
+	 */
+	private boolean[] updateSafe = new boolean[0];
+	private Exception[] updateErrors = new Exception[0];
 	protected boolean visible = true;
+	private volatile NodeRegistry registry = null;
 	
 	public ContainerNode(String name)
 	{
@@ -30,41 +72,69 @@ public class ContainerNode extends Node implements IDrawable
 	{
 		synchronized (children)
 		{
-			synchronized (lookup)
-			{
-				OpenGLManager.getInstance().pushDebug("Adding " + OpenGLManager.getInstance().getShortDescription(child) + " to", this);
-				children.add(child);
-				lookup.put(child.name, child);
-				child.setParent(this);
-				OpenGLManager.getInstance().popDebug();
-			}
+			OpenGLManager.getInstance().pushDebug("Adding " + OpenGLManager.getInstance().getShortDescription(child) + " to", this);
+			children.add(child);
+			lookup.put(child.name, child);
+			child.setParent(this);
+			OpenGLManager.getInstance().popDebug();
+			
+			updateRegistries(child, true);
 		}
 	}	
 
 	public Node getChild(String name)
 	{
-		if (lookup.containsKey(name))
-		{
-			return lookup.get(name);
-		}
-		else
+		return lookup.get(name);
+	}
+	
+	public void removeChild(String name)
+	{
+		synchronized (children)
 		{
-			return null;
+			Node child = lookup.remove(name);
+			if (child != null)
+			{
+				children.remove(child);
+				updateRegistries(child, false);
+			}
 		}
 	}
 	
-	public void removeChild(String name)
+	/**
+	 * Returns the registry indexing the nodes of this subtree by type, creating it on first use.
+	 */
+	public NodeRegistry getRegistry()
 	{
-		if (lookup.containsKey(name))
+		NodeRegistry result = registry;
+		if (result == null)
 		{
-			synchronized (lookup)
+			synchronized (this)
 			{
-				Node child = lookup.get(name);
-				synchronized (children)
+				if (registry == null)
 				{
-					children.remove(child);
-					lookup.remove(name);
+					registry = new NodeRegistry(this);
 				}
+				result = registry;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Reports an added or removed child to the registries of this container and its ancestors.
+	 */
+	private void updateRegistries(Node child, boolean added)
+	{
+		for (Node node = this; node != null; node = node.getParent())
+		{
+			NodeRegistry nodeRegistry = node instanceof ContainerNode ? ((ContainerNode) node).registry : null;
+			if (nodeRegistry != null && added)
+			{
+				nodeRegistry.register(child);
+			}
+			else if (nodeRegistry != null)
+			{
+				nodeRegistry.unregister(child);
 			}
 		}
 	}
@@ -73,6 +143,23 @@ public class ContainerNode extends Node implements IDrawable
 	{
 		return lookup.containsKey(name); 
 	}
+	
+	/**
+	 * Returns a copy of the children, including changes which have not been published yet.
+	 */
+	public List<Node> getChildren()
+	{
+		return children.copy();
+	}
+	
+	/**
+	 * Publishes the changes to the children made since the last call and returns the published children.
+	 * The array is shared and must not be modified, it can be iterated over without locking.
+	 */
+	public Node[] publishChildren()
+	{
+		return children.publish();
+	}
 
 	@Override
 	public void read(StructuredBinary binary) throws Exception
@@ -89,13 +176,144 @@ public class ContainerNode extends Node implements IDrawable
 	@Override
 	public void update(float dt) throws Exception
 	{
-		synchronized (children)
-		{				
-			for (Node child : children)
+		Node[] nodes = publishChildren();
+		if (!parallelUpdate || nodes.length <= PARALLEL_UPDATE_THRESHOLD)
+		{
+			for (Node child : nodes)
 			{
 				child.update(dt);
 			}
-		}		
+		}
+		else
+		{
+			updateParallel(nodes, dt);
+		}
+	}
+	
+	/**
+	 * Updates the unsafe children serially and the others as fork/join tasks. All children are updated
+	 * even if some fail. The exception of the first failed child is thrown afterwards, with the exceptions
+	 * of the following children added as suppressed in child order.
+	 */
+	private void updateParallel(Node[] nodes, float dt) throws Exception
+	{
+		if (updateErrors.length < nodes.length)
+		{
+			updateSafe = new boolean[nodes.length];
+			updateErrors = new Exception[nodes.length];
+		}
+		
+		for (int i = 0; i < nodes.length; i++)
+		{
+			updateSafe[i] = nodes[i].isParallelUpdateSafe();
+			if (!updateSafe[i])
+			{
+				update(nodes[i], dt, updateErrors, i);
+			}
+		}
+		
+		UpdateTask task = new UpdateTask(nodes, 0, nodes.length, dt, updateSafe, updateErrors);
+		if (ForkJoinTask.inForkJoinPool())
+		{
+			task.invoke();
+		}
+		else
+		{
+			updatePool.invoke(task);
+		}
+		
+		Exception error = null;
+		for (int i = 0; i < nodes.length; i++)
+		{
+			if (updateErrors[i] != null && error == null)
+			{
+				error = updateErrors[i];
+			}
+			else if (updateErrors[i] != null)
+			{
+				error.addSuppressed(updateErrors[i]);
+			}
+			updateErrors[i] = null;
+		}
+		if (error != null)
+		{
+			throw error;
+		}
+	}
+	
+	private static void update(Node node, float dt, Exception[] errors, int index)
+	{
+		try
+		{
+			node.update(dt);
+		}
+		catch (Exception e)
+		{
+			errors[index] = e;
+		}
+	}
+	
+	/**
+	 * Updates the safe children of a range, splitting it in halves above the threshold.
+	 */
+	private static final class UpdateTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final Node[] nodes;
+		private final int from;
+		private final int to;
+		private final float dt;
+		private final boolean[] safe;
+		private final Exception[] errors;
+		
+		private UpdateTask(Node[] nodes, int from, int to, float dt, boolean[] safe, Exception[] errors)
+		{
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+			this.dt = dt;
+			this.safe = safe;
+			this.errors = errors;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if (to - from > PARALLEL_UPDATE_THRESHOLD)
+			{
+				int middle = (from + to) >>> 1;
+				invokeAll(
+					new UpdateTask(nodes, from, middle, dt, safe, errors),
+					new UpdateTask(nodes, middle, to, dt, safe, errors));
+			}
+			else
+			{
+				for (int i = from; i < to; i++)
+				{
+					if (safe[i])
+					{
+						update(nodes[i], dt, errors, i);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A container is safe if all its children are, since its subtree is updated by the same task.
+	 */
+	@Override
+	public boolean isParallelUpdateSafe()
+	{
+		for (Node child : publishChildren())
+		{
+			if (!child.isParallelUpdateSafe())
+			{
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -114,15 +332,12 @@ public class ContainerNode extends Node implements IDrawable
 	public void upload(OpenGLContext c) throws GLException
 	{
 		OpenGLManager.getInstance().pushDebug("Uploading", this);
-		synchronized (children)
-		{				
-			for (Node child : children)
+		for (Node child : publishChildren())
+		{
+			if (child instanceof IDrawable)
 			{
-				if (child instanceof IDrawable)
-				{
-					IDrawable drawableChild = (IDrawable) child;
-					OpenGLManager.getInstance().queueUpload(drawableChild);
-				}
+				IDrawable drawableChild = (IDrawable) child;
+				OpenGLManager.getInstance().queueUpload(drawableChild);
 			}
 		}
 		OpenGLManager.getInstance().popDebug();
@@ -132,17 +347,14 @@ public class ContainerNode extends Node implements IDrawable
 	public void release(OpenGLContext c) throws GLException
 	{
 		OpenGLManager.getInstance().pushDebug("Releasing", this);
-		synchronized (children)
-		{				
-			for (Node child : children)
+		for (Node child : publishChildren())
+		{
+			if (child instanceof IDrawable)
 			{
-				if (child instanceof IDrawable)
-				{
-					IDrawable drawableChild = (IDrawable) child;
-					drawableChild.release(c);
-				}
+				IDrawable drawableChild = (IDrawable) child;
+				drawableChild.release(c);
 			}
-		}		
+		}
 		OpenGLManager.getInstance().popDebug();
 	}
 
@@ -157,39 +369,74 @@ public class ContainerNode extends Node implements IDrawable
 	{
 		OpenGLManager.getInstance().pushDebug("Drawing", this);
 		
-		synchronized (children)
-		{				
-			for (Node child : children)
-			{
-				if (child instanceof IDrawable)
-				{					
-					IDrawable drawableChild = (IDrawable) child;
-					
-					drawableChild.draw(c);
-					
-					OpenGLManager.getInstance().logDebugScreens(this, c);
+		/*
+		 * The children are published before culling begins, so that culling covers all of them
+		 */
+		Node[] nodes = publishChildren();
+		FrustumCuller culler = (FrustumCuller) OpenGLStack.peek(FrustumCuller.class);
+		if (culler != null)
+		{
+			beginCulling(culler);
+		}
+		
+		for (Node child : nodes)
+		{
+			if (child instanceof IDrawable)
+			{					
+				IDrawable drawableChild = (IDrawable) child;
+				
+				/*
+				 * Skip children outside the view frustum along with their subtree
+				 */
+				if (culler != null && isCulled(culler, drawableChild))
+				{
+					continue;
+				}
+				
+				drawableChild.draw(c);
+				
+				if (culler != null)
+				{
+					culler.countDrawn(drawableChild);
 				}
+				
+				OpenGLManager.getInstance().logDebugScreens(this, c);
 			}
 		}
 		
 		OpenGLManager.getInstance().popDebug();
 	}
 
+	/**
+	 * Prepares culling the children against the frustum of {@code culler}. Called once per frame after the
+	 * children were published and before {@link #isCulled(FrustumCuller, IDrawable)}. Children may be
+	 * added or removed by other threads meanwhile, so overrides must answer for children changed since.
+	 */
+	public void beginCulling(FrustumCuller culler)
+	{
+	}
+	
+	/**
+	 * Returns {@code true} if the child lies outside the frustum of {@code culler} and can be skipped
+	 * along with its subtree.
+	 */
+	public boolean isCulled(FrustumCuller culler, IDrawable child)
+	{
+		return culler.isCulled(child);
+	}
+
 	@Override
 	public int getFaceCount()
 	{
 		int sum = 0;
-		synchronized (children)
-		{				
-			for (Node child : children)
+		for (Node child : children.getPublished())
+		{
+			if (child instanceof IDrawable)
 			{
-				if (child instanceof IDrawable)
+				IDrawable drawableChild = (IDrawable) child;
+				if (drawableChild.isVisible() && drawableChild.isReady())
 				{
-					IDrawable drawableChild = (IDrawable) child;
-					if (drawableChild.isVisible() && drawableChild.isReady())
-					{
-						sum += drawableChild.getFaceCount();
-					}
+					sum += drawableChild.getFaceCount();
 				}
 			}
 		}
@@ -224,14 +471,11 @@ public class ContainerNode extends Node implements IDrawable
 	{
 		List<Node> nodes = new ArrayList<Node>();
 		
-		synchronized (this.children)
-		{				
-			for (Node child : children)
+		for (Node child : children.copy())
+		{
+			if (nodeClass.isInstance(child))
 			{
-				if (nodeClass.isInstance(child))
-				{
-					nodes.add(child);
-				}
+				nodes.add(child);
 			}
 		}
 		
@@ -1,29 +1,72 @@
 package orion.sdk.node.containers;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import orion.sdk.data.FloatKeySorter;
 import orion.sdk.graphics.viewing.cameras.ACamera;
 import orion.sdk.math.FloatMatrix;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.Vec4f;
 import orion.sdk.math.geometry.Box;
 import orion.sdk.monitoring.incidents.Incident;
 import orion.sdk.monitoring.incidents.IncidentManager;
 import orion.sdk.node.Node;
 import orion.sdk.node.drawables.EntityNode;
 
+/**
+ * A spatial node which draws its entities back to front as seen from a camera. The children are sorted
+ * again whenever the camera turned or moved far enough.
+ *
+ * The distances are taken into a float array and sorted by a {@link FloatKeySorter}. Since the children
+ * are kept in the order of the last sort, a slowly moving camera only leaves a few of them out of place,
+ * which the sorter fixes in about linear time. By default the sort runs on a shared worker thread and
+ * the sorted order is swapped in by a later update. If children were added or removed meanwhile, the order
+ * is dropped and the next update sorts again.
+ */
 public class OrderedSpatialNode extends SpatialNode
 {
 	public static float UPDATE_ANGLE = (float) (Math.PI * 1.0 / 180.0);
 	public static float UPDATE_DISTANCE = 0.1f;
 
+	private static ExecutorService sortExecutor = null;
+
 	public ACamera camera = null;
 	public ACamera cameraSnapshot = null;
 	public IFloatMatrix lastCameraVector = null;
-	public NodeSorter nodeSorter = new NodeSorter();
-	
+
+	/**
+	 * Sorts on the worker thread if {@code true}, otherwise each update sorts before it returns.
+	 */
+	public boolean sortAsynchronously = true;
+
+	private final AtomicBoolean sorting = new AtomicBoolean(false);
+	private final AtomicReference<SortedOrder> sortedOrder = new AtomicReference<SortedOrder>();
+	private volatile Future<?> pendingSort = null;
+
+	/*
+	 * Incremented whenever children are added or removed, guarded by the children
+	 */
+	private int version = 0;
+
+	/*
+	 * The sort buffers, owned by whoever set the sorting flag
+	 */
+	private final FloatKeySorter sorter = new FloatKeySorter();
+	private Node[] nodes = new Node[0];
+	private float[] keys = new float[0];
+	private int[] permutation = new int[0];
+	private int nodeCount = 0;
+	private int nodeVersion = 0;
+	private final Vec4f observer = new Vec4f();
+	private final Vec4f direction = new Vec4f();
+	private final Vec4f position = new Vec4f();
+
 	public OrderedSpatialNode(String name, int cellsCountX, int cellsCountY, int cellsCountZ,
 			Box bounds, ACamera camera)
 	{
@@ -31,106 +74,248 @@ public class OrderedSpatialNode extends SpatialNode
 		this.camera = camera;
 	}
 
+	@Override
+	public void addChild(Node child)
+	{
+		synchronized (children)
+		{
+			super.addChild(child);
+			version++;
+		}
+	}
+
+	@Override
+	public void removeChild(String name)
+	{
+		synchronized (children)
+		{
+			super.removeChild(name);
+			version++;
+		}
+	}
+
 	@Override
 	public void update(float dt) throws Exception
 	{
+		applySortedNodes();
+
 		cameraSnapshot = camera.clone();
-		
+
 		IFloatMatrix cameraVector = FloatMatrix.vector(cameraSnapshot.getObserver().subtract(cameraSnapshot.getTarget()), 3);
-		
+
 		if (lastCameraVector == null
 			|| lastCameraVector.angleBetween(cameraVector) > UPDATE_ANGLE
 			|| Math.abs(lastCameraVector.norm() - cameraVector.norm()) > UPDATE_DISTANCE
 			)
 		{
-
-			lastCameraVector = cameraVector;
-			
-			sortNodes();		
+			if (!sortAsynchronously)
+			{
+				lastCameraVector = cameraVector;
+				sortNodes();
+			}
+			else if (startSort())
+			{
+				lastCameraVector = cameraVector;
+			}
 		}
-		
+
 		super.update(dt);
 	}
-	
+
+	/**
+	 * Sorts the children on the calling thread, after waiting for a sort in progress.
+	 */
 	public void sortNodes() throws Exception
 	{
-		synchronized (children)
+		while (!sorting.compareAndSet(false, true))
 		{
-			Node[] childArray = children.toArray(new Node[children.size()]);
-			nodeSorter.updateDistances();
-			Arrays.sort(childArray, nodeSorter);
-			children.clear();
-			for (Node child : childArray)
-			{
-				children.add(child);
-			}
+			waitForSort();
+		}
+
+		try
+		{
+			prepareSort();
+			sortPrepared();
 		}
-	}	
-	
-	protected class NodeSorter implements Comparator<Node>
+		finally
+		{
+			sorting.set(false);
+		}
+
+		applySortedNodes();
+	}
+
+	/**
+	 * Starts sorting the children on the worker thread. Returns {@code false} if a sort is still in
+	 * progress.
+	 */
+	public boolean startSort() throws Exception
 	{
-		protected Map<Node, Float> nodeDistances = new HashMap<Node, Float>();
-		
-		public NodeSorter()
+		if (!sorting.compareAndSet(false, true))
+		{
+			return false;
+		}
+
+		try
+		{
+			prepareSort();
+		}
+		catch (Exception e)
 		{
-			
+			sorting.set(false);
+			throw e;
 		}
-		
-		public void updateDistances() throws Exception
+
+		pendingSort = getSortExecutor().submit(new Runnable()
 		{
-			synchronized (children)
+			@Override
+			public void run()
 			{
-				IFloatMatrix observer = cameraSnapshot.getObserver();
-				IFloatMatrix direction = observer.subtract(cameraSnapshot.getTarget()); 
-				for (Node node : children)
+				try
 				{
-					if (node instanceof EntityNode)
-					{
-						EntityNode entityNode = (EntityNode) node;
-						IFloatMatrix projection = observer
-								.subtract(entityNode.getTransformation().getPosition())
-								.projectToVector(direction);
-						
-						float distance = projection.norm();
-						nodeDistances.put(node, distance);
-					}
+					sortPrepared();
 				}
+				catch (RuntimeException e)
+				{
+					IncidentManager.notifyIncident(Incident.newError("Sort error", e));
+				}
+				finally
+				{
+					sorting.set(false);
+				}
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Blocks until the sort started last has finished.
+	 */
+	public void waitForSort() throws Exception
+	{
+		Future<?> sort = pendingSort;
+		if (sort != null)
+		{
+			sort.get();
+		}
+		else
+		{
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * Replaces the children by the order of the last finished sort. Returns {@code false} if there is no
+	 * such order or the children have changed since the sort started, in which case the order is dropped
+	 * and the next update sorts again whether or not the camera moved.
+	 */
+	public boolean applySortedNodes()
+	{
+		SortedOrder order = sortedOrder.getAndSet(null);
+		if (order == null)
+		{
+			return false;
+		}
+
+		synchronized (children)
+		{
+			if (order.version != version)
+			{
+				lastCameraVector = null;
+				return false;
 			}
+			children.set(order.nodes, order.nodes.length);
+			return true;
 		}
+	}
 
-		@Override
-		public int compare(Node a, Node b)
+	/**
+	 * Takes the children and their keys. The key of an entity is its negative distance to the observer
+	 * along the view direction, so that ascending keys run back to front. Other nodes are kept in front.
+	 */
+	private void prepareSort() throws Exception
+	{
+		cameraSnapshot.getObserver(observer);
+		cameraSnapshot.getTarget(direction);
+		Vec4f.subtract(observer, direction, direction);
+		float length = direction.length();
+		direction.scale(length > 0 ? 1f / length : 0);
+
+		synchronized (children)
 		{
-			try
+			int count = children.size();
+			if (nodes.length < count)
 			{
-				if (nodeDistances.containsKey(a) && nodeDistances.containsKey(b))
+				int capacity = Math.max(count, nodes.length * 2);
+				nodes = new Node[capacity];
+				keys = new float[capacity];
+				permutation = new int[capacity];
+			}
+
+			for (int i = 0; i < count; i++)
+			{
+				Node node = children.get(i);
+				nodes[i] = node;
+				if (node instanceof EntityNode)
 				{
-					float distanceA = nodeDistances.get(a);
-					float distanceB = nodeDistances.get(b);
-					if (distanceA > distanceB)
-					{
-						return -1;
-					} 
-					else if (distanceA < distanceB)
-					{
-						return 1;					
-					}
-					else
-					{
-						return 0;
-					}
+					((EntityNode) node).getTransformation().getPosition(position);
+					Vec4f.subtract(observer, position, position);
+					keys[i] = -Math.abs(position.dot3(direction));
 				}
 				else
 				{
-					return 0;
+					keys[i] = Float.NEGATIVE_INFINITY;
 				}
 			}
-			catch (Exception e)
+			nodeCount = count;
+			nodeVersion = version;
+		}
+	}
+
+	/**
+	 * Sorts the prepared children and publishes their order.
+	 */
+	private void sortPrepared()
+	{
+		int count = nodeCount;
+		sorter.sort(keys, FloatKeySorter.identity(permutation, count), count);
+
+		Node[] sorted = new Node[count];
+		for (int i = 0; i < count; i++)
+		{
+			sorted[i] = nodes[permutation[i]];
+		}
+		Arrays.fill(nodes, 0, count, null);
+		sortedOrder.set(new SortedOrder(sorted, nodeVersion));
+	}
+
+	private static synchronized ExecutorService getSortExecutor()
+	{
+		if (sortExecutor == null)
+		{
+			sortExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
 			{
-				IncidentManager.notifyIncident(Incident.newError("Compare error", e));
-				return 0;
-			}
+				@Override
+				public Thread newThread(Runnable runnable)
+				{
+					Thread thread = new Thread(runnable, "OrderedSpatialNode sorter");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
 		}
-	}	
+		return sortExecutor;
+	}
 
+	private static final class SortedOrder
+	{
+		private final Node[] nodes;
+		private final int version;
+
+		private SortedOrder(Node[] nodes, int version)
+		{
+			this.nodes = nodes;
+			this.version = version;
+		}
+	}
 }
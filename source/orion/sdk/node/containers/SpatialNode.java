@@ -1,66 +1,273 @@
 package orion.sdk.node.containers;
 
-import orion.sdk.data.cubes.ObjectCube;
-import orion.sdk.math.FloatMatrix;
-import orion.sdk.math.IFloatMatrix;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.viewing.FrustumCuller;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+import orion.sdk.math.geometry.AABB;
 import orion.sdk.math.geometry.Box;
+import orion.sdk.math.geometry.LooseOctree;
 import orion.sdk.node.Node;
 import orion.sdk.node.drawables.EntityNode;
 
+/**
+ * A container which indexes its children in a loose octree over its bounds. Entities are indexed by their
+ * bounds in world space, or by their position if they have no bounds, and are re-indexed by
+ * {@link #update(float)} when they moved. Other drawables are indexed by their bounds, children without
+ * bounds are not indexed and never culled.
+ */
 public class SpatialNode extends ContainerNode
 {
-	public ObjectCube<Node> cells;
 	public Box bounds;
+	protected LooseOctree<Node> octree;
+	
+	/*
+	 * The octree handles of the indexed children and the vertex transformation counts entities were
+	 * indexed at, changed under the children lock. The handles are also read while drawing.
+	 */
+	private final Map<Node, Integer> handles = new ConcurrentHashMap<Node, Integer>();
+	private int[] indexedCounts = new int[64];
+	
+	/*
+	 * The child at each handle when culling began and the frame in which it was last found visible, used
+	 * by the drawing thread only. Children indexed later have other handles or none in this snapshot.
+	 */
+	private Node[] cullingNodes = new Node[64];
+	private int[] visibleFrames = new int[64];
+	private int[] queryResult = new int[64];
+	private int frame = 0;
+	
+	private final AABB childBounds = new AABB();
+	private final Mat4f transformation = new Mat4f();
 	
+	/**
+	 * Creates a spatial node whose octree is as fine as a grid with the given number of cells along the
+	 * longest axis.
+	 */
 	public SpatialNode(String name, int cellsCountX, int cellsCountY, int cellsCountZ, Box bounds)
+	{
+		this(name, bounds, 32 - Integer.numberOfLeadingZeros(Math.max(1, Math.max(cellsCountX, Math.max(cellsCountY, cellsCountZ))) - 1));
+	}
+	
+	/**
+	 * Creates a spatial node with an octree of the given maximum depth.
+	 */
+	public SpatialNode(String name, Box bounds, int maxDepth)
 	{
 		super(name);
-		this.cells = new ObjectCube<Node>(cellsCountX, cellsCountY, cellsCountZ);
 		this.bounds = bounds;
+		this.octree = new LooseOctree<Node>(bounds.getAABB(new AABB()), maxDepth);
+	}
+	
+	@Override
+	public Box getBounds()
+	{
+		return bounds;
 	}
 	
-	private FloatMatrix getIndexes(EntityNode entityNode)
+	/**
+	 * Writes the bounds a child is indexed by into {@code dest}, or returns {@code null} if it is not
+	 * indexed.
+	 */
+	protected AABB getIndexBounds(Node child, AABB dest)
 	{
-		IFloatMatrix location = entityNode.getTransformation().getPosition();
-		IFloatMatrix ratios = FloatMatrix.vector(
-			(location.getX() - bounds.getLeft()) / bounds.getWidth(),
-			(location.getY() - bounds.getBottom()) / bounds.getHeight(),
-			(location.getZ() - bounds.getBack()) / bounds.getDepth());
-		return FloatMatrix.vector( 
-			Math.round(ratios.getX() * (cells.getWidth() - 1)),
-			Math.round(ratios.getY() * (cells.getHeight() - 1)),
-			Math.round(ratios.getZ() * (cells.getDepth() - 1)));
+		if (child instanceof EntityNode)
+		{
+			EntityNode entityNode = (EntityNode) child;
+			entityNode.getVertexTransformation(transformation);
+			Box box = entityNode.getBounds();
+			if (box == null)
+			{
+				return dest.set(transformation.m03, transformation.m13, transformation.m23, transformation.m03, transformation.m13, transformation.m23);
+			}
+			return AABB.transform(transformation, box.getAABB(dest), dest);
+		}
+		
+		if (child instanceof IDrawable)
+		{
+			Box box = ((IDrawable) child).getBounds();
+			if (box != null)
+			{
+				return box.getAABB(dest);
+			}
+		}
+		return null;
 	}
 	
 	@Override
 	public void addChild(Node child)
 	{
-		super.addChild(child);
-		if (child instanceof EntityNode)
+		synchronized (children)
 		{
-			FloatMatrix indexes = getIndexes((EntityNode) child);
-			cells.setEntry(
-				(int) indexes.getX(),
-				(int) indexes.getY(),
-				(int) indexes.getZ(),
-				child);
+			super.addChild(child);
+			index(child);
 		}
-		else
+	}
+	
+	/**
+	 * Adds all children at once, growing the index only once.
+	 */
+	public void addChildren(List<? extends Node> children)
+	{
+		synchronized (this.children)
 		{
-			cells.setEntry(0, 0, 0, child);
+			octree.ensureCapacity(octree.getHandleCount() + children.size());
+			for (Node child : children)
+			{
+				addChild(child);
+			}
 		}
 	}
 	
 	@Override
 	public void removeChild(String name)
 	{
-		super.removeChild(name);
-		Node child = getChild(name);
-		FloatMatrix indexes = getIndexes((EntityNode) child);
-		cells.setEntry(
-			(int) indexes.getX(),
-			(int) indexes.getY(),
-			(int) indexes.getZ(),
-			null);
+		synchronized (children)
+		{
+			Node child = getChild(name);
+			super.removeChild(name);
+			
+			Integer handle = child != null ? handles.remove(child) : null;
+			if (handle != null)
+			{
+				octree.remove(handle);
+			}
+		}
+	}
+	
+	private void index(Node child)
+	{
+		Integer previous = handles.remove(child);
+		if (previous != null)
+		{
+			octree.remove(previous);
+		}
+		
+		if (getIndexBounds(child, childBounds) == null)
+		{
+			return;
+		}
+		
+		int handle = octree.insert(child, childBounds);
+		handles.put(child, handle);
+		if (handle >= indexedCounts.length)
+		{
+			indexedCounts = Arrays.copyOf(indexedCounts, Math.max(handle + 1, indexedCounts.length * 2));
+		}
+		indexedCounts[handle] = child instanceof EntityNode ? ((EntityNode) child).getVertexTransformationCount() : 0;
+	}
+	
+	/**
+	 * Re-indexes the entities which moved since they were indexed. Returns the number of entities which
+	 * had to change their cell.
+	 */
+	public int reindex()
+	{
+		int moved = 0;
+		synchronized (children)
+		{
+			for (Map.Entry<Node, Integer> entry : handles.entrySet())
+			{
+				if (entry.getKey() instanceof EntityNode)
+				{
+					EntityNode entityNode = (EntityNode) entry.getKey();
+					int handle = entry.getValue();
+					int count = entityNode.getVertexTransformationCount();
+					if (count != indexedCounts[handle])
+					{
+						indexedCounts[handle] = count;
+						if (octree.update(handle, getIndexBounds(entityNode, childBounds)))
+						{
+							moved++;
+						}
+					}
+				}
+			}
+		}
+		return moved;
+	}
+	
+	@Override
+	public void update(float dt) throws Exception
+	{
+		reindex();
+		super.update(dt);
+	}
+	
+	/**
+	 * Returns the indexed children of the given class intersecting {@code range}.
+	 */
+	public List<Node> findNodes(Class<?> nodeClass, AABB range)
+	{
+		List<Node> nodes = new ArrayList<Node>();
+		synchronized (children)
+		{
+			for (Node node : octree.query(range, new ArrayList<Node>()))
+			{
+				if (nodeClass.isInstance(node))
+				{
+					nodes.add(node);
+				}
+			}
+		}
+		return nodes;
+	}
+	
+	/**
+	 * Returns the indexed children whose bounds are hit by the ray within {@code maxDistance}.
+	 */
+	public List<Node> findNodes(Vec4f origin, Vec4f direction, float maxDistance)
+	{
+		synchronized (children)
+		{
+			return octree.query(origin, direction, maxDistance, new ArrayList<Node>());
+		}
+	}
+	
+	@Override
+	public void beginCulling(FrustumCuller culler)
+	{
+		synchronized (children)
+		{
+			frame++;
+			if (queryResult.length < octree.size())
+			{
+				queryResult = new int[Math.max(octree.size(), queryResult.length * 2)];
+			}
+			int handleCount = octree.getHandleCount();
+			if (visibleFrames.length < handleCount)
+			{
+				visibleFrames = Arrays.copyOf(visibleFrames, Math.max(handleCount, visibleFrames.length * 2));
+				cullingNodes = new Node[visibleFrames.length];
+			}
+			for (int i = 0; i < handleCount; i++)
+			{
+				cullingNodes[i] = octree.get(i);
+			}
+			Arrays.fill(cullingNodes, handleCount, cullingNodes.length, null);
+			
+			int count = octree.query(culler.getFrustum(), queryResult);
+			for (int i = 0; i < count; i++)
+			{
+				visibleFrames[queryResult[i]] = frame;
+			}
+		}
+	}
+	
+	@Override
+	public boolean isCulled(FrustumCuller culler, IDrawable child)
+	{
+		Integer handle = handles.get(child);
+		if (handle == null || !culler.enabled || handle >= cullingNodes.length || cullingNodes[handle] != child)
+		{
+			return super.isCulled(culler, child);
+		}
+		return culler.countVisited(visibleFrames[handle] != frame);
 	}
 }
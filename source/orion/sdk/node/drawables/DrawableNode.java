@@ -179,6 +179,15 @@ public class DrawableNode extends Node implements IDrawable
 	}
 	
 
+	/**
+	 * Drawables may be shared between nodes, so only nodes whose drawable does not update are safe.
+	 */
+	@Override
+	public boolean isParallelUpdateSafe()
+	{
+		return !(getDrawable() instanceof IUpdatable);
+	}
+
 	@Override
 	public void update(float dt) throws Exception
 	{
@@ -224,18 +233,18 @@ public class DrawableNode extends Node implements IDrawable
 		 */
 		if (shouldEnableDepthTest())
 		{
-			c.gl().glEnable(GL2.GL_DEPTH_TEST);
+			c.state().enable(GL2.GL_DEPTH_TEST);
 		}
 		
 		if (shouldEnableAlphaBlending())
 		{
-			c.gl().glEnable(GL2.GL_BLEND);
-			c.gl().glBlendFunc(GL2.GL_SRC_ALPHA, GL2.GL_ONE_MINUS_SRC_ALPHA);
+			c.state().enable(GL2.GL_BLEND);
+			c.state().blendFunc(GL2.GL_SRC_ALPHA, GL2.GL_ONE_MINUS_SRC_ALPHA);
 		}
 		
 		if (shouldEnableFaceCulling())
 		{
-			c.gl().glEnable(GL2.GL_CULL_FACE);
+			c.state().enable(GL2.GL_CULL_FACE);
 			c.gl().glCullFace(GL2.GL_BACK);
 		}
 		
@@ -284,17 +293,17 @@ public class DrawableNode extends Node implements IDrawable
 		 */
 		if (shouldEnableDepthTest())
 		{
-			c.gl().glDisable(GL2.GL_DEPTH_TEST);
+			c.state().disable(GL2.GL_DEPTH_TEST);
 		}
 		
 		if (shouldEnableAlphaBlending())
 		{
-			c.gl().glDisable(GL2.GL_BLEND);
+			c.state().disable(GL2.GL_BLEND);
 		}
 		
 		if (shouldEnableFaceCulling())
 		{
-			c.gl().glDisable(GL2.GL_CULL_FACE);
+			c.state().disable(GL2.GL_CULL_FACE);
 		}
 		
 		this.popNode(c);
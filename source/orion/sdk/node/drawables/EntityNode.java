@@ -7,9 +7,13 @@ import orion.sdk.graphics.drawables.IDrawable;
 import orion.sdk.graphics.shading.glsl.AShader;
 import orion.sdk.graphics.shading.lighting.Material;
 import orion.sdk.graphics.util.OpenGLContext;
-import orion.sdk.math.FloatMatrix;
+import orion.sdk.graphics.util.OpenGLStack;
+import orion.sdk.graphics.viewing.cameras.ACamera;
 import orion.sdk.math.FloatTransformation;
 import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.Mat3f;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.WorldPosition;
 import orion.sdk.util.StructuredBinary;
 
 /**
@@ -20,7 +24,31 @@ import orion.sdk.util.StructuredBinary;
  */
 public class EntityNode extends ShadedNode
 {
-	private FloatTransformation vertexTransform = new FloatTransformation();
+	private static final WorldPosition ORIGIN = new WorldPosition();
+	private static final int CAMERA_STACK = OpenGLStack.getHandle(ACamera.class);
+	
+	private final WorldPosition anchor = new WorldPosition();
+	
+	private final FloatTransformation vertexTransform = new FloatTransformation();
+	
+	/*
+	 * The cached matrices are guarded by the lock of vertexTransform. The local matrix is valid while
+	 * the modification count of the transformation equals localCount, the world matrix while in
+	 * addition the parent and its world count are unchanged.
+	 */
+	private final Mat4f localMatrix = new Mat4f();
+	private final Mat4f worldMatrix = new Mat4f();
+	private final Mat4f parentMatrix = new Mat4f();
+	private final Mat3f normalMatrix = new Mat3f();
+	private int localCount = -1;
+	private EntityNode cachedParent = null;
+	private int parentCount = 0;
+	private int worldCount = 0;
+	private boolean normalValid = false;
+	private boolean normalSingular = false;
+	
+	private final Mat4f drawMatrix = new Mat4f();
+	private final float[] drawBuffer = new float[16];
 			
 	public EntityNode(String name, IDrawable drawable, AShader shader, Material material)
 	{
@@ -33,26 +61,148 @@ public class EntityNode extends ShadedNode
 		return 0;
 	}
 	
+	/**
+	 * Returns the transformation from model to world space. Entities anchored at a world position are
+	 * transformed relative to the origin of the current camera and ignore the transformation of their
+	 * parents.
+	 */
 	public IFloatMatrix getVertexTransformation() throws Exception
+	{
+		return getVertexTransformation(new Mat4f()).toFloatMatrix();
+	}
+	
+	/**
+	 * Writes the transformation from model to world space into {@code dest}. The matrix is cached and
+	 * only recomputed if the transformation of this entity or of one of its ancestors changed.
+	 */
+	public Mat4f getVertexTransformation(Mat4f dest)
 	{
 		synchronized (vertexTransform)
 		{
-			IFloatMatrix parentTransformation = FloatMatrix.identity(4);
-			if (getParent() != null && getParent() instanceof EntityNode)
+			validate();
+			return dest.set(worldMatrix);
+		}
+	}
+	
+	/**
+	 * Returns a counter which changes whenever the vertex transformation of this entity changes.
+	 */
+	public int getVertexTransformationCount()
+	{
+		synchronized (vertexTransform)
+		{
+			return validate();
+		}
+	}
+	
+	/**
+	 * Returns the inverse transpose of the upper left 3x3 block of the vertex transformation.
+	 */
+	public IFloatMatrix getNormalTransformation() throws Exception
+	{
+		return getNormalTransformation(new Mat3f()).toFloatMatrix();
+	}
+	
+	/**
+	 * Writes the inverse transpose of the upper left 3x3 block of the vertex transformation into
+	 * {@code dest}. The matrix is cached along with the vertex transformation.
+	 */
+	public Mat3f getNormalTransformation(Mat3f dest) throws Exception
+	{
+		synchronized (vertexTransform)
+		{
+			validate();
+			if (!normalValid)
 			{
-				EntityNode parentNode = (EntityNode) getParent();
-				parentTransformation = parentNode.getVertexTransformation();
+				normalSingular = !Mat3f.normal(worldMatrix, normalMatrix);
+				normalValid = true;
 			}
-
-			return parentTransformation.product(this.getTransformation().getMatrix());			
+			if (normalSingular)
+			{
+				throw new Exception("Vertex transformation of '" + getName() + "' is singular");
+			}
+			return dest.set(normalMatrix);
 		}
 	}
 	
-	public IFloatMatrix getNormalTransformation() throws Exception
+	/**
+	 * Brings the cached matrices up to date and returns the world count. Locks the ancestors while
+	 * holding the lock of this entity, which cannot deadlock since locks are only taken upwards.
+	 */
+	private int validate()
 	{
-		IFloatMatrix vertexTransformation = getVertexTransformation();
-		IFloatMatrix normalTransformation = vertexTransformation.invert().transpose();
-		return normalTransformation.subMatrix(0,  0, 3, 3);
+		int count = vertexTransform.getModificationCount();
+		boolean localChanged = count != localCount;
+		if (localChanged)
+		{
+			vertexTransform.getMatrix(localMatrix);
+			localCount = count;
+		}
+		
+		boolean worldChanged = false;
+		if (vertexTransform.hasWorldPosition())
+		{
+			/*
+			 * Only the translation depends on the camera origin
+			 */
+			ACamera camera = (ACamera) OpenGLStack.peek(CAMERA_STACK);
+			WorldPosition origin = camera != null ? camera.getOrigin() : ORIGIN;
+			WorldPosition worldPosition = vertexTransform.getWorldPosition(anchor);
+			float
+				x = localMatrix.m03 + (float) worldPosition.getRelative(0, origin),
+				y = localMatrix.m13 + (float) worldPosition.getRelative(1, origin),
+				z = localMatrix.m23 + (float) worldPosition.getRelative(2, origin);
+			if (localChanged || cachedParent != null || x != worldMatrix.m03 || y != worldMatrix.m13 || z != worldMatrix.m23)
+			{
+				worldMatrix.set(localMatrix);
+				worldMatrix.m03 = x;
+				worldMatrix.m13 = y;
+				worldMatrix.m23 = z;
+				normalValid = normalValid && !localChanged && cachedParent == null;
+				cachedParent = null;
+				worldCount++;
+			}
+			return worldCount;
+		}
+		
+		EntityNode parent = getParent() instanceof EntityNode ? (EntityNode) getParent() : null;
+		if (parent == null)
+		{
+			worldChanged = localChanged || cachedParent != null || parentCount != 0;
+			if (worldChanged)
+			{
+				worldMatrix.set(localMatrix);
+				cachedParent = null;
+				parentCount = 0;
+			}
+		}
+		else if (localChanged || parent != cachedParent || parent.getVertexTransformationCount() != parentCount)
+		{
+			parentCount = parent.getWorldMatrix(parentMatrix);
+			cachedParent = parent;
+			Mat4f.mul(parentMatrix, localMatrix, worldMatrix);
+			worldChanged = true;
+		}
+		
+		if (worldChanged)
+		{
+			normalValid = false;
+			worldCount++;
+		}
+		return worldCount;
+	}
+	
+	/**
+	 * Copies the world matrix into {@code dest} and returns the world count it belongs to.
+	 */
+	private int getWorldMatrix(Mat4f dest)
+	{
+		synchronized (vertexTransform)
+		{
+			int count = validate();
+			dest.set(worldMatrix);
+			return count;
+		}
 	}
 
 	
@@ -63,13 +213,8 @@ public class EntityNode extends ShadedNode
 		c.gl().glMatrixMode(GL2.GL_MODELVIEW);
 		c.gl().glPushMatrix();
 		
-		try
-		{
-			c.gl().glMultMatrixf(getVertexTransformation().columnMajor(), 0);
-		} catch (Exception e)
-		{
-			throw new GLException("Model view transformation failed.", e);
-		}
+		getVertexTransformation(drawMatrix).columnMajor(drawBuffer, 0);
+		c.gl().glMultMatrixf(drawBuffer, 0);
 
 		super.draw(c);
 		
@@ -0,0 +1,451 @@
+package orion.sdk.node.drawables;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLException;
+
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.drawables.surfaces.Mesh;
+import orion.sdk.graphics.shading.glsl.AShader;
+import orion.sdk.graphics.shading.glsl.GenericShader;
+import orion.sdk.graphics.shading.lighting.Material;
+import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.graphics.util.OpenGLManager;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.geometry.Box;
+
+/**
+ * Draws one mesh many times in a single call, with a transformation and a color per instance. The
+ * instances are kept in a float array of {@value #FLOATS_PER_INSTANCE} floats each, the upper three rows
+ * of the transformation followed by the color. The array is mirrored in an instance buffer, of which only
+ * the ranges changed since the last frame are updated.
+ *
+ * The shader must be a {@link GenericShader} with the instance attribute capability. Without support for
+ * instanced drawing, or if the mesh has no vertex buffer, the instances are drawn one by one with the
+ * instance attributes set as constants.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class InstancedNode extends ShadedNode
+{
+	public static final int FLOATS_PER_INSTANCE = 16;
+	public static final int COLOR_OFFSET = 12;
+
+	/**
+	 * Changed ranges fewer than this many instances apart are updated as one range.
+	 */
+	public static int MERGE_DISTANCE = 32;
+
+	private static final float[] IDENTITY = new float[] {
+		1, 0, 0, 0,
+		0, 1, 0, 0,
+		0, 0, 1, 0,
+		1, 1, 1, 1
+	};
+
+	private final Mesh mesh;
+	private float[] instances;
+	private int instanceCount = 0;
+	private final BitSet dirty = new BitSet();
+	private final Box instanceBounds = new Box();
+	private boolean boundsValid = false;
+
+	/*
+	 * The instance buffer, guarded by this node like the instances
+	 */
+	private final int[] buffer = new int[] { 0 };
+	private int bufferCapacity = 0;
+	private FloatBuffer staging = null;
+	private Boolean instancingSupported = null;
+
+	public InstancedNode(String name, Mesh mesh, AShader shader, Material material, int capacity)
+	{
+		super(name, null, shader, material);
+		this.mesh = mesh;
+		this.instances = new float[Math.max(capacity, 1) * FLOATS_PER_INSTANCE];
+		this.setDrawable(new Instances());
+	}
+
+	public Mesh getMesh()
+	{
+		return mesh;
+	}
+
+	public synchronized int getInstanceCount()
+	{
+		return instanceCount;
+	}
+
+	/**
+	 * Sets the number of instances. New instances have the identity transformation and a white color.
+	 */
+	public synchronized void setInstanceCount(int count)
+	{
+		if (count * FLOATS_PER_INSTANCE > instances.length)
+		{
+			instances = Arrays.copyOf(instances, Math.max(count, instances.length / FLOATS_PER_INSTANCE * 2) * FLOATS_PER_INSTANCE);
+		}
+		for (int i = instanceCount; i < count; i++)
+		{
+			System.arraycopy(IDENTITY, 0, instances, i * FLOATS_PER_INSTANCE, FLOATS_PER_INSTANCE);
+		}
+		if (count > instanceCount)
+		{
+			dirty.set(instanceCount, count);
+		}
+		instanceCount = count;
+		boundsValid = false;
+	}
+
+	/**
+	 * Sets the transformation of an instance, of which the bottom row is ignored. Any invertible upper 3x3 is
+	 * allowed; the shader derives the normal transformation from it, so non-uniform scales light correctly.
+	 */
+	public synchronized void setTransformation(int index, Mat4f transformation)
+	{
+		int base = getBase(index);
+		instances[base + 0] = transformation.m00;
+		instances[base + 1] = transformation.m01;
+		instances[base + 2] = transformation.m02;
+		instances[base + 3] = transformation.m03;
+		instances[base + 4] = transformation.m10;
+		instances[base + 5] = transformation.m11;
+		instances[base + 6] = transformation.m12;
+		instances[base + 7] = transformation.m13;
+		instances[base + 8] = transformation.m20;
+		instances[base + 9] = transformation.m21;
+		instances[base + 10] = transformation.m22;
+		instances[base + 11] = transformation.m23;
+		dirty.set(index);
+		boundsValid = false;
+	}
+
+	public synchronized void setColor(int index, float r, float g, float b, float a)
+	{
+		int base = getBase(index) + COLOR_OFFSET;
+		instances[base + 0] = r;
+		instances[base + 1] = g;
+		instances[base + 2] = b;
+		instances[base + 3] = a;
+		dirty.set(index);
+	}
+
+	/**
+	 * Copies {@code count} instances in the layout of the instance array from {@code source}, starting at
+	 * {@code offset}, to the instances starting at {@code index}.
+	 */
+	public synchronized void setInstances(int index, float[] source, int offset, int count)
+	{
+		if (count > 0)
+		{
+			getBase(index + count - 1);
+			System.arraycopy(source, offset, instances, index * FLOATS_PER_INSTANCE, count * FLOATS_PER_INSTANCE);
+			dirty.set(index, index + count);
+			boundsValid = false;
+		}
+	}
+
+	/**
+	 * Copies the instances starting at {@code index} into {@code dest}.
+	 */
+	public synchronized float[] getInstances(int index, float[] dest, int count)
+	{
+		System.arraycopy(instances, index * FLOATS_PER_INSTANCE, dest, 0, count * FLOATS_PER_INSTANCE);
+		return dest;
+	}
+
+	/**
+	 * Returns the ranges of instances changed since the last upload as pairs of the first and one past the
+	 * last instance. Ranges close to each other are merged.
+	 */
+	public synchronized int[] getDirtyRanges()
+	{
+		int[] ranges = new int[8];
+		int count = 0;
+		int from = dirty.nextSetBit(0);
+		while (from >= 0 && from < instanceCount)
+		{
+			int to = Math.min(dirty.nextClearBit(from), instanceCount);
+			if (count > 0 && from - ranges[count - 1] < MERGE_DISTANCE)
+			{
+				ranges[count - 1] = to;
+			}
+			else
+			{
+				if (count == ranges.length)
+				{
+					ranges = Arrays.copyOf(ranges, count * 2);
+				}
+				ranges[count++] = from;
+				ranges[count++] = to;
+			}
+			from = dirty.nextSetBit(to);
+		}
+		return Arrays.copyOf(ranges, count);
+	}
+
+	/**
+	 * Marks all instances as uploaded.
+	 */
+	synchronized void clearDirtyRanges()
+	{
+		dirty.clear();
+	}
+
+	/**
+	 * Returns the bounds of all instances.
+	 */
+	@Override
+	public synchronized Box getBounds()
+	{
+		if (!boundsValid)
+		{
+			updateBounds();
+			boundsValid = true;
+		}
+		return instanceBounds;
+	}
+
+	private int getBase(int index)
+	{
+		if (index < 0 || index >= instanceCount)
+		{
+			throw new IndexOutOfBoundsException("Instance " + index + " of " + instanceCount);
+		}
+		return index * FLOATS_PER_INSTANCE;
+	}
+
+	/**
+	 * Encloses the mesh bounds of each instance in a box along the axes of its transformation.
+	 */
+	private void updateBounds()
+	{
+		Box meshBounds = mesh.getBounds();
+		float cx = 0, cy = 0, cz = 0, hx = 0, hy = 0, hz = 0;
+		if (meshBounds != null)
+		{
+			hx = meshBounds.getWidth() * 0.5f;
+			hy = meshBounds.getHeight() * 0.5f;
+			hz = meshBounds.getDepth() * 0.5f;
+			cx = meshBounds.getLeft() + hx;
+			cy = meshBounds.getBottom() + hy;
+			cz = meshBounds.getBack() + hz;
+		}
+
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < instanceCount; i++)
+		{
+			int base = i * FLOATS_PER_INSTANCE;
+			float[] m = instances;
+			float x = m[base + 0] * cx + m[base + 1] * cy + m[base + 2] * cz + m[base + 3];
+			float y = m[base + 4] * cx + m[base + 5] * cy + m[base + 6] * cz + m[base + 7];
+			float z = m[base + 8] * cx + m[base + 9] * cy + m[base + 10] * cz + m[base + 11];
+			float ex = Math.abs(m[base + 0]) * hx + Math.abs(m[base + 1]) * hy + Math.abs(m[base + 2]) * hz;
+			float ey = Math.abs(m[base + 4]) * hx + Math.abs(m[base + 5]) * hy + Math.abs(m[base + 6]) * hz;
+			float ez = Math.abs(m[base + 8]) * hx + Math.abs(m[base + 9]) * hy + Math.abs(m[base + 10]) * hz;
+			minX = Math.min(minX, x - ex);
+			minY = Math.min(minY, y - ey);
+			minZ = Math.min(minZ, z - ez);
+			maxX = Math.max(maxX, x + ex);
+			maxY = Math.max(maxY, y + ey);
+			maxZ = Math.max(maxZ, z + ez);
+		}
+
+		if (instanceCount == 0)
+		{
+			instanceBounds.set(0, 0, 0, 0, 0, 0);
+		}
+		else
+		{
+			instanceBounds.set(minX, minY, minZ, maxX - minX, maxY - minY, maxZ - minZ);
+		}
+	}
+
+	/**
+	 * Brings the instance buffer up to date, reallocating it if the instances outgrew it.
+	 */
+	private void uploadInstances(OpenGLContext c)
+	{
+		GL2 gl = c.gl();
+		int[] ranges;
+		if (buffer[0] == 0 || bufferCapacity < instanceCount)
+		{
+			if (buffer[0] == 0)
+			{
+				gl.glGenBuffers(1, buffer, 0);
+			}
+			bufferCapacity = instances.length / FLOATS_PER_INSTANCE;
+			c.state().bindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+			gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) bufferCapacity * FLOATS_PER_INSTANCE * 4, null, GL2.GL_DYNAMIC_DRAW);
+			ranges = new int[] { 0, instanceCount };
+		}
+		else
+		{
+			ranges = getDirtyRanges();
+			c.state().bindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+		}
+
+		for (int i = 0; i < ranges.length; i += 2)
+		{
+			int offset = ranges[i] * FLOATS_PER_INSTANCE, length = (ranges[i + 1] - ranges[i]) * FLOATS_PER_INSTANCE;
+			if (length == 0)
+			{
+				continue;
+			}
+			if (staging == null || staging.capacity() < length)
+			{
+				staging = ByteBuffer.allocateDirect(Math.max(length, bufferCapacity * FLOATS_PER_INSTANCE) * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+			}
+			staging.clear();
+			staging.put(instances, offset, length);
+			staging.flip();
+			gl.glBufferSubData(GL.GL_ARRAY_BUFFER, (long) offset * 4, (long) length * 4, staging);
+		}
+
+		c.state().bindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		clearDirtyRanges();
+		OpenGLManager.getInstance().checkError(c, this);
+	}
+
+	private boolean isInstancingSupported(OpenGLContext c)
+	{
+		if (instancingSupported == null)
+		{
+			instancingSupported = c.gl().isFunctionAvailable("glDrawArraysInstanced")
+				&& c.gl().isFunctionAvailable("glVertexAttribDivisor");
+		}
+		return instancingSupported;
+	}
+
+	private static int getAttributeLocation(int row)
+	{
+		return row < 3 ? GenericShader.getInstanceLocation() + row : GenericShader.getInstanceColorLocation();
+	}
+
+	private synchronized void drawInstances(OpenGLContext c)
+	{
+		if (instanceCount == 0)
+		{
+			return;
+		}
+
+		GL2 gl = c.gl();
+		if (isInstancingSupported(c))
+		{
+			uploadInstances(c);
+
+			c.state().bindBuffer(GL.GL_ARRAY_BUFFER, buffer[0]);
+			for (int row = 0; row < 4; row++)
+			{
+				int location = getAttributeLocation(row);
+				gl.glVertexAttribPointer(location, 4, GL.GL_FLOAT, false, FLOATS_PER_INSTANCE * 4, row * 4 * 4);
+				gl.glVertexAttribDivisor(location, 1);
+				gl.glEnableVertexAttribArray(location);
+			}
+			c.state().bindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+			boolean drawn = mesh.drawInstanced(c, instanceCount);
+
+			for (int row = 0; row < 4; row++)
+			{
+				int location = getAttributeLocation(row);
+				gl.glVertexAttribDivisor(location, 0);
+				gl.glDisableVertexAttribArray(location);
+			}
+
+			if (drawn)
+			{
+				return;
+			}
+		}
+
+		/*
+		 * Draw the instances one by one, with the instance attributes as constants
+		 */
+		for (int i = 0; i < instanceCount; i++)
+		{
+			for (int row = 0; row < 4; row++)
+			{
+				gl.glVertexAttrib4fv(getAttributeLocation(row), instances, i * FLOATS_PER_INSTANCE + row * 4);
+			}
+			mesh.draw(c);
+		}
+	}
+
+	private synchronized void releaseInstances(OpenGLContext c)
+	{
+		if (buffer[0] != 0)
+		{
+			c.state().deleteBuffers(1, buffer, 0);
+			buffer[0] = 0;
+			bufferCapacity = 0;
+			dirty.set(0, instanceCount);
+		}
+	}
+
+	/**
+	 * The drawable of the node, drawing the mesh for all instances.
+	 */
+	private final class Instances implements IDrawable
+	{
+		@Override
+		public void draw(OpenGLContext c) throws GLException
+		{
+			drawInstances(c);
+		}
+
+		@Override
+		public void upload(OpenGLContext c) throws GLException
+		{
+			if (!mesh.isReady())
+			{
+				mesh.upload(c);
+			}
+		}
+
+		@Override
+		public void release(OpenGLContext c) throws GLException
+		{
+			releaseInstances(c);
+			mesh.release(c);
+		}
+
+		@Override
+		public boolean isReady()
+		{
+			return mesh.isReady();
+		}
+
+		@Override
+		public int getFaceCount()
+		{
+			return mesh.getFaceCount() * getInstanceCount();
+		}
+
+		@Override
+		public Box getBounds()
+		{
+			return InstancedNode.this.getBounds();
+		}
+
+		@Override
+		public boolean isVisible()
+		{
+			return mesh.isVisible();
+		}
+
+		@Override
+		public String getName()
+		{
+			return InstancedNode.this.getName() + ".instances";
+		}
+	}
+}
@@ -0,0 +1,486 @@
+package orion.sdk.node.drawables;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLException;
+
+import orion.sdk.events.IUpdatable;
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.shading.glsl.AShader;
+import orion.sdk.graphics.shading.lighting.Material;
+import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.graphics.util.OpenGLManager;
+import orion.sdk.graphics.util.OpenGLStack;
+import orion.sdk.graphics.viewing.cameras.ACamera;
+import orion.sdk.graphics.viewing.cameras.OrthographicCamera;
+import orion.sdk.graphics.viewing.cameras.PerspectiveCamera;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+import orion.sdk.math.geometry.Box;
+
+/**
+ * An entity which draws one of several levels of detail, ordered from the finest to the coarsest. A level
+ * is selected either by the distance of the entity to the camera or by its projected size, the diameter of
+ * its bounds as a fraction of the height of the view. The threshold of a level is the largest distance or
+ * the smallest projected size it is used for, the last level is used beyond that.
+ *
+ * To avoid popping back and forth at a threshold, a level is only left once the threshold is exceeded by
+ * the hysteresis factor. If a fade duration is set, the new level fades in over the old one.
+ *
+ * Uploading the node uploads the coarsest level right away and queues the finer ones at the
+ * {@link OpenGLManager}, coarse to fine. Until the selected level is ready, the closest ready level is
+ * drawn instead.
+ *
+ * @author Tim
+ * @since 1.0.00
+ */
+public class LodNode extends EntityNode
+{
+	public enum ESelection
+	{
+		DISTANCE,
+		PROJECTED_SIZE
+	}
+
+	public static float DEFAULT_HYSTERESIS = 0.1f;
+
+	public ESelection selection = ESelection.PROJECTED_SIZE;
+	public float hysteresis = DEFAULT_HYSTERESIS;
+
+	/**
+	 * The time in seconds a new level takes to fade in, zero to switch at once.
+	 */
+	public float fadeDuration = 0;
+
+	/**
+	 * The camera to select levels for, or {@code null} for the camera on the {@link OpenGLStack}.
+	 */
+	public ACamera camera = null;
+
+	private final List<Level> levels = new ArrayList<Level>();
+	private int selectedLevel = -1;
+	private int fadingLevel = -1;
+	private float fade = 1;
+	private volatile int currentLevel = -1;
+
+	private final Mat4f transformation = new Mat4f();
+	private final Vec4f center = new Vec4f();
+	private final Vec4f observer = new Vec4f();
+	private final float[] blendColor = new float[4];
+
+	public LodNode(String name, AShader shader, Material material)
+	{
+		super(name, null, shader, material);
+	}
+
+	/**
+	 * Adds a level coarser than the ones added before. The threshold is a distance or a projected size,
+	 * depending on the selection.
+	 */
+	public void addLevel(IDrawable drawable, float threshold)
+	{
+		synchronized (levels)
+		{
+			if (levels.isEmpty())
+			{
+				setBounds(drawable.getBounds());
+			}
+			levels.add(new Level(drawable, threshold));
+			currentLevel = levels.size() - 1;
+		}
+	}
+
+	public int getLevelCount()
+	{
+		synchronized (levels)
+		{
+			return levels.size();
+		}
+	}
+
+	public IDrawable getLevel(int index)
+	{
+		synchronized (levels)
+		{
+			return levels.get(index).drawable;
+		}
+	}
+
+	/**
+	 * Returns the level selected last, or -1 if none was selected yet.
+	 */
+	public int getSelectedLevel()
+	{
+		synchronized (levels)
+		{
+			return selectedLevel;
+		}
+	}
+
+	/**
+	 * Returns the level which fades out, or -1 if no level is fading.
+	 */
+	public int getFadingLevel()
+	{
+		synchronized (levels)
+		{
+			return fadingLevel;
+		}
+	}
+
+	/**
+	 * Returns the progress of the fade in of the selected level, one if no level is fading.
+	 */
+	public float getFade()
+	{
+		synchronized (levels)
+		{
+			return fade;
+		}
+	}
+
+	/**
+	 * Returns the distance between the center of the bounds and the observer of the camera.
+	 */
+	public float getDistance(ACamera camera)
+	{
+		Box bounds = getBounds();
+		synchronized (levels)
+		{
+			getVertexTransformation(transformation);
+			if (bounds != null)
+			{
+				center.set(
+					bounds.getLeft() + bounds.getWidth() * 0.5f,
+					bounds.getBottom() + bounds.getHeight() * 0.5f,
+					bounds.getBack() + bounds.getDepth() * 0.5f,
+					1);
+			}
+			else
+			{
+				center.set(0, 0, 0, 1);
+			}
+			Mat4f.transform(transformation, center, center);
+			camera.getObserver(observer);
+			Vec4f.subtract(center, observer, center);
+			return (float) Math.sqrt(center.dot3(center));
+		}
+	}
+
+	/**
+	 * Returns the diameter of the bounds as a fraction of the height of the view of the camera.
+	 */
+	public float getProjectedSize(ACamera camera)
+	{
+		Box bounds = getBounds();
+		if (bounds == null)
+		{
+			return 0;
+		}
+
+		float distance, scale;
+		synchronized (levels)
+		{
+			distance = getDistance(camera);
+			Mat4f m = transformation;
+			scale = (float) Math.sqrt(Math.max(
+				m.m00 * m.m00 + m.m10 * m.m10 + m.m20 * m.m20, Math.max(
+				m.m01 * m.m01 + m.m11 * m.m11 + m.m21 * m.m21,
+				m.m02 * m.m02 + m.m12 * m.m12 + m.m22 * m.m22)));
+		}
+		float radius = 0.5f * scale * (float) Math.sqrt(
+			bounds.getWidth() * bounds.getWidth()
+			+ bounds.getHeight() * bounds.getHeight()
+			+ bounds.getDepth() * bounds.getDepth());
+
+		if (camera instanceof PerspectiveCamera)
+		{
+			if (distance <= radius)
+			{
+				return Float.POSITIVE_INFINITY;
+			}
+			double tangent = Math.tan(Math.toRadians(((PerspectiveCamera) camera).fieldOfView) * 0.5);
+			return (float) (radius / (distance * tangent));
+		}
+		else if (camera instanceof OrthographicCamera)
+		{
+			return 2 * radius / ((OrthographicCamera) camera).bounds.getHeight();
+		}
+		else
+		{
+			return radius / distance;
+		}
+	}
+
+	/**
+	 * Selects the level for the camera and returns it. A change of the level starts fading it in.
+	 */
+	public int selectLevel(ACamera camera)
+	{
+		/*
+		 * Both selections are turned into a measure which grows from the finest to the coarsest level
+		 */
+		float measure;
+		if (selection == ESelection.DISTANCE)
+		{
+			measure = getDistance(camera);
+		}
+		else
+		{
+			float size = getProjectedSize(camera);
+			measure = size > 0 ? 1f / size : Float.POSITIVE_INFINITY;
+		}
+
+		synchronized (levels)
+		{
+			int last = levels.size() - 1;
+			if (last < 0)
+			{
+				return -1;
+			}
+
+			int level = selectedLevel;
+			if (level < 0 || level > last)
+			{
+				level = 0;
+				while (level < last && measure > getBoundary(level))
+				{
+					level++;
+				}
+			}
+			else
+			{
+				float factor = 1 + hysteresis;
+				while (level < last && measure > getBoundary(level) * factor)
+				{
+					level++;
+				}
+				while (level > 0 && measure < getBoundary(level - 1) / factor)
+				{
+					level--;
+				}
+			}
+
+			if (level != selectedLevel)
+			{
+				if (fadeDuration > 0 && selectedLevel >= 0 && levels.get(selectedLevel).drawable.isReady())
+				{
+					fadingLevel = selectedLevel;
+					fade = 0;
+				}
+				selectedLevel = level;
+			}
+			return level;
+		}
+	}
+
+	/**
+	 * Returns the measure at which the level gives way to the next coarser one.
+	 */
+	private float getBoundary(int level)
+	{
+		float threshold = levels.get(level).threshold;
+		if (selection == ESelection.DISTANCE)
+		{
+			return threshold;
+		}
+		return threshold > 0 ? 1f / threshold : Float.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the ready level closest to {@code level}, preferring coarser ones, or {@code level} if none is
+	 * ready.
+	 */
+	private int getReadyLevel(int level)
+	{
+		for (int i = level; i < levels.size(); i++)
+		{
+			if (levels.get(i).drawable.isReady())
+			{
+				return i;
+			}
+		}
+		for (int i = level - 1; i >= 0; i--)
+		{
+			if (levels.get(i).drawable.isReady())
+			{
+				return i;
+			}
+		}
+		return level;
+	}
+
+	/**
+	 * Returns the level being drawn.
+	 */
+	@Override
+	public IDrawable getDrawable()
+	{
+		synchronized (levels)
+		{
+			int level = currentLevel;
+			return level >= 0 && level < levels.size() ? levels.get(level).drawable : null;
+		}
+	}
+
+	@Override
+	public boolean isParallelUpdateSafe()
+	{
+		synchronized (levels)
+		{
+			for (Level level : levels)
+			{
+				if (level.drawable instanceof IUpdatable)
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	@Override
+	public void update(float dt) throws Exception
+	{
+		synchronized (levels)
+		{
+			if (fadingLevel >= 0)
+			{
+				fade = fadeDuration > 0 ? fade + dt / fadeDuration : 1;
+				if (fade >= 1)
+				{
+					fade = 1;
+					fadingLevel = -1;
+				}
+			}
+		}
+
+		super.update(dt);
+	}
+
+	@Override
+	public void draw(OpenGLContext c) throws GLException
+	{
+		ACamera camera = this.camera != null ? this.camera : (ACamera) OpenGLStack.peek(ACamera.class);
+
+		int level, outgoing;
+		float alpha;
+		synchronized (levels)
+		{
+			if (levels.isEmpty())
+			{
+				super.draw(c);
+				return;
+			}
+			if (camera != null)
+			{
+				selectLevel(camera);
+			}
+			level = getReadyLevel(Math.max(selectedLevel, 0));
+			outgoing = fadingLevel >= 0 && fadingLevel != level && levels.get(fadingLevel).drawable.isReady() ? fadingLevel : -1;
+			alpha = fade;
+		}
+
+		if (outgoing < 0 || shouldEnableAlphaBlending())
+		{
+			currentLevel = level;
+			super.draw(c);
+			return;
+		}
+
+		/*
+		 * Draw the old level and blend the new one over it with a constant alpha
+		 */
+		currentLevel = outgoing;
+		super.draw(c);
+
+		boolean blend = c.state().isEnabled(GL2.GL_BLEND);
+		int blendSource = c.state().getBlendSource();
+		int blendDestination = c.state().getBlendDestination();
+		int depthFunction = c.state().getDepthFunc();
+		c.state().getBlendColor(blendColor);
+		c.state().enable(GL2.GL_BLEND);
+		c.state().blendColor(0, 0, 0, alpha);
+		c.state().blendFunc(GL2.GL_CONSTANT_ALPHA, GL2.GL_ONE_MINUS_CONSTANT_ALPHA);
+		c.state().depthFunc(GL2.GL_LEQUAL);
+		try
+		{
+			currentLevel = level;
+			super.draw(c);
+		}
+		finally
+		{
+			c.state().depthFunc(depthFunction);
+			c.state().blendFunc(blendSource, blendDestination);
+			c.state().blendColor(blendColor[0], blendColor[1], blendColor[2], blendColor[3]);
+			if (!blend)
+			{
+				c.state().disable(GL2.GL_BLEND);
+			}
+		}
+	}
+
+	@Override
+	public void upload(OpenGLContext c) throws GLException
+	{
+		/*
+		 * Upload the coarsest level now, so that something can be drawn at once
+		 */
+		List<IDrawable> queued = new ArrayList<IDrawable>();
+		synchronized (levels)
+		{
+			currentLevel = levels.size() - 1;
+			for (int i = levels.size() - 2; i >= 0; i--)
+			{
+				queued.add(levels.get(i).drawable);
+			}
+		}
+
+		super.upload(c);
+
+		for (IDrawable drawable : queued)
+		{
+			if (!drawable.isReady())
+			{
+				OpenGLManager.getInstance().queueUpload(drawable);
+			}
+		}
+	}
+
+	@Override
+	public void release(OpenGLContext c) throws GLException
+	{
+		List<IDrawable> released = new ArrayList<IDrawable>();
+		synchronized (levels)
+		{
+			for (int i = 0; i < levels.size(); i++)
+			{
+				if (i != currentLevel)
+				{
+					released.add(levels.get(i).drawable);
+				}
+			}
+		}
+
+		for (IDrawable drawable : released)
+		{
+			drawable.release(c);
+		}
+
+		super.release(c);
+	}
+
+	private static final class Level
+	{
+		private final IDrawable drawable;
+		private final float threshold;
+
+		private Level(IDrawable drawable, float threshold)
+		{
+			this.drawable = drawable;
+			this.threshold = threshold;
+		}
+	}
+}
@@ -11,6 +11,9 @@ import orion.sdk.graphics.util.OpenGLStack;
 
 public class ShadedNode extends DrawableNode
 {
+	private static final int MATERIAL_STACK = OpenGLStack.getHandle(Material.class);
+	private static final int SHADER_STACK = OpenGLStack.getHandle(AShader.class);
+	
 	private Material material = null;
 	private AShader shader = null;
 	
@@ -28,24 +31,33 @@ public class ShadedNode extends DrawableNode
 		
 		try
 		{
-			if (this.getMaterial() != null)
+			/*
+			 * Skip state which is already applied, such as by a render queue drawing nodes sorted by state.
+			 * The shader is applied again with a new material, since its uniforms depend on the material.
+			 */
+			Material material = this.getMaterial();
+			AShader shader = this.getShader();
+			boolean pushMaterial = material != null && OpenGLStack.peek(MATERIAL_STACK) != material;
+			boolean pushShader = shader != null && (pushMaterial || OpenGLStack.peek(SHADER_STACK) != shader);
+			
+			if (pushMaterial)
 			{
-				OpenGLStack.push(Material.class, this.getMaterial(), c);
+				OpenGLStack.push(MATERIAL_STACK, material, c);
 			}
-			if (this.getShader() != null)
+			if (pushShader)
 			{
-				OpenGLStack.push(AShader.class, getShader(), c);
+				OpenGLStack.push(SHADER_STACK, shader, c);
 			}
 
 			super.draw(c);
 			
-			if (this.getMaterial() != null)
+			if (pushShader)
 			{
-				OpenGLStack.pop(AShader.class, getShader(), c);
+				OpenGLStack.pop(SHADER_STACK, shader, c);
 			}
-			if (this.getShader() != null)
+			if (pushMaterial)
 			{
-				OpenGLStack.pop(Material.class, this.getMaterial(), c);
+				OpenGLStack.pop(MATERIAL_STACK, material, c);
 			}
 		}
 		catch (Exception e)
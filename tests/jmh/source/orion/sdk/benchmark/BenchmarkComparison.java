@@ -0,0 +1,201 @@
+package orion.sdk.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with {@code -rf csv}. For every benchmark of the current run
+ * the score of the baseline run, the speedup and the normalized allocation rate reported by the GC
+ * profiler are printed.
+ * 
+ * Usage: {@code BenchmarkComparison <baseline.csv> <current.csv> [threshold]}, where the threshold is
+ * the relative change that is reported as a speedup or slowdown, defaulting to {@code 0.05}.
+ */
+public class BenchmarkComparison
+{
+	private static final String ALLOCATION_SUFFIX = ":gc.alloc.rate.norm";
+
+	/**
+	 * A single row of a JMH result file.
+	 */
+	private static class Result
+	{
+		public float score = 0;
+		public String unit = "";
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length < 2)
+		{
+			System.err.println("Usage: BenchmarkComparison <baseline.csv> <current.csv> [threshold]");
+			System.exit(1);
+		}
+
+		Map<String, Result> baseline = read(args[0]);
+		Map<String, Result> current = read(args[1]);
+		float threshold = args.length > 2 ? Float.parseFloat(args[2]) : 0.05f;
+
+		System.out.println(String.format("%-70s %14s %14s %9s %12s %12s",
+			"Benchmark", "Baseline", "Current", "Speedup", "Alloc B/op", "Was B/op"));
+
+		int slower = 0, faster = 0;
+
+		for (Map.Entry<String, Result> entry : current.entrySet())
+		{
+			String name = entry.getKey();
+
+			if (name.contains(":"))
+			{
+				/*
+				 * Secondary profiler metrics are printed alongside their benchmark
+				 */
+				continue;
+			}
+
+			Result now = entry.getValue();
+			Result before = baseline.get(name);
+			Result allocation = current.get(name + ALLOCATION_SUFFIX);
+			Result allocationBefore = baseline.get(name + ALLOCATION_SUFFIX);
+
+			String verdict = "";
+			String speedup = "-";
+
+			if (before != null && now.score > 0)
+			{
+				/*
+				 * All benchmarks report time per operation, so a lower score is better
+				 */
+				float ratio = before.score / now.score;
+				speedup = String.format("%.2fx", ratio);
+
+				if (ratio < 1 - threshold)
+				{
+					verdict = "  SLOWER";
+					slower++;
+				}
+				else if (ratio > 1 + threshold)
+				{
+					verdict = "  FASTER";
+					faster++;
+				}
+			}
+
+			System.out.println(String.format("%-70s %14s %14s %9s %12s %12s%s",
+				name,
+				before != null ? format(before) : "-",
+				format(now),
+				speedup,
+				allocation != null ? String.format("%.0f", allocation.score) : "-",
+				allocationBefore != null ? String.format("%.0f", allocationBefore.score) : "-",
+				verdict));
+		}
+
+		System.out.println();
+		System.out.println(faster + " faster, " + slower + " slower, threshold " + (threshold * 100) + "%");
+	}
+
+	private static String format(Result result)
+	{
+		return String.format("%.2f %s", result.score, result.unit);
+	}
+
+	/**
+	 * Reads a JMH csv result file into a map of benchmark name and parameters to result.
+	 */
+	private static Map<String, Result> read(String path) throws Exception
+	{
+		Map<String, Result> results = new LinkedHashMap<String, Result>();
+		BufferedReader reader = new BufferedReader(new FileReader(path));
+
+		try
+		{
+			List<String> header = split(reader.readLine());
+			int score = header.indexOf("Score");
+			int unit = header.indexOf("Unit");
+
+			if (score < 0 || unit < 0)
+			{
+				throw new Exception("'" + path + "' is not a JMH csv result file");
+			}
+
+			String line = null;
+
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.trim().isEmpty())
+				{
+					continue;
+				}
+
+				List<String> columns = split(line);
+				String name = columns.get(0);
+
+				/*
+				 * Parameters follow the unit column and become part of the key
+				 */
+				StringBuilder parameters = new StringBuilder();
+				for (int i = unit + 1; i < columns.size() && i < header.size(); i++)
+				{
+					parameters.append(parameters.length() == 0 ? "(" : ", ");
+					parameters.append(header.get(i).replace("Param: ", "")).append("=").append(columns.get(i));
+				}
+				if (parameters.length() > 0)
+				{
+					parameters.append(")");
+					int metric = name.indexOf(':');
+					name = metric < 0 ?
+						name + parameters :
+						name.substring(0, metric) + parameters + name.substring(metric);
+				}
+
+				Result result = new Result();
+				result.score = Float.parseFloat(columns.get(score));
+				result.unit = columns.get(unit);
+				results.put(name, result);
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+
+		return results;
+	}
+
+	/**
+	 * Splits a line of comma separated, optionally quoted values.
+	 */
+	private static List<String> split(String line)
+	{
+		List<String> columns = new ArrayList<String>();
+		StringBuilder column = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++)
+		{
+			char c = line.charAt(i);
+
+			if (c == '"')
+			{
+				quoted = !quoted;
+			}
+			else if (c == ',' && !quoted)
+			{
+				columns.add(column.toString());
+				column.setLength(0);
+			}
+			else
+			{
+				column.append(c);
+			}
+		}
+		columns.add(column.toString());
+
+		return columns;
+	}
+}
@@ -0,0 +1,138 @@
+package orion.sdk.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures sorting points back to front while the camera turns a little per frame, against sorting
+ * unordered points and against sorting boxed distances with a comparator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkFloatKeySorter
+{
+	@Param({ "10000", "100000", "1000000" })
+	public int nodeCount;
+
+	/**
+	 * The angle the camera turns by per sort, {@link orion.sdk.node.containers.OrderedSpatialNode} sorts
+	 * after one degree.
+	 */
+	@Param({ "0.01", "1" })
+	public float degrees;
+
+	private float[] x, z;
+	private float[] keys;
+	private int[] order;
+	private int[] shuffled;
+	private int[] permutation;
+	private Integer[] boxedOrder;
+	private Map<Integer, Float> distances;
+	private FloatKeySorter sorter = new FloatKeySorter();
+	private float angle = 0, dx, dz;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+		x = new float[nodeCount];
+		z = new float[nodeCount];
+		for (int i = 0; i < nodeCount; i++)
+		{
+			x[i] = random.nextFloat() * 2000 - 1000;
+			z[i] = random.nextFloat() * 2000 - 1000;
+		}
+		keys = new float[nodeCount];
+		order = FloatKeySorter.identity(new int[nodeCount], nodeCount);
+		permutation = new int[nodeCount];
+		shuffled = FloatKeySorter.identity(new int[nodeCount], nodeCount);
+		for (int i = nodeCount - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			int swap = shuffled[i]; shuffled[i] = shuffled[j]; shuffled[j] = swap;
+		}
+		boxedOrder = new Integer[nodeCount];
+		for (int i = 0; i < nodeCount; i++)
+		{
+			boxedOrder[i] = i;
+		}
+		distances = new HashMap<Integer, Float>(nodeCount * 2);
+	}
+
+	/**
+	 * Turns the camera and writes the keys of the nodes in the given order.
+	 */
+	private void turn(int[] order)
+	{
+		angle += (float) Math.toRadians(degrees);
+		dx = (float) Math.cos(angle);
+		dz = (float) Math.sin(angle);
+		for (int i = 0; i < nodeCount; i++)
+		{
+			keys[i] = key(order[i]);
+		}
+	}
+
+	private float key(int node)
+	{
+		return -(x[node] * dx + z[node] * dz);
+	}
+
+	@Benchmark
+	public int coherent()
+	{
+		turn(order);
+		sorter.sort(keys, FloatKeySorter.identity(permutation, nodeCount), nodeCount);
+		for (int i = 0; i < nodeCount; i++)
+		{
+			permutation[i] = order[permutation[i]];
+		}
+		int[] swap = order; order = permutation; permutation = swap;
+		return order[0];
+	}
+
+	@Benchmark
+	public int unordered()
+	{
+		turn(shuffled);
+		FloatKeySorter.INSERTION_BUDGET = 0;
+		sorter.sort(keys, FloatKeySorter.identity(permutation, nodeCount), nodeCount);
+		FloatKeySorter.INSERTION_BUDGET = 4;
+		return permutation[0];
+	}
+
+	@Benchmark
+	public int comparator()
+	{
+		angle += (float) Math.toRadians(degrees);
+		dx = (float) Math.cos(angle);
+		dz = (float) Math.sin(angle);
+		for (int i = 0; i < nodeCount; i++)
+		{
+			distances.put(boxedOrder[i], key(boxedOrder[i]));
+		}
+		Arrays.sort(boxedOrder, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer a, Integer b)
+			{
+				return Float.compare(distances.get(a), distances.get(b));
+			}
+		});
+		return boxedOrder[0];
+	}
+}
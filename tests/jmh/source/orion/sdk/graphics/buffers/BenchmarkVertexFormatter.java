@@ -0,0 +1,92 @@
+package orion.sdk.graphics.buffers;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import orion.sdk.graphics.drawables.surfaces.Mesh;
+import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.geometry.Box;
+
+/**
+ * Measures filling a mesh of quads vertex by vertex and packing it into a direct buffer, as done when a
+ * vertex buffer is uploaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BenchmarkVertexFormatter
+{
+	@Param({ "100000", "1000000" })
+	public int vertexCount;
+
+	private Mesh mesh;
+	private VertexFormatter formatter;
+	private ByteBuffer buffer;
+	private float[] values;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+		values = new float[vertexCount];
+		for (int i = 0; i < vertexCount; i++)
+		{
+			values[i] = random.nextFloat();
+		}
+
+		mesh = createMesh();
+		fill(mesh);
+		formatter = new VertexFormatter("benchmark");
+		mesh.setVertexFormatter(formatter);
+		buffer = ByteBuffer.allocateDirect(vertexCount * formatter.getBytesPerVertex());
+	}
+
+	private Mesh createMesh()
+	{
+		Mesh mesh = new Mesh(vertexCount / 4, Mesh.FaceType.QUAD, new Box(1, 1, 1));
+		for (int i = 0; i < vertexCount / 4; i++)
+		{
+			mesh.setFace(i, 4 * i, 4 * i + 1, 4 * i + 2, 4 * i + 3);
+		}
+		return mesh;
+	}
+
+	private void fill(Mesh mesh)
+	{
+		for (int i = 0; i < vertexCount; i++)
+		{
+			float v = values[i];
+			mesh.setVertex(i,
+				FloatMatrix.vector(v, 1 - v, 0, 1),
+				FloatMatrix.vector(0, 0, 1),
+				FloatMatrix.vector(v, v),
+				FloatMatrix.vector(1, v, 1, 1));
+		}
+	}
+
+	@Benchmark
+	public Mesh build()
+	{
+		Mesh mesh = createMesh();
+		fill(mesh);
+		return mesh;
+	}
+
+	@Benchmark
+	public ByteBuffer format()
+	{
+		buffer.clear();
+		formatter.formatVertices(buffer);
+		return buffer;
+	}
+}
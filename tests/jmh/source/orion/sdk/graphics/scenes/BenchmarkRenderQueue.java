@@ -0,0 +1,78 @@
+package orion.sdk.graphics.scenes;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import orion.sdk.graphics.shading.glsl.AShader;
+import orion.sdk.graphics.shading.glsl.GenericShader;
+import orion.sdk.graphics.shading.lighting.Material;
+import orion.sdk.math.Vec4f;
+import orion.sdk.node.drawables.EntityNode;
+
+/**
+ * Measures collecting and sorting a frame of entities with eight shaders and 64 materials. The state
+ * changes left after sorting are returned by {@link #stateChanges()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkRenderQueue
+{
+	@Param({ "10000", "100000" })
+	public int itemCount;
+
+	private EntityNode[] entities;
+	private RenderQueue queue = new RenderQueue();
+	private Vec4f observer = new Vec4f(0, 0, 0, 1);
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+		AShader[] shaders = new AShader[8];
+		Material[] materials = new Material[64];
+		for (int i = 0; i < shaders.length; i++)
+		{
+			shaders[i] = new GenericShader("shader" + i, null, new GenericShader.Capabilities());
+		}
+		for (int i = 0; i < materials.length; i++)
+		{
+			materials[i] = new Material("material" + i);
+		}
+
+		entities = new EntityNode[itemCount];
+		for (int i = 0; i < itemCount; i++)
+		{
+			entities[i] = new EntityNode("e" + i, null, shaders[random.nextInt(shaders.length)], materials[random.nextInt(materials.length)]);
+			entities[i].getTransformation().setPosition(random.nextFloat() * 200 - 100, 0, random.nextFloat() * 200 - 100);
+		}
+	}
+
+	@Benchmark
+	public int collectAndSort()
+	{
+		queue.begin(observer);
+		for (EntityNode entity : entities)
+		{
+			queue.add(entity);
+		}
+		queue.sort();
+		return queue.size();
+	}
+
+	@Benchmark
+	public int stateChanges()
+	{
+		collectAndSort();
+		return queue.countStateChanges();
+	}
+}
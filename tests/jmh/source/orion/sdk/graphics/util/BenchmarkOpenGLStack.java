@@ -0,0 +1,71 @@
+package orion.sdk.graphics.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures a push, peek and pop as done per node and frame, through a class and context and through a
+ * resolved handle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BenchmarkOpenGLStack
+{
+	private static final int HANDLE = OpenGLStack.getHandle(Stackable.class, 3);
+
+	private final Stackable object = new Stackable();
+
+	@Benchmark
+	public Object byClass()
+	{
+		OpenGLStack.push(Stackable.class, object, null, 3);
+		Object peek = OpenGLStack.peek(Stackable.class, 3);
+		OpenGLStack.pop(Stackable.class, object, null, 3);
+		return peek;
+	}
+
+	@Benchmark
+	public Object byHandle()
+	{
+		OpenGLStack.push(HANDLE, object, null);
+		Object peek = OpenGLStack.peek(HANDLE);
+		OpenGLStack.pop(HANDLE, object, null);
+		return peek;
+	}
+
+	private static final class Stackable implements IStackable
+	{
+		@Override
+		public String getName()
+		{
+			return "stackable";
+		}
+
+		@Override
+		public void push(OpenGLContext c)
+		{
+		}
+
+		@Override
+		public void pop(OpenGLContext c)
+		{
+		}
+
+		@Override
+		public void apply(OpenGLContext c)
+		{
+		}
+
+		@Override
+		public void clear(OpenGLContext c)
+		{
+		}
+	}
+}
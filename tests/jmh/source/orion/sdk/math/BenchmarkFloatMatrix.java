@@ -0,0 +1,107 @@
+package orion.sdk.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the basic {@link FloatMatrix} operations against their {@link Mat4f} and {@link Vec4f}
+ * counterparts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BenchmarkFloatMatrix
+{
+	private IFloatMatrix a;
+	private IFloatMatrix b;
+	private IFloatMatrix u;
+	private IFloatMatrix v;
+	private Mat4f a4 = new Mat4f();
+	private Mat4f b4 = new Mat4f();
+	private Mat4f result4 = new Mat4f();
+	private Vec4f u4 = new Vec4f();
+	private Vec4f v4 = new Vec4f();
+	private Vec4f result = new Vec4f();
+
+	@Setup
+	public void setup() throws Exception
+	{
+		a = FloatMatrix.matrix(
+			2, 0, 1, 3,
+			1, 4, 0, 1,
+			0, 1, 5, 2,
+			1, 0, 2, 6);
+		b = FloatMatrix.matrix(
+			1, 2, 0, 1,
+			0, 1, 3, 0,
+			4, 0, 1, 2,
+			0, 3, 0, 1);
+		u = FloatMatrix.vector(1, 2, 3, 0);
+		v = FloatMatrix.vector(4, 5, 6, 0);
+		a4.set(a);
+		b4.set(b);
+		u4.set(u);
+		v4.set(v);
+	}
+
+	@Benchmark
+	public IFloatMatrix product() throws Exception
+	{
+		return a.product(b);
+	}
+
+	@Benchmark
+	public Mat4f mat4fMul()
+	{
+		return Mat4f.mul(a4, b4, result4);
+	}
+
+	@Benchmark
+	public IFloatMatrix invert() throws Exception
+	{
+		return a.invert();
+	}
+
+	@Benchmark
+	public float determinant() throws Exception
+	{
+		return a.determinant();
+	}
+
+	@Benchmark
+	public float mat4fDeterminant()
+	{
+		return a4.determinant();
+	}
+
+	@Benchmark
+	public IFloatMatrix cross() throws Exception
+	{
+		return u.cross(v);
+	}
+
+	@Benchmark
+	public Vec4f vec4fCross()
+	{
+		return Vec4f.cross(u4, v4, result);
+	}
+
+	@Benchmark
+	public float dot() throws Exception
+	{
+		return u.dot(v);
+	}
+
+	@Benchmark
+	public float vec4fDot()
+	{
+		return u4.dot(v4);
+	}
+}
@@ -0,0 +1,85 @@
+package orion.sdk.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the {@link FloatQuaternion} and {@link FloatTransformation} operations used per entity and
+ * per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BenchmarkFloatQuaternion
+{
+	private FloatQuaternion a;
+	private FloatQuaternion b;
+	private FloatQuaternion result = new FloatQuaternion();
+	private FloatTransformation transformation = new FloatTransformation();
+	private Mat4f matrix = new Mat4f();
+
+	@Setup
+	public void setup()
+	{
+		a = FloatQuaternion.rotation(1, 0, 0, 0.3f);
+		b = FloatQuaternion.rotation(0, 1, 1, 1.1f);
+		transformation.setPosition(1, 2, 3);
+		transformation.setScale(2, 2, 2);
+		transformation.setRotation(b);
+	}
+
+	@Benchmark
+	public FloatQuaternion product()
+	{
+		return FloatQuaternion.product(a, b);
+	}
+
+	@Benchmark
+	public FloatQuaternion mul()
+	{
+		return FloatQuaternion.mul(a, b, result);
+	}
+
+	@Benchmark
+	public IFloatMatrix getMatrix()
+	{
+		return a.getMatrix();
+	}
+
+	@Benchmark
+	public Mat4f getMatrixInto()
+	{
+		return a.getMatrix(matrix);
+	}
+
+	@Benchmark
+	public FloatQuaternion interpolate()
+	{
+		return FloatQuaternion.interpolate(a, b, 0.25f);
+	}
+
+	@Benchmark
+	public FloatQuaternion interpolateInto()
+	{
+		return FloatQuaternion.interpolate(a, b, 0.25f, result);
+	}
+
+	@Benchmark
+	public IFloatMatrix transformationGetMatrix() throws Exception
+	{
+		return transformation.getMatrix();
+	}
+
+	@Benchmark
+	public Mat4f transformationGetMatrixInto()
+	{
+		return transformation.getMatrix(matrix);
+	}
+}
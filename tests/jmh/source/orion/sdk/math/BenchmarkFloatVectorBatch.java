@@ -0,0 +1,84 @@
+package orion.sdk.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares batch transforms and distances over a {@link FloatVectorBatch} with one {@link Vec4f} at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkFloatVectorBatch
+{
+	@Param({ "1024", "65536" })
+	public int size;
+
+	private FloatVectorBatch batch;
+	private FloatVectorBatch result;
+	private Vec4f[] vectors;
+	private Vec4f[] results;
+	private float[] distances;
+	private Mat4f m = new Mat4f().setTranslation(1, 2, 3).scale(2, 3, 4);
+	private Vec4f origin = new Vec4f(0, 0, 5, 1);
+	private Vec4f direction = new Vec4f(0, 0, 1, 0);
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+		batch = new FloatVectorBatch(size).setSize(size);
+		result = new FloatVectorBatch(size);
+		vectors = new Vec4f[size];
+		results = new Vec4f[size];
+		distances = new float[size];
+		for (int i = 0; i < size; i++)
+		{
+			vectors[i] = new Vec4f(random.nextFloat(), random.nextFloat(), random.nextFloat(), 1);
+			results[i] = new Vec4f();
+			batch.set(i, vectors[i]);
+		}
+	}
+
+	@Benchmark
+	public FloatVectorBatch transformBatch()
+	{
+		return FloatVectorBatch.transform(m, batch, result);
+	}
+
+	@Benchmark
+	public Vec4f[] transformVec4f()
+	{
+		for (int i = 0; i < size; i++)
+		{
+			Mat4f.transform(m, vectors[i], results[i]);
+		}
+		return results;
+	}
+
+	@Benchmark
+	public float[] distanceAlongBatch()
+	{
+		return batch.distanceAlong(origin, direction, distances);
+	}
+
+	@Benchmark
+	public float[] distanceAlongVec4f()
+	{
+		Vec4f difference = new Vec4f();
+		for (int i = 0; i < size; i++)
+		{
+			distances[i] = Vec4f.subtract(vectors[i], origin, difference).dot3(direction);
+		}
+		return distances;
+	}
+}
@@ -0,0 +1,105 @@
+package orion.sdk.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the Gaussian elimination inverse against the closed form 4x4, affine and normal matrix
+ * kernels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BenchmarkInvert
+{
+	private FloatMatrix general;
+	private FloatMatrix affine;
+	private FloatMatrix augmented;
+	private Mat4f general4 = new Mat4f();
+	private Mat4f affine4 = new Mat4f();
+	private Mat4f result4 = new Mat4f();
+	private Mat3f result3 = new Mat3f();
+
+	@Setup
+	public void setup() throws Exception
+	{
+		general = FloatMatrix.matrix(
+			2, 0, 1, 3,
+			1, 4, 0, 1,
+			0, 1, 5, 2,
+			1, 0, 2, 6);
+		
+		FloatTransformation transformation = new FloatTransformation();
+		transformation.setPosition(1, 2, 3);
+		transformation.setScale(2, 3, 4);
+		transformation.setRotation(FloatQuaternion.rotation(1, 1, 0, 0.5f));
+		transformation.getMatrix(affine4);
+		affine = affine4.toFloatMatrix();
+		general4.set(general);
+		
+		/*
+		 * [A | I] as used by the Gaussian elimination path of FloatMatrix.invert
+		 */
+		augmented = new FloatMatrix(4, 8);
+		for (int i = 0; i < 4; i++)
+		{
+			for (int j = 0; j < 4; j++)
+			{
+				augmented.set(i, j, general.get(i, j));
+			}
+			augmented.set(i, 4 + i, 1);
+		}
+	}
+
+	@Benchmark
+	public IFloatMatrix gaussianElimination() throws Exception
+	{
+		return augmented.gaussianElimination().subMatrix(0, 4, 4, 4);
+	}
+
+	@Benchmark
+	public IFloatMatrix floatMatrixInvert() throws Exception
+	{
+		return general.invert();
+	}
+
+	@Benchmark
+	public IFloatMatrix floatMatrixInvertAffine() throws Exception
+	{
+		return affine.invert();
+	}
+
+	@Benchmark
+	public Mat4f mat4fInvert()
+	{
+		Mat4f.invert(general4, result4);
+		return result4;
+	}
+
+	@Benchmark
+	public Mat4f mat4fInvertAffine()
+	{
+		Mat4f.invertAffine(affine4, result4);
+		return result4;
+	}
+
+	@Benchmark
+	public IFloatMatrix floatMatrixNormal() throws Exception
+	{
+		return affine.invert().transpose().subMatrix(0, 0, 3, 3);
+	}
+
+	@Benchmark
+	public Mat3f mat3fNormal()
+	{
+		Mat3f.normal(affine4, result3);
+		return result3;
+	}
+}
@@ -0,0 +1,103 @@
+package orion.sdk.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares solving with a reused {@link LUDecomposition} against the Gauss-Jordan inverse and the
+ * cofactor expansion it replaces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BenchmarkLUDecomposition
+{
+	@Param({ "4", "6", "8" })
+	public int size;
+
+	private FloatMatrix a;
+	private LUDecomposition lu;
+	private IFloatMatrix bMatrix;
+	private FloatMatrix augmented;
+	private float[] b;
+	private float[] x;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		a = new FloatMatrix(size, size);
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++)
+			{
+				a.set(i, j, i == j ? size + i : (float) Math.sin(i * size + j));
+			}
+		}
+		lu = a.decompose();
+		
+		/*
+		 * [A | I] as used by the Gauss-Jordan inverse
+		 */
+		augmented = new FloatMatrix(size, 2 * size);
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++)
+			{
+				augmented.set(i, j, a.get(i, j));
+			}
+			augmented.set(i, size + i, 1);
+		}
+		b = new float[size];
+		x = new float[size];
+		bMatrix = new FloatMatrix(size, 1);
+		for (int i = 0; i < size; i++)
+		{
+			b[i] = i + 1;
+			bMatrix.set(i, 0, i + 1);
+		}
+	}
+
+	@Benchmark
+	public LUDecomposition decompose() throws Exception
+	{
+		return a.decompose();
+	}
+
+	@Benchmark
+	public float[] solveReused() throws Exception
+	{
+		return lu.solve(b, x);
+	}
+
+	@Benchmark
+	public IFloatMatrix solveGaussJordan() throws Exception
+	{
+		return augmented.gaussianElimination().subMatrix(0, size, size, size).product(bMatrix);
+	}
+
+	@Benchmark
+	public float determinantLU() throws Exception
+	{
+		return lu.determinant();
+	}
+
+	@Benchmark
+	public float determinantCofactor() throws Exception
+	{
+		float det = 0;
+		for (int column = 0; column < size; column++)
+		{
+			IFloatMatrix minor = a.removeRow(0).removeColumn(column);
+			det += (column % 2 == 0 ? 1 : -1) * a.get(0, column) * minor.determinant();
+		}
+		return det;
+	}
+}
@@ -0,0 +1,38 @@
+package orion.sdk.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the ray and triangle intersection used by mesh picking.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BenchmarkMathUtils
+{
+	private IFloatMatrix origin = FloatMatrix.vector(0.2f, 0.2f, 1);
+	private IFloatMatrix hitDirection = FloatMatrix.vector(0, 0, -1);
+	private IFloatMatrix missDirection = FloatMatrix.vector(0, 0, 1);
+	private IFloatMatrix v0 = FloatMatrix.vector(0, 0, 0);
+	private IFloatMatrix v1 = FloatMatrix.vector(1, 0, 0);
+	private IFloatMatrix v2 = FloatMatrix.vector(0, 1, 0);
+
+	@Benchmark
+	public IFloatMatrix lineTriangleIntersectHit() throws Exception
+	{
+		return MathUtils.lineTriangleIntersect(origin, hitDirection, v0, v1, v2);
+	}
+
+	@Benchmark
+	public IFloatMatrix lineTriangleIntersectMiss() throws Exception
+	{
+		return MathUtils.lineTriangleIntersect(origin, missDirection, v0, v1, v2);
+	}
+}
@@ -0,0 +1,97 @@
+package orion.sdk.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import orion.sdk.math.generic.GenericDouble;
+import orion.sdk.math.generic.GenericMatrix;
+import orion.sdk.math.generic.GenericMatrixFactory;
+
+/**
+ * Shows the crossover points of the naive, tiled and parallel square matrix products. The strategy is
+ * forced through the thresholds of {@link MatrixProduct}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkMatrixProduct
+{
+	@Param({ "16", "64", "128", "256", "512" })
+	public int size;
+
+	@Param({ "naive", "blocked", "parallel" })
+	public String strategy;
+
+	private FloatMatrix a;
+	private FloatMatrix b;
+	private GenericMatrix<GenericDouble> aDouble;
+	private GenericMatrix<GenericDouble> bDouble;
+	private long parallelThreshold;
+	private long blockingThreshold;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		parallelThreshold = MatrixProduct.PARALLEL_THRESHOLD;
+		blockingThreshold = MatrixProduct.BLOCKING_THRESHOLD;
+
+		if (strategy.equals("naive"))
+		{
+			MatrixProduct.PARALLEL_THRESHOLD = Long.MAX_VALUE;
+			MatrixProduct.BLOCKING_THRESHOLD = Long.MAX_VALUE;
+		}
+		else if (strategy.equals("blocked"))
+		{
+			MatrixProduct.PARALLEL_THRESHOLD = Long.MAX_VALUE;
+			MatrixProduct.BLOCKING_THRESHOLD = 0;
+		}
+		else
+		{
+			MatrixProduct.PARALLEL_THRESHOLD = 0;
+			MatrixProduct.BLOCKING_THRESHOLD = 0;
+		}
+
+		a = new FloatMatrix(size, size);
+		b = new FloatMatrix(size, size);
+		double[] entries = new double[size * size];
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++)
+			{
+				a.set(i, j, (float) Math.sin(i * size + j));
+				b.set(i, j, (float) Math.cos(i * size + j));
+				entries[i * size + j] = Math.sin(i * size + j);
+			}
+		}
+		aDouble = GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, size, size, entries);
+		bDouble = aDouble.transpose();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		MatrixProduct.PARALLEL_THRESHOLD = parallelThreshold;
+		MatrixProduct.BLOCKING_THRESHOLD = blockingThreshold;
+	}
+
+	@Benchmark
+	public IFloatMatrix productFloat() throws Exception
+	{
+		return a.product(b);
+	}
+
+	@Benchmark
+	public GenericMatrix<GenericDouble> productDouble() throws Exception
+	{
+		return aDouble.product(bDouble);
+	}
+}
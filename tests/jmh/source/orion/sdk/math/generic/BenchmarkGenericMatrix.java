@@ -0,0 +1,89 @@
+package orion.sdk.math.generic;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@code GenericMatrix<GenericFloat>} against {@code GenericMatrix<GenericBigDecimal>} and
+ * the primitive array specializations picked by {@link GenericMatrixFactory}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class BenchmarkGenericMatrix
+{
+	@Param({ "float", "bigdecimal", "double", "fixed" })
+	public String primitive;
+
+	private GenericMatrix a;
+	private GenericMatrix b;
+	private GenericMatrix u;
+	private GenericMatrix v;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		IGenericPrimitiveFactory factory = 
+			"float".equals(primitive) ? GenericMatrixFactory.FLOAT_FACTORY :
+			"double".equals(primitive) ? GenericMatrixFactory.DOUBLE_FACTORY :
+			"fixed".equals(primitive) ? GenericMatrixFactory.FIXED_FACTORY :
+			GenericMatrixFactory.BIG_DECIMAL_FACTORY;
+		
+		a = matrix(factory, 4, 4,
+			2, 0, 1, 3,
+			1, 4, 0, 1,
+			0, 1, 5, 2,
+			1, 0, 2, 6);
+		b = matrix(factory, 4, 4,
+			1, 2, 0, 1,
+			0, 1, 3, 0,
+			4, 0, 1, 2,
+			0, 3, 0, 1);
+		u = matrix(factory, 3, 1, 1, 2, 3);
+		v = matrix(factory, 3, 1, 4, 5, 6);
+	}
+
+	private static GenericMatrix matrix(IGenericPrimitiveFactory factory, int rows, int columns, double... values) throws Exception
+	{
+		return GenericMatrixFactory.create(factory, rows, columns, values);
+	}
+
+	@Benchmark
+	public GenericMatrix product() throws Exception
+	{
+		return a.product(b);
+	}
+
+	@Benchmark
+	public GenericMatrix invert() throws Exception
+	{
+		return a.invert();
+	}
+
+	@Benchmark
+	public IGenericPrimitive determinant() throws Exception
+	{
+		return a.determinant();
+	}
+
+	@Benchmark
+	public GenericMatrix cross() throws Exception
+	{
+		return u.cross(v);
+	}
+
+	@Benchmark
+	public IGenericPrimitive dot() throws Exception
+	{
+		return u.dot(v);
+	}
+}
@@ -0,0 +1,110 @@
+package orion.sdk.math.geometry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+
+/**
+ * Measures culling a frame worth of boxes against a view frustum, compared to projecting the corners of
+ * every {@link Box} into clip space.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkFrustum
+{
+	@Param({ "1000", "100000" })
+	public int boxCount;
+
+	private Mat4f viewProjection;
+	private Frustum frustum;
+	private AABB[] boxes;
+	private Box[] legacyBoxes;
+	private boolean[] visible;
+	private int[] classes;
+	private Vec4f corner = new Vec4f();
+
+	@Setup
+	public void setup()
+	{
+		Mat4f projection = new Mat4f().setPerspective(60, 1.5f, 1, 500);
+		Mat4f view = new Mat4f().setLookAt(new Vec4f(0, 10, 50, 1), new Vec4f(0, 0, 0, 1), new Vec4f(0, 1, 0, 0));
+		viewProjection = Mat4f.mul(projection, view, new Mat4f());
+		frustum = new Frustum(viewProjection);
+
+		Random random = new Random(42);
+		boxes = new AABB[boxCount];
+		legacyBoxes = new Box[boxCount];
+		for (int i = 0; i < boxCount; i++)
+		{
+			float x = random.nextFloat() * 1000 - 500, y = random.nextFloat() * 100 - 50, z = random.nextFloat() * 1000 - 500;
+			legacyBoxes[i] = new Box(x, y, z, 1 + random.nextFloat() * 4, 1 + random.nextFloat() * 4, 1 + random.nextFloat() * 4);
+			boxes[i] = legacyBoxes[i].getAABB(new AABB());
+		}
+		visible = new boolean[boxCount];
+		classes = new int[boxCount];
+	}
+
+	@Benchmark
+	public int intersects()
+	{
+		return frustum.intersects(boxes, boxCount, visible);
+	}
+
+	@Benchmark
+	public int classify()
+	{
+		return frustum.classify(boxes, boxCount, classes);
+	}
+
+	@Benchmark
+	public int extractAndIntersect()
+	{
+		return frustum.set(viewProjection).intersects(boxes, boxCount, visible);
+	}
+
+	@Benchmark
+	public int clipCorners()
+	{
+		int result = 0;
+		for (int i = 0; i < boxCount; i++)
+		{
+			Box box = legacyBoxes[i];
+			int[] outside = new int[6];
+			for (int c = 0; c < 8; c++)
+			{
+				corner.set(
+					(c & 1) == 0 ? box.getLeft() : box.getRight(),
+					(c & 2) == 0 ? box.getBottom() : box.getTop(),
+					(c & 4) == 0 ? box.getBack() : box.getFront(),
+					1);
+				Mat4f.transform(viewProjection, corner, corner);
+				if (corner.x < -corner.w) outside[0]++;
+				if (corner.x > corner.w) outside[1]++;
+				if (corner.y < -corner.w) outside[2]++;
+				if (corner.y > corner.w) outside[3]++;
+				if (corner.z < -corner.w) outside[4]++;
+				if (corner.z > corner.w) outside[5]++;
+			}
+			boolean v = true;
+			for (int p = 0; p < 6; p++)
+			{
+				v &= outside[p] < 8;
+			}
+			visible[i] = v;
+			result += v ? 1 : 0;
+		}
+		return result;
+	}
+}
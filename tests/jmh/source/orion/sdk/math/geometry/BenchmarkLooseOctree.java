@@ -0,0 +1,114 @@
+package orion.sdk.math.geometry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+
+/**
+ * Measures frustum and range queries against testing every box, and moving a fraction of the items per
+ * frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkLooseOctree
+{
+	@Param({ "100000", "1000000" })
+	public int itemCount;
+
+	private AABB[] boxes;
+	private LooseOctree<AABB> octree;
+	private int[] handles;
+	private int[] result;
+	private boolean[] visible;
+	private Frustum frustum;
+	private AABB range = new AABB(-50, -50, -50, 50, 50, 50);
+	private AABB moved = new AABB();
+	private Random random = new Random(7);
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+		boxes = new AABB[itemCount];
+		for (int i = 0; i < itemCount; i++)
+		{
+			float x = random.nextFloat() * 2000 - 1000, y = random.nextFloat() * 200 - 100, z = random.nextFloat() * 2000 - 1000;
+			float size = 0.5f + random.nextFloat() * 4;
+			boxes[i] = new AABB(x, y, z, x + size, y + size, z + size);
+		}
+
+		octree = new LooseOctree<AABB>(new AABB(-1000, -1000, -1000, 1000, 1000, 1000), 8);
+		handles = octree.insert(boxes, boxes, itemCount, new int[itemCount]);
+		result = new int[itemCount];
+		visible = new boolean[itemCount];
+
+		Mat4f projection = new Mat4f().setPerspective(60, 1.5f, 1, 500);
+		Mat4f view = new Mat4f().setLookAt(new Vec4f(0, 10, 50, 1), new Vec4f(0, 0, 0, 1), new Vec4f(0, 1, 0, 0));
+		frustum = new Frustum(Mat4f.mul(projection, view, new Mat4f()));
+	}
+
+	@Benchmark
+	public int frustumOctree()
+	{
+		return octree.query(frustum, result);
+	}
+
+	@Benchmark
+	public int frustumBruteForce()
+	{
+		return frustum.intersects(boxes, itemCount, visible);
+	}
+
+	@Benchmark
+	public int rangeOctree()
+	{
+		return octree.query(range, result);
+	}
+
+	@Benchmark
+	public int rangeBruteForce()
+	{
+		int count = 0;
+		for (int i = 0; i < itemCount; i++)
+		{
+			if (range.intersects(boxes[i]))
+			{
+				result[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Moves one percent of the items by a small random offset.
+	 */
+	@Benchmark
+	public int update()
+	{
+		int count = 0;
+		for (int n = itemCount / 100; n > 0; n--)
+		{
+			int i = random.nextInt(itemCount);
+			AABB box = boxes[i];
+			float dx = random.nextFloat() - 0.5f, dz = random.nextFloat() - 0.5f;
+			box.set(box.minX + dx, box.minY, box.minZ + dz, box.maxX + dx, box.maxY, box.maxZ + dz);
+			if (octree.update(handles[i], box))
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+}
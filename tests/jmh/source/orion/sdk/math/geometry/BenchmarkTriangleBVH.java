@@ -0,0 +1,115 @@
+package orion.sdk.math.geometry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.IFloatMatrix;
+import orion.sdk.math.MathUtils;
+
+/**
+ * Compares picking a batch of rays against brute force intersection of every triangle, and measures
+ * building and refitting the hierarchy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkTriangleBVH
+{
+	@Param({ "1000", "100000" })
+	public int triangleCount;
+
+	private static final int RAY_COUNT = 64;
+
+	private float[] vertices;
+	private int[] triangles;
+	private TriangleBVH bvh;
+	private float[] origins = new float[3 * RAY_COUNT];
+	private float[] directions = new float[3 * RAY_COUNT];
+	private float[] distances = new float[RAY_COUNT];
+	private int[] hits = new int[RAY_COUNT];
+	private IFloatMatrix[] triangleVertices;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+		vertices = new float[9 * triangleCount];
+		triangles = new int[3 * triangleCount];
+		triangleVertices = new IFloatMatrix[3 * triangleCount];
+		for (int i = 0; i < triangleCount; i++)
+		{
+			float x = random.nextFloat() * 20 - 10, y = random.nextFloat() * 20 - 10, z = random.nextFloat() * 20 - 10;
+			for (int j = 0; j < 3; j++)
+			{
+				int v = 3 * i + j;
+				vertices[3 * v] = x + random.nextFloat() - 0.5f;
+				vertices[3 * v + 1] = y + random.nextFloat() - 0.5f;
+				vertices[3 * v + 2] = z + random.nextFloat() - 0.5f;
+				triangles[v] = v;
+				triangleVertices[v] = FloatMatrix.vector(vertices[3 * v], vertices[3 * v + 1], vertices[3 * v + 2]);
+			}
+		}
+		for (int i = 0; i < RAY_COUNT; i++)
+		{
+			origins[3 * i] = random.nextFloat() * 20 - 10;
+			origins[3 * i + 1] = random.nextFloat() * 20 - 10;
+			origins[3 * i + 2] = -20;
+			directions[3 * i + 2] = 1;
+		}
+		bvh = new TriangleBVH(vertices, triangles);
+	}
+
+	@Benchmark
+	public TriangleBVH build()
+	{
+		return new TriangleBVH(vertices, triangles);
+	}
+
+	@Benchmark
+	public TriangleBVH refit()
+	{
+		bvh.refit(vertices);
+		return bvh;
+	}
+
+	@Benchmark
+	public int closestHit()
+	{
+		return bvh.intersect(origins, directions, RAY_COUNT, Float.MAX_VALUE, false, distances, hits);
+	}
+
+	@Benchmark
+	public int anyHit()
+	{
+		return bvh.intersect(origins, directions, RAY_COUNT, Float.MAX_VALUE, true, distances, hits);
+	}
+
+	@Benchmark
+	public int bruteForce() throws Exception
+	{
+		int hitCount = 0;
+		IFloatMatrix direction = FloatMatrix.vector(0, 0, 1);
+		for (int i = 0; i < RAY_COUNT; i++)
+		{
+			IFloatMatrix origin = FloatMatrix.vector(origins[3 * i], origins[3 * i + 1], origins[3 * i + 2]);
+			for (int t = 0; t < triangleCount; t++)
+			{
+				if (MathUtils.lineTriangleIntersect(origin, direction, triangleVertices[3 * t], triangleVertices[3 * t + 1], triangleVertices[3 * t + 2]) != null)
+				{
+					hitCount++;
+				}
+			}
+		}
+		return hitCount;
+	}
+}
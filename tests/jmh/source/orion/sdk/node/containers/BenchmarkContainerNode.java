@@ -0,0 +1,131 @@
+package orion.sdk.node.containers;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import orion.sdk.node.Node;
+import orion.sdk.node.drawables.LightNode;
+
+/**
+ * Measures a game loop updating and changing the children of a container while a graphics loop iterates
+ * over them, once with published snapshots and once with a list locked by both loops.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkContainerNode
+{
+	@Param({ "1000", "10000" })
+	public int childCount;
+
+	private ContainerNode container;
+	private List<Node> lockedChildren;
+	private Node extra = new LightNode("extra");
+	private boolean added = false;
+
+	@Setup
+	public void setup()
+	{
+		container = new ContainerNode("container");
+		lockedChildren = new LinkedList<Node>();
+		for (int i = 0; i < childCount; i++)
+		{
+			LightNode light = new LightNode("light" + i);
+			container.addChild(light);
+			lockedChildren.add(light);
+		}
+	}
+
+	/**
+	 * Updates every child and adds or removes one.
+	 */
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(1)
+	public void snapshotUpdate() throws Exception
+	{
+		container.update(0.01f);
+		if (added)
+		{
+			container.removeChild(extra.name);
+		}
+		else
+		{
+			container.addChild(extra);
+		}
+		added = !added;
+	}
+
+	/**
+	 * Visits every child like drawing does.
+	 */
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(1)
+	public int snapshotDraw()
+	{
+		int visible = 0;
+		for (Node child : container.publishChildren())
+		{
+			if (((LightNode) child).isVisible())
+			{
+				visible++;
+			}
+		}
+		return visible;
+	}
+
+	@Benchmark
+	@Group("locked")
+	@GroupThreads(1)
+	public void lockedUpdate() throws Exception
+	{
+		synchronized (lockedChildren)
+		{
+			for (Node child : lockedChildren)
+			{
+				child.update(0.01f);
+			}
+			if (added)
+			{
+				lockedChildren.remove(extra);
+			}
+			else
+			{
+				lockedChildren.add(extra);
+			}
+			added = !added;
+		}
+	}
+
+	@Benchmark
+	@Group("locked")
+	@GroupThreads(1)
+	public int lockedDraw()
+	{
+		int visible = 0;
+		synchronized (lockedChildren)
+		{
+			for (Node child : lockedChildren)
+			{
+				if (((LightNode) child).isVisible())
+				{
+					visible++;
+				}
+			}
+		}
+		return visible;
+	}
+}
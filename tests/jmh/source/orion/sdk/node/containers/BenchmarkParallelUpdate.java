@@ -0,0 +1,128 @@
+package orion.sdk.node.containers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import orion.sdk.math.FloatTransformation;
+import orion.sdk.math.Mat4f;
+import orion.sdk.node.Node;
+import orion.sdk.util.StructuredBinary;
+
+/**
+ * Measures updating a scene of groups of moving nodes serially and as fork/join tasks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkParallelUpdate
+{
+	@Param({ "10000", "100000" })
+	public int nodeCount;
+
+	private ContainerNode root;
+
+	/**
+	 * Moves its transformation a little per update and rebuilds its matrix.
+	 */
+	private static class MovingNode extends Node
+	{
+		private final FloatTransformation transformation = new FloatTransformation();
+		private final Mat4f matrix = new Mat4f();
+		private float x = 0;
+
+		private MovingNode(String name)
+		{
+			super(name);
+		}
+
+		@Override
+		public boolean isParallelUpdateSafe()
+		{
+			return true;
+		}
+
+		@Override
+		public void update(float dt) throws Exception
+		{
+			x += dt;
+			transformation.setPosition(x, 0, x);
+			transformation.getMatrix(matrix);
+		}
+
+		@Override
+		public float getUpdatePeriod()
+		{
+			return 0;
+		}
+
+		@Override
+		public boolean shouldUpdate()
+		{
+			return true;
+		}
+
+		@Override
+		public void read(StructuredBinary binary) throws Exception
+		{
+		}
+
+		@Override
+		public StructuredBinary write() throws Exception
+		{
+			return null;
+		}
+
+		@Override
+		public String getName()
+		{
+			return name;
+		}
+	}
+
+	@Setup
+	public void setup()
+	{
+		root = new ContainerNode("root");
+		for (int g = 0; g < 16; g++)
+		{
+			ContainerNode group = new ContainerNode("group" + g);
+			for (int i = 0; i < nodeCount / 16; i++)
+			{
+				group.addChild(new MovingNode("node" + i));
+			}
+			root.addChild(group);
+		}
+		root.publishChildren();
+	}
+
+	private void setParallel(boolean parallel)
+	{
+		for (Node group : root.publishChildren())
+		{
+			((ContainerNode) group).parallelUpdate = parallel;
+		}
+		root.parallelUpdate = parallel;
+	}
+
+	@Benchmark
+	public void serial() throws Exception
+	{
+		setParallel(false);
+		root.update(0.01f);
+	}
+
+	@Benchmark
+	public void parallel() throws Exception
+	{
+		setParallel(true);
+		root.update(0.01f);
+	}
+}
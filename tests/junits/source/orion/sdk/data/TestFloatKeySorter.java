@@ -0,0 +1,128 @@
+package orion.sdk.data;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFloatKeySorter
+{
+	private static void assertSorted(float[] keys, int[] permutation, int count)
+	{
+		boolean[] seen = new boolean[count];
+		for (int i = 0; i < count; i++)
+		{
+			Assert.assertFalse(seen[permutation[i]]);
+			seen[permutation[i]] = true;
+			if (i > 0)
+			{
+				float a = keys[permutation[i - 1]], b = keys[permutation[i]];
+				Assert.assertTrue(a + " before " + b, a <= b || Float.isNaN(b) || (a == 0 && b == 0));
+				if (a == b)
+				{
+					Assert.assertTrue("stable", permutation[i - 1] < permutation[i]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void test_random()
+	{
+		Random random = new Random(3);
+		FloatKeySorter sorter = new FloatKeySorter();
+		int count = 10000;
+		float[] keys = new float[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = (random.nextFloat() - 0.5f) * (float) Math.pow(10, random.nextInt(10) - 5);
+		}
+		keys[5] = Float.NEGATIVE_INFINITY;
+		keys[6] = Float.POSITIVE_INFINITY;
+		keys[7] = -0f;
+		keys[8] = 0f;
+
+		int[] permutation = FloatKeySorter.identity(new int[count], count);
+		sorter.sort(keys, permutation, count);
+		Assert.assertTrue(sorter.wasRadixUsed());
+		assertSorted(keys, permutation, count);
+		Assert.assertEquals(5, permutation[0]);
+		Assert.assertEquals(6, permutation[count - 1]);
+	}
+
+	@Test
+	public void test_duplicates()
+	{
+		Random random = new Random(5);
+		FloatKeySorter sorter = new FloatKeySorter();
+		int count = 5000;
+		float[] keys = new float[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = random.nextInt(20) - 10;
+		}
+
+		int[] permutation = FloatKeySorter.identity(new int[count], count);
+		sorter.sort(keys, permutation, count);
+		assertSorted(keys, permutation, count);
+	}
+
+	@Test
+	public void test_coherent()
+	{
+		Random random = new Random(7);
+		FloatKeySorter sorter = new FloatKeySorter();
+		int count = 10000;
+		float[] keys = new float[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = i;
+		}
+
+		/*
+		 * Moving every key a little leaves it close to its sorted position
+		 */
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] += random.nextFloat() * 2;
+		}
+
+		int[] permutation = FloatKeySorter.identity(new int[count], count);
+		sorter.sort(keys, permutation, count);
+		Assert.assertFalse(sorter.wasRadixUsed());
+		assertSorted(keys, permutation, count);
+
+		/*
+		 * Reversed keys exceed the insertion budget
+		 */
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = -i;
+		}
+		sorter.sort(keys, FloatKeySorter.identity(permutation, count), count);
+		Assert.assertTrue(sorter.wasRadixUsed());
+		assertSorted(keys, permutation, count);
+	}
+
+	@Test
+	public void test_nan()
+	{
+		FloatKeySorter sorter = new FloatKeySorter();
+		float[] keys = { Float.NaN, 2, -1, Float.NaN, -3 };
+		int[] permutation = FloatKeySorter.identity(new int[keys.length], keys.length);
+		sorter.sort(keys, permutation, keys.length);
+		Assert.assertArrayEquals(new int[] { 4, 2, 1, 0, 3 }, permutation);
+
+		FloatKeySorter.INSERTION_BUDGET = 0;
+		try
+		{
+			sorter.sort(keys, FloatKeySorter.identity(permutation, keys.length), keys.length);
+			Assert.assertTrue(sorter.wasRadixUsed());
+			Assert.assertArrayEquals(new int[] { 4, 2, 1, 0, 3 }, permutation);
+		}
+		finally
+		{
+			FloatKeySorter.INSERTION_BUDGET = 4;
+		}
+	}
+}
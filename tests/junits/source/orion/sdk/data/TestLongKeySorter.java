@@ -0,0 +1,60 @@
+package orion.sdk.data;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLongKeySorter
+{
+	@Test
+	public void test_random()
+	{
+		Random random = new Random(11);
+		LongKeySorter sorter = new LongKeySorter();
+		int count = 20000;
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = random.nextLong();
+		}
+		keys[3] = -1;
+		keys[4] = 0;
+
+		int[] permutation = FloatKeySorter.identity(new int[count], count);
+		sorter.sort(keys, permutation, count);
+		Assert.assertEquals(8, sorter.getPassCount());
+		Assert.assertEquals(4, permutation[0]);
+		Assert.assertEquals(3, permutation[count - 1]);
+		for (int i = 1; i < count; i++)
+		{
+			Assert.assertTrue(Long.compareUnsigned(keys[permutation[i - 1]], keys[permutation[i]]) <= 0);
+		}
+	}
+
+	@Test
+	public void test_stable()
+	{
+		Random random = new Random(13);
+		LongKeySorter sorter = new LongKeySorter();
+		int count = 5000;
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = (long) random.nextInt(8) << 40;
+		}
+
+		int[] permutation = FloatKeySorter.identity(new int[count], count);
+		sorter.sort(keys, permutation, count);
+
+		/*
+		 * Only the one digit which differs is sorted
+		 */
+		Assert.assertEquals(1, sorter.getPassCount());
+		for (int i = 1; i < count; i++)
+		{
+			long a = keys[permutation[i - 1]], b = keys[permutation[i]];
+			Assert.assertTrue(a < b || (a == b && permutation[i - 1] < permutation[i]));
+		}
+	}
+}
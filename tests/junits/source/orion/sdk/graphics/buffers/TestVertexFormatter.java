@@ -0,0 +1,137 @@
+package orion.sdk.graphics.buffers;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.graphics.drawables.surfaces.Mesh;
+import orion.sdk.graphics.shading.glsl.GenericShader;
+import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.geometry.Box;
+
+public class TestVertexFormatter
+{
+	private static FloatBuffer format(VertexFormatter formatter, int vertexCount)
+	{
+		ByteBuffer buffer = ByteBuffer.allocateDirect(vertexCount * formatter.getBytesPerVertex());
+		formatter.formatVertices(buffer);
+		return buffer.order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+
+	private static Mesh createTriangle()
+	{
+		Mesh mesh = new Mesh(1, Mesh.FaceType.TRIANGLE, new Box(1, 1, 1));
+		mesh.setVertex(0, FloatMatrix.vector(0, 0, 0, 1), FloatMatrix.vector(0, 0, 1), FloatMatrix.vector(0, 0), FloatMatrix.vector(1, 0, 0, 1));
+		mesh.setVertex(1, FloatMatrix.vector(1, 0, 0, 1), FloatMatrix.vector(0, 1, 0), FloatMatrix.vector(1, 0), FloatMatrix.vector(0, 1, 0, 1));
+		mesh.setVertex(2, FloatMatrix.vector(0, 1, 0, 1), null, null, null);
+		mesh.setFace(0, 2, 0, 1);
+		return mesh;
+	}
+
+	@Test
+	public void test_interleaved_by_indexes()
+	{
+		Mesh mesh = createTriangle();
+		VertexFormatter formatter = new VertexFormatter("test");
+		mesh.setVertexFormatter(formatter);
+		Assert.assertEquals(4 + 3 + 2 + 4, formatter.getFloatsPerVertex());
+
+		FloatBuffer floats = format(formatter, 3);
+		float[] expected = {
+			0, 1, 0, 1,  0, 0, 0,  0, 0,  0, 0, 0, 0,
+			0, 0, 0, 1,  0, 0, 1,  0, 0,  1, 0, 0, 1,
+			1, 0, 0, 1,  0, 1, 0,  1, 0,  0, 1, 0, 1 };
+		for (int i = 0; i < expected.length; i++)
+		{
+			Assert.assertEquals("float " + i, expected[i], floats.get(i), 0);
+		}
+	}
+
+	@Test
+	public void test_set_vertex_clears_missing_attributes()
+	{
+		Mesh mesh = createTriangle();
+		mesh.setVertex(1, FloatMatrix.vector(2, 2, 2, 1));
+		Assert.assertEquals(Mesh.Attribute.POSITION | Mesh.Attribute.COLOR | Mesh.Attribute.CENTER, mesh.attributes[1]);
+		Assert.assertEquals(0, mesh.normals[Mesh.NORMAL_SIZE + 1], 0);
+		Assert.assertEquals(0, mesh.textures[Mesh.TEXTURE_SIZE + 0], 0);
+		Assert.assertEquals(1, mesh.colors[Mesh.COLOR_SIZE + 0], 0);
+		Assert.assertEquals(2, mesh.positions[Mesh.POSITION_SIZE + 2], 0);
+	}
+
+	@Test
+	public void test_texture_size()
+	{
+		Mesh mesh = new Mesh(1, Mesh.FaceType.TRIANGLE, new Box(1, 1, 1));
+		VertexFormatter formatter = new VertexFormatter("test");
+		mesh.setVertexFormatter(formatter);
+		for (int i = 0; i < 3; i++)
+		{
+			mesh.setPosition(i, i, 0, 0, 1);
+			mesh.setTexture(i, 0, 0, i + 1);
+		}
+		mesh.setFace(0, 0, 1, 2);
+		Assert.assertEquals(2, formatter.getTextureSize());
+
+		mesh.setVertex(0, FloatMatrix.vector(0, 0, 0, 1), null, FloatMatrix.vector(0, 0, 1));
+		Assert.assertEquals(3, formatter.getTextureSize());
+
+		FloatBuffer floats = format(formatter, 3);
+		int textureOffset = formatter.getTextureOffset() / 4;
+		Assert.assertEquals(1, floats.get(textureOffset + 2), 0);
+		Assert.assertEquals(2, floats.get(formatter.getFloatsPerVertex() + textureOffset + 2), 0);
+		Assert.assertEquals(1, floats.get(formatter.getColorOffset() / 4 + 3), 0);
+	}
+
+	@Test
+	public void test_center_offset()
+	{
+		GenericShader.Capabilities capabilities = new GenericShader.Capabilities();
+		capabilities.attribCenter = true;
+		Mesh mesh = createTriangle();
+		mesh.setVertex(0, FloatMatrix.vector(0, 0, 0, 1), null, null, null, FloatMatrix.vector(5, 6, 7, 1));
+		VertexFormatter formatter = new VertexFormatter("test", new GenericShader("test", null, capabilities));
+		mesh.setVertexFormatter(formatter);
+		Assert.assertEquals(4 + 3 + 2 + 4 + 4, formatter.getFloatsPerVertex());
+		Assert.assertEquals((4 + 3 + 2 + 4) * 4, formatter.getCenterOffset());
+
+		FloatBuffer floats = format(formatter, 3);
+		int center = formatter.getFloatsPerVertex() + formatter.getCenterOffset() / 4;
+		Assert.assertEquals(5, floats.get(center), 0);
+		Assert.assertEquals(7, floats.get(center + 2), 0);
+		Assert.assertEquals(1, floats.get(formatter.getCenterOffset() / 4 + 3), 0);
+	}
+
+	@Test
+	public void test_staged_in_chunks()
+	{
+		int stagingVertices = VertexFormatter.stagingVertices;
+		VertexFormatter.stagingVertices = 2;
+		try
+		{
+			Mesh mesh = new Mesh(3, Mesh.FaceType.TRIANGLE, new Box(1, 1, 1));
+			for (int i = 0; i < 9; i++)
+			{
+				mesh.setVertex(i, FloatMatrix.vector(i, 0, 0, 1));
+			}
+			mesh.setFace(0, 0, 1, 2);
+			mesh.setFace(1, 3, 4, 5);
+			mesh.setFace(2, 6, 7, 8);
+			VertexFormatter formatter = new VertexFormatter("test");
+			mesh.setVertexFormatter(formatter);
+
+			FloatBuffer floats = format(formatter, 9);
+			for (int i = 0; i < 9; i++)
+			{
+				Assert.assertEquals(i, floats.get(i * formatter.getFloatsPerVertex()), 0);
+			}
+		}
+		finally
+		{
+			VertexFormatter.stagingVertices = stagingVertices;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package orion.sdk.graphics.scenes;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.graphics.shading.glsl.AShader;
+import orion.sdk.graphics.shading.glsl.GenericShader;
+import orion.sdk.graphics.shading.lighting.Material;
+import orion.sdk.math.Vec4f;
+import orion.sdk.node.drawables.EntityNode;
+
+public class TestRenderQueue
+{
+	private static EntityNode entity(String name, AShader shader, Material material, float z)
+	{
+		EntityNode entity = new EntityNode(name, null, shader, material);
+		entity.getTransformation().setPosition(0, 0, z);
+		return entity;
+	}
+
+	@Test
+	public void test_order()
+	{
+		AShader shaderA = new GenericShader("a", null, new GenericShader.Capabilities());
+		AShader shaderB = new GenericShader("b", null, new GenericShader.Capabilities());
+		Material material = new Material("material");
+
+		RenderQueue queue = new RenderQueue();
+		queue.begin(new Vec4f(0, 0, 0, 1));
+		queue.add(entity("b far", shaderB, material, -30));
+		queue.add(entity("a far", shaderA, material, -20));
+		queue.add(entity("b near", shaderB, material, -5));
+		queue.add(entity("a near", shaderA, material, -10));
+
+		EntityNode farGlass = entity("glass far", shaderA, material, -40);
+		farGlass.setEnableAlphaBlending(true);
+		EntityNode nearGlass = entity("glass near", shaderB, material, -2);
+		nearGlass.setEnableAlphaBlending(true);
+		queue.add(nearGlass);
+		queue.add(farGlass);
+
+		/*
+		 * Opaque items are grouped by shader in order of first use and front to back, transparent items
+		 * follow back to front
+		 */
+		String[] expected = { "b near", "b far", "a near", "a far", "glass far", "glass near" };
+		Assert.assertEquals(expected.length, queue.size());
+		for (int i = 0; i < expected.length; i++)
+		{
+			Assert.assertEquals(expected[i], queue.get(i).getName());
+		}
+		Assert.assertEquals(2, queue.countStateChanges());
+	}
+
+	@Test
+	public void test_stateChanges()
+	{
+		Random random = new Random(5);
+		AShader[] shaders = new AShader[4];
+		Material[] materials = new Material[16];
+		for (int i = 0; i < shaders.length; i++)
+		{
+			shaders[i] = new GenericShader("shader" + i, null, new GenericShader.Capabilities());
+		}
+		for (int i = 0; i < materials.length; i++)
+		{
+			materials[i] = new Material("material" + i);
+		}
+
+		RenderQueue queue = new RenderQueue();
+		queue.begin(new Vec4f(0, 0, 0, 1));
+		for (int i = 0; i < 1000; i++)
+		{
+			queue.add(entity("e" + i, shaders[random.nextInt(shaders.length)], materials[random.nextInt(materials.length)], -random.nextFloat() * 100));
+		}
+
+		/*
+		 * At most one change per combination of shader and material remains
+		 */
+		Assert.assertTrue(queue.countStateChanges() < shaders.length * materials.length);
+
+		queue.begin(new Vec4f(0, 0, 0, 1));
+		Assert.assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void test_moreMaterialsThanIds()
+	{
+		AShader shader = new GenericShader("shader", null, new GenericShader.Capabilities());
+		Material[] materials = new Material[5000];
+		for (int i = 0; i < materials.length; i++)
+		{
+			materials[i] = new Material("material" + i);
+		}
+
+		RenderQueue queue = new RenderQueue();
+		for (int frame = 0; frame < 2; frame++)
+		{
+			queue.begin(new Vec4f(0, 0, 0, 1));
+			EntityNode glass = entity("glass", shader, materials[0], -1);
+			glass.setEnableAlphaBlending(true);
+			queue.add(glass);
+			for (int pass = 0; pass < 2; pass++)
+			{
+				for (int i = 0; i < materials.length; i++)
+				{
+					queue.add(entity("e" + i, shader, materials[i], -i - pass * 0.5f));
+				}
+			}
+
+			/*
+			 * Materials past the last id share it, but stay grouped by depth and opaque items stay in front of
+			 * transparent ones
+			 */
+			Assert.assertEquals(2 * materials.length + 1, queue.size());
+			Assert.assertEquals("glass", queue.get(queue.size() - 1).getName());
+			for (int i = 0; i < 2 * materials.length; i += 2)
+			{
+				Assert.assertEquals(queue.get(i).getName(), queue.get(i + 1).getName());
+			}
+			Assert.assertEquals(materials.length, queue.countStateChanges());
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package orion.sdk.graphics.shading.glsl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.graphics.drawables.volumes.VolumeChunk;
+import orion.sdk.graphics.shading.lighting.Light;
+import orion.sdk.math.FloatMatrix;
+
+public class TestGenericShader
+{
+	@Test
+	public void test_pack_lights()
+	{
+		Light[] lights = new Light[GenericShader.MAX_LIGHTS];
+		lights[1] = new Light();
+		lights[1].position = FloatMatrix.vector(1, 2, 3, 1);
+		lights[1].diffuse = FloatMatrix.vector(0.5f, 0.5f, 0.5f, 1);
+
+		float[] data = new float[GenericShader.MAX_LIGHTS * GenericShader.FLOATS_PER_LIGHT];
+		GenericShader.packLights(lights, data);
+
+		int offset = GenericShader.FLOATS_PER_LIGHT;
+		Assert.assertEquals(0, data[12], 0);
+		Assert.assertEquals(1, data[offset + 0], 0);
+		Assert.assertEquals(3, data[offset + 2], 0);
+		Assert.assertEquals(0.5f, data[offset + 4], 0);
+		Assert.assertEquals(0.3f, data[offset + 8], 0);
+		Assert.assertEquals(1, data[offset + 12], 0);
+	}
+
+	@Test
+	public void test_pack_volume_chunks()
+	{
+		VolumeChunk[] volumeChunks = new VolumeChunk[GenericShader.MAX_VOLUME_CHUNKS];
+		volumeChunks[0] = new VolumeChunk();
+		volumeChunks[0].getPositionBounds().set(1, 2, 3, 4, 5, 6);
+		volumeChunks[0].getTextureBounds().set(0, 0, 0, 1, 1, 1);
+
+		float[] data = new float[GenericShader.MAX_VOLUME_CHUNKS * GenericShader.FLOATS_PER_VOLUME_CHUNK];
+		GenericShader.packVolumeChunks(volumeChunks, data);
+
+		Assert.assertEquals(1, data[0], 0);
+		Assert.assertEquals(3, data[2], 0);
+		Assert.assertEquals(5, data[4], 0);
+		Assert.assertEquals(9, data[6], 0);
+		Assert.assertEquals(1, data[12], 0);
+		Assert.assertEquals(1, data[15], 0);
+		Assert.assertEquals(0, data[GenericShader.FLOATS_PER_VOLUME_CHUNK + 15], 0);
+	}
+
+	@Test
+	public void test_uniform_blocks_in_source()
+	{
+		GenericShader.Capabilities capabilities = new GenericShader.Capabilities();
+		capabilities.flagVolume = true;
+		GenericShader shader = new GenericShader("test", null, capabilities);
+		Assert.assertTrue(shader.getFragmentSource().contains("uniform Light lights["));
+		Assert.assertFalse(shader.getFragmentSource().contains("LightBlock"));
+
+		capabilities.flagUniformBuffers = true;
+		String source = shader.getFragmentSource();
+		Assert.assertTrue(source.trim().startsWith("#version 120"));
+		Assert.assertTrue(source.contains("layout(std140) uniform LightBlock"));
+		Assert.assertTrue(source.contains("layout(std140) uniform VolumeChunkBlock"));
+		Assert.assertFalse(source.contains("uniform Light lights["));
+	}
+}
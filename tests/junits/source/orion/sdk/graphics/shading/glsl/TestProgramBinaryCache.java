@@ -0,0 +1,53 @@
+package orion.sdk.graphics.shading.glsl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestProgramBinaryCache
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void test_store_and_load() throws Exception
+	{
+		ProgramBinaryCache cache = new ProgramBinaryCache(new File(folder.getRoot(), "shaders"));
+		cache.store("key", "driver", new ProgramBinaryCache.Binary(7, new byte[] { 1, 2, 3 }, 42));
+
+		ProgramBinaryCache.Binary binary = cache.load("key", "driver");
+		Assert.assertNotNull(binary);
+		Assert.assertEquals(7, binary.format);
+		Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, binary.data);
+		Assert.assertEquals(42, binary.compileTime);
+
+		Assert.assertNull(cache.load("other", "driver"));
+	}
+
+	@Test
+	public void test_other_driver() throws Exception
+	{
+		ProgramBinaryCache cache = new ProgramBinaryCache(folder.getRoot());
+		cache.store("key", "driver 1.0", new ProgramBinaryCache.Binary(7, new byte[] { 1 }, 42));
+
+		Assert.assertNull(cache.load("key", "driver 1.1"));
+		Assert.assertFalse(new File(folder.getRoot(), "key.bin").exists());
+	}
+
+	@Test
+	public void test_corrupt_file() throws Exception
+	{
+		File file = new File(folder.getRoot(), "key.bin");
+		FileOutputStream output = new FileOutputStream(file);
+		output.write(new byte[] { 0, 0, 0, 1, 0 });
+		output.close();
+
+		ProgramBinaryCache cache = new ProgramBinaryCache(folder.getRoot());
+		Assert.assertNull(cache.load("key", "driver"));
+		Assert.assertFalse(file.exists());
+	}
+}
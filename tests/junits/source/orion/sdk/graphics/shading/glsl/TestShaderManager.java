@@ -0,0 +1,58 @@
+package orion.sdk.graphics.shading.glsl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestShaderManager
+{
+	@Test
+	public void test_variant_keys()
+	{
+		GenericShader.Capabilities a = new GenericShader.Capabilities();
+		GenericShader.Capabilities b = new GenericShader.Capabilities();
+		Assert.assertEquals(a.getKey(), b.getKey());
+
+		b.mapDiffuse = true;
+		Assert.assertNotEquals(a.getKey(), b.getKey());
+
+		String key = ShaderManager.getVariantKey("shader", "vertex", "fragment");
+		Assert.assertEquals(64, key.length());
+		Assert.assertEquals(key, ShaderManager.getVariantKey("shader", "vertex", "fragment"));
+		Assert.assertNotEquals(key, ShaderManager.getVariantKey("shader", "vertexfragment", ""));
+		Assert.assertNotEquals(key, ShaderManager.getVariantKey("other", "vertex", "fragment"));
+	}
+
+	@Test
+	public void test_sharing()
+	{
+		String key = ShaderManager.getVariantKey("test_sharing", "vertex", "fragment");
+		Assert.assertNull(ShaderManager.acquireVariant(key));
+
+		ShaderVariant variant = new ShaderVariant(key, 1);
+		ShaderManager.addVariant(variant);
+		Assert.assertSame(variant, ShaderManager.acquireVariant(key));
+		Assert.assertEquals(2, variant.getReferences());
+
+		Assert.assertFalse(ShaderManager.releaseVariant(variant));
+		Assert.assertTrue(ShaderManager.releaseVariant(variant));
+		Assert.assertNull(ShaderManager.acquireVariant(key));
+	}
+
+	@Test
+	public void test_sharing_disabled()
+	{
+		String key = ShaderManager.getVariantKey("test_sharing_disabled", "vertex", "fragment");
+		ShaderManager.shareVariants = false;
+		try
+		{
+			ShaderVariant variant = new ShaderVariant(key, 1);
+			ShaderManager.addVariant(variant);
+			Assert.assertNull(ShaderManager.acquireVariant(key));
+			Assert.assertTrue(ShaderManager.releaseVariant(variant));
+		}
+		finally
+		{
+			ShaderManager.shareVariants = true;
+		}
+	}
+}
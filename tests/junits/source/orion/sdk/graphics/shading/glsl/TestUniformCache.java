@@ -0,0 +1,55 @@
+package orion.sdk.graphics.shading.glsl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestUniformCache
+{
+	@Test
+	public void test_scalars()
+	{
+		UniformCache cache = new UniformCache();
+		cache.reset(4);
+
+		Assert.assertTrue(cache.update(2, 1.0f));
+		Assert.assertFalse(cache.update(2, 1.0f));
+		Assert.assertTrue(cache.update(2, 0.0f));
+		Assert.assertTrue(cache.update(3, 0.0f));
+		Assert.assertFalse(cache.update(-1, 0.0f));
+
+		Assert.assertEquals(3, cache.getUploadedCount());
+		Assert.assertEquals(1, cache.getSkippedCount());
+	}
+
+	@Test
+	public void test_vectors()
+	{
+		UniformCache cache = new UniformCache();
+		cache.reset(1);
+		float[] v = { 1, 2, 3, 4 };
+
+		Assert.assertTrue(cache.update(0, v, 0, 4));
+		Assert.assertFalse(cache.update(0, v, 0, 4));
+
+		v[3] = 5;
+		Assert.assertTrue(cache.update(0, v, 0, 4));
+		Assert.assertFalse(cache.update(0, new float[] { 0, 1, 2, 3, 5 }, 1, 4));
+		Assert.assertTrue(cache.update(0, v, 0, 3));
+	}
+
+	@Test
+	public void test_reset()
+	{
+		UniformCache cache = new UniformCache();
+		cache.reset(1);
+		Assert.assertTrue(cache.update(0, 1.0f));
+		cache.reset(1);
+		Assert.assertTrue(cache.update(0, 1.0f));
+
+		/*
+		 * Locations beyond the cache are always uploaded
+		 */
+		Assert.assertTrue(cache.update(5, 1.0f));
+		Assert.assertTrue(cache.update(5, 1.0f));
+	}
+}
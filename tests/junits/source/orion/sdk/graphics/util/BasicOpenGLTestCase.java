@@ -100,19 +100,19 @@ public class BasicOpenGLTestCase extends OpenGLTestCase
 			LightNode rightLight = new LightNode("redLight");
 			rightLight.light.diffuse = FloatMatrix.vector(0.3f, 0.3f, 0.3f, 1);
 			rightLight.light.specular = FloatMatrix.vector(0.0f, 0.0f, 0.0f, 1);
-			rightLight.getTransformation().getPosition().setX(lightAxis);		
+			rightLight.getTransformation().setPosition(lightAxis, 0, 0);		
 			this.getRoot().addChild(rightLight);
 			
 			LightNode topLight = new LightNode("greenLight");
 			topLight.light.diffuse = FloatMatrix.vector(0.5f, 0.5f, 0.5f, 1);
 			topLight.light.specular = FloatMatrix.vector(0, 0, 0, 1);
-			topLight.getTransformation().getPosition().setY(lightAxis);
+			topLight.getTransformation().setPosition(0, lightAxis, 0);
 			this.getRoot().addChild(topLight);
 			
 			LightNode frontLight = new LightNode("blueLight");
 			frontLight.light.diffuse = FloatMatrix.vector(0.8f, 0.8f, 0.8f, 1);
 			frontLight.light.specular = FloatMatrix.vector(0, 0, 0, 1);
-			frontLight.getTransformation().getPosition().setZ(lightAxis);
+			frontLight.getTransformation().setPosition(0, 0, lightAxis);
 			this.getRoot().addChild(frontLight);		
 		}		
 	}
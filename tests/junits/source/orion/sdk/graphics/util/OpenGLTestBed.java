@@ -15,6 +15,7 @@ import javax.media.opengl.glu.gl2.GLUgl2;
 import javax.swing.JFrame;
 
 import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.shading.glsl.ShaderManager;
 import orion.sdk.input.InputManager;
 import orion.sdk.monitoring.incidents.Incident;
 import orion.sdk.monitoring.incidents.IncidentManager;
@@ -43,6 +44,7 @@ public class OpenGLTestBed extends JFrame implements GLEventListener, INamed
 	protected float screenWidth = 0;
 	protected float screenHeight = 0;
 	protected BufferedImage lastRender = null;
+	protected OpenGLState state = null;
 	
 	private Object renderMutex = new Object();
 	private OpenGLTestCase testCase = null;
@@ -117,6 +119,12 @@ public class OpenGLTestBed extends JFrame implements GLEventListener, INamed
 		IncidentManager.notifyIncident(Incident.newInformation("Initializing test bed"));
 		
 		GL2 gl = drawable.getGL().getGL2();
+		
+		/*
+		 * Programs and state of a previous context are gone
+		 */
+		state = null;
+		ShaderManager.invalidateVariants();
 		String glslVersion = OpenGLManager.getInstance().getGlslVersion(gl);
 		IncidentManager.notifyIncident(Incident.newInformation("GLSL version: '" + glslVersion + "'"));
 	}
@@ -128,6 +136,7 @@ public class OpenGLTestBed extends JFrame implements GLEventListener, INamed
 
 		OpenGLContext c = getOpenGLContext(drawable);
 		OpenGLManager.getInstance().release(drawables, c);
+		ShaderManager.invalidateVariants();
 	}
 	
 	protected OpenGLContext getOpenGLContext(GLAutoDrawable drawable)
@@ -137,11 +146,20 @@ public class OpenGLTestBed extends JFrame implements GLEventListener, INamed
 
 		gl = OpenGLManager.getInstance().attachDebugger(gl);
 		
+		/*
+		 * Keep the shadowed state across frames, unless the OpenGL handle changed
+		 */
+		if (state == null || state.getGL() != gl)
+		{
+			state = new OpenGLState(gl);
+		}
+		
 		OpenGLContext c = new OpenGLContext(
 			gl, 
 			glu, 
 			dt, 
-			new float[] {0, 0, glCanvas.getWidth(), glCanvas.getHeight()});
+			new float[] {0, 0, glCanvas.getWidth(), glCanvas.getHeight()},
+			state);
 		
 		return c;
 	}
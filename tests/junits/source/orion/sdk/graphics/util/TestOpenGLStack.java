@@ -0,0 +1,144 @@
+package orion.sdk.graphics.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.GLException;
+
+public class TestOpenGLStack
+{
+	private static class State implements IStackable
+	{
+		private final String name;
+		private final List<String> calls;
+
+		private State(String name, List<String> calls)
+		{
+			this.name = name;
+			this.calls = calls;
+		}
+
+		@Override
+		public String getName()
+		{
+			return name;
+		}
+
+		@Override
+		public void push(OpenGLContext c)
+		{
+			calls.add("push " + name);
+		}
+
+		@Override
+		public void pop(OpenGLContext c)
+		{
+			calls.add("pop " + name);
+		}
+
+		@Override
+		public void apply(OpenGLContext c)
+		{
+			calls.add("apply " + name);
+		}
+
+		@Override
+		public void clear(OpenGLContext c)
+		{
+			calls.add("clear " + name);
+		}
+	}
+
+	@Test
+	public void test_handles()
+	{
+		int handle = OpenGLStack.getHandle(State.class);
+		Assert.assertEquals(handle, OpenGLStack.getHandle(State.class));
+
+		/*
+		 * Every context is a stack of its own
+		 */
+		int unit0 = OpenGLStack.getHandle(State.class, 0);
+		int unit1 = OpenGLStack.getHandle(State.class, 1);
+		int named = OpenGLStack.getHandle(State.class, "named", 1);
+		Assert.assertNotEquals(handle, unit0);
+		Assert.assertNotEquals(unit0, unit1);
+		Assert.assertNotEquals(unit1, named);
+		Assert.assertEquals(unit1, OpenGLStack.getHandle(State.class, (Object) 1));
+		Assert.assertEquals(named, OpenGLStack.getHandle(State.class, "named", 1));
+	}
+
+	@Test
+	public void test_pushPop()
+	{
+		List<String> calls = new ArrayList<String>();
+		State a = new State("a", calls);
+		State b = new State("b", calls);
+		State c = new State("c", calls);
+		int handle = OpenGLStack.getHandle(State.class, "pushPop");
+
+		OpenGLStack.push(State.class, a, null, "pushPop");
+		OpenGLStack.push(handle, b, null);
+		Assert.assertSame(b, OpenGLStack.peek(State.class, "pushPop"));
+		Assert.assertEquals(2, OpenGLStack.size(handle));
+
+		OpenGLStack.swap(handle, b, c, null);
+		Assert.assertSame(c, OpenGLStack.peek(handle));
+
+		OpenGLStack.pop(handle, c, null);
+		OpenGLStack.pop(State.class, a, null, "pushPop");
+		Assert.assertNull(OpenGLStack.peek(handle));
+
+		String[] expected = {
+			"push a", "apply a",
+			"clear a", "push b", "apply b",
+			"pop b", "clear b", "push c", "apply c",
+			"pop c", "clear c", "apply a",
+			"pop a", "clear a"
+		};
+		Assert.assertEquals(Arrays.asList(expected), calls);
+	}
+
+	@Test
+	public void test_violations()
+	{
+		List<String> calls = new ArrayList<String>();
+		State a = new State("a", calls);
+		State b = new State("b", calls);
+		int handle = OpenGLStack.getHandle(State.class, "violations");
+
+		try
+		{
+			OpenGLStack.pop(handle, a, null);
+			Assert.fail();
+		}
+		catch (GLException e)
+		{
+		}
+
+		OpenGLStack.push(handle, a, null);
+		try
+		{
+			OpenGLStack.validateStack();
+			Assert.fail();
+		}
+		catch (GLException e)
+		{
+			Assert.assertTrue(e.getMessage().contains("violations"));
+		}
+
+		try
+		{
+			OpenGLStack.pop(handle, b, null);
+			Assert.fail();
+		}
+		catch (GLException e)
+		{
+		}
+		OpenGLStack.validateStack();
+	}
+}
@@ -0,0 +1,216 @@
+package orion.sdk.graphics.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+
+public class TestOpenGLState
+{
+	private final List<String> calls = new ArrayList<String>();
+	private OpenGLState state;
+
+	/**
+	 * Records the names of the methods called on it, answering every call with a default value.
+	 */
+	private GL2ES2 createRecordingGl()
+	{
+		return (GL2ES2) Proxy.newProxyInstance(GL2ES2.class.getClassLoader(), new Class<?>[] { GL2ES2.class }, new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				calls.add(method.getName());
+				Class<?> type = method.getReturnType();
+				if (type == boolean.class)
+				{
+					return false;
+				}
+				else if (type == int.class)
+				{
+					return 0;
+				}
+				return null;
+			}
+		});
+	}
+
+	@Before
+	public void setUp()
+	{
+		OpenGLState.dropRedundantCalls = true;
+		state = new OpenGLState(createRecordingGl());
+	}
+
+	@After
+	public void tearDown()
+	{
+		OpenGLState.dropRedundantCalls = true;
+	}
+
+	@Test
+	public void test_redundant_calls_dropped()
+	{
+		state.useProgram(3);
+		state.useProgram(3);
+		state.enable(GL.GL_BLEND);
+		state.enable(GL.GL_BLEND);
+		state.blendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+		state.blendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+		state.viewport(0, 0, 640, 480);
+		state.viewport(0, 0, 640, 480);
+		state.bindBuffer(GL.GL_ARRAY_BUFFER, 5);
+		state.bindBuffer(GL.GL_ARRAY_BUFFER, 5);
+
+		Assert.assertEquals(5, calls.size());
+		Assert.assertEquals(5, state.getIssuedCount());
+		Assert.assertEquals(5, state.getDroppedCount());
+
+		state.useProgram(4);
+		state.disable(GL.GL_BLEND);
+		state.bindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 5);
+		Assert.assertEquals(8, calls.size());
+	}
+
+	@Test
+	public void test_textures_per_unit()
+	{
+		state.bindTexture(0, GL.GL_TEXTURE_2D, 7);
+		state.bindTexture(1, GL.GL_TEXTURE_2D, 7);
+		state.bindTexture(1, GL.GL_TEXTURE_2D, 7);
+		state.bindTexture(0, GL.GL_TEXTURE_2D, 7);
+		Assert.assertEquals(4, calls.size());
+
+		state.setTextureEnabled(0, GL.GL_TEXTURE_2D, true);
+		state.setTextureEnabled(0, GL.GL_TEXTURE_2D, true);
+		Assert.assertEquals(6, calls.size());
+		Assert.assertEquals("glActiveTexture", calls.get(4));
+		Assert.assertEquals("glEnable", calls.get(5));
+	}
+
+	@Test
+	public void test_deleting_forgets_state()
+	{
+		state.useProgram(3);
+		state.deleteProgram(3);
+		state.useProgram(3);
+		Assert.assertEquals(3, calls.size());
+
+		int[] buffers = { 5 };
+		state.bindBuffer(GL.GL_ARRAY_BUFFER, 5);
+		state.deleteBuffers(1, buffers, 0);
+		state.bindBuffer(GL.GL_ARRAY_BUFFER, 5);
+		Assert.assertEquals(6, calls.size());
+	}
+
+	@Test
+	public void test_begin_frame()
+	{
+		state.enable(GL.GL_DEPTH_TEST);
+		state.enable(GL.GL_DEPTH_TEST);
+		state.beginFrame();
+
+		Assert.assertEquals(1, state.getLastFrameIssuedCount());
+		Assert.assertEquals(1, state.getLastFrameDroppedCount());
+		Assert.assertEquals(0, state.getIssuedCount());
+
+		state.enable(GL.GL_DEPTH_TEST);
+		Assert.assertEquals(2, calls.size());
+	}
+
+	@Test
+	public void test_is_enabled()
+	{
+		Assert.assertFalse(state.isEnabled(GL.GL_BLEND));
+		Assert.assertEquals("glIsEnabled", calls.get(0));
+
+		state.enable(GL.GL_BLEND);
+		Assert.assertTrue(state.isEnabled(GL.GL_BLEND));
+		Assert.assertEquals(2, calls.size());
+	}
+
+	@Test
+	public void test_depth_and_blend_functions()
+	{
+		state.depthFunc(GL.GL_LEQUAL);
+		state.depthFunc(GL.GL_LEQUAL);
+		Assert.assertEquals(GL.GL_LEQUAL, state.getDepthFunc());
+		Assert.assertEquals(1, calls.size());
+
+		/*
+		 * Unknown functions are asked for once
+		 */
+		state.invalidate();
+		state.getDepthFunc();
+		state.getDepthFunc();
+		state.getBlendSource();
+		state.getBlendDestination();
+		Assert.assertEquals(4, calls.size());
+		Assert.assertEquals("glGetIntegerv", calls.get(1));
+
+		state.blendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE);
+		Assert.assertEquals(GL.GL_SRC_ALPHA, state.getBlendSource());
+		Assert.assertEquals(GL.GL_ONE, state.getBlendDestination());
+	}
+
+	@Test
+	public void test_blend_color()
+	{
+		state.blendColor(0, 0, 0, 0.5f);
+		state.blendColor(0, 0, 0, 0.5f);
+		Assert.assertEquals(1, calls.size());
+		Assert.assertEquals(0.5f, state.getBlendColor(new float[4])[3], 0);
+		Assert.assertEquals(1, calls.size());
+
+		state.blendColor(0, 0, 0, 0.25f);
+		Assert.assertEquals(2, calls.size());
+
+		/*
+		 * An unknown color is asked for once
+		 */
+		state.invalidate();
+		state.getBlendColor(new float[4]);
+		state.getBlendColor(new float[4]);
+		Assert.assertEquals(3, calls.size());
+		Assert.assertEquals("glGetFloatv", calls.get(2));
+	}
+
+	@Test
+	public void test_dropping_disabled()
+	{
+		OpenGLState.dropRedundantCalls = false;
+		state.useProgram(3);
+		state.useProgram(3);
+		Assert.assertEquals(2, calls.size());
+		Assert.assertEquals(1, state.getDroppedCount());
+	}
+
+	@Test
+	public void test_copy_shares_state()
+	{
+		OpenGLContext c = new OpenGLContext(null, null, 0, null);
+		Assert.assertSame(c.state(), c.copy().state());
+	}
+
+	@Test
+	public void test_state_kept_across_frames()
+	{
+		state.enable(GL.GL_DEPTH_TEST);
+		state.enable(GL.GL_DEPTH_TEST);
+
+		OpenGLContext c = new OpenGLContext(null, null, 0, null, state);
+		c.state().beginFrame();
+		Assert.assertSame(state, c.state());
+		Assert.assertEquals(1, c.state().getLastFrameIssuedCount());
+		Assert.assertEquals(1, c.state().getLastFrameDroppedCount());
+	}
+}
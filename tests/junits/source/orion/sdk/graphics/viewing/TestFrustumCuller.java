@@ -0,0 +1,122 @@
+package orion.sdk.graphics.viewing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.viewing.cameras.PerspectiveCamera;
+import orion.sdk.math.FloatMatrix;
+import orion.sdk.math.FloatQuaternion;
+import orion.sdk.math.geometry.Box;
+import orion.sdk.node.NodeFixtures;
+import orion.sdk.node.containers.ContainerNode;
+import orion.sdk.node.containers.SpatialNode;
+import orion.sdk.node.drawables.DrawableNode;
+import orion.sdk.node.drawables.EntityNode;
+
+public class TestFrustumCuller
+{
+	/**
+	 * A camera at {@code (0, 0, 10)} looking at the origin.
+	 */
+	private static PerspectiveCamera camera()
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		camera.fieldOfView = 90;
+		camera.near = 1;
+		camera.far = 100;
+		camera.setAspectRatio(1);
+		return camera;
+	}
+
+	@Test
+	public void test_entities()
+	{
+		FrustumCuller culler = new FrustumCuller("culler");
+		culler.begin(camera());
+
+		Assert.assertFalse(culler.isCulled(NodeFixtures.entity("center", 0, 0, 0)));
+		Assert.assertFalse(culler.isCulled(NodeFixtures.entity("edge", 5, 0, 5)));
+		Assert.assertTrue(culler.isCulled(NodeFixtures.entity("right", 8, 0, 5)));
+		Assert.assertTrue(culler.isCulled(NodeFixtures.entity("behind", 0, 0, 12)));
+		Assert.assertTrue(culler.isCulled(NodeFixtures.entity("far", 0, 0, -95)));
+		Assert.assertFalse(culler.isCulled(new EntityNode("unbounded", null, null, null)));
+
+		Assert.assertEquals(6, culler.getVisitedCount());
+		Assert.assertEquals(3, culler.getCulledCount());
+
+		culler.enabled = false;
+		Assert.assertFalse(culler.isCulled(NodeFixtures.entity("behind", 0, 0, 12)));
+	}
+
+	@Test
+	public void test_entities_SCALED()
+	{
+		FrustumCuller culler = new FrustumCuller("culler");
+		culler.begin(camera());
+
+		/*
+		 * Scaling the entity grows its bounds into the frustum
+		 */
+		EntityNode entity = NodeFixtures.entity("right", 8, 0, 5);
+		Assert.assertTrue(culler.isCulled(entity));
+		entity.getTransformation().setScale(4, 4, 4);
+		Assert.assertFalse(culler.isCulled(entity));
+	}
+
+	@Test
+	public void test_collect() throws Exception
+	{
+		FrustumCuller culler = new FrustumCuller("culler");
+		PerspectiveCamera camera = camera();
+
+		ContainerNode root = new ContainerNode("root");
+		root.addChild(NodeFixtures.entity("center", 0, 0, 0));
+		root.addChild(NodeFixtures.entity("behind", 0, 0, 12));
+		DrawableNode plain = new DrawableNode("plain");
+		plain.setBounds(new Box(-1, -1, 20, 1, 1, 1));
+		root.addChild(plain);
+
+		/*
+		 * A spatial container behind the camera is culled without visiting its children
+		 */
+		SpatialNode hidden = new SpatialNode("hidden", 1, 1, 1, new Box(-1, -1, 20, 2, 2, 2));
+		for (int i = 0; i < 10; i++)
+		{
+			hidden.addChild(NodeFixtures.entity("hidden" + i, 0, 0, 21));
+		}
+		root.addChild(hidden);
+
+		SpatialNode shown = new SpatialNode("shown", 1, 1, 1, new Box(-10, -10, -10, 20, 20, 20));
+		shown.addChild(NodeFixtures.entity("shown0", 0, 1, 0));
+		shown.addChild(NodeFixtures.entity("shown1", 50, 0, 0));
+		root.addChild(shown);
+
+		List<IDrawable> visible = new ArrayList<IDrawable>();
+		culler.begin(camera);
+		culler.collect(root, visible);
+
+		Assert.assertEquals(2, visible.size());
+		Assert.assertEquals("center", visible.get(0).getName());
+		Assert.assertEquals("shown0", visible.get(1).getName());
+		Assert.assertEquals(8, culler.getVisitedCount());
+		Assert.assertEquals(4, culler.getCulledCount());
+		Assert.assertEquals(2, culler.getDrawnCount());
+
+		/*
+		 * Moving the camera behind the objects begins a new frame in which only the far side of the
+		 * spatial container is culled
+		 */
+		camera.firstPerson(FloatQuaternion.identity(), FloatMatrix.vector(0, 0, 30));
+		visible.clear();
+		culler.begin(camera);
+		culler.collect(root, visible);
+		Assert.assertEquals(14, visible.size());
+		Assert.assertEquals(18, culler.getVisitedCount());
+		Assert.assertEquals(1, culler.getCulledCount());
+		Assert.assertEquals(14, culler.getDrawnCount());
+	}
+}
@@ -760,6 +760,69 @@ public abstract class ATestFloatMatrix
 		Assert.assertEquals(0, result, ERROR);
 	}
 
+	@Test
+	public void test_decompose() throws Exception
+	{
+		IFloatMatrix m = this.matrix(
+				2, 1, 1,
+				4, 3, 3,
+				8, 7, 9);
+		
+		LUDecomposition lu = m.decompose();
+		
+		Assert.assertFalse(lu.isSingular());
+		Assert.assertEquals(m.determinant(), lu.determinant(), ERROR * 10);
+		
+		/*
+		 * The factors reproduce the permuted matrix
+		 */
+		IFloatMatrix product = lu.getL().product(lu.getU());
+		int[] pivot = lu.getPivot();
+		for (int i = 0; i < 3; i++)
+		{
+			for (int j = 0; j < 3; j++)
+			{
+				Assert.assertEquals(m.get(pivot[i], j), product.get(i, j), ERROR * 10);
+			}
+		}
+		
+		/*
+		 * The decomposition is reused for several right hand sides
+		 */
+		float[] x = lu.solve(new float[] { 4, 10, 24 }, new float[3]);
+		Assert.assertArrayEquals(new float[] { 1, 1, 1 }, x, ERROR * 10);
+		
+		x = lu.solve(new float[] { 2, 4, 8 }, new float[3]);
+		Assert.assertArrayEquals(new float[] { 1, 0, 0 }, x, ERROR * 10);
+		
+		IFloatMatrix X = lu.solve(this.vector(1, 3, 9));
+		Assert.assertTrue(m.product(X).equals(this.vector(1, 3, 9), ERROR * 10));
+	}
+
+	@Test
+	public void test_decompose_SINGULAR() throws Exception
+	{
+		IFloatMatrix m = this.matrix(
+				11, 12, 13, 14,
+				21, 22, 23, 24,
+				31, 32, 33, 34,
+				41, 42, 43, 44);
+		
+		LUDecomposition lu = m.decompose();
+		
+		Assert.assertTrue(lu.isSingular());
+		Assert.assertEquals(0, lu.determinant(), 0);
+		
+		try
+		{
+			lu.solve(new float[] { 1, 2, 3, 4 }, new float[4]);
+			Assert.fail();
+		}
+		catch (Exception e)
+		{
+		}
+	}
+
 	@Test
 	public void test_entrywiseNorm() throws Exception
 	{
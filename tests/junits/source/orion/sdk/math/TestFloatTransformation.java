@@ -0,0 +1,45 @@
+package orion.sdk.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFloatTransformation
+{
+	public final float ERROR = 0.00001f;
+
+	@Test
+	public void test_modificationCount()
+	{
+		FloatTransformation t = new FloatTransformation();
+		int count = t.getModificationCount();
+		Assert.assertEquals(count, t.getModificationCount());
+
+		t.setPosition(1, 2, 3);
+		Assert.assertNotEquals(count, count = t.getModificationCount());
+		t.setScale(2, 2, 2);
+		Assert.assertNotEquals(count, count = t.getModificationCount());
+		t.setRotation(FloatQuaternion.rotation(0, 1, 0, 0.5f));
+		Assert.assertNotEquals(count, count = t.getModificationCount());
+		t.translateWorldPosition(1, 0, 0);
+		Assert.assertNotEquals(count, count = t.getModificationCount());
+		t.setWorldPosition(null);
+		Assert.assertNotEquals(count, count = t.getModificationCount());
+		t.invalidate();
+		Assert.assertNotEquals(count, count = t.getModificationCount());
+		Assert.assertEquals(count, t.getModificationCount());
+	}
+
+	@Test
+	public void test_modificationCount_ROTATION_IN_PLACE()
+	{
+		FloatTransformation t = new FloatTransformation();
+		int count = t.getModificationCount();
+
+		FloatQuaternion.rotation(1, 0, 0, 0.25f, t.getRotation());
+		Assert.assertNotEquals(count, count = t.getModificationCount());
+		Assert.assertEquals(count, t.getModificationCount());
+
+		Mat4f expected = FloatQuaternion.rotation(1, 0, 0, 0.25f).getMatrix(new Mat4f());
+		Assert.assertTrue(t.getMatrix(new Mat4f()).equals(expected, ERROR));
+	}
+}
@@ -0,0 +1,73 @@
+package orion.sdk.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFloatVectorBatch
+{
+	public final float ERROR = 0.00001f;
+
+	private static FloatVectorBatch batch()
+	{
+		return new FloatVectorBatch(2).setSize(3)
+			.set(0, 1, 2, 3, 1)
+			.set(1, -4, 0, 2, 1)
+			.set(2, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void test_grow() throws Exception
+	{
+		FloatVectorBatch b = batch();
+
+		Assert.assertEquals(3, b.size());
+		Assert.assertTrue(b.capacity() >= 3);
+		Assert.assertTrue(b.get(1, new Vec4f()).equals(new Vec4f(-4, 0, 2, 1), 0));
+	}
+
+	@Test
+	public void test_transform() throws Exception
+	{
+		Mat4f m = new Mat4f().setTranslation(1, 2, 3).scale(2, 3, 4);
+		FloatVectorBatch b = batch();
+		FloatVectorBatch result = FloatVectorBatch.transform(m, b, new FloatVectorBatch(0));
+
+		for (int i = 0; i < b.size(); i++)
+		{
+			Vec4f expected = m.transform(b.get(i, new Vec4f()));
+			Assert.assertTrue(result.get(i, new Vec4f()).equals(expected, ERROR));
+		}
+
+		/*
+		 * In place
+		 */
+		b.transform(m);
+		Assert.assertTrue(b.get(0, new Vec4f()).equals(result.get(0, new Vec4f()), 0));
+	}
+
+	@Test
+	public void test_dot() throws Exception
+	{
+		float[] dots = batch().dot(new Vec4f(1, 1, 1, 1), new float[3]);
+
+		Assert.assertArrayEquals(new float[] { 7, -1, 0 }, dots, ERROR);
+	}
+
+	@Test
+	public void test_distanceAlong() throws Exception
+	{
+		float[] distances = batch().distanceAlong(new Vec4f(0, 0, 1, 1), new Vec4f(0, 0, 2, 0), new float[3]);
+
+		Assert.assertArrayEquals(new float[] { 2, 1, -1 }, distances, ERROR);
+	}
+
+	@Test
+	public void test_normalize() throws Exception
+	{
+		FloatVectorBatch b = batch().normalize();
+
+		Assert.assertEquals(1, b.get(0, new Vec4f()).dot3(b.get(0, new Vec4f())), ERROR);
+		Assert.assertEquals(1, b.get(1, new Vec4f()).dot3(b.get(1, new Vec4f())), ERROR);
+		Assert.assertTrue(b.get(2, new Vec4f()).equals(new Vec4f(), 0));
+	}
+}
@@ -0,0 +1,97 @@
+package orion.sdk.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLUDecomposition
+{
+	public final float ERROR = 0.0001f;
+
+	private static FloatMatrix matrix(int size)
+	{
+		/*
+		 * Diagonally dominant and thus well conditioned
+		 */
+		FloatMatrix m = new FloatMatrix(size, size);
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++)
+			{
+				m.set(i, j, i == j ? size + i : (float) Math.sin(i * size + j));
+			}
+		}
+		return m;
+	}
+
+	@Test
+	public void test_inverse() throws Exception
+	{
+		for (int size = 1; size <= 8; size++)
+		{
+			FloatMatrix m = matrix(size);
+			IFloatMatrix product = m.product(m.invert());
+
+			Assert.assertTrue(product.equals(FloatMatrix.identity(size), ERROR));
+		}
+	}
+
+	@Test
+	public void test_determinant() throws Exception
+	{
+		/*
+		 * Compare with the cofactor expansion along the first row
+		 */
+		FloatMatrix m = matrix(5);
+		float expected = 0;
+		for (int column = 0; column < 5; column++)
+		{
+			IFloatMatrix minor = m.removeRow(0).removeColumn(column);
+			expected += (column % 2 == 0 ? 1 : -1) * m.get(0, column) * minor.determinant();
+		}
+
+		Assert.assertEquals(expected, m.determinant(), Math.abs(expected) * ERROR);
+		Assert.assertEquals(expected, m.decompose().determinant(), Math.abs(expected) * ERROR);
+	}
+
+	@Test
+	public void test_solve() throws Exception
+	{
+		FloatMatrix m = matrix(6);
+		LUDecomposition lu = m.decompose();
+		float[] x = new float[6];
+
+		for (int k = 0; k < 6; k++)
+		{
+			float[] b = new float[6];
+			b[k] = 1;
+
+			lu.solve(b, x);
+			Assert.assertArrayEquals(m.invert().column(k).rowMajor(), x, ERROR);
+
+			/*
+			 * Solving in place
+			 */
+			lu.solve(b, b);
+			Assert.assertArrayEquals(x, b, 0);
+		}
+	}
+
+	@Test
+	public void test_singular() throws Exception
+	{
+		FloatMatrix m = matrix(5);
+		for (int j = 0; j < 5; j++)
+		{
+			m.set(4, j, m.get(0, j) + m.get(1, j));
+		}
+
+		Assert.assertTrue(m.singular());
+		Assert.assertEquals(0, m.determinant(), 0);
+	}
+
+	@Test(expected = Exception.class)
+	public void test_notSquare() throws Exception
+	{
+		new LUDecomposition(new FloatMatrix(2, 3));
+	}
+}
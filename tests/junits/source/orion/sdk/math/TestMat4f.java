@@ -0,0 +1,224 @@
+package orion.sdk.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMat4f
+{
+	public final float ERROR = 0.00001f;
+
+	private static void assertEquals(IFloatMatrix expected, Mat4f actual, float error)
+	{
+		for (int i = 0; i < 4; i++)
+		{
+			for (int j = 0; j < 4; j++)
+			{
+				Assert.assertEquals(expected.get(i, j), actual.get(i, j), error);
+			}
+		}
+	}
+
+	@Test
+	public void test_mul() throws Exception
+	{
+		IFloatMatrix A = FloatMatrix.matrix(
+			1, 2, 3, 4,
+			5, 6, 7, 8,
+			9, 10, 11, 12,
+			13, 14, 15, 16);
+		IFloatMatrix B = FloatMatrix.matrix(
+			2, 0, 1, 0,
+			0, 3, 0, 1,
+			1, 0, 4, 0,
+			0, 1, 0, 5);
+
+		Mat4f a = new Mat4f().set(A);
+		Mat4f b = new Mat4f().set(B);
+
+		assertEquals(A.product(B), Mat4f.mul(a, b, new Mat4f()), ERROR);
+
+		/*
+		 * Aliasing the destination with an operand
+		 */
+		assertEquals(A.product(B), Mat4f.mul(a, b, a), ERROR);
+	}
+
+	@Test
+	public void test_translateScale() throws Exception
+	{
+		Mat4f m = new Mat4f().setScale(2, 3, 4).translate(1, 2, 3).scale(0.5f, 1, 2);
+		IFloatMatrix expected = FloatMatrix.scale(2, 3, 4)
+			.product(FloatMatrix.translate(1, 2, 3))
+			.product(FloatMatrix.scale(0.5f, 1, 2));
+
+		assertEquals(expected, m, ERROR);
+	}
+
+	@Test
+	public void test_columnMajor() throws Exception
+	{
+		IFloatMatrix A = FloatMatrix.translate(1, 2, 3);
+		float[] entries = new float[16];
+		new Mat4f().set(A).columnMajor(entries, 0);
+
+		Assert.assertArrayEquals(A.columnMajor(), entries, ERROR);
+	}
+
+	@Test
+	public void test_transform() throws Exception
+	{
+		Mat4f m = new Mat4f().setTranslation(1, 2, 3).scale(2, 2, 2);
+		Vec4f v = m.transform(new Vec4f(1, 1, 1, 1));
+
+		Assert.assertTrue(v.equals(new Vec4f(3, 4, 5, 1), ERROR));
+	}
+
+	@Test
+	public void test_quaternionRotate() throws Exception
+	{
+		FloatQuaternion q = FloatQuaternion.rotation(1, 2, 3, 0.7f);
+		IFloatMatrix expected = FloatQuaternion.matrixProduct(q, FloatMatrix.vector(4, 5, 6));
+		Vec4f v = FloatQuaternion.rotate(q, new Vec4f(4, 5, 6, 1), new Vec4f());
+
+		Assert.assertEquals(expected.get(0), v.x, ERROR * 10);
+		Assert.assertEquals(expected.get(1), v.y, ERROR * 10);
+		Assert.assertEquals(expected.get(2), v.z, ERROR * 10);
+		Assert.assertEquals(1, v.w, 0);
+
+		Vec4f w = q.getMatrix(new Mat4f()).transform(new Vec4f(4, 5, 6, 0));
+
+		Assert.assertTrue(w.equals(new Vec4f(v.x, v.y, v.z, 0), ERROR * 10));
+	}
+
+	@Test
+	public void test_transformationMatrix() throws Exception
+	{
+		FloatTransformation t = new FloatTransformation();
+		t.setPosition(1, 2, 3);
+		t.setScale(2, 3, 4);
+		t.setRotation(FloatQuaternion.rotation(0, 1, 0, 0.3f));
+
+		IFloatMatrix expected = FloatMatrix.translate(1, 2, 3)
+			.product(t.getRotation().getMatrix())
+			.product(FloatMatrix.scale(2, 3, 4));
+
+		assertEquals(expected, t.getMatrix(new Mat4f()), ERROR);
+	}
+
+	@Test
+	public void test_invert() throws Exception
+	{
+		Mat4f a = new Mat4f().set(
+			2, 0, 1, 3,
+			1, 4, 0, 1,
+			0, 1, 5, 2,
+			1, 0, 2, 6);
+		Mat4f inverse = new Mat4f();
+
+		Assert.assertTrue(Mat4f.invert(a, inverse));
+		Assert.assertTrue(Mat4f.mul(a, inverse, new Mat4f()).equals(new Mat4f(), ERROR * 10));
+		Assert.assertEquals(a.determinant(), new Mat4f(a).toFloatMatrix().determinant(), ERROR);
+	}
+
+	@Test
+	public void test_invertAffine() throws Exception
+	{
+		FloatTransformation t = new FloatTransformation();
+		t.setPosition(1, 2, 3);
+		t.setScale(2, 3, 4);
+		t.setRotation(FloatQuaternion.rotation(1, 1, 0, 0.5f));
+		Mat4f a = t.getMatrix(new Mat4f());
+		Mat4f inverse = new Mat4f();
+
+		Assert.assertTrue(a.isAffine());
+		Assert.assertTrue(Mat4f.invertAffine(a, inverse));
+		Assert.assertTrue(Mat4f.mul(a, inverse, new Mat4f()).equals(new Mat4f(), ERROR * 10));
+	}
+
+	@Test
+	public void test_invertSingular() throws Exception
+	{
+		Mat4f a = new Mat4f().setScale(1, 0, 1);
+		Mat4f inverse = new Mat4f().setTranslation(1, 2, 3);
+
+		Assert.assertFalse(Mat4f.invert(a, inverse));
+		Assert.assertTrue(inverse.equals(new Mat4f().setTranslation(1, 2, 3), 0));
+	}
+
+	@Test
+	public void test_singularAgreesWithFloatMatrix() throws Exception
+	{
+		/*
+		 * The last row is a combination of the first two up to rounding, the scaled one is regular at any scale
+		 */
+		IFloatMatrix nearlySingular = FloatMatrix.matrix(
+			0.3f, 1.7f, 2.9f, 0.5f,
+			1.1f, 0.2f, 0.7f, 3.3f,
+			0.9f, 2.3f, 0.4f, 1.9f,
+			0.1f * 0.3f + 0.3f * 1.1f, 0.1f * 1.7f + 0.3f * 0.2f, 0.1f * 2.9f + 0.3f * 0.7f, 0.1f * 0.5f + 0.3f * 3.3f);
+		IFloatMatrix scaled = FloatMatrix.matrix(
+			1e-8f, 0, 0, 0,
+			0, 1, 0, 0,
+			0, 0, 1e8f, 0,
+			0, 0, 0, 1);
+
+		for (IFloatMatrix m : new IFloatMatrix[] { nearlySingular, scaled })
+		{
+			Mat4f a = new Mat4f().set(m);
+			Assert.assertEquals(m.singular(), !Mat4f.invert(a, new Mat4f()));
+		}
+		Assert.assertTrue(nearlySingular.singular());
+		Assert.assertFalse(scaled.singular());
+	}
+
+	@Test
+	public void test_normal() throws Exception
+	{
+		FloatTransformation t = new FloatTransformation();
+		t.setPosition(1, 2, 3);
+		t.setScale(2, 3, 4);
+		t.setRotation(FloatQuaternion.rotation(0, 1, 1, 0.8f));
+		Mat4f a = t.getMatrix(new Mat4f());
+		Mat3f normal = new Mat3f();
+
+		Assert.assertTrue(Mat3f.normal(a, normal));
+
+		IFloatMatrix expected = a.toFloatMatrix().invert().transpose().subMatrix(0, 0, 3, 3);
+		Assert.assertTrue(normal.equals(new Mat3f().set(expected), ERROR * 10));
+	}
+
+	@Test
+	public void test_invert3() throws Exception
+	{
+		IFloatMatrix A = FloatMatrix.matrix(
+			2, 1, 0,
+			1, 3, 1,
+			0, 1, 4);
+		Mat3f inverse = new Mat3f();
+
+		Assert.assertTrue(Mat3f.invert(new Mat3f().set(A), inverse));
+		Assert.assertTrue(Mat3f.mul(new Mat3f().set(A), inverse, new Mat3f()).equals(new Mat3f(), ERROR * 10));
+		Assert.assertEquals(new Mat3f().set(A).determinant(), 18, ERROR);
+		Assert.assertTrue(new Mat3f().set(A.invert()).equals(inverse, ERROR));
+	}
+
+	@Test
+	public void test_projection()
+	{
+		Mat4f m = new Mat4f().setPerspective(90, 2, 1, 10);
+		Vec4f v = Mat4f.transform(m, new Vec4f(2, 1, -1, 1), new Vec4f());
+		Assert.assertTrue(new Vec4f(1, 1, -1, 1).equals(v, ERROR));
+		Mat4f.transform(m, new Vec4f(0, 0, -10, 1), v);
+		Assert.assertEquals(1, v.z / v.w, ERROR);
+
+		m.setOrthographic(-2, 2, -1, 1, 0, 10);
+		Mat4f.transform(m, new Vec4f(2, -1, -10, 1), v);
+		Assert.assertTrue(new Vec4f(1, -1, 1, 1).equals(v, ERROR));
+
+		m.setLookAt(new Vec4f(0, 0, 5, 1), new Vec4f(0, 0, 0, 1), new Vec4f(0, 1, 0, 0));
+		Assert.assertTrue(m.equals(new Mat4f().setTranslation(0, 0, -5), ERROR));
+		m.setLookAt(new Vec4f(1, 0, 0, 1), new Vec4f(2, 0, 0, 1), new Vec4f(0, 1, 0, 0));
+		Mat4f.transform(m, new Vec4f(3, 0, 0, 1), v);
+		Assert.assertTrue(new Vec4f(0, 0, -2, 1).equals(v, ERROR));
+	}
+}
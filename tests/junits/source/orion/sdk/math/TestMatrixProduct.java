@@ -0,0 +1,83 @@
+package orion.sdk.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMatrixProduct
+{
+	private static FloatMatrix matrix(int rows, int columns, int seed)
+	{
+		FloatMatrix m = new FloatMatrix(rows, columns);
+		for (int i = 0; i < rows; i++)
+		{
+			for (int j = 0; j < columns; j++)
+			{
+				m.set(i, j, (float) Math.sin(seed + i * columns + j));
+			}
+		}
+		return m;
+	}
+
+	private static float[] naive(IFloatMatrix a, IFloatMatrix b)
+	{
+		float[] c = new float[a.getRowCount() * b.getColumnCount()];
+		for (int row = 0; row < a.getRowCount(); row++)
+		{
+			for (int column = 0; column < b.getColumnCount(); column++)
+			{
+				float sum = 0;
+				for (int i = 0; i < a.getColumnCount(); i++)
+				{
+					sum += a.get(row, i) * b.get(i, column);
+				}
+				c[row * b.getColumnCount() + column] = sum;
+			}
+		}
+		return c;
+	}
+
+	@Test
+	public void test_blocked() throws Exception
+	{
+		/*
+		 * Not a multiple of the block size and not parallel
+		 */
+		FloatMatrix a = matrix(70, 100, 1), b = matrix(100, 90, 2);
+
+		Assert.assertFalse(MatrixProduct.isParallel(70, 70L * 100 * 90));
+		Assert.assertArrayEquals(naive(a, b), a.product(b).rowMajor(), 0);
+	}
+
+	@Test
+	public void test_parallel() throws Exception
+	{
+		FloatMatrix a = matrix(300, 150, 3), b = matrix(150, 170, 4);
+
+		Assert.assertTrue(MatrixProduct.isParallel(300, 300L * 150 * 170));
+		Assert.assertArrayEquals(naive(a, b), a.product(b).rowMajor(), 0);
+	}
+
+	@Test
+	public void test_small() throws Exception
+	{
+		FloatMatrix a = matrix(3, 5, 5), b = matrix(5, 1, 6);
+
+		Assert.assertArrayEquals(naive(a, b), a.product(b).rowMajor(), 0);
+	}
+
+	@Test(expected = Exception.class)
+	public void test_kernelException() throws Exception
+	{
+		MatrixProduct.run(1000, Long.MAX_VALUE, new MatrixProduct.IRowKernel()
+		{
+			@Override
+			public void compute(int rowStart, int rowEnd) throws Exception
+			{
+				if (rowEnd == 1000)
+				{
+					throw new Exception("Last rows failed");
+				}
+			}
+		});
+	}
+}
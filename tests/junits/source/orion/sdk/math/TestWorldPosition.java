@@ -0,0 +1,75 @@
+package orion.sdk.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestWorldPosition
+{
+	public final float ERROR = 0.00001f;
+	
+	@Test
+	public void test_precision() throws Exception
+	{
+		/*
+		 * A double alone cannot resolve a quarter unit at this magnitude
+		 */
+		WorldPosition p = new WorldPosition(1e21, -1e21, 0);
+		WorldPosition origin = new WorldPosition(p);
+		
+		for (int i = 0; i < 1000; i++)
+		{
+			p.add(0.25, -0.125, 0.5);
+		}
+		
+		Vec4f offset = p.getRelative(origin, new Vec4f());
+		
+		Assert.assertEquals(250, offset.x, ERROR);
+		Assert.assertEquals(-125, offset.y, ERROR);
+		Assert.assertEquals(500, offset.z, ERROR);
+		Assert.assertEquals(1, offset.w, 0);
+	}
+	
+	@Test
+	public void test_addSubtract() throws Exception
+	{
+		WorldPosition a = new WorldPosition(1e20, 2, 3).add(0.5, 0, 0);
+		WorldPosition b = new WorldPosition(1e20, 1, 1);
+		
+		WorldPosition difference = WorldPosition.subtract(a, b, new WorldPosition());
+		
+		Assert.assertEquals(0.5, difference.getX(), 0);
+		Assert.assertEquals(1, difference.getY(), 0);
+		Assert.assertEquals(2, difference.getZ(), 0);
+		
+		difference.add(b);
+		Assert.assertEquals(0, difference.compareTo(a));
+		Assert.assertEquals(0.25, a.distanceSquared(b) - 5, ERROR);
+	}
+	
+	@Test
+	public void test_compare() throws Exception
+	{
+		WorldPosition a = new WorldPosition(1e21, 0, 0);
+		WorldPosition b = new WorldPosition(1e21, 0, 0).add(1e-3, 0, 0);
+		
+		Assert.assertTrue(a.compare(0, b) < 0);
+		Assert.assertTrue(b.compare(0, a) > 0);
+		Assert.assertEquals(0, a.compare(1, b));
+		Assert.assertFalse(a.equals(b));
+	}
+	
+	@Test
+	public void test_transformation() throws Exception
+	{
+		FloatTransformation t = new FloatTransformation();
+		t.setPosition(1, 0, 0);
+		t.setWorldPosition(new WorldPosition(5e20, 0, 0));
+		t.translateWorldPosition(0.5, 2, 0);
+		
+		Mat4f m = t.getMatrix(new Mat4f(), new WorldPosition(5e20, 0, -1));
+		
+		Assert.assertEquals(1.5f, m.m03, ERROR);
+		Assert.assertEquals(2, m.m13, ERROR);
+		Assert.assertEquals(1, m.m23, ERROR);
+	}
+}
@@ -0,0 +1,208 @@
+package orion.sdk.math.generic;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGenericMatrixSpecializations
+{
+	public final double ERROR = 0.000001;
+	
+	private static final double[] A = {
+		2, 0, 1, 3,
+		1, 4, 0, 1,
+		0, 1, 5, 2,
+		1, 0, 2, 6 };
+	
+	private static final double[] B = {
+		1, 2, 0, 1,
+		0, 1, 3, 0,
+		4, 0, 1, 2,
+		0, 3, 0, 1 };
+	
+	private static double value(IGenericPrimitive<?> primitive)
+	{
+		if (primitive instanceof GenericDouble)
+			return ((GenericDouble) primitive).getValue();
+		else if (primitive instanceof GenericFixed)
+			return ((GenericFixed) primitive).getValue();
+		else if (primitive instanceof GenericFloat)
+			return ((GenericFloat) primitive).getValue();
+		else
+			return ((GenericBigDecimal) primitive).getValue().doubleValue();
+	}
+	
+	@SuppressWarnings("rawtypes")
+	private static void assertEquals(GenericMatrix expected, GenericMatrix actual, double error)
+	{
+		Assert.assertEquals(expected.getRowCount(), actual.getRowCount());
+		Assert.assertEquals(expected.getColumnCount(), actual.getColumnCount());
+		
+		for (int i = 0; i < expected.getLength(); i++)
+		{
+			Assert.assertEquals(value(expected.get(i)), value(actual.get(i)), error);
+		}
+	}
+	
+	@Test
+	public void test_factory() throws Exception
+	{
+		Assert.assertTrue(GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, 2, 2) instanceof GenericDoubleMatrix);
+		Assert.assertTrue(GenericMatrixFactory.create(GenericMatrixFactory.FIXED_FACTORY, 2, 2) instanceof GenericFixedMatrix);
+		Assert.assertEquals(GenericMatrix.class, GenericMatrixFactory.create(GenericMatrixFactory.BIG_DECIMAL_FACTORY, 2, 2).getClass());
+	}
+	
+	@Test
+	public void test_productParallel() throws Exception
+	{
+		/*
+		 * Large enough to be tiled and computed in parallel
+		 */
+		int m = 140, k = 120, n = 130;
+		double[] a = new double[m * k], b = new double[k * n];
+		for (int i = 0; i < a.length; i++) a[i] = Math.sin(i);
+		for (int i = 0; i < b.length; i++) b[i] = Math.cos(i);
+		
+		GenericMatrix<GenericDouble> expected = GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, m, n);
+		for (int row = 0; row < m; row++)
+		{
+			for (int column = 0; column < n; column++)
+			{
+				double sum = 0;
+				for (int i = 0; i < k; i++)
+				{
+					sum += a[row * k + i] * b[i * n + column];
+				}
+				expected.set(row, column, new GenericDouble(sum));
+			}
+		}
+		
+		assertEquals(expected, 
+			GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, m, k, a).product(
+			GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, k, n, b)), 0);
+		assertEquals(expected, 
+			GenericMatrixFactory.create(GenericMatrixFactory.FIXED_FACTORY, m, k, a).product(
+			GenericMatrixFactory.create(GenericMatrixFactory.FIXED_FACTORY, k, n, b)), ERROR * 1000);
+		assertEquals(expected, 
+			GenericMatrixFactory.create(GenericMatrixFactory.FLOAT_FACTORY, m, k, a).product(
+			GenericMatrixFactory.create(GenericMatrixFactory.FLOAT_FACTORY, k, n, b)), 0.001);
+	}
+	
+	@Test
+	public void test_product() throws Exception
+	{
+		GenericMatrix<GenericBigDecimal> expected = 
+			GenericMatrixFactory.create(GenericMatrixFactory.BIG_DECIMAL_FACTORY, 4, 4, A).product(
+			GenericMatrixFactory.create(GenericMatrixFactory.BIG_DECIMAL_FACTORY, 4, 4, B));
+		
+		GenericMatrix<GenericDouble> doubleResult = 
+			GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, 4, 4, A).product(
+			GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, 4, 4, B));
+		
+		GenericMatrix<GenericFixed> fixedResult = 
+			GenericMatrixFactory.create(GenericMatrixFactory.FIXED_FACTORY, 4, 4, A).product(
+			GenericMatrixFactory.create(GenericMatrixFactory.FIXED_FACTORY, 4, 4, B));
+		
+		assertEquals(expected, doubleResult, ERROR);
+		assertEquals(expected, fixedResult, ERROR);
+	}
+	
+	@Test
+	public void test_productNonSquare() throws Exception
+	{
+		GenericMatrix<GenericDouble> a = GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, 2, 3, 1, 2, 3, 4, 5, 6);
+		GenericMatrix<GenericDouble> v = GenericMatrixFactory.vector(GenericMatrixFactory.DOUBLE_FACTORY, 1, 1, 1);
+		
+		GenericMatrix<GenericDouble> result = a.product(v);
+		
+		Assert.assertEquals(2, result.getRowCount());
+		Assert.assertEquals(1, result.getColumnCount());
+		Assert.assertEquals(6, result.get(0).getValue(), ERROR);
+		Assert.assertEquals(15, result.get(1).getValue(), ERROR);
+	}
+	
+	@Test
+	public void test_invert() throws Exception
+	{
+		GenericMatrix<GenericDouble> a = GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, 4, 4, A);
+		assertEquals(GenericMatrixFactory.identity(GenericMatrixFactory.DOUBLE_FACTORY, 4), a.product(a.invert()), ERROR);
+		
+		GenericMatrix<GenericFixed> f = GenericMatrixFactory.create(GenericMatrixFactory.FIXED_FACTORY, 4, 4, A);
+		assertEquals(GenericMatrixFactory.identity(GenericMatrixFactory.FIXED_FACTORY, 4), f.product(f.invert()), ERROR);
+	}
+	
+	@Test
+	public void test_determinant() throws Exception
+	{
+		double expected = value(GenericMatrixFactory.create(GenericMatrixFactory.BIG_DECIMAL_FACTORY, 4, 4, A).determinant());
+		
+		Assert.assertEquals(expected, GenericMatrixFactory.create(GenericMatrixFactory.DOUBLE_FACTORY, 4, 4, A).determinant().getValue(), ERROR);
+		Assert.assertEquals(expected, GenericMatrixFactory.create(GenericMatrixFactory.FIXED_FACTORY, 4, 4, A).determinant().getValue(), ERROR * 100);
+	}
+	
+	@Test
+	public void test_vectors() throws Exception
+	{
+		GenericMatrix<GenericFixed> u = GenericMatrixFactory.vector(GenericMatrixFactory.FIXED_FACTORY, 1, 2, 3);
+		GenericMatrix<GenericFixed> v = GenericMatrixFactory.vector(GenericMatrixFactory.FIXED_FACTORY, 4, 5, 6);
+		
+		Assert.assertEquals(32, u.dot(v).getValue(), ERROR);
+		assertEquals(GenericMatrixFactory.vector(GenericMatrixFactory.DOUBLE_FACTORY, -3, 6, -3), u.cross(v), ERROR);
+		Assert.assertEquals(Math.sqrt(14), u.norm().getValue(), ERROR);
+	}
+	
+	@Test
+	public void test_fixedArithmetic() throws Exception
+	{
+		long a = GenericFixed.toRaw(-3.25), b = GenericFixed.toRaw(1.5);
+		
+		Assert.assertEquals(-4.875, GenericFixed.toDouble(GenericFixed.multiply(a, b)), 0);
+		Assert.assertEquals(-3.25 / 1.5, GenericFixed.toDouble(GenericFixed.divide(a, b)), ERROR);
+		Assert.assertEquals(1.5 / -3.25, GenericFixed.toDouble(GenericFixed.divide(b, a)), ERROR);
+		
+		/*
+		 * Large magnitudes keep their fractional precision
+		 */
+		long large = GenericFixed.toRaw(1000000.0 + 1.0 / 1024);
+		Assert.assertEquals(2000000.0 + 2.0 / 1024, GenericFixed.toDouble(GenericFixed.multiply(large, GenericFixed.toRaw(2))), 0);
+	}
+	
+	@Test
+	public void test_fixedOverflow() throws Exception
+	{
+		long large = GenericFixed.toRaw(100000), small = GenericFixed.toRaw(1.0 / 100000);
+		
+		assertOverflow(large, large, true);
+		assertOverflow(-large, large, true);
+		assertOverflow(large, small, false);
+		assertOverflow(-large, small, false);
+		assertOverflow(Long.MIN_VALUE, GenericFixed.toRaw(-1), true);
+		
+		/*
+		 * The most negative value is still in range
+		 */
+		Assert.assertEquals(Long.MIN_VALUE, GenericFixed.multiply(Long.MIN_VALUE, GenericFixed.ONE));
+		Assert.assertEquals(Long.MIN_VALUE, GenericFixed.divide(Long.MIN_VALUE, GenericFixed.ONE));
+		Assert.assertEquals(Long.MIN_VALUE, GenericFixed.divide(GenericFixed.toRaw(1 << 30), GenericFixed.toRaw(-0.5)));
+		Assert.assertEquals(25000, GenericFixed.toDouble(GenericFixed.divide(-large, GenericFixed.toRaw(-4))), 0);
+	}
+	
+	private static void assertOverflow(long a, long b, boolean multiply)
+	{
+		try
+		{
+			if (multiply)
+			{
+				GenericFixed.multiply(a, b);
+			}
+			else
+			{
+				GenericFixed.divide(a, b);
+			}
+			Assert.fail("Expected an overflow of " + GenericFixed.toDouble(a) + (multiply ? " * " : " / ") + GenericFixed.toDouble(b));
+		}
+		catch (ArithmeticException e)
+		{
+			// expected
+		}
+	}
+}
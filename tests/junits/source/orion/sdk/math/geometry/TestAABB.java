@@ -0,0 +1,101 @@
+package orion.sdk.math.geometry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+
+public class TestAABB
+{
+	public final float ERROR = 0.00001f;
+
+	@Test
+	public void test_include()
+	{
+		AABB box = new AABB().empty();
+		Assert.assertTrue(box.isEmpty());
+		Assert.assertEquals(0, box.getHalfArea(), ERROR);
+
+		box.include(1, 2, 3);
+		Assert.assertFalse(box.isEmpty());
+		Assert.assertTrue(box.equals(new AABB(1, 2, 3, 1, 2, 3), ERROR));
+
+		box.include(-1, 4, 0).include(new AABB(0, 0, 0, 2, 1, 1));
+		Assert.assertTrue(box.equals(new AABB(-1, 0, 0, 2, 4, 3), ERROR));
+		Assert.assertEquals(3 * 4 + 4 * 3 + 3 * 3, box.getHalfArea(), ERROR);
+	}
+
+	@Test
+	public void test_contains()
+	{
+		AABB box = new AABB(0, 0, 0, 2, 2, 2);
+		Assert.assertTrue(box.contains(1, 1, 1));
+		Assert.assertTrue(box.contains(2, 0, 2));
+		Assert.assertFalse(box.contains(1, 1, -0.1f));
+		Assert.assertTrue(box.contains(new AABB(0.5f, 0.5f, 0.5f, 1, 1, 1)));
+		Assert.assertFalse(box.contains(new AABB(0.5f, 0.5f, 0.5f, 3, 1, 1)));
+		Assert.assertTrue(box.intersects(new AABB(2, 2, 2, 3, 3, 3)));
+		Assert.assertFalse(box.intersects(new AABB(2.1f, 0, 0, 3, 3, 3)));
+	}
+
+	@Test
+	public void test_center_size()
+	{
+		AABB box = new AABB(-1, 0, 2, 3, 1, 6);
+		Vec4f v = new Vec4f();
+		Assert.assertTrue(box.getCenter(v).equals(new Vec4f(1, 0.5f, 4, 1), ERROR));
+		Assert.assertTrue(box.getSize(v).equals(new Vec4f(4, 1, 4, 0), ERROR));
+		Assert.assertTrue(box.getPoint(0.25f, 1, 0, v).equals(new Vec4f(0, 1, 2, 1), ERROR));
+
+		AABB cell = box.subDivide(1, 0, 3, 2, 1, 4, new AABB());
+		Assert.assertTrue(cell.equals(new AABB(1, 0, 5, 3, 1, 6), ERROR));
+	}
+
+	@Test
+	public void test_box()
+	{
+		Box box = new Box(1, 2, 3, 4, 5, 6);
+		AABB aabb = box.getAABB(new AABB());
+		Assert.assertTrue(aabb.equals(new AABB(1, 2, 3, 5, 7, 9), ERROR));
+
+		Box copy = new Box();
+		copy.set(aabb);
+		Assert.assertEquals(4, copy.getWidth(), ERROR);
+		Assert.assertEquals(5, copy.getHeight(), ERROR);
+		Assert.assertEquals(6, copy.getDepth(), ERROR);
+		Assert.assertTrue(new AABB().set(copy).equals(aabb, ERROR));
+	}
+
+	@Test
+	public void test_transform()
+	{
+		Mat4f m = new Mat4f().setTranslation(1, 2, 3);
+		AABB box = new AABB(0, 0, 0, 1, 1, 1);
+		Assert.assertTrue(AABB.transform(m, box, new AABB()).equals(new AABB(1, 2, 3, 2, 3, 4), ERROR));
+
+		/*
+		 * A rotation by 90 degrees about z maps x to y and y to -x
+		 */
+		m.set(
+			0, -1, 0, 0,
+			1, 0, 0, 0,
+			0, 0, 1, 0,
+			0, 0, 0, 1);
+		AABB.transform(m, box, box);
+		Assert.assertTrue(box.equals(new AABB(-1, 0, 0, 0, 1, 1), ERROR));
+
+		/*
+		 * A rotation by 45 degrees grows the bounds to contain every rotated corner
+		 */
+		float c = (float) Math.cos(Math.PI / 4);
+		m.set(
+			c, -c, 0, 0,
+			c, c, 0, 0,
+			0, 0, 1, 0,
+			0, 0, 0, 1);
+		box.set(-1, -1, -1, 1, 1, 1);
+		AABB.transform(m, box, box);
+		Assert.assertTrue(box.equals(new AABB(-2 * c, -2 * c, -1, 2 * c, 2 * c, 1), ERROR));
+	}
+}
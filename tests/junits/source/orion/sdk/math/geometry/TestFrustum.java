@@ -0,0 +1,175 @@
+package orion.sdk.math.geometry;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+
+public class TestFrustum
+{
+	public final float ERROR = 0.0001f;
+
+	/**
+	 * A camera at {@code (0, 0, 10)} looking at the origin with a 90 degree field of view.
+	 */
+	private static Mat4f viewProjection()
+	{
+		Mat4f projection = new Mat4f().setPerspective(90, 1, 1, 100);
+		Mat4f view = new Mat4f().setLookAt(new Vec4f(0, 0, 10, 1), new Vec4f(0, 0, 0, 1), new Vec4f(0, 1, 0, 0));
+		return Mat4f.mul(projection, view, new Mat4f());
+	}
+
+	/**
+	 * Returns the number of corners of the box which are inside, or minus one if all corners are outside
+	 * of the same clipping plane.
+	 */
+	private static int clipCorners(Mat4f m, AABB box)
+	{
+		Vec4f corner = new Vec4f();
+		int inside = 0;
+		int[] outside = new int[6];
+		for (int i = 0; i < 8; i++)
+		{
+			box.getPoint(i & 1, (i >> 1) & 1, (i >> 2) & 1, corner);
+			Mat4f.transform(m, corner, corner);
+			boolean[] out = {
+				corner.x < -corner.w, corner.x > corner.w,
+				corner.y < -corner.w, corner.y > corner.w,
+				corner.z < -corner.w, corner.z > corner.w };
+			boolean in = true;
+			for (int p = 0; p < 6; p++)
+			{
+				if (out[p])
+				{
+					outside[p]++;
+					in = false;
+				}
+			}
+			if (in)
+			{
+				inside++;
+			}
+		}
+		for (int p = 0; p < 6; p++)
+		{
+			if (outside[p] == 8)
+			{
+				return -1;
+			}
+		}
+		return inside;
+	}
+
+	@Test
+	public void test_planes()
+	{
+		Frustum frustum = new Frustum(viewProjection());
+		float[] plane = new float[4];
+
+		/*
+		 * The near plane faces away from the camera at z = 9, the far plane towards it at z = -90
+		 */
+		Assert.assertArrayEquals(new float[] { 0, 0, -1, 9 }, frustum.getPlane(Frustum.NEAR, plane), ERROR);
+		Assert.assertArrayEquals(new float[] { 0, 0, 1, 90 }, frustum.getPlane(Frustum.FAR, plane), 0.01f);
+
+		float c = (float) Math.cos(Math.PI / 4);
+		Assert.assertArrayEquals(new float[] { c, 0, -c, 10 * c }, frustum.getPlane(Frustum.LEFT, plane), ERROR);
+		Assert.assertArrayEquals(new float[] { 0, -c, -c, 10 * c }, frustum.getPlane(Frustum.TOP, plane), ERROR);
+		Assert.assertEquals(1, frustum.distance(Frustum.NEAR, 0, 0, 8), ERROR);
+	}
+
+	@Test
+	public void test_contains()
+	{
+		Frustum frustum = new Frustum(viewProjection());
+		Assert.assertTrue(frustum.contains(0, 0, 0));
+		Assert.assertTrue(frustum.contains(4, 4, 5));
+		Assert.assertFalse(frustum.contains(6, 0, 5));
+		Assert.assertFalse(frustum.contains(0, 0, 9.5f));
+		Assert.assertFalse(frustum.contains(0, 0, -91));
+		Assert.assertTrue(frustum.intersects(6, 0, 5, 1));
+		Assert.assertFalse(frustum.intersects(6, 0, 5, 0.5f));
+
+		Frustum everything = new Frustum();
+		Assert.assertTrue(everything.contains(1e6f, -1e6f, 1e6f));
+		Assert.assertEquals(Frustum.INSIDE, everything.classify(new AABB(-1e6f, -1e6f, -1e6f, 1e6f, 1e6f, 1e6f)));
+	}
+
+	@Test
+	public void test_classify()
+	{
+		Frustum frustum = new Frustum(viewProjection());
+		Assert.assertEquals(Frustum.INSIDE, frustum.classify(new AABB(-1, -1, -1, 1, 1, 1)));
+		Assert.assertEquals(Frustum.INTERSECTING, frustum.classify(new AABB(4, -1, 4, 6, 1, 6)));
+		Assert.assertEquals(Frustum.OUTSIDE, frustum.classify(new AABB(7, -1, 4, 8, 1, 6)));
+		Assert.assertEquals(Frustum.OUTSIDE, frustum.classify(new AABB(-1, -1, 11, 1, 1, 12)));
+		Assert.assertEquals(Frustum.INTERSECTING, frustum.classify(new AABB(-1000, -1000, -1000, 1000, 1000, 1000)));
+	}
+
+	@Test
+	public void test_classify_RANDOM()
+	{
+		Mat4f m = viewProjection();
+		Frustum frustum = new Frustum(m);
+		Random random = new Random(42);
+		AABB box = new AABB();
+
+		for (int i = 0; i < 10000; i++)
+		{
+			float x = random.nextFloat() * 240 - 120, y = random.nextFloat() * 240 - 120, z = random.nextFloat() * 120 - 100;
+			float size = random.nextFloat() * 10;
+			box.set(x, y, z, x + size, y + size * random.nextFloat(), z + size * random.nextFloat());
+
+			int corners = clipCorners(m, box);
+			int c = frustum.classify(box);
+			if (corners < 0)
+			{
+				Assert.assertEquals(Frustum.OUTSIDE, c);
+			}
+			else if (corners == 8)
+			{
+				Assert.assertEquals(Frustum.INSIDE, c);
+			}
+			else if (corners > 0)
+			{
+				Assert.assertEquals(Frustum.INTERSECTING, c);
+			}
+			Assert.assertEquals(c != Frustum.OUTSIDE, frustum.intersects(box));
+		}
+	}
+
+	@Test
+	public void test_intersects_BATCH()
+	{
+		Mat4f m = viewProjection();
+		Frustum frustum = new Frustum(m);
+		Random random = new Random(7);
+		int count = 1000;
+		AABB[] boxes = new AABB[count + 1];
+		for (int i = 0; i < count; i++)
+		{
+			float x = random.nextFloat() * 200 - 100, y = random.nextFloat() * 200 - 100, z = random.nextFloat() * 120 - 100;
+			boxes[i] = new AABB(x, y, z, x + 2, y + 2, z + 2);
+		}
+		boxes[count - 1] = null;
+
+		boolean[] visible = new boolean[count];
+		int[] classes = new int[count];
+		int visibleCount = frustum.intersects(boxes, count, visible);
+		Assert.assertEquals(visibleCount, frustum.classify(boxes, count, classes));
+
+		int expected = 0;
+		for (int i = 0; i < count; i++)
+		{
+			boolean v = boxes[i] != null && frustum.intersects(boxes[i]);
+			Assert.assertEquals(v, visible[i]);
+			Assert.assertEquals(v, classes[i] != Frustum.OUTSIDE);
+			expected += v ? 1 : 0;
+		}
+		Assert.assertEquals(expected, visibleCount);
+		Assert.assertTrue(visibleCount > 0 && visibleCount < count);
+	}
+}
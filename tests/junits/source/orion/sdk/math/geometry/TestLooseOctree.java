@@ -0,0 +1,195 @@
+package orion.sdk.math.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.Vec4f;
+
+public class TestLooseOctree
+{
+	private static AABB randomBox(Random random, float range, float maxSize)
+	{
+		float x = random.nextFloat() * 2 * range - range, y = random.nextFloat() * 2 * range - range, z = random.nextFloat() * 2 * range - range;
+		float size = random.nextFloat() * random.nextFloat() * maxSize;
+		return new AABB(x, y, z, x + size, y + size * random.nextFloat(), z + size * random.nextFloat());
+	}
+
+	private static int[] sorted(int[] handles, int count)
+	{
+		int[] result = Arrays.copyOf(handles, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	@Test
+	public void test_insert_remove()
+	{
+		LooseOctree<String> octree = new LooseOctree<String>(new AABB(-10, -10, -10, 10, 10, 10), 4);
+		int a = octree.insert("a", new AABB(1, 1, 1, 1.1f, 1.1f, 1.1f));
+		int b = octree.insert("b", new AABB(1, 1, 1, 1.1f, 1.1f, 1.1f));
+		int c = octree.insert("c", new AABB(-9, -9, -9, 9, 9, 9));
+		int d = octree.insert("d", new AABB(50, 50, 50, 51, 51, 51));
+
+		/*
+		 * Several items share a cell, large items and items outside stay in the root
+		 */
+		Assert.assertEquals(4, octree.size());
+		Assert.assertEquals(4, octree.getDepth(a));
+		Assert.assertEquals(4, octree.getDepth(b));
+		Assert.assertEquals(0, octree.getDepth(c));
+		Assert.assertEquals(0, octree.getDepth(d));
+		Assert.assertEquals("b", octree.get(b));
+
+		List<String> result = octree.query(new AABB(0, 0, 0, 2, 2, 2), new ArrayList<String>());
+		Assert.assertEquals(3, result.size());
+		Assert.assertTrue(result.containsAll(Arrays.asList("a", "b", "c")));
+		Assert.assertEquals(1, octree.query(new AABB(49, 49, 49, 50, 50, 50), new ArrayList<String>()).size());
+
+		octree.remove(a);
+		Assert.assertEquals(3, octree.size());
+		Assert.assertEquals(2, octree.query(new AABB(0, 0, 0, 2, 2, 2), new ArrayList<String>()).size());
+		Assert.assertEquals(a, octree.insert("e", new AABB(0, 0, 0, 1, 1, 1)));
+
+		octree.clear();
+		Assert.assertEquals(0, octree.size());
+		Assert.assertEquals(1, octree.getCellCount());
+		Assert.assertEquals(0, octree.query(new AABB(-100, -100, -100, 100, 100, 100), new ArrayList<String>()).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_remove_INVALID()
+	{
+		LooseOctree<String> octree = new LooseOctree<String>(new AABB(-10, -10, -10, 10, 10, 10));
+		int a = octree.insert("a", new AABB(1, 1, 1, 2, 2, 2));
+		octree.remove(a);
+		octree.remove(a);
+	}
+
+	@Test
+	public void test_update()
+	{
+		LooseOctree<String> octree = new LooseOctree<String>(new AABB(-8, -8, -8, 8, 8, 8), 3);
+		int a = octree.insert("a", new AABB(1, 1, 1, 1.5f, 1.5f, 1.5f));
+		Assert.assertEquals(3, octree.getDepth(a));
+
+		/*
+		 * Moving within the cell keeps it, leaving the cell or growing re-inserts it
+		 */
+		Assert.assertFalse(octree.update(a, new AABB(1.2f, 1.2f, 1.2f, 1.7f, 1.7f, 1.7f)));
+		Assert.assertTrue(octree.update(a, new AABB(-5, 1, 1, -4.5f, 1.5f, 1.5f)));
+		Assert.assertTrue(octree.update(a, new AABB(-5, 1, 1, -0.5f, 5.5f, 5.5f)));
+		Assert.assertEquals(1, octree.getDepth(a));
+		Assert.assertEquals(1, octree.query(new AABB(-3, 3, 3, -3, 3, 3), new ArrayList<String>()).size());
+		Assert.assertEquals(0, octree.query(new AABB(1, 1, 1, 2, 2, 2), new ArrayList<String>()).size());
+		Assert.assertTrue(octree.getBounds(a, new AABB()).equals(new AABB(-5, 1, 1, -0.5f, 5.5f, 5.5f), 0));
+	}
+
+	@Test
+	public void test_query_RANDOM()
+	{
+		Random random = new Random(42);
+		int count = 5000;
+		AABB[] boxes = new AABB[count];
+		Integer[] values = new Integer[count];
+		for (int i = 0; i < count; i++)
+		{
+			boxes[i] = randomBox(random, 110, 20);
+			values[i] = i;
+		}
+
+		LooseOctree<Integer> octree = new LooseOctree<Integer>(new AABB(-100, -100, -100, 100, 100, 100), 6);
+		int[] handles = octree.insert(values, boxes, count, new int[count]);
+
+		/*
+		 * Move half of the items and remove a tenth
+		 */
+		boolean[] removed = new boolean[count];
+		for (int i = 0; i < count; i += 2)
+		{
+			boxes[i] = randomBox(random, 110, 20);
+			octree.update(handles[i], boxes[i]);
+		}
+		for (int i = 0; i < count; i += 10)
+		{
+			octree.remove(handles[i]);
+			removed[i] = true;
+		}
+
+		int[] result = new int[count];
+		int[] expected = new int[count];
+		for (int q = 0; q < 50; q++)
+		{
+			AABB range = randomBox(random, 100, 80);
+			int n = 0;
+			for (int i = 0; i < count; i++)
+			{
+				if (!removed[i] && range.intersects(boxes[i]))
+				{
+					expected[n++] = handles[i];
+				}
+			}
+			Assert.assertArrayEquals(sorted(expected, n), sorted(result, octree.query(range, result)));
+		}
+
+		Mat4f projection = new Mat4f().setPerspective(60, 1.5f, 1, 150);
+		Mat4f view = new Mat4f().setLookAt(new Vec4f(0, 20, 90, 1), new Vec4f(10, 0, 0, 1), new Vec4f(0, 1, 0, 0));
+		Frustum frustum = new Frustum(Mat4f.mul(projection, view, new Mat4f()));
+		int n = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (!removed[i] && frustum.intersects(boxes[i]))
+			{
+				expected[n++] = handles[i];
+			}
+		}
+		Assert.assertTrue(n > 0 && n < count);
+		Assert.assertArrayEquals(sorted(expected, n), sorted(result, octree.query(frustum, result)));
+
+		for (int q = 0; q < 50; q++)
+		{
+			Vec4f origin = new Vec4f(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, 150, 1);
+			Vec4f direction = new Vec4f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, -1, 0);
+			float maxDistance = 200;
+			n = 0;
+			for (int i = 0; i < count; i++)
+			{
+				if (!removed[i] && intersects(origin, direction, maxDistance, boxes[i]))
+				{
+					expected[n++] = handles[i];
+				}
+			}
+			Assert.assertArrayEquals(sorted(expected, n), sorted(result, octree.query(origin, direction, maxDistance, result)));
+		}
+	}
+
+	/**
+	 * Brute force ray box test by sampling the segment clipped to the box per axis.
+	 */
+	private static boolean intersects(Vec4f o, Vec4f d, float maxDistance, AABB b)
+	{
+		float near = 0, far = maxDistance;
+		float[] origin = { o.x, o.y, o.z }, direction = { d.x, d.y, d.z };
+		float[] min = { b.minX, b.minY, b.minZ }, max = { b.maxX, b.maxY, b.maxZ };
+		for (int axis = 0; axis < 3; axis++)
+		{
+			if (direction[axis] == 0)
+			{
+				if (origin[axis] < min[axis] || origin[axis] > max[axis])
+				{
+					return false;
+				}
+				continue;
+			}
+			float t0 = (min[axis] - origin[axis]) / direction[axis], t1 = (max[axis] - origin[axis]) / direction[axis];
+			near = Math.max(near, Math.min(t0, t1));
+			far = Math.min(far, Math.max(t0, t1));
+		}
+		return near <= far;
+	}
+}
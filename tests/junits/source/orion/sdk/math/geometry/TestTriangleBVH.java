@@ -0,0 +1,194 @@
+package orion.sdk.math.geometry;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.math.Vec4f;
+
+public class TestTriangleBVH
+{
+	public final float ERROR = 0.00001f;
+
+	private static float[] vertices(int triangleCount, long seed)
+	{
+		Random random = new Random(seed);
+		float[] vertices = new float[9 * triangleCount];
+		for (int i = 0; i < triangleCount; i++)
+		{
+			float x = random.nextFloat() * 20 - 10, y = random.nextFloat() * 20 - 10, z = random.nextFloat() * 20 - 10;
+			for (int j = 0; j < 9; j += 3)
+			{
+				vertices[9 * i + j + 0] = x + random.nextFloat() - 0.5f;
+				vertices[9 * i + j + 1] = y + random.nextFloat() - 0.5f;
+				vertices[9 * i + j + 2] = z + random.nextFloat() - 0.5f;
+			}
+		}
+		return vertices;
+	}
+
+	private static int[] triangles(int triangleCount)
+	{
+		int[] triangles = new int[3 * triangleCount];
+		for (int i = 0; i < triangles.length; i++)
+		{
+			triangles[i] = i;
+		}
+		return triangles;
+	}
+
+	private static float[] rays(int rayCount, long seed, float scale, float offset)
+	{
+		Random random = new Random(seed);
+		float[] rays = new float[3 * rayCount];
+		for (int i = 0; i < rays.length; i++)
+		{
+			rays[i] = random.nextFloat() * scale + offset;
+		}
+		return rays;
+	}
+
+	/**
+	 * Intersects every triangle with a ray the same way the hierarchy does.
+	 */
+	private static float bruteForce(float[] vertices, int triangleCount, float[] origins, float[] directions, int ray, int[] hit)
+	{
+		TriangleBVH single = null;
+		float closest = Float.POSITIVE_INFINITY;
+		hit[0] = -1;
+		float[] distance = new float[1];
+		Vec4f origin = new Vec4f(origins[3 * ray], origins[3 * ray + 1], origins[3 * ray + 2], 1);
+		Vec4f direction = new Vec4f(directions[3 * ray], directions[3 * ray + 1], directions[3 * ray + 2], 0);
+		for (int i = 0; i < triangleCount; i++)
+		{
+			single = new TriangleBVH(vertices, new int[] { 3 * i, 3 * i + 1, 3 * i + 2 });
+			if (single.intersect(origin, direction, Float.MAX_VALUE, false, distance) >= 0 && distance[0] < closest)
+			{
+				closest = distance[0];
+				hit[0] = i;
+			}
+		}
+		return closest;
+	}
+
+	private void assertClosestHits(float[] vertices, int triangleCount, TriangleBVH bvh) throws Exception
+	{
+		int rayCount = 200;
+		float[] origins = rays(rayCount, 3, 30, -15);
+		float[] directions = rays(rayCount, 4, 2, -1);
+		float[] distances = new float[rayCount];
+		int[] hits = new int[rayCount];
+
+		int hitCount = bvh.intersect(origins, directions, rayCount, Float.MAX_VALUE, false, distances, hits);
+
+		int expectedHits = 0;
+		int[] hit = new int[1];
+		for (int i = 0; i < rayCount; i++)
+		{
+			float expected = bruteForce(vertices, triangleCount, origins, directions, i, hit);
+			Assert.assertEquals(hit[0], hits[i]);
+			Assert.assertEquals(expected, distances[i], ERROR);
+			expectedHits += hit[0] >= 0 ? 1 : 0;
+		}
+		Assert.assertEquals(expectedHits, hitCount);
+		Assert.assertTrue(hitCount > 0);
+	}
+
+	@Test
+	public void test_closestHit() throws Exception
+	{
+		int triangleCount = 500;
+		float[] vertices = vertices(triangleCount, 1);
+		TriangleBVH bvh = new TriangleBVH(vertices, triangles(triangleCount));
+
+		Assert.assertEquals(triangleCount, bvh.getTriangleCount());
+		Assert.assertTrue(bvh.getNodeCount() > 1);
+		assertClosestHits(vertices, triangleCount, bvh);
+	}
+
+	@Test
+	public void test_parallelBuild() throws Exception
+	{
+		int threshold = TriangleBVH.PARALLEL_THRESHOLD;
+		TriangleBVH.PARALLEL_THRESHOLD = 16;
+		try
+		{
+			int triangleCount = 2000;
+			float[] vertices = vertices(triangleCount, 2);
+			assertClosestHits(vertices, triangleCount, new TriangleBVH(vertices, triangles(triangleCount)));
+		}
+		finally
+		{
+			TriangleBVH.PARALLEL_THRESHOLD = threshold;
+		}
+	}
+
+	@Test
+	public void test_anyHit() throws Exception
+	{
+		/*
+		 * Two parallel quads in front of each other
+		 */
+		float[] vertices = {
+			-1, -1, 1,   1, -1, 1,   1, 1, 1,   -1, 1, 1,
+			-1, -1, 2,   1, -1, 2,   1, 1, 2,   -1, 1, 2 };
+		int[] triangles = { 0, 1, 2, 0, 2, 3, 4, 5, 6, 4, 6, 7 };
+		TriangleBVH bvh = new TriangleBVH(vertices, triangles);
+		float[] distance = new float[1];
+
+		int closest = bvh.intersect(new Vec4f(0.5f, 0.2f, 0, 1), new Vec4f(0, 0, 1, 0), 10, false, distance);
+		Assert.assertTrue(closest == 0 || closest == 1);
+		Assert.assertEquals(1, distance[0], ERROR);
+
+		int any = bvh.intersect(new Vec4f(0.5f, 0.2f, 0, 1), new Vec4f(0, 0, 1, 0), 10, true, distance);
+		Assert.assertTrue(any >= 0);
+
+		/*
+		 * Out of range and missing rays
+		 */
+		Assert.assertEquals(-1, bvh.intersect(new Vec4f(0.5f, 0.2f, 0, 1), new Vec4f(0, 0, 1, 0), 0.5f, false, distance));
+		Assert.assertEquals(-1, bvh.intersect(new Vec4f(5, 5, 0, 1), new Vec4f(0, 0, 1, 0), 10, false, distance));
+		Assert.assertEquals(Float.POSITIVE_INFINITY, distance[0], 0);
+	}
+
+	@Test
+	public void test_refit() throws Exception
+	{
+		int triangleCount = 300;
+		float[] vertices = vertices(triangleCount, 5);
+		TriangleBVH bvh = new TriangleBVH(vertices, triangles(triangleCount));
+
+		float[] moved = vertices.clone();
+		for (int i = 0; i < moved.length; i += 3)
+		{
+			moved[i] = 2 * moved[i] + 3;
+		}
+		bvh.refit(moved);
+
+		float[] bounds = bvh.getBounds(new float[6]);
+		float minX = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < moved.length; i += 3)
+		{
+			minX = Math.min(minX, moved[i]);
+		}
+		Assert.assertEquals(minX, bounds[0], 0);
+		assertClosestHits(moved, triangleCount, bvh);
+	}
+
+	@Test
+	public void test_degenerate() throws Exception
+	{
+		float[] vertices = { 0, 0, 0,   1, 1, 1,   2, 2, 2,   0, 0, 1,   1, 0, 1,   0, 1, 1 };
+		TriangleBVH bvh = new TriangleBVH(vertices, new int[] { 0, 1, 2, -1, 4, 5, 3, 4, 5 });
+		float[] distance = new float[1];
+
+		Assert.assertEquals(2, bvh.getTriangleCount());
+		Assert.assertEquals(2, bvh.intersect(new Vec4f(0.2f, 0.2f, 0, 1), new Vec4f(0, 0, 1, 0), 10, false, distance));
+		Assert.assertEquals(-1, bvh.intersect(new Vec4f(0.2f, 0.2f, 0, 1), new Vec4f(0, 0, 0, 0), 10, false, distance));
+
+		TriangleBVH empty = new TriangleBVH(vertices, new int[0]);
+		Assert.assertEquals(-1, empty.intersect(new Vec4f(), new Vec4f(0, 0, 1, 0), 10, false, distance));
+		empty.refit(vertices);
+	}
+}
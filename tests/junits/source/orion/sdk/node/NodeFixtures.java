@@ -0,0 +1,21 @@
+package orion.sdk.node;
+
+import orion.sdk.math.geometry.Box;
+import orion.sdk.node.drawables.EntityNode;
+
+/**
+ * Builds nodes shared by the node, container and culling tests.
+ */
+public class NodeFixtures
+{
+	/**
+	 * Returns an entity with unit bounds at the given position.
+	 */
+	public static EntityNode entity(String name, float x, float y, float z)
+	{
+		EntityNode entity = new EntityNode(name, null, null, null);
+		entity.setBounds(new Box(1, 1, 1));
+		entity.getTransformation().setPosition(x, y, z);
+		return entity;
+	}
+}
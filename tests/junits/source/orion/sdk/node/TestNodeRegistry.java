@@ -0,0 +1,70 @@
+package orion.sdk.node;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.math.geometry.Box;
+import orion.sdk.node.containers.ContainerNode;
+import orion.sdk.node.containers.SpatialNode;
+import orion.sdk.node.drawables.EntityNode;
+import orion.sdk.node.drawables.LightNode;
+
+public class TestNodeRegistry
+{
+	@Test
+	public void test_nested() throws Exception
+	{
+		ContainerNode root = new ContainerNode("root");
+		ContainerNode group = new ContainerNode("group");
+		root.addChild(new LightNode("a"));
+		root.addChild(group);
+		group.addChild(new LightNode("b"));
+		group.addChild(new EntityNode("entity", null, null, null));
+
+		List<Node> lights = root.getRegistry().getNodes(LightNode.class);
+		Assert.assertEquals(2, lights.size());
+		Assert.assertEquals(1, root.findNodes(LightNode.class).size());
+		Assert.assertSame(lights, root.getRegistry().getNodes(LightNode.class));
+		Assert.assertEquals(3, root.getRegistry().getNodes(EntityNode.class).size());
+		Assert.assertEquals(2, root.getRegistry().getTypeCount());
+	}
+
+	@Test
+	public void test_incremental() throws Exception
+	{
+		ContainerNode root = new ContainerNode("root");
+		ContainerNode group = new ContainerNode("group");
+		root.addChild(group);
+		List<Node> before = root.getRegistry().getNodes(LightNode.class);
+		Assert.assertEquals(0, before.size());
+
+		group.addChild(new LightNode("a"));
+		List<Node> after = root.getRegistry().getNodes(LightNode.class);
+		Assert.assertEquals(0, before.size());
+		Assert.assertEquals(1, after.size());
+
+		/*
+		 * A subtree is registered and unregistered as a whole
+		 */
+		SpatialNode spatial = new SpatialNode("spatial", 4, 4, 4, new Box(-10, -10, -10, 20, 20, 20));
+		spatial.addChild(new LightNode("b"));
+		spatial.addChild(new LightNode("c"));
+		group.addChild(spatial);
+		Assert.assertEquals(3, root.getRegistry().getNodes(LightNode.class).size());
+		Assert.assertEquals(3, group.getRegistry().getNodes(LightNode.class).size());
+
+		group.removeChild("spatial");
+		Assert.assertEquals(1, root.getRegistry().getNodes(LightNode.class).size());
+		Assert.assertEquals(1, group.getRegistry().getNodes(LightNode.class).size());
+		Assert.assertEquals(2, spatial.getRegistry().getNodes(LightNode.class).size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void test_readOnly() throws Exception
+	{
+		ContainerNode root = new ContainerNode("root");
+		root.getRegistry().getNodes(LightNode.class).add(new LightNode("a"));
+	}
+}
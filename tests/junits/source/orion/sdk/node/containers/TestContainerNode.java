@@ -0,0 +1,220 @@
+package orion.sdk.node.containers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.node.Node;
+import orion.sdk.node.drawables.LightNode;
+import orion.sdk.util.StructuredBinary;
+
+public class TestContainerNode
+{
+	/**
+	 * Counts its updates and fails every update if {@code failing}.
+	 */
+	private static class CountingNode extends Node
+	{
+		private final boolean safe;
+		private final boolean failing;
+		private final AtomicInteger updates = new AtomicInteger();
+		private volatile Thread thread = null;
+
+		private CountingNode(String name, boolean safe, boolean failing)
+		{
+			super(name);
+			this.safe = safe;
+			this.failing = failing;
+		}
+
+		@Override
+		public boolean isParallelUpdateSafe()
+		{
+			return safe;
+		}
+
+		@Override
+		public void update(float dt) throws Exception
+		{
+			updates.incrementAndGet();
+			thread = Thread.currentThread();
+			if (failing)
+			{
+				throw new Exception(name);
+			}
+		}
+
+		@Override
+		public float getUpdatePeriod()
+		{
+			return 0;
+		}
+
+		@Override
+		public boolean shouldUpdate()
+		{
+			return true;
+		}
+
+		@Override
+		public void read(StructuredBinary binary) throws Exception
+		{
+		}
+
+		@Override
+		public StructuredBinary write() throws Exception
+		{
+			return null;
+		}
+
+		@Override
+		public String getName()
+		{
+			return name;
+		}
+	}
+
+	@Test
+	public void test_publish() throws Exception
+	{
+		ContainerNode container = new ContainerNode("container");
+		container.addChild(new LightNode("a"));
+		Node[] first = container.publishChildren();
+		Assert.assertEquals(1, first.length);
+		Assert.assertSame(first, container.publishChildren());
+
+		/*
+		 * Changes are batched into one new array and leave the published array as it was
+		 */
+		int publishCount = container.children.getPublishCount();
+		container.addChild(new LightNode("b"));
+		container.addChild(new LightNode("c"));
+		container.removeChild("a");
+		container.removeChild("unknown");
+		Assert.assertEquals(2, container.getChildren().size());
+		Assert.assertNull(container.getChild("a"));
+		Assert.assertTrue(container.hasChild("c"));
+		Assert.assertEquals(1, first.length);
+		Assert.assertEquals("a", first[0].getName());
+
+		container.update(0);
+		Node[] second = container.publishChildren();
+		Assert.assertEquals(publishCount + 1, container.children.getPublishCount());
+		Assert.assertEquals(2, second.length);
+		Assert.assertEquals("b", second[0].getName());
+		Assert.assertEquals("c", second[1].getName());
+	}
+
+	@Test
+	public void test_concurrentChanges() throws Exception
+	{
+		final ContainerNode container = new ContainerNode("container");
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		Thread writer = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					for (int i = 0; i < 20000; i++)
+					{
+						container.addChild(new LightNode("l" + i));
+						if (i % 2 == 1)
+						{
+							container.removeChild("l" + (i - 1));
+						}
+					}
+				}
+				catch (Throwable e)
+				{
+					error.set(e);
+				}
+			}
+		});
+		writer.start();
+
+		while (writer.isAlive())
+		{
+			container.update(0);
+			for (Node child : container.publishChildren())
+			{
+				Assert.assertNotNull(child);
+			}
+		}
+		writer.join();
+
+		Assert.assertNull(error.get());
+		Assert.assertEquals(10000, container.publishChildren().length);
+	}
+
+	@Test
+	public void test_parallelUpdate() throws Exception
+	{
+		ContainerNode root = new ContainerNode("root");
+		ContainerNode safeGroup = new ContainerNode("safe");
+		ContainerNode unsafeGroup = new ContainerNode("unsafe");
+		root.addChild(safeGroup);
+		root.addChild(unsafeGroup);
+		CountingNode unsafe = new CountingNode("unsafe", false, false);
+		unsafeGroup.addChild(unsafe);
+		for (int i = 0; i < 2000; i++)
+		{
+			root.addChild(new CountingNode("c" + i, true, false));
+			safeGroup.addChild(new CountingNode("s" + i, true, false));
+		}
+		Assert.assertTrue(safeGroup.isParallelUpdateSafe());
+		Assert.assertFalse(unsafeGroup.isParallelUpdateSafe());
+
+		root.parallelUpdate = true;
+		safeGroup.parallelUpdate = true;
+		root.update(0);
+
+		for (Node child : root.getChildren())
+		{
+			if (child instanceof CountingNode)
+			{
+				Assert.assertEquals(1, ((CountingNode) child).updates.get());
+			}
+		}
+		for (Node child : safeGroup.getChildren())
+		{
+			Assert.assertEquals(1, ((CountingNode) child).updates.get());
+		}
+		Assert.assertEquals(1, unsafe.updates.get());
+		Assert.assertSame(Thread.currentThread(), unsafe.thread);
+	}
+
+	@Test
+	public void test_parallelUpdateErrors() throws Exception
+	{
+		ContainerNode root = new ContainerNode("root");
+		for (int i = 0; i < 1000; i++)
+		{
+			root.addChild(new CountingNode("c" + i, i != 900, i % 300 == 0 || i == 900));
+		}
+		root.parallelUpdate = true;
+
+		try
+		{
+			root.update(0);
+			Assert.fail();
+		}
+		catch (Exception e)
+		{
+			Assert.assertEquals("c0", e.getMessage());
+			Throwable[] suppressed = e.getSuppressed();
+			Assert.assertEquals(3, suppressed.length);
+			Assert.assertEquals("c300", suppressed[0].getMessage());
+			Assert.assertEquals("c600", suppressed[1].getMessage());
+			Assert.assertEquals("c900", suppressed[2].getMessage());
+		}
+
+		for (Node child : root.getChildren())
+		{
+			Assert.assertEquals(1, ((CountingNode) child).updates.get());
+		}
+	}
+}
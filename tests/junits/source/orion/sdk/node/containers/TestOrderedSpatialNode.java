@@ -0,0 +1,94 @@
+package orion.sdk.node.containers;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.graphics.viewing.cameras.PerspectiveCamera;
+import orion.sdk.math.geometry.Box;
+import orion.sdk.node.Node;
+import orion.sdk.node.NodeFixtures;
+import orion.sdk.node.drawables.EntityNode;
+
+public class TestOrderedSpatialNode
+{
+	private static OrderedSpatialNode orderedNode(PerspectiveCamera camera)
+	{
+		OrderedSpatialNode node = new OrderedSpatialNode("ordered", 16, 16, 16, new Box(-50, -50, -50, 100, 100, 100), camera);
+		for (int i = 0; i < 20; i++)
+		{
+			node.addChild(NodeFixtures.entity("e" + i, (i % 3) * 5, 0, ((i * 7) % 20) - 10));
+		}
+		node.addChild(new ContainerNode("group"));
+		return node;
+	}
+
+	/**
+	 * Asserts that the children run back to front as seen from the default camera at z = 10.
+	 */
+	private static void assertBackToFront(OrderedSpatialNode node, int count)
+	{
+		List<Node> children = node.getChildren();
+		Assert.assertEquals(count, children.size());
+		Assert.assertEquals("group", children.get(0).getName());
+		float last = Float.NEGATIVE_INFINITY;
+		for (int i = 1; i < children.size(); i++)
+		{
+			float z = ((EntityNode) children.get(i)).getTransformation().getPosition().get(2, 0);
+			Assert.assertTrue(z >= last);
+			last = z;
+		}
+	}
+
+	@Test
+	public void test_sortNodes() throws Exception
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		OrderedSpatialNode node = orderedNode(camera);
+		node.sortAsynchronously = false;
+		node.update(0);
+		assertBackToFront(node, 21);
+	}
+
+	@Test
+	public void test_sortAsynchronously() throws Exception
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		OrderedSpatialNode node = orderedNode(camera);
+		node.update(0);
+		node.waitForSort();
+		Assert.assertTrue(node.applySortedNodes());
+		assertBackToFront(node, 21);
+
+		/*
+		 * An order sorted before children changed is dropped
+		 */
+		node.lastCameraVector = null;
+		node.update(0);
+		node.waitForSort();
+		node.addChild(NodeFixtures.entity("late", 0, 0, -20));
+		Assert.assertFalse(node.applySortedNodes());
+		Assert.assertEquals("late", node.getChildren().get(21).getName());
+	}
+
+	@Test
+	public void test_sortAgainAfterDrop() throws Exception
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		OrderedSpatialNode node = orderedNode(camera);
+		node.update(0);
+		node.waitForSort();
+
+		/*
+		 * The update dropping the order sorts again although the camera has not moved, and the update
+		 * after it applies the new order
+		 */
+		node.addChild(NodeFixtures.entity("late", 0, 0, -20));
+		node.update(0);
+		node.waitForSort();
+		node.update(0);
+		assertBackToFront(node, 22);
+		Assert.assertEquals("late", node.getChildren().get(1).getName());
+	}
+}
@@ -0,0 +1,152 @@
+package orion.sdk.node.containers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.viewing.FrustumCuller;
+import orion.sdk.graphics.viewing.cameras.PerspectiveCamera;
+import orion.sdk.math.Vec4f;
+import orion.sdk.math.geometry.AABB;
+import orion.sdk.math.geometry.Box;
+import orion.sdk.node.Node;
+import orion.sdk.node.NodeFixtures;
+import orion.sdk.node.drawables.EntityNode;
+import orion.sdk.node.drawables.LightNode;
+
+public class TestSpatialNode
+{
+	private static SpatialNode spatialNode()
+	{
+		return new SpatialNode("spatial", 16, 16, 16, new Box(-50, -50, -50, 100, 100, 100));
+	}
+
+	@Test
+	public void test_sharedCell()
+	{
+		SpatialNode node = spatialNode();
+		node.addChild(NodeFixtures.entity("a", 1, 1, 1));
+		node.addChild(NodeFixtures.entity("b", 1.1f, 1, 1));
+		node.addChild(NodeFixtures.entity("c", 30, 30, 30));
+
+		List<Node> found = node.findNodes(EntityNode.class, new AABB(0, 0, 0, 2, 2, 2));
+		Assert.assertEquals(2, found.size());
+		Assert.assertEquals(0, node.findNodes(LightNode.class, new AABB(0, 0, 0, 2, 2, 2)).size());
+
+		found = node.findNodes(new Vec4f(30, 30, 0, 1), new Vec4f(0, 0, 1, 0), 100);
+		Assert.assertEquals(1, found.size());
+		Assert.assertEquals("c", found.get(0).getName());
+	}
+
+	@Test
+	public void test_reindex()
+	{
+		SpatialNode node = spatialNode();
+		List<EntityNode> entities = new ArrayList<EntityNode>();
+		for (int i = 0; i < 100; i++)
+		{
+			entities.add(NodeFixtures.entity("e" + i, -40 + i * 0.8f, 0, 0));
+		}
+		node.addChildren(entities);
+		Assert.assertEquals(0, node.reindex());
+
+		/*
+		 * Only entities leaving their cell move in the octree, but all are found at their new position
+		 */
+		entities.get(0).getTransformation().setPosition(20, 20, 20);
+		entities.get(1).getTransformation().setPosition(-39.1f, 0, 0);
+		Assert.assertEquals(1, node.reindex());
+		Assert.assertEquals(0, node.reindex());
+
+		List<Node> found = node.findNodes(EntityNode.class, new AABB(19, 19, 19, 21, 21, 21));
+		Assert.assertEquals(1, found.size());
+		Assert.assertSame(entities.get(0), found.get(0));
+		Assert.assertEquals(0, node.findNodes(EntityNode.class, new AABB(-41, -1, -1, -39.7f, 1, 1)).size());
+
+		node.removeChild("e0");
+		Assert.assertEquals(0, node.findNodes(EntityNode.class, new AABB(19, 19, 19, 21, 21, 21)).size());
+		Assert.assertEquals(99, node.findNodes(EntityNode.class, new AABB(-50, -50, -50, 50, 50, 50)).size());
+	}
+
+	@Test
+	public void test_culling()
+	{
+		SpatialNode node = spatialNode();
+		for (int i = 0; i < 20; i++)
+		{
+			node.addChild(NodeFixtures.entity("e" + i, -45 + i * 5, 0, -20));
+		}
+
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		camera.fieldOfView = 90;
+		camera.near = 1;
+		camera.far = 100;
+
+		/*
+		 * The camera at z = 10 sees x within 30 of the axis at z = -20
+		 */
+		FrustumCuller culler = new FrustumCuller("culler");
+		List<IDrawable> visible = new ArrayList<IDrawable>();
+		culler.begin(camera);
+		culler.collect(node, visible);
+		Assert.assertEquals(13, visible.size());
+		Assert.assertEquals(21, culler.getVisitedCount());
+		Assert.assertEquals(7, culler.getCulledCount());
+
+		((EntityNode) node.getChild("e0")).getTransformation().setPosition(0, 0, -30);
+		node.reindex();
+		visible.clear();
+		culler.begin(camera);
+		culler.collect(node, visible);
+		Assert.assertEquals(14, visible.size());
+		Assert.assertTrue(visible.contains(node.getChild("e0")));
+	}
+
+	@Test
+	public void test_childrenChangedWhileCulling()
+	{
+		SpatialNode node = spatialNode();
+		for (int i = 0; i < 20; i++)
+		{
+			node.addChild(NodeFixtures.entity("e" + i, -45 + i * 5, 0, -20));
+		}
+
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		camera.fieldOfView = 90;
+		camera.near = 1;
+		camera.far = 100;
+		FrustumCuller culler = new FrustumCuller("culler");
+		culler.begin(camera);
+
+		Node[] nodes = node.publishChildren();
+		node.beginCulling(culler);
+
+		/*
+		 * Children indexed after culling began get handles past the culling snapshot, a child added again
+		 * gets a new handle and is tested by its bounds
+		 */
+		for (int i = 0; i < 100; i++)
+		{
+			node.addChild(NodeFixtures.entity("late" + i, 0, 0, -20));
+		}
+		Node e10 = node.getChild("e10");
+		node.removeChild("e10");
+		node.addChild(e10);
+		node.removeChild("e0");
+
+		int culled = 0;
+		for (Node child : nodes)
+		{
+			if (node.isCulled(culler, (IDrawable) child))
+			{
+				culled++;
+			}
+		}
+		Assert.assertEquals(7, culled);
+		Assert.assertFalse(node.isCulled(culler, (IDrawable) node.getChild("late99")));
+		Assert.assertFalse(node.isCulled(culler, (IDrawable) e10));
+	}
+}
@@ -0,0 +1,83 @@
+package orion.sdk.node.drawables;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import orion.sdk.graphics.drawables.surfaces.Mesh;
+import orion.sdk.math.Mat4f;
+import orion.sdk.math.geometry.Box;
+
+public class TestInstancedNode
+{
+	private static InstancedNode instancedNode(int count)
+	{
+		Mesh mesh = new Mesh(2, Mesh.FaceType.TRIANGLE, new Box(-1, -1, -1, 2, 2, 2));
+		InstancedNode node = new InstancedNode("instances", mesh, null, null, 4);
+		node.setInstanceCount(count);
+		return node;
+	}
+
+	@Test
+	public void test_instances()
+	{
+		InstancedNode node = instancedNode(10);
+		Assert.assertEquals(10, node.getInstanceCount());
+		Assert.assertEquals(20, node.getFaceCount());
+
+		/*
+		 * New instances are white and untransformed
+		 */
+		float[] instance = node.getInstances(9, new float[InstancedNode.FLOATS_PER_INSTANCE], 1);
+		Assert.assertArrayEquals(new float[] { 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 1, 1, 1, 1 }, instance, 0);
+
+		node.setTransformation(3, new Mat4f().setTranslation(1, 2, 3));
+		node.setColor(3, 0.5f, 0.25f, 0, 1);
+		node.getInstances(3, instance, 1);
+		Assert.assertArrayEquals(new float[] { 1, 0, 0, 1, 0, 1, 0, 2, 0, 0, 1, 3, 0.5f, 0.25f, 0, 1 }, instance, 0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void test_outOfBounds()
+	{
+		instancedNode(2).setColor(2, 1, 1, 1, 1);
+	}
+
+	@Test
+	public void test_dirtyRanges()
+	{
+		InstancedNode node = instancedNode(1000);
+		Assert.assertArrayEquals(new int[] { 0, 1000 }, node.getDirtyRanges());
+		node.clearDirtyRanges();
+		Assert.assertEquals(0, node.getDirtyRanges().length);
+
+		/*
+		 * Changes fewer than MERGE_DISTANCE instances apart are merged into one range
+		 */
+		int distance = InstancedNode.MERGE_DISTANCE;
+		node.setColor(10, 1, 0, 0, 1);
+		node.setColor(11, 1, 0, 0, 1);
+		node.setColor(10 + distance, 1, 0, 0, 1);
+		node.setInstances(500, new float[2 * InstancedNode.FLOATS_PER_INSTANCE], 0, 2);
+		Assert.assertArrayEquals(new int[] { 10, 11 + distance, 500, 502 }, node.getDirtyRanges());
+
+		/*
+		 * Ranges beyond a reduced instance count are left out
+		 */
+		node.setInstanceCount(501);
+		Assert.assertArrayEquals(new int[] { 10, 11 + distance, 500, 501 }, node.getDirtyRanges());
+	}
+
+	@Test
+	public void test_bounds()
+	{
+		InstancedNode node = instancedNode(2);
+		node.setTransformation(0, new Mat4f().setTranslation(10, 0, 0));
+		node.setTransformation(1, new Mat4f().setScale(2, 2, 2));
+
+		Box bounds = node.getBounds();
+		Assert.assertEquals(-2, bounds.getLeft(), 1e-6f);
+		Assert.assertEquals(11, bounds.getRight(), 1e-6f);
+		Assert.assertEquals(-2, bounds.getBottom(), 1e-6f);
+		Assert.assertEquals(2, bounds.getTop(), 1e-6f);
+	}
+}
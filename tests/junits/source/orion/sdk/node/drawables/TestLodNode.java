@@ -0,0 +1,197 @@
+package orion.sdk.node.drawables;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jogamp.opengl.GLException;
+
+import orion.sdk.graphics.drawables.IDrawable;
+import orion.sdk.graphics.util.OpenGLContext;
+import orion.sdk.graphics.util.OpenGLManager;
+import orion.sdk.graphics.viewing.cameras.PerspectiveCamera;
+import orion.sdk.math.geometry.Box;
+
+public class TestLodNode
+{
+	private static class Level implements IDrawable
+	{
+		private final String name;
+		private boolean ready;
+
+		private Level(String name, boolean ready)
+		{
+			this.name = name;
+			this.ready = ready;
+		}
+
+		@Override
+		public void upload(OpenGLContext c) throws GLException
+		{
+			ready = true;
+		}
+
+		@Override
+		public void release(OpenGLContext c) throws GLException
+		{
+			ready = false;
+		}
+
+		@Override
+		public boolean isReady()
+		{
+			return ready;
+		}
+
+		@Override
+		public String getName()
+		{
+			return name;
+		}
+
+		@Override
+		public void draw(OpenGLContext c) throws GLException
+		{
+		}
+
+		@Override
+		public int getFaceCount()
+		{
+			return 0;
+		}
+
+		@Override
+		public Box getBounds()
+		{
+			return new Box(-1, -1, -1, 2, 2, 2);
+		}
+
+		@Override
+		public boolean isVisible()
+		{
+			return true;
+		}
+	}
+
+	private static LodNode lodNode(LodNode.ESelection selection, float... thresholds)
+	{
+		LodNode node = new LodNode("lod", null, null);
+		node.selection = selection;
+		for (int i = 0; i < thresholds.length; i++)
+		{
+			node.addLevel(new Level("level" + i, true), thresholds[i]);
+		}
+		node.addLevel(new Level("level" + thresholds.length, true), 0);
+		return node;
+	}
+
+	/**
+	 * Moves the node to {@code distance} in front of the default observer at z = 10
+	 */
+	private static int select(LodNode node, PerspectiveCamera camera, float distance)
+	{
+		node.getTransformation().setPosition(0, 0, 10 - distance);
+		return node.selectLevel(camera);
+	}
+
+	@Test
+	public void test_distance()
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		LodNode node = lodNode(LodNode.ESelection.DISTANCE, 10, 20);
+		Assert.assertEquals(3, node.getLevelCount());
+
+		node.getTransformation().setPosition(0, 0, 0);
+		Assert.assertEquals(10, node.getDistance(camera), 1e-5f);
+
+		Assert.assertEquals(0, select(node, camera, 5));
+		Assert.assertEquals(1, select(node, camera, 12));
+		Assert.assertEquals(2, select(node, camera, 50));
+		Assert.assertEquals(0, select(node, camera, 1));
+
+		/*
+		 * The first selection has no hysteresis
+		 */
+		Assert.assertEquals(1, select(lodNode(LodNode.ESelection.DISTANCE, 10, 20), camera, 10.5f));
+	}
+
+	@Test
+	public void test_hysteresis()
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		LodNode node = lodNode(LodNode.ESelection.DISTANCE, 10, 20);
+
+		Assert.assertEquals(0, select(node, camera, 9));
+		Assert.assertEquals(0, select(node, camera, 10.5f));
+		Assert.assertEquals(1, select(node, camera, 11.5f));
+		Assert.assertEquals(1, select(node, camera, 9.5f));
+		Assert.assertEquals(0, select(node, camera, 9));
+	}
+
+	@Test
+	public void test_projectedSize()
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		LodNode node = lodNode(LodNode.ESelection.PROJECTED_SIZE, 0.5f, 0.1f);
+
+		/*
+		 * The bounds have a radius of sqrt(3), which at 60 degrees covers 3 / distance of the view
+		 */
+		node.getTransformation().setPosition(0, 0, -10);
+		Assert.assertEquals(0.15f, node.getProjectedSize(camera), 1e-5f);
+
+		Assert.assertEquals(0, select(node, camera, 4));
+		Assert.assertEquals(1, select(node, camera, 20));
+		Assert.assertEquals(2, select(node, camera, 100));
+		Assert.assertEquals(0, select(node, camera, 1));
+
+		/*
+		 * Scaling the node scales its projected size
+		 */
+		node.getTransformation().setPosition(0, 0, -10);
+		node.getTransformation().setScale(2, 2, 2);
+		Assert.assertEquals(0.3f, node.getProjectedSize(camera), 1e-5f);
+	}
+
+	@Test
+	public void test_fade() throws Exception
+	{
+		PerspectiveCamera camera = new PerspectiveCamera("camera");
+		LodNode node = lodNode(LodNode.ESelection.DISTANCE, 10);
+		node.fadeDuration = 1;
+
+		select(node, camera, 5);
+		Assert.assertEquals(-1, node.getFadingLevel());
+
+		select(node, camera, 15);
+		Assert.assertEquals(0, node.getFadingLevel());
+		Assert.assertEquals(0, node.getFade(), 0);
+
+		node.update(0.5f);
+		Assert.assertEquals(0.5f, node.getFade(), 1e-5f);
+		node.update(0.6f);
+		Assert.assertEquals(-1, node.getFadingLevel());
+		Assert.assertEquals(1, node.getFade(), 0);
+	}
+
+	@Test
+	public void test_upload() throws Exception
+	{
+		LodNode node = new LodNode("lod", null, null);
+		Level fine = new Level("fine", false);
+		Level medium = new Level("medium", false);
+		Level coarse = new Level("coarse", false);
+		node.addLevel(fine, 0.5f);
+		node.addLevel(medium, 0.1f);
+		node.addLevel(coarse, 0);
+
+		/*
+		 * The coarsest level is uploaded at once, the others are queued coarse to fine
+		 */
+		int queued = OpenGLManager.getInstance().getUploadQueueSize();
+		node.upload(null);
+		Assert.assertTrue(coarse.isReady());
+		Assert.assertFalse(fine.isReady());
+		Assert.assertEquals(queued + 2, OpenGLManager.getInstance().getUploadQueueSize());
+		Assert.assertSame(coarse, node.getDrawable());
+	}
+}